@@ -1,10 +1,11 @@
 import request from '@/utils/request';
 
-// 获取所有用户列表
-export function getAllUsers() {
+// 分页获取用户列表（params: cursor, limit）
+export function getAllUsers(params = {}) {
   return request({
     url: '/admin/users',
-    method: 'get'
+    method: 'get',
+    params
   });
 }
 
@@ -25,11 +26,12 @@ export function banUser(userId, ban) {
   });
 }
 
-// 获取所有文件列表
-export function getAllFiles() {
+// 分页获取文件列表（params: cursor, limit）
+export function getAllFiles(params = {}) {
   return request({
     url: '/admin/files',
-    method: 'get'
+    method: 'get',
+    params
   });
 }
 
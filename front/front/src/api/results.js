@@ -0,0 +1,28 @@
+import request from '@/utils/request';
+
+/**
+ * 跨任务结果查询
+ * @param {Object} params - { q, scope: 'task' | 'region' | 'gene', limit }
+ * @returns {Promise} - { total, hits, ready, tookMs }
+ */
+export function searchResults(params) {
+  return request({
+    url: '/results/search',
+    method: 'get',
+    params
+  });
+}
+
+/**
+ * 下载样本 x ARG 分类丰度矩阵
+ * @param {Object} params - { taskIds: '1,2,3'（为空时取全部已完成的 ARG 任务）, value: 'count' | 'meanProb' | 'fraction', format: 'tsv' | 'json' }
+ * @returns {Promise} - Blob
+ */
+export function downloadArgMatrix(params) {
+  return request({
+    url: '/results/arg-matrix',
+    method: 'get',
+    params,
+    responseType: 'blob'
+  });
+}
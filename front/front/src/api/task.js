@@ -25,12 +25,13 @@ export function getTaskResult(taskId) {
   });
 }
 
-// 获取用户的所有任务
-export function getUserTasks(keyword) {
+// 获取用户的任务列表（键集分页，返回 list / nextCursor / hasMore）
+// params: { keyword, status, type, cursor, limit, fields }
+export function getUserTasks(params = {}) {
   return request({
     url: '/analysis/list',
     method: 'get',
-    params: keyword ? { keyword } : {}
+    params
   });
 }
 
@@ -25,6 +25,48 @@ export function getProphageDetail(taskId, regionId) {
   });
 }
 
+/**
+ * 获取原噬菌体序列片段（纯文本）
+ * @param {number} taskId - 任务ID
+ * @param {number} regionId - 区域ID
+ * @param {Object} params - { start, end, reverseComplement }，坐标从 1 开始且包含两端
+ * @returns {Promise} - 序列字符串
+ */
+export function getProphageSequence(taskId, regionId, params = {}) {
+  return request({
+    url: `/visualization/prophage/${taskId}/${regionId}/sequence`,
+    method: 'get',
+    params,
+    responseType: 'text'
+  });
+}
+
+/**
+ * 查询 ARG 预测结果（服务端过滤、排序、分页）
+ * @param {number} taskId - 任务ID
+ * @param {Object} params - { isArg, argClass, minProb, minPredProb, minClassProb, sort, desc, topK, cursor, limit }
+ * @returns {Promise} - { list, nextCursor, hasMore, total }（total 只在第一页返回）
+ */
+export function queryArgPredictions(taskId, params = {}) {
+  return request({
+    url: `/visualization/arg/${taskId}/predictions`,
+    method: 'get',
+    params
+  });
+}
+
+/**
+ * 获取 ARG 预测汇总
+ * @param {number} taskId - 任务ID
+ * @returns {Promise} - { total, positiveCount, negativeCount, classCounts }
+ */
+export function getArgSummary(taskId) {
+  return request({
+    url: `/visualization/arg/${taskId}/summary`,
+    method: 'get'
+  });
+}
+
 /**
  * 获取统计数据
  * @param {number} taskId - 任务ID
@@ -37,6 +79,104 @@ export function getStatistics(taskId) {
   });
 }
 
+/**
+ * 流式导出可视化数据
+ * @param {number} taskId - 任务ID
+ * @param {Object} params - { format: 'ndjson' | 'jsonl' | 'tsv', section, gzip }
+ * @returns {Promise} - 导出文件（Blob）
+ */
+export function exportVisualizationStream(taskId, params = {}) {
+  return request({
+    url: `/visualization/export/${taskId}/stream`,
+    method: 'get',
+    params,
+    responseType: 'blob'
+  });
+}
+
+/**
+ * 查找相似原噬菌体（当前用户全部任务）
+ * @param {number} taskId - 任务ID
+ * @param {number} regionId - 区域ID
+ * @param {Object} params - { minAni, limit }
+ * @returns {Promise} - { query, similar, candidateCount, indexedCount }
+ */
+export function getSimilarProphages(taskId, regionId, params = {}) {
+  return request({
+    url: `/visualization/prophage/${taskId}/${regionId}/similar`,
+    method: 'get',
+    params
+  });
+}
+
+/**
+ * 区间重叠查询
+ * @param {number} taskId - 任务ID（genomad）
+ * @param {Object} params - { seq, start, end, argTaskId, limit }
+ * @returns {Promise} - { regions, genes, geneTotal, argHits }
+ */
+export function queryIntervals(taskId, params) {
+  return request({
+    url: `/visualization/intervals/${taskId}`,
+    method: 'get',
+    params
+  });
+}
+
+/**
+ * 最近邻查询
+ * @param {number} taskId - 任务ID（genomad）
+ * @param {Object} params - { seq, position, argTaskId }
+ * @returns {Promise} - { region, gene, argHit }
+ */
+export function nearestIntervals(taskId, params) {
+  return request({
+    url: `/visualization/intervals/${taskId}/nearest`,
+    method: 'get',
+    params
+  });
+}
+
+/**
+ * 原噬菌体与 ARG 共定位
+ * @param {number} taskId - 任务ID（genomad）
+ * @param {number} [argTaskId] - 关联的 ARG 任务ID
+ * @returns {Promise} - { prophages, hits, onProphageCount, ... }
+ */
+export function getColocalization(taskId, argTaskId) {
+  return request({
+    url: `/visualization/colocalization/${taskId}`,
+    method: 'get',
+    params: argTaskId ? { argTaskId } : {}
+  });
+}
+
+/**
+ * 获取基因组轨道瓦片的级别信息
+ * @param {number} taskId - 任务ID
+ * @returns {Promise} - 基因组长度、各级箱宽与瓦片数、序列偏移
+ */
+export function getTrackTileMeta(taskId) {
+  return request({
+    url: `/visualization/tiles/${taskId}`,
+    method: 'get'
+  });
+}
+
+/**
+ * 获取一张基因组轨道瓦片
+ * @param {number} taskId - 任务ID
+ * @param {number} level - 级别（0 最粗）
+ * @param {number} index - 瓦片编号
+ * @returns {Promise} - 各箱的覆盖、基因密度、链方向和 ARG 命中
+ */
+export function getTrackTile(taskId, level, index) {
+  return request({
+    url: `/visualization/tiles/${taskId}/${level}/${index}`,
+    method: 'get'
+  });
+}
+
 /**
  * 导出可视化数据
  * @param {number} taskId - 任务ID
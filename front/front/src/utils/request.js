@@ -83,6 +83,12 @@ request.interceptors.response.use(
   (response) => {
     const res = response.data;
     
+    // 文件下载、序列等非 JSON 响应直接返回原始数据
+    const responseType = response.config.responseType;
+    if (responseType === 'blob' || responseType === 'text') {
+      return res;
+    }
+    
     // 如果返回的状态码不是 0，说明接口请求失败
     if (res.code !== 0) {
       // 401 特殊处理：如果在登录页，不显示"登录已过期"
@@ -0,0 +1,115 @@
+package com.sy.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.sy.columnar.GeneTable;
+import com.sy.vo.Result;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应编码基准：JSON 对比 CBOR（序列化、反序列化耗时，响应大小在 Setup 时打印）
+ * 默认使用生成的基因表；指定 genomad 输出可用真实数据：
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="ResponseEncodingBenchmark -p genesFile=/path/to/xxx_provirus_genes.tsv -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+
+    // genomad 的 provirus_genes.tsv，为空时生成
+    @Param({""})
+    public String genesFile;
+
+    @Param({"20000"})
+    public int rows;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+    private Result<Map<String, Object>> payload;
+    private byte[] jsonBytes;
+    private byte[] cborBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        GeneTable table;
+        if (genesFile.isEmpty()) {
+            Path file = Files.createTempFile("encoding-bench", ".tsv");
+            try {
+                writeGenes(file);
+                table = GeneTable.load(file);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        } else {
+            table = GeneTable.load(Paths.get(genesFile));
+        }
+
+        // 与可视化接口的基因列表结构一致
+        List<Map<String, Object>> genes = new ArrayList<>(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            genes.add(table.row(i));
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("genes", genes);
+        data.put("geneCount", genes.size());
+        payload = Result.success(data);
+
+        jsonBytes = json.writeValueAsBytes(payload);
+        cborBytes = cbor.writeValueAsBytes(payload);
+        System.out.printf("%n基因 %d 个: JSON %d 字节, CBOR %d 字节 (%.1f%%)%n", genes.size(),
+                jsonBytes.length, cborBytes.length, 100.0 * cborBytes.length / jsonBytes.length);
+    }
+
+    private void writeGenes(Path file) throws IOException {
+        Random random = new Random(42);
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("gene\tstart\tend\tlength\tstrand\tgc_content\tgenetic_code\trbs_motif\tmarker\tevalue\t"
+                    + "bitscore\tuscg\tplasmid_hallmark\tvirus_hallmark\ttaxid\ttaxname\tannotation_conjscan\t"
+                    + "annotation_amr\tannotation_accessions\tannotation_description\n");
+            for (int i = 0; i < rows; i++) {
+                int start = random.nextInt(5_000_000);
+                int length = 300 + random.nextInt(2000);
+                out.write("contig_" + (i / 400) + "|provirus_" + (i / 40) + "_" + (i / 40 + 30000) + "_" + (i % 40 + 1)
+                        + "\t" + start + "\t" + (start + length - 1) + "\t" + length + "\t" + (random.nextBoolean() ? 1 : -1)
+                        + "\t" + String.format("%.3f", random.nextDouble()) + "\t11\tAGGAGG\t"
+                        + (random.nextInt(4) == 0 ? "VV0012" : "NA") + "\t" + String.format("%.3e", random.nextDouble())
+                        + "\t" + String.format("%.1f", random.nextDouble() * 300) + "\t0\t0\t" + random.nextInt(2)
+                        + "\t" + (10239 + random.nextInt(5)) + "\tViruses;Duplodnaviria;Heunggongvirae;Uroviricota;Caudoviricetes"
+                        + "\tNA\tNA\tPF0" + random.nextInt(1000) + "\tPhage terminase large subunit\n");
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws IOException {
+        return json.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] serializeCbor() throws IOException {
+        return cbor.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public JsonNode parseJson() throws IOException {
+        return json.readTree(jsonBytes);
+    }
+
+    @Benchmark
+    public JsonNode parseCbor() throws IOException {
+        return cbor.readTree(cborBytes);
+    }
+}
@@ -0,0 +1,66 @@
+package com.sy.tsv;
+
+import com.sy.columnar.ArgTable;
+import com.sy.columnar.GeneTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 顺序解析对比分段并行解析（ParallelTsvParser.PARALLEL_THRESHOLD 的依据）
+ * chunks=1 为顺序解析；在目标机器上比较各文件大小下两者的耗时，取并行开始明显更快的大小作为阈值：
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="ParallelTsvBenchmark -p chunks=1,4"
+ * 每次运行开始时打印各文件大小。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelTsvBenchmark {
+
+    // 基因行约 200 字节、预测行约 80 字节
+    @Param({"20000", "80000", "320000"})
+    public int rows;
+
+    @Param({"1", "2", "4"})
+    public int chunks;
+
+    private Path dir;
+    private Path genesFile;
+    private Path argFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("parallel-tsv-bench");
+        genesFile = dir.resolve("provirus_genes.tsv");
+        argFile = dir.resolve("all_predictions.tsv");
+        Random random = new Random(42);
+        TsvParseBenchmark.writeGenes(genesFile, rows, random);
+        TsvParseBenchmark.writeArgs(argFile, rows, random);
+        System.out.printf("%n%s: %d KB, %s: %d KB, cpus: %d%n", genesFile.getFileName(), Files.size(genesFile) >> 10,
+                argFile.getFileName(), Files.size(argFile) >> 10, Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(genesFile);
+        Files.deleteIfExists(argFile);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public GeneTable genesLoad() throws IOException {
+        return GeneTable.load(genesFile, chunks);
+    }
+
+    @Benchmark
+    public ArgTable argLoad() throws IOException {
+        return ArgTable.load(argFile, chunks);
+    }
+}
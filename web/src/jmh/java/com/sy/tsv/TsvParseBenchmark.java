@@ -0,0 +1,203 @@
+package com.sy.tsv;
+
+import com.sy.columnar.ArgTable;
+import com.sy.columnar.GeneTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TSV 解析基准：BufferedReader + split（原实现）对比 TsvReader
+ * 分配速率用 gc profiler 查看：
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="TsvParseBenchmark -prof gc"
+ * 关注 gc.alloc.rate.norm（每次解析整个文件分配的字节数）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TsvParseBenchmark {
+
+    private static final String[] ARG_CLASSES = {"beta-lactam", "multidrug", "aminoglycoside", "tetracycline",
+            "glycopeptide", "MLS", "bacitracin", "fosfomycin"};
+
+    @Param({"100000"})
+    public int rows;
+
+    private Path dir;
+    private Path genesFile;
+    private Path argFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("tsv-bench");
+        genesFile = dir.resolve("provirus_genes.tsv");
+        argFile = dir.resolve("all_predictions.tsv");
+        Random random = new Random(42);
+
+        writeGenes(genesFile, rows, random);
+        writeArgs(argFile, rows, random);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(genesFile);
+        Files.deleteIfExists(argFile);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public void genesSplit(Blackhole bh) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(genesFile)) {
+            String line;
+            boolean headerSeen = false;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (!headerSeen) {
+                    headerSeen = true;
+                    continue;
+                }
+                bh.consume(legacyGeneRow(line.split("\t")));
+            }
+        }
+    }
+
+    @Benchmark
+    public void genesTsvReader(Blackhole bh) throws IOException {
+        try (TsvReader reader = TsvReader.open(genesFile)) {
+            GeneTable.Columns columns = GeneTable.Columns.of(reader.header());
+            while (reader.next()) {
+                bh.consume(GeneTable.parseRow(reader.row(), columns));
+            }
+        }
+    }
+
+    @Benchmark
+    public void argSplit(Blackhole bh) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(argFile)) {
+            String line;
+            boolean headerSeen = false;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (!headerSeen) {
+                    headerSeen = true;
+                    continue;
+                }
+                String[] values = line.split("\t");
+                bh.consume(values[0]);
+                bh.consume("True".equalsIgnoreCase(values[1]));
+                bh.consume(Double.parseDouble(values[2]));
+                bh.consume(values[3]);
+                bh.consume(Double.parseDouble(values[4]));
+                bh.consume(Double.parseDouble(values[5]));
+            }
+        }
+    }
+
+    @Benchmark
+    public void argTsvReader(Blackhole bh) throws IOException {
+        try (TsvReader reader = TsvReader.open(argFile)) {
+            ArgTable.Columns c = ArgTable.Columns.of(reader.header());
+            while (reader.next()) {
+                TsvRow row = reader.row();
+                bh.consume(row.getString(c.id));
+                bh.consume(row.equalsIgnoreCase(c.isArg, "True"));
+                bh.consume(row.getDouble(c.predProb));
+                bh.consume(row.getString(c.argClass));
+                bh.consume(row.getDouble(c.classProb));
+                bh.consume(row.getDouble(c.prob));
+            }
+        }
+    }
+
+    @Benchmark
+    public ArgTable argTableLoad() throws IOException {
+        return ArgTable.load(argFile);
+    }
+
+    /**
+     * 生成 provirus_genes.tsv 格式的测试文件
+     */
+    static void writeGenes(Path file, int rows, Random random) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("gene\tstart\tend\tlength\tstrand\tgc_content\tgenetic_code\trbs_motif\tmarker\tevalue\t"
+                    + "bitscore\tuscg\tplasmid_hallmark\tvirus_hallmark\ttaxid\ttaxname\tannotation_conjscan\t"
+                    + "annotation_amr\tannotation_accessions\tannotation_description\n");
+            for (int i = 0; i < rows; i++) {
+                int start = random.nextInt(5_000_000);
+                int length = 300 + random.nextInt(2000);
+                out.write("contig_" + (i / 400) + "|provirus_" + (i / 40) + "_" + (i / 40 + 30000) + "_" + (i % 40 + 1)
+                        + "\t" + start + "\t" + (start + length - 1) + "\t" + length + "\t" + (random.nextBoolean() ? 1 : -1)
+                        + "\t" + String.format("%.3f", random.nextDouble()) + "\t11\tAGGAGG\t"
+                        + (random.nextInt(4) == 0 ? "VV0012" : "NA") + "\t" + String.format("%.3e", random.nextDouble())
+                        + "\t" + String.format("%.1f", random.nextDouble() * 300) + "\t0\t0\t" + random.nextInt(2)
+                        + "\t" + (10239 + random.nextInt(5)) + "\tViruses;Duplodnaviria;Heunggongvirae;Uroviricota;Caudoviricetes"
+                        + "\tNA\tNA\tPF0" + random.nextInt(1000) + "\tPhage terminase large subunit\n");
+            }
+        }
+    }
+
+    /**
+     * 生成 all_predictions.tsv 格式的测试文件
+     */
+    static void writeArgs(Path file, int rows, Random random) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file)) {
+            out.write("id\tis_arg\tpred_prob\targ_class\tclass_prob\tprob\n");
+            for (int i = 0; i < rows; i++) {
+                double pred = random.nextDouble();
+                out.write("seq_" + i + "\t" + (pred > 0.5 ? "True" : "False") + "\t" + pred + "\t"
+                        + ARG_CLASSES[random.nextInt(ARG_CLASSES.length)] + "\t" + random.nextDouble() + "\t"
+                        + random.nextDouble() + "\n");
+            }
+        }
+    }
+
+    /**
+     * 原 VisualizationServiceImpl.parseGeneRow 的实现（固定列号 + 正则）
+     */
+    private static Map<String, Object> legacyGeneRow(String[] values) {
+        Map<String, Object> gene = new HashMap<>();
+        gene.put("gene", values[0]);
+        gene.put("start", Integer.parseInt(values[1]));
+        gene.put("end", Integer.parseInt(values[2]));
+        gene.put("length", Integer.parseInt(values[3]));
+        gene.put("strand", Integer.parseInt(values[4]));
+        gene.put("gcContent", values.length > 5 ? values[5] : "");
+        gene.put("geneticCode", values.length > 6 ? values[6] : "");
+        gene.put("rbsMotif", values.length > 7 ? values[7] : "");
+        gene.put("marker", values.length > 8 ? values[8] : "");
+        gene.put("evalue", values.length > 9 ? values[9] : "");
+        gene.put("bitscore", values.length > 10 ? values[10] : "");
+        gene.put("uscg", values.length > 11 ? values[11] : "");
+        gene.put("taxid", values.length > 12 ? values[12] : "");
+        String taxname = "";
+        for (int i = 13; i < Math.min(values.length, 18); i++) {
+            if (values[i] != null && !values[i].equals("NA") &&
+                !values[i].isEmpty() && !values[i].matches("\\d+")) {
+                taxname = values[i];
+                break;
+            }
+        }
+        gene.put("taxname", taxname);
+        String annotationAccessions = values[values.length - 2];
+        gene.put("annotationAccessions", annotationAccessions.equals("NA") ? "" : annotationAccessions);
+        String annotationDescription = values[values.length - 1];
+        gene.put("annotationDescription", annotationDescription.equals("NA") ? "" : annotationDescription);
+        return gene;
+    }
+}
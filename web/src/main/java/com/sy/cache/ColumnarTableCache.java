@@ -0,0 +1,210 @@
+package com.sy.cache;
+
+import com.sy.columnar.ArgTable;
+import com.sy.columnar.GeneTable;
+import com.sy.event.FileDeletedEvent;
+import com.sy.event.TaskDeletedEvent;
+import com.sy.index.ProphageIntervals;
+import com.sy.pojo.AnalysisTask;
+import com.sy.tiles.TrackTiles;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * 列式表缓存（ARG 预测表、基因表、区间索引、ARG 命中、基因组轨道瓦片）
+ * 首次访问时读取任务目录下的列式文件（不存在或失效时由 TSV 构建），之后的请求共用同一张只读表。
+ * 按总行数做 LRU 淘汰；源文件修改时间变化时重新加载。
+ */
+@Slf4j
+@Component
+public class ColumnarTableCache {
+
+    /**
+     * 列式文件目录（相对任务输出目录）
+     */
+    public static final String INDEX_DIR = ".index";
+
+    // ARG 命中的缓存键为 "<任务ID>:arg-hits:<关联 ARG 任务ID 或 null>"
+    private static final String ARG_HITS = "arg-hits:";
+
+    @FunctionalInterface
+    public interface TableLoader<T> {
+        T load() throws IOException;
+    }
+
+    private final long maxRows;
+
+    private final LinkedHashMap<String, Entry> tables = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalRows = 0;
+
+    public ColumnarTableCache(@Value("${visualization.arg-table.max-rows:5000000}") long maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * 获取任务的 ARG 预测表
+     * @param taskId 任务ID
+     * @param taskDir 任务输出目录
+     * @param file 预测结果 TSV
+     */
+    public ArgTable getArgTable(Long taskId, Path taskDir, Path file) throws IOException {
+        return get(taskId, "arg", file,
+                () -> ArgTable.loadOrBuild(file, taskDir.resolve(INDEX_DIR).resolve("arg.col")),
+                ArgTable::size);
+    }
+
+    /**
+     * 获取任务的原噬菌体基因表
+     * @param taskId 任务ID
+     * @param taskDir 任务输出目录
+     * @param file provirus_genes.tsv
+     */
+    public GeneTable getGeneTable(Long taskId, Path taskDir, Path file) throws IOException {
+        return get(taskId, "genes", file,
+                () -> GeneTable.loadOrBuild(file, taskDir.resolve(INDEX_DIR).resolve("genes.col")),
+                GeneTable::size);
+    }
+
+    /**
+     * 获取任务的全基因组基因表（annotate 目录下的 genes.tsv）
+     * @param taskId 任务ID
+     * @param taskDir 任务输出目录
+     * @param file annotate/genes.tsv
+     */
+    public GeneTable getContigGeneTable(Long taskId, Path taskDir, Path file) throws IOException {
+        return get(taskId, "contig-genes", file,
+                () -> GeneTable.loadOrBuild(file, taskDir.resolve(INDEX_DIR).resolve("contig_genes.col")),
+                GeneTable::size);
+    }
+
+    /**
+     * 获取任务的区间索引（按区域数 + 基因数计入容量）
+     * @param taskId 任务ID
+     * @param provirusFile provirus.tsv（修改时间变化时重新构建）
+     * @param loader 构建区间索引
+     */
+    public ProphageIntervals getProphageIntervals(Long taskId, Path provirusFile,
+                                                  TableLoader<ProphageIntervals> loader) throws IOException {
+        return get(taskId, "intervals", provirusFile, loader, ProphageIntervals::size);
+    }
+
+    /**
+     * 获取任务的基因组轨道瓦片（按总箱数计入容量）
+     * @param taskId 任务ID
+     * @param provirusFile provirus.tsv（修改时间变化时重新加载）
+     * @param loader 读取或构建瓦片
+     */
+    public TrackTiles getTrackTiles(Long taskId, Path provirusFile, TableLoader<TrackTiles> loader) throws IOException {
+        return get(taskId, "tiles", provirusFile, loader, TrackTiles::totalBins);
+    }
+
+    /**
+     * 获取原噬菌体任务区间索引上的 ARG 命中（按命中数计入容量）
+     * 区间查询、最近邻和共定位共用，provirus.tsv 或关联的预测结果变化时重新构建
+     * @param taskId 原噬菌体任务ID
+     * @param provirusFile provirus.tsv
+     * @param argTaskId 关联的 ARG 任务ID（可为 null，此时只含 geNomad 的 AMR 注释）
+     * @param argFile 关联任务的预测结果 TSV（argTaskId 为 null 时为 null）
+     * @param loader 构建 ARG 命中
+     */
+    public ProphageIntervals.ArgHits getArgHits(Long taskId, Path provirusFile, Long argTaskId, Path argFile,
+                                                TableLoader<ProphageIntervals.ArgHits> loader) throws IOException {
+        long modified = Files.getLastModifiedTime(provirusFile).toMillis();
+        if (argFile != null) {
+            modified = 31 * modified + Files.getLastModifiedTime(argFile).toMillis();
+        }
+        return get(taskId + ":" + ARG_HITS + argTaskId, taskId, ARG_HITS + argTaskId, modified, loader,
+                ProphageIntervals.ArgHits::size);
+    }
+
+    private <T> T get(Long taskId, String kind, Path file, TableLoader<T> loader,
+                      ToIntFunction<T> sizer) throws IOException {
+        return get(taskId + ":" + kind, taskId, kind, Files.getLastModifiedTime(file).toMillis(), loader, sizer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(String key, Long taskId, String kind, long modified, TableLoader<T> loader,
+                      ToIntFunction<T> sizer) throws IOException {
+        synchronized (this) {
+            Entry entry = tables.get(key);
+            if (entry != null && entry.modified == modified) {
+                return (T) entry.table;
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        T table = loader.load();
+        int rows = sizer.applyAsInt(table);
+        log.info("加载任务 {} 的列式表 {}: {} 行, 耗时 {} ms", taskId, kind, rows, System.currentTimeMillis() - start);
+
+        synchronized (this) {
+            Entry old = tables.remove(key);
+            if (old != null) {
+                totalRows -= old.rows;
+            }
+            if (rows <= maxRows) {
+                tables.put(key, new Entry(table, rows, modified));
+                totalRows += rows;
+                Iterator<Map.Entry<String, Entry>> it = tables.entrySet().iterator();
+                while (totalRows > maxRows && it.hasNext()) {
+                    Map.Entry<String, Entry> eldest = it.next();
+                    if (eldest.getKey().equals(key)) {
+                        continue;
+                    }
+                    totalRows -= eldest.getValue().rows;
+                    it.remove();
+                }
+            }
+        }
+        return table;
+    }
+
+    public synchronized void evictTask(Long taskId) {
+        String prefix = taskId + ":";
+        // 作为关联 ARG 任务时的命中缓存
+        String linked = ":" + ARG_HITS + taskId;
+        Iterator<Map.Entry<String, Entry>> it = tables.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Entry> entry = it.next();
+            if (entry.getKey().startsWith(prefix) || entry.getKey().endsWith(linked)) {
+                totalRows -= entry.getValue().rows;
+                it.remove();
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskDeleted(TaskDeletedEvent event) {
+        evictTask(event.getTask().getTaskId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFileDeleted(FileDeletedEvent event) {
+        for (AnalysisTask task : event.getTasks()) {
+            evictTask(task.getTaskId());
+        }
+    }
+
+    private static class Entry {
+        private final Object table;
+        private final long rows;
+        private final long modified;
+
+        Entry(Object table, long rows, long modified) {
+            this.table = table;
+            this.rows = rows;
+            this.modified = modified;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.sy.cache;
+
+import com.sy.event.FileDeletedEvent;
+import com.sy.event.TaskDeletedEvent;
+import com.sy.pojo.AnalysisTask;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * 解析结果缓存
+ * 已完成任务的输出文件不会再变化，解析后的行数据按 (任务ID, 数据类型, 文件修改时间) 缓存，按条目数做 LRU 淘汰。
+ * 缓存的列表和行都是只读的，调用方需要修改时自行复制。
+ */
+@Component
+public class ParsedResultCache {
+
+    /**
+     * 行数据加载器（缓存未命中时读取并解析文件）
+     */
+    @FunctionalInterface
+    public interface RowsLoader {
+        List<Map<String, Object>> load(Path file) throws IOException;
+    }
+
+    private final int maxEntries;
+
+    private final LinkedHashMap<String, List<Map<String, Object>>> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public ParsedResultCache(MeterRegistry meterRegistry,
+                             @Value("${visualization.cache.max-entries:256}") int maxEntries) {
+        this.maxEntries = maxEntries;
+
+        this.hits = Counter.builder("visualization.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("visualization.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("visualization.cache.hit.ratio", this, ParsedResultCache::hitRatio).register(meterRegistry);
+        Gauge.builder("visualization.cache.entries", this, ParsedResultCache::size).register(meterRegistry);
+    }
+
+    /**
+     * 获取解析后的行数据
+     * @param taskId 任务ID
+     * @param kind 数据类型（如 regions）
+     * @param file 源文件
+     * @param loader 未命中时的解析方法
+     * @return 只读的行数据
+     */
+    public List<Map<String, Object>> getRows(Long taskId, String kind, Path file, RowsLoader loader) throws IOException {
+        String prefix = taskId + ":" + kind + ":" + file.toAbsolutePath() + ":";
+        String key = prefix + Files.getLastModifiedTime(file).toMillis();
+
+        synchronized (this) {
+            List<Map<String, Object>> rows = entries.get(key);
+            if (rows != null) {
+                hits.increment();
+                return rows;
+            }
+        }
+
+        misses.increment();
+        List<Map<String, Object>> rows = readOnly(loader.load(file));
+        synchronized (this) {
+            // 同一文件的旧版本（修改时间不同）直接丢弃
+            entries.keySet().removeIf(k -> k.startsWith(prefix));
+            entries.put(key, rows);
+            Iterator<String> it = entries.keySet().iterator();
+            while (entries.size() > maxEntries && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 清除某个任务的全部缓存（任务删除时调用）
+     */
+    public synchronized void evictTask(Long taskId) {
+        String prefix = taskId + ":";
+        entries.keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskDeleted(TaskDeletedEvent event) {
+        evictTask(event.getTask().getTaskId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFileDeleted(FileDeletedEvent event) {
+        for (AnalysisTask task : event.getTasks()) {
+            evictTask(task.getTaskId());
+        }
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private double hitRatio() {
+        double hit = hits.count();
+        double total = hit + misses.count();
+        return total == 0 ? 0.0 : hit / total;
+    }
+
+    private static List<Map<String, Object>> readOnly(List<Map<String, Object>> rows) {
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            result.add(Collections.unmodifiableMap(row));
+        }
+        return Collections.unmodifiableList(result);
+    }
+}
@@ -0,0 +1,37 @@
+package com.sy.columnar;
+
+import lombok.Data;
+
+/**
+ * ARG 预测查询条件
+ */
+@Data
+public class ArgQuery {
+
+    // 是否为抗性基因（为空时不过滤）
+    private Boolean isArg;
+
+    // ARG 分类（大小写不敏感的精确匹配）
+    private String argClass;
+
+    // 关键词：序列ID或 ARG 分类包含该词（大小写不敏感）
+    private String keyword;
+
+    // 概率下限（包含）
+    private Double minProb;
+    private Double minPredProb;
+    private Double minClassProb;
+
+    // 排序字段：prob、predProb、classProb、index
+    private String sort;
+
+    // 是否降序
+    private boolean desc = true;
+
+    // 只取排序后的前 K 条
+    private Integer topK;
+
+    // 分页游标与每页条数
+    private String cursor;
+    private Integer limit;
+}
@@ -0,0 +1,639 @@
+package com.sy.columnar;
+
+import com.sy.tsv.ParallelTsvParser;
+import com.sy.tsv.TsvHeader;
+import com.sy.tsv.TsvRow;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * ARG 预测列式表
+ * 每一列存为基本类型数组（概率为 double[]，缺失值用 NaN 表示），ARG 分类做字典编码，
+ * 查询时直接在数组上过滤，不为每行创建 Map。各排序字段的行顺序在首次使用时计算一次并复用。
+ * 任务完成时写入 task_X/.index/arg.col，之后直接读取二进制列，无需重新解析 TSV。
+ * 表只读，可被多个请求并发访问。
+ */
+public class ArgTable {
+
+    public static final String SORT_INDEX = "index";
+    public static final String SORT_PROB = "prob";
+    public static final String SORT_PRED_PROB = "predProb";
+    public static final String SORT_CLASS_PROB = "classProb";
+
+    private static final String KIND = "arg";
+
+    private final int size;
+    private final String[] ids;
+    private final boolean[] isArg;
+    private final double[] predProb;
+    private final int[] argClass;
+    private final double[] classProb;
+    private final double[] prob;
+    // 字典：编码 -> 分类名（编码 0 为空串）
+    private final String[] classes;
+
+    // 排序字段 -> 降序行顺序（缺失值在最后）
+    private final Map<String, SortOrder> descOrders = new HashMap<>();
+
+    private ArgTable(int size, String[] ids, boolean[] isArg, double[] predProb, int[] argClass,
+                     double[] classProb, double[] prob, String[] classes) {
+        this.size = size;
+        this.ids = ids;
+        this.isArg = isArg;
+        this.predProb = predProb;
+        this.argClass = argClass;
+        this.classProb = classProb;
+        this.prob = prob;
+        this.classes = classes;
+    }
+
+    /**
+     * 读取列式文件，不存在或已失效时解析 TSV 并写入列式文件
+     * @param file 预测结果 TSV
+     * @param columnFile 列式文件
+     */
+    public static ArgTable loadOrBuild(Path file, Path columnFile) throws IOException {
+        ArgTable table = ColumnFile.read(columnFile, KIND, file, ArgTable::readColumns);
+        if (table == null) {
+            table = load(file);
+            table.write(columnFile, file);
+        }
+        return table;
+    }
+
+    /**
+     * 写入列式文件
+     */
+    public void write(Path columnFile, Path source) throws IOException {
+        ColumnFile.write(columnFile, KIND, source, out -> {
+            out.writeInt(size);
+            out.writeInt(classes.length);
+            for (String cls : classes) {
+                ColumnFile.writeString(out, cls);
+            }
+            for (int i = 0; i < size; i++) {
+                ColumnFile.writeString(out, ids[i]);
+            }
+            ColumnFile.writeBooleans(out, isArg, size);
+            ColumnFile.writeDoubles(out, predProb, size);
+            ColumnFile.writeInts(out, argClass, size);
+            ColumnFile.writeDoubles(out, classProb, size);
+            ColumnFile.writeDoubles(out, prob, size);
+        });
+    }
+
+    private static ArgTable readColumns(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        String[] classes = new String[in.readInt()];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = ColumnFile.readString(in);
+        }
+        String[] ids = new String[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = ColumnFile.readString(in);
+        }
+        boolean[] isArg = ColumnFile.readBooleans(in, size);
+        double[] predProb = ColumnFile.readDoubles(in, size);
+        int[] argClass = ColumnFile.readInts(in, size);
+        double[] classProb = ColumnFile.readDoubles(in, size);
+        double[] prob = ColumnFile.readDoubles(in, size);
+        return new ArgTable(size, ids, isArg, predProb, argClass, classProb, prob, classes);
+    }
+
+    /**
+     * 从 TSV 文件读取（列: id, is_arg, pred_prob, arg_class, class_prob, prob，按表头列名定位，缺少列名时按此顺序）
+     * 大文件按行边界分段并行解析后按顺序合并
+     */
+    public static ArgTable load(Path file) throws IOException {
+        return load(file, ParallelTsvParser.chunksFor(file));
+    }
+
+    /**
+     * 按指定段数解析（段数为 1 时顺序解析），结果与顺序解析一致
+     */
+    public static ArgTable load(Path file, int chunks) throws IOException {
+        List<Builder> builders = ParallelTsvParser.parse(file, chunks, reader -> {
+            Builder builder = new Builder();
+            Columns c = Columns.of(reader.header());
+            while (reader.next()) {
+                builder.add(reader.row(), c);
+            }
+            return builder;
+        });
+        return Builder.merge(builders);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String id(int i) {
+        return ids[i];
+    }
+
+    public boolean isArg(int i) {
+        return isArg[i];
+    }
+
+    /**
+     * 概率（prob 列），缺失时为 NaN
+     */
+    public double prob(int i) {
+        return prob[i];
+    }
+
+    /**
+     * 预测概率（pred_prob 列），缺失时为 NaN
+     */
+    public double predProb(int i) {
+        return predProb[i];
+    }
+
+    public String argClass(int i) {
+        return classes[argClass[i]];
+    }
+
+    /**
+     * 分类概率（class_prob 列），缺失时为 NaN
+     */
+    public double classProb(int i) {
+        return classProb[i];
+    }
+
+    /**
+     * 取单行（字段与可视化接口返回的 argResults 一致，index 从 1 开始）
+     */
+    public Map<String, Object> row(int i) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("index", i + 1);
+        row.put("id", ids[i]);
+        row.put("isArg", isArg[i]);
+        row.put("predProb", Double.isNaN(predProb[i]) ? null : predProb[i]);
+        row.put("argClass", classes[argClass[i]]);
+        row.put("classProb", Double.isNaN(classProb[i]) ? null : classProb[i]);
+        row.put("prob", Double.isNaN(prob[i]) ? null : prob[i]);
+        return row;
+    }
+
+    /**
+     * 全部行（按文件顺序）
+     */
+    public List<Map<String, Object>> rows() {
+        List<Map<String, Object>> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(row(i));
+        }
+        return rows;
+    }
+
+    /**
+     * 统计抗性基因总数和各分类数量（按数量降序）
+     */
+    public Map<String, Object> summary() {
+        int positive = 0;
+        int[] classCounts = new int[classes.length];
+        for (int i = 0; i < size; i++) {
+            if (isArg[i]) {
+                positive++;
+                classCounts[argClass[i]]++;
+            }
+        }
+        List<Map<String, Object>> byClass = new ArrayList<>();
+        for (int code = 1; code < classes.length; code++) {
+            if (classCounts[code] > 0) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("argClass", classes[code]);
+                item.put("count", classCounts[code]);
+                byClass.add(item);
+            }
+        }
+        byClass.sort((a, b) -> Integer.compare((Integer) b.get("count"), (Integer) a.get("count")));
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("total", size);
+        summary.put("positiveCount", positive);
+        summary.put("negativeCount", size - positive);
+        summary.put("classCounts", byClass);
+        return summary;
+    }
+
+    /**
+     * 按分类汇总阳性预测（按分类名排序）
+     * @return 分类名 -> {阳性数, 概率和, 参与求和的概率个数}
+     */
+    public Map<String, double[]> classTotals() {
+        double[][] totals = new double[classes.length][3];
+        for (int i = 0; i < size; i++) {
+            if (isArg[i]) {
+                accumulate(totals[argClass[i]], i);
+            }
+        }
+        Map<String, double[]> byClass = new TreeMap<>();
+        for (int code = 0; code < classes.length; code++) {
+            if (totals[code][0] > 0) {
+                byClass.put(classes[code], totals[code]);
+            }
+        }
+        return byClass;
+    }
+
+    /**
+     * 全部预测（含阴性）的合计：{预测数, 概率和, 参与求和的概率个数}
+     */
+    public double[] totals() {
+        double[] totals = new double[3];
+        for (int i = 0; i < size; i++) {
+            accumulate(totals, i);
+        }
+        return totals;
+    }
+
+    private void accumulate(double[] totals, int i) {
+        totals[0]++;
+        if (!Double.isNaN(prob[i])) {
+            totals[1] += prob[i];
+            totals[2]++;
+        }
+    }
+
+    /**
+     * 按条件过滤、排序后从 position 开始取一页
+     * 只有第一页统计命中总数；之后的页从续传位置开始扫描，已命中行数由游标带回，不再从头扫描
+     * @param query 查询条件
+     * @param position 在排序结果中的起始位置（上一页的续传位置）
+     * @param before position 之前已命中的行数（上一页返回的 nextBefore）
+     * @param limit 每页条数
+     * @return 命中行号、续传位置和命中总数（非第一页时为 -1）
+     */
+    public Page query(ArgQuery query, int position, int before, int limit) {
+        boolean[] classMatch = null;
+        if (query.getArgClass() != null && !query.getArgClass().isEmpty()) {
+            classMatch = matchClasses(query.getArgClass());
+            if (classMatch == null) {
+                return new Page(new int[0], -1, 0, 0);
+            }
+        }
+        Filter filter = new Filter(query, classMatch);
+        String sort = query.getSort() == null || query.getSort().isEmpty() ? SORT_PROB : query.getSort();
+        SortOrder order = SORT_INDEX.equals(sort) ? null : descOrder(sort);
+        boolean desc = query.isDesc();
+        int topK = query.getTopK() != null && query.getTopK() > 0 ? query.getTopK() : Integer.MAX_VALUE;
+
+        // 命中总数与顺序无关，按行号顺序扫描（受 topK 限制）
+        int total = -1;
+        if (position == 0) {
+            total = 0;
+            for (int i = 0; i < size; i++) {
+                if (filter.test(i)) {
+                    total++;
+                }
+            }
+            total = Math.min(total, topK);
+        }
+
+        int remaining = Math.min(limit, topK - before);
+        int[] rows = new int[Math.max(0, remaining)];
+        int count = 0;
+        int p = position;
+        for (; p < size && count < remaining; p++) {
+            int row = rowAt(order, desc, p);
+            if (filter.test(row)) {
+                rows[count++] = row;
+            }
+        }
+        // 续传位置取下一条命中的位置，没有时表示已到末尾
+        int next = -1;
+        if (before + count < topK) {
+            for (; p < size; p++) {
+                if (filter.test(rowAt(order, desc, p))) {
+                    next = p;
+                    break;
+                }
+            }
+        }
+        return new Page(Arrays.copyOf(rows, count), next, before + count, total);
+    }
+
+    /**
+     * 排序结果第 p 个位置对应的行号
+     * 降序直接取缓存顺序；升序时有值部分倒序、缺失值仍在最后
+     */
+    private int rowAt(SortOrder order, boolean desc, int p) {
+        if (order == null) {
+            return desc ? size - 1 - p : p;
+        }
+        if (desc || p >= order.valued) {
+            return order.rows[p];
+        }
+        return order.rows[order.valued - 1 - p];
+    }
+
+    private synchronized SortOrder descOrder(String sort) {
+        SortOrder order = descOrders.get(sort);
+        if (order != null) {
+            return order;
+        }
+        double[] column = column(sort);
+
+        // 有值的行在前、缺失值在后，有值部分按值降序做稳定归并排序
+        int[] rows = new int[size];
+        int valued = 0;
+        for (int i = 0; i < size; i++) {
+            if (!Double.isNaN(column[i])) {
+                rows[valued++] = i;
+            }
+        }
+        int tail = valued;
+        for (int i = 0; i < size; i++) {
+            if (Double.isNaN(column[i])) {
+                rows[tail++] = i;
+            }
+        }
+        mergeSortDesc(rows, new int[valued], 0, valued, column);
+
+        order = new SortOrder(rows, valued);
+        descOrders.put(sort, order);
+        return order;
+    }
+
+    private static void mergeSortDesc(int[] rows, int[] buffer, int from, int to, double[] column) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSortDesc(rows, buffer, from, mid, column);
+        mergeSortDesc(rows, buffer, mid, to, column);
+        if (column[rows[mid - 1]] >= column[rows[mid]]) {
+            return;
+        }
+        System.arraycopy(rows, from, buffer, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && column[buffer[i]] >= column[buffer[j]])) {
+                rows[k] = buffer[i++];
+            } else {
+                rows[k] = buffer[j++];
+            }
+        }
+    }
+
+    private double[] column(String sort) {
+        switch (sort) {
+            case SORT_PROB:
+                return prob;
+            case SORT_PRED_PROB:
+                return predProb;
+            case SORT_CLASS_PROB:
+                return classProb;
+            default:
+                throw new IllegalArgumentException("不支持的排序字段: " + sort);
+        }
+    }
+
+    /**
+     * 与分类名匹配（忽略大小写）的字典编码，没有匹配时返回 null
+     */
+    private boolean[] matchClasses(String name) {
+        boolean[] match = new boolean[classes.length];
+        boolean any = false;
+        for (int code = 0; code < classes.length; code++) {
+            if (classes[code].equalsIgnoreCase(name)) {
+                match[code] = true;
+                any = true;
+            }
+        }
+        return any ? match : null;
+    }
+
+    private static String[] toArray(StringPool pool) {
+        String[] values = new String[pool.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = pool.get(i);
+        }
+        return values;
+    }
+
+    /**
+     * 逐行解析到可增长的列缓冲区，分段解析时每段一个
+     */
+    private static class Builder {
+        private final StringPool classes = new StringPool();
+        private int size = 0;
+        private int capacity = 1024;
+        private String[] ids = new String[capacity];
+        private boolean[] isArg = new boolean[capacity];
+        private double[] predProb = new double[capacity];
+        private int[] argClass = new int[capacity];
+        private double[] classProb = new double[capacity];
+        private double[] prob = new double[capacity];
+
+        void add(TsvRow row, Columns c) {
+            if (size == capacity) {
+                capacity += capacity >> 1;
+                ids = Arrays.copyOf(ids, capacity);
+                isArg = Arrays.copyOf(isArg, capacity);
+                predProb = Arrays.copyOf(predProb, capacity);
+                argClass = Arrays.copyOf(argClass, capacity);
+                classProb = Arrays.copyOf(classProb, capacity);
+                prob = Arrays.copyOf(prob, capacity);
+            }
+            ids[size] = row.getString(c.id);
+            isArg[size] = row.equalsIgnoreCase(c.isArg, "True");
+            predProb[size] = row.getDouble(c.predProb, Double.NaN);
+            argClass[size] = classes.intern(row.getString(c.argClass));
+            classProb[size] = row.getDouble(c.classProb, Double.NaN);
+            prob[size] = row.getDouble(c.prob, Double.NaN);
+            size++;
+        }
+
+        ArgTable build() {
+            return new ArgTable(size, Arrays.copyOf(ids, size), Arrays.copyOf(isArg, size),
+                    Arrays.copyOf(predProb, size), Arrays.copyOf(argClass, size),
+                    Arrays.copyOf(classProb, size), Arrays.copyOf(prob, size), toArray(classes));
+        }
+
+        /**
+         * 按文件顺序拼接各段的列；各段字典按段顺序并入总字典，编码与顺序解析时相同
+         */
+        static ArgTable merge(List<Builder> builders) {
+            if (builders.size() == 1) {
+                return builders.get(0).build();
+            }
+            int n = 0;
+            for (Builder b : builders) {
+                n += b.size;
+            }
+            String[] ids = new String[n];
+            boolean[] isArg = new boolean[n];
+            double[] predProb = new double[n];
+            int[] argClass = new int[n];
+            double[] classProb = new double[n];
+            double[] prob = new double[n];
+            StringPool classes = new StringPool();
+
+            int offset = 0;
+            for (Builder b : builders) {
+                int[] remap = new int[b.classes.size()];
+                for (int code = 0; code < remap.length; code++) {
+                    remap[code] = classes.intern(b.classes.get(code));
+                }
+                System.arraycopy(b.ids, 0, ids, offset, b.size);
+                System.arraycopy(b.isArg, 0, isArg, offset, b.size);
+                System.arraycopy(b.predProb, 0, predProb, offset, b.size);
+                System.arraycopy(b.classProb, 0, classProb, offset, b.size);
+                System.arraycopy(b.prob, 0, prob, offset, b.size);
+                for (int i = 0; i < b.size; i++) {
+                    argClass[offset + i] = remap[b.argClass[i]];
+                }
+                offset += b.size;
+            }
+            return new ArgTable(n, ids, isArg, predProb, argClass, classProb, prob, toArray(classes));
+        }
+    }
+
+    /**
+     * 预测结果各列的列号（按表头列名解析）
+     */
+    public static class Columns {
+        public final int id;
+        public final int isArg;
+        public final int predProb;
+        public final int argClass;
+        public final int classProb;
+        public final int prob;
+
+        private Columns(TsvHeader header) {
+            id = header.column("id", 0);
+            isArg = header.column("is_arg", 1);
+            predProb = header.column("pred_prob", 2);
+            argClass = header.column("arg_class", 3);
+            classProb = header.column("class_prob", 4);
+            prob = header.column("prob", 5);
+        }
+
+        public static Columns of(TsvHeader header) {
+            return new Columns(header);
+        }
+    }
+
+    /**
+     * 行过滤条件（缺失的概率不满足下限条件）
+     */
+    private class Filter {
+        private final Boolean isArgValue;
+        private final boolean[] classMatch;
+        private final double minProb;
+        private final double minPredProb;
+        private final double minClassProb;
+        private final String keyword;
+        // 分类名包含关键词的分类编码
+        private final boolean[] keywordClasses;
+
+        Filter(ArgQuery query, boolean[] classMatch) {
+            this.isArgValue = query.getIsArg();
+            this.classMatch = classMatch;
+            this.minProb = query.getMinProb() != null ? query.getMinProb() : Double.NaN;
+            this.minPredProb = query.getMinPredProb() != null ? query.getMinPredProb() : Double.NaN;
+            this.minClassProb = query.getMinClassProb() != null ? query.getMinClassProb() : Double.NaN;
+            String word = query.getKeyword() != null ? query.getKeyword().trim() : "";
+            this.keyword = word.isEmpty() ? null : word;
+            this.keywordClasses = new boolean[classes.length];
+            if (keyword != null) {
+                for (int code = 1; code < classes.length; code++) {
+                    keywordClasses[code] = containsIgnoreCase(classes[code], keyword);
+                }
+            }
+        }
+
+        boolean test(int i) {
+            if (isArgValue != null && isArg[i] != isArgValue) {
+                return false;
+            }
+            if (classMatch != null && !classMatch[argClass[i]]) {
+                return false;
+            }
+            if (!Double.isNaN(minProb) && !(prob[i] >= minProb)) {
+                return false;
+            }
+            if (!Double.isNaN(minPredProb) && !(predProb[i] >= minPredProb)) {
+                return false;
+            }
+            if (!Double.isNaN(minClassProb) && !(classProb[i] >= minClassProb)) {
+                return false;
+            }
+            return keyword == null || keywordClasses[argClass[i]] || containsIgnoreCase(ids[i], keyword);
+        }
+    }
+
+    private static boolean containsIgnoreCase(String value, String word) {
+        if (value == null) {
+            return false;
+        }
+        for (int from = 0; from + word.length() <= value.length(); from++) {
+            if (value.regionMatches(true, from, word, 0, word.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 某一排序字段的行顺序：前 valued 个为有值的行（降序），其后为缺失值的行
+     */
+    private static class SortOrder {
+        private final int[] rows;
+        private final int valued;
+
+        SortOrder(int[] rows, int valued) {
+            this.rows = rows;
+            this.valued = valued;
+        }
+    }
+
+    /**
+     * 查询结果页
+     */
+    public static class Page {
+        private final int[] rows;
+        private final int nextPosition;
+        private final int nextBefore;
+        private final int total;
+
+        Page(int[] rows, int nextPosition, int nextBefore, int total) {
+            this.rows = rows;
+            this.nextPosition = nextPosition;
+            this.nextBefore = nextBefore;
+            this.total = total;
+        }
+
+        public int[] getRows() {
+            return rows;
+        }
+
+        /**
+         * 下一页的起始位置，没有更多数据时为 -1
+         */
+        public int getNextPosition() {
+            return nextPosition;
+        }
+
+        /**
+         * 下一页起始位置之前已命中的行数
+         */
+        public int getNextBefore() {
+            return nextBefore;
+        }
+
+        /**
+         * 命中总数，只在第一页统计，其余页为 -1
+         */
+        public int getTotal() {
+            return total;
+        }
+    }
+}
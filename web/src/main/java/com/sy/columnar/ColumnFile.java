@@ -0,0 +1,146 @@
+package com.sy.columnar;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 列式表二进制文件
+ * 文件头为魔数、版本、表类型以及源 TSV 的大小和修改时间；源文件变化后视为失效，由调用方重新构建。
+ * 列数据按基本类型数组顺序写入。
+ */
+public final class ColumnFile {
+
+    private static final int MAGIC = 0x434F4C53; // "COLS"
+    // 2: 基因表按表头列名解析
+    // 3: 基因表增加 annotation_amr 列
+    private static final int VERSION = 3;
+
+    @FunctionalInterface
+    public interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private ColumnFile() {
+    }
+
+    /**
+     * 读取列式文件，文件不存在、格式不符或源文件已变化时返回 null
+     */
+    public static <T> T read(Path file, String kind, Path source, Reader<T> reader) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !kind.equals(in.readUTF())) {
+                return null;
+            }
+            if (in.readLong() != Files.size(source) || in.readLong() != Files.getLastModifiedTime(source).toMillis()) {
+                return null;
+            }
+            return reader.read(in);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 写入列式文件（先写临时文件再原子替换）
+     */
+    public static void write(Path file, String kind, Path source, Writer writer) throws IOException {
+        Files.createDirectories(file.getParent());
+        // 每次写入使用独立的临时文件，两个请求同时构建同一张表时互不覆盖
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(kind);
+                out.writeLong(Files.size(source));
+                out.writeLong(Files.getLastModifiedTime(source).toMillis());
+                writer.write(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public static void writeInts(DataOutputStream out, int[] values, int size) throws IOException {
+        for (int i = 0; i < size; i++) {
+            out.writeInt(values[i]);
+        }
+    }
+
+    public static int[] readInts(DataInputStream in, int size) throws IOException {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    public static void writeLongs(DataOutputStream out, long[] values, int size) throws IOException {
+        for (int i = 0; i < size; i++) {
+            out.writeLong(values[i]);
+        }
+    }
+
+    public static long[] readLongs(DataInputStream in, int size) throws IOException {
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = in.readLong();
+        }
+        return values;
+    }
+
+    public static void writeDoubles(DataOutputStream out, double[] values, int size) throws IOException {
+        for (int i = 0; i < size; i++) {
+            out.writeDouble(values[i]);
+        }
+    }
+
+    public static double[] readDoubles(DataInputStream in, int size) throws IOException {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = in.readDouble();
+        }
+        return values;
+    }
+
+    public static void writeBooleans(DataOutputStream out, boolean[] values, int size) throws IOException {
+        for (int i = 0; i < size; i++) {
+            out.writeBoolean(values[i]);
+        }
+    }
+
+    public static boolean[] readBooleans(DataInputStream in, int size) throws IOException {
+        boolean[] values = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = in.readBoolean();
+        }
+        return values;
+    }
+
+    /**
+     * 写字符串（长度 + UTF-8 字节，不受 writeUTF 的 64KB 限制）
+     */
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,448 @@
+package com.sy.columnar;
+
+import com.sy.tsv.ParallelTsvParser;
+import com.sy.tsv.TsvHeader;
+import com.sy.tsv.TsvRow;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * 基因列式表（provirus_genes.tsv；同格式的 annotate/genes.tsv 也用本类读取）
+ * 坐标和链方向存为 int[]，其余文本列（注释、物种名、标记等）通过共享字符串池编码为 int[]；
+ * 基因ID拆成原噬菌体序列名和序号两部分编码，同一原噬菌体的基因共享序列名。
+ * 任务完成时写入 task_X/.index/genes.col，之后直接读取二进制列，无需重新解析 TSV。
+ */
+public class GeneTable {
+
+    private static final String KIND = "genes";
+
+    // 文本列（顺序即存储顺序）
+    private static final String[] TEXT_FIELDS = {"gcContent", "geneticCode", "rbsMotif", "marker", "evalue",
+            "bitscore", "uscg", "taxid", "taxname", "annotationAccessions", "annotationDescription", "annotationAmr"};
+    // 文本列对应的 TSV 列名，以及表头缺少该列名时的默认列号（负数从行尾倒数）
+    private static final String[] TEXT_COLUMNS = {"gc_content", "genetic_code", "rbs_motif", "marker", "evalue",
+            "bitscore", "uscg", "taxid", "taxname", "annotation_accessions", "annotation_description", "annotation_amr"};
+    private static final int[] TEXT_FALLBACKS = {5, 6, 7, 8, 9, 10, 11, 12, TsvHeader.MISSING, -2, -1, TsvHeader.MISSING};
+    private static final int MARKER = 3;
+    private static final int TAXNAME = 8;
+    private static final int ANNOTATION_ACCESSIONS = 9;
+    private static final int ANNOTATION_DESCRIPTION = 10;
+    private static final int ANNOTATION_AMR = 11;
+
+    private final int size;
+    private final StringPool pool;
+    // 原噬菌体序列名编码
+    private final int[] seq;
+    // 基因序号编码（基因ID不含下划线时为 -1）
+    private final int[] suffix;
+    private final int[] start;
+    private final int[] end;
+    private final int[] length;
+    private final int[] strand;
+    private final int[][] text;
+
+    // 序列名编码 -> 行号（首次按原噬菌体取基因时构建）
+    private Map<Integer, int[]> rowsBySeq;
+
+    private GeneTable(int size, StringPool pool, int[] seq, int[] suffix, int[] start, int[] end,
+                      int[] length, int[] strand, int[][] text) {
+        this.size = size;
+        this.pool = pool;
+        this.seq = seq;
+        this.suffix = suffix;
+        this.start = start;
+        this.end = end;
+        this.length = length;
+        this.strand = strand;
+        this.text = text;
+    }
+
+    /**
+     * 读取列式文件，不存在或已失效时解析 TSV 并写入列式文件
+     * @param file provirus_genes.tsv
+     * @param columnFile 列式文件
+     */
+    public static GeneTable loadOrBuild(Path file, Path columnFile) throws IOException {
+        GeneTable table = ColumnFile.read(columnFile, KIND, file, GeneTable::readColumns);
+        if (table == null) {
+            table = load(file);
+            table.write(columnFile, file);
+        }
+        return table;
+    }
+
+    /**
+     * 解析 TSV 文件（跳过空行、注释和表头），大文件按行边界分段并行解析后按顺序合并
+     */
+    public static GeneTable load(Path file) throws IOException {
+        return load(file, ParallelTsvParser.chunksFor(file));
+    }
+
+    /**
+     * 按指定段数解析（段数为 1 时顺序解析），结果与顺序解析一致
+     */
+    public static GeneTable load(Path file, int chunks) throws IOException {
+        List<Builder> builders = ParallelTsvParser.parse(file, chunks, reader -> {
+            Builder builder = new Builder();
+            Columns columns = Columns.of(reader.header());
+            while (reader.next()) {
+                builder.add(reader.row(), columns);
+            }
+            return builder;
+        });
+        return Builder.merge(builders);
+    }
+
+    /**
+     * 解析基因数据行
+     * 列：gene, start, end, length, strand, gc_content, genetic_code, rbs_motif, marker, evalue, bitscore,
+     * uscg, ..., taxid, taxname, ..., annotation_accessions, annotation_description
+     */
+    public static Map<String, Object> parseRow(TsvRow row, Columns columns) {
+        Map<String, Object> gene = new HashMap<>();
+        
+        // 基本必需字段
+        gene.put("gene", row.getString(columns.gene));  // 基因ID
+        gene.put("start", row.getInt(columns.start));
+        gene.put("end", row.getInt(columns.end));
+        gene.put("length", row.getInt(columns.length));
+        gene.put("strand", row.getInt(columns.strand));
+        
+        // 可选字段，缺失时为空串
+        for (int f = 0; f < TEXT_FIELDS.length; f++) {
+            gene.put(TEXT_FIELDS[f], text(row, columns, f));
+        }
+        return gene;
+    }
+
+    /**
+     * 文本列的值
+     */
+    private static String text(TsvRow row, Columns columns, int field) {
+        int col = columns.text[field];
+        if (field == TAXNAME && col == TsvHeader.MISSING) {
+            // 没有 taxname 列名时，取第 13~17 列中第一个非 NA、非纯数字的值
+            for (int i = 13; i < Math.min(row.size(), 18); i++) {
+                if (!row.isNA(i) && !row.isEmpty(i) && !row.isDigits(i)) {
+                    return row.getString(i);
+                }
+            }
+            return "";
+        }
+        if ((field == TAXNAME || field == ANNOTATION_ACCESSIONS || field == ANNOTATION_DESCRIPTION
+                || field == ANNOTATION_AMR) && row.isNA(col)) {
+            return "";
+        }
+        return row.getString(col);
+    }
+
+    /**
+     * 基因ID所属的原噬菌体序列名（基因ID形如 &lt;seqName&gt;_&lt;序号&gt;）
+     */
+    public static String seqNameOf(String geneId) {
+        int sep = geneId.lastIndexOf('_');
+        return sep > 0 ? geneId.substring(0, sep) : geneId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 取单行（字段与 {@link #parseRow} 一致）
+     */
+    public Map<String, Object> row(int i) {
+        Map<String, Object> gene = new HashMap<>();
+        gene.put("gene", geneId(i));
+        gene.put("start", start[i]);
+        gene.put("end", end[i]);
+        gene.put("length", length[i]);
+        gene.put("strand", strand[i]);
+        for (int f = 0; f < TEXT_FIELDS.length; f++) {
+            gene.put(TEXT_FIELDS[f], pool.get(text[f][i]));
+        }
+        return gene;
+    }
+
+    /**
+     * 基因ID
+     */
+    public String geneId(int i) {
+        String seqName = pool.get(seq[i]);
+        return suffix[i] < 0 ? seqName : seqName + "_" + pool.get(suffix[i]);
+    }
+
+    /**
+     * 基因所在序列名（基因ID去掉末尾序号）
+     */
+    public String seqName(int i) {
+        return pool.get(seq[i]);
+    }
+
+    public int start(int i) {
+        return start[i];
+    }
+
+    public int end(int i) {
+        return end[i];
+    }
+
+    public int strand(int i) {
+        return strand[i];
+    }
+
+    public String marker(int i) {
+        return pool.get(text[MARKER][i]);
+    }
+
+    public String taxname(int i) {
+        return pool.get(text[TAXNAME][i]);
+    }
+
+    public String annotationAccessions(int i) {
+        return pool.get(text[ANNOTATION_ACCESSIONS][i]);
+    }
+
+    public String annotationDescription(int i) {
+        return pool.get(text[ANNOTATION_DESCRIPTION][i]);
+    }
+
+    /**
+     * AMR 注释（geNomad annotation_amr 列，没有时为空串）
+     */
+    public String annotationAmr(int i) {
+        return pool.get(text[ANNOTATION_AMR][i]);
+    }
+
+    /**
+     * 按基因ID查行号，不存在时返回 -1
+     */
+    public int indexOf(String geneId) {
+        int sep = geneId.lastIndexOf('_');
+        int seqCode = pool.codeOf(sep > 0 ? geneId.substring(0, sep) : geneId);
+        int[] rows = seqCode < 0 ? null : rowsBySeq().get(seqCode);
+        if (rows == null) {
+            return -1;
+        }
+        int suffixCode = sep > 0 ? pool.codeOf(geneId.substring(sep + 1)) : -1;
+        if (sep > 0 && suffixCode < 0) {
+            return -1;
+        }
+        for (int row : rows) {
+            if (suffix[row] == suffixCode) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 某个原噬菌体的全部基因（按文件顺序）
+     */
+    public List<Map<String, Object>> rowsFor(String seqName) {
+        int code = pool.codeOf(seqName);
+        int[] rows = code < 0 ? null : rowsBySeq().get(code);
+        if (rows == null) {
+            return new ArrayList<>();
+        }
+        List<Map<String, Object>> genes = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            genes.add(row(row));
+        }
+        return genes;
+    }
+
+    /**
+     * 各原噬菌体的基因数
+     */
+    public Map<String, Integer> countBySeqName() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Map.Entry<Integer, int[]> entry : rowsBySeq().entrySet()) {
+            counts.put(pool.get(entry.getKey()), entry.getValue().length);
+        }
+        return counts;
+    }
+
+    private synchronized Map<Integer, int[]> rowsBySeq() {
+        if (rowsBySeq == null) {
+            Map<Integer, Integer> counts = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                counts.merge(seq[i], 1, Integer::sum);
+            }
+            Map<Integer, int[]> groups = new HashMap<>();
+            Map<Integer, Integer> filled = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                int[] rows = groups.computeIfAbsent(seq[i], k -> new int[counts.get(k)]);
+                int n = filled.merge(seq[i], 1, Integer::sum);
+                rows[n - 1] = i;
+            }
+            rowsBySeq = groups;
+        }
+        return rowsBySeq;
+    }
+
+    private void write(Path columnFile, Path source) throws IOException {
+        ColumnFile.write(columnFile, KIND, source, out -> {
+            out.writeInt(size);
+            pool.write(out);
+            ColumnFile.writeInts(out, seq, size);
+            ColumnFile.writeInts(out, suffix, size);
+            ColumnFile.writeInts(out, start, size);
+            ColumnFile.writeInts(out, end, size);
+            ColumnFile.writeInts(out, length, size);
+            ColumnFile.writeInts(out, strand, size);
+            for (int[] column : text) {
+                ColumnFile.writeInts(out, column, size);
+            }
+        });
+    }
+
+    private static GeneTable readColumns(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        StringPool pool = StringPool.read(in);
+        int[] seq = ColumnFile.readInts(in, size);
+        int[] suffix = ColumnFile.readInts(in, size);
+        int[] start = ColumnFile.readInts(in, size);
+        int[] end = ColumnFile.readInts(in, size);
+        int[] length = ColumnFile.readInts(in, size);
+        int[] strand = ColumnFile.readInts(in, size);
+        int[][] text = new int[TEXT_FIELDS.length][];
+        for (int f = 0; f < text.length; f++) {
+            text[f] = ColumnFile.readInts(in, size);
+        }
+        return new GeneTable(size, pool, seq, suffix, start, end, length, strand, text);
+    }
+
+    /**
+     * 基因表各列的列号（按表头列名解析）
+     */
+    public static class Columns {
+        private final int gene;
+        private final int start;
+        private final int end;
+        private final int length;
+        private final int strand;
+        private final int[] text = new int[TEXT_FIELDS.length];
+
+        private Columns(TsvHeader header) {
+            gene = header.column("gene", 0);
+            start = header.column("start", 1);
+            end = header.column("end", 2);
+            length = header.column("length", 3);
+            strand = header.column("strand", 4);
+            for (int f = 0; f < text.length; f++) {
+                text[f] = header.column(TEXT_COLUMNS[f], TEXT_FALLBACKS[f]);
+            }
+        }
+
+        public static Columns of(TsvHeader header) {
+            return new Columns(header);
+        }
+    }
+
+    /**
+     * 逐行追加并按需扩容
+     */
+    private static class Builder {
+        private final StringPool pool = new StringPool();
+        private int size = 0;
+        private int capacity = 1024;
+        private int[] seq = new int[capacity];
+        private int[] suffix = new int[capacity];
+        private int[] start = new int[capacity];
+        private int[] end = new int[capacity];
+        private int[] length = new int[capacity];
+        private int[] strand = new int[capacity];
+        private final int[][] text = new int[TEXT_FIELDS.length][capacity];
+
+        void add(TsvRow row, Columns columns) {
+            if (size == capacity) {
+                grow();
+            }
+            String geneId = row.getString(columns.gene);
+            int sep = geneId.lastIndexOf('_');
+            seq[size] = pool.intern(sep > 0 ? geneId.substring(0, sep) : geneId);
+            suffix[size] = sep > 0 ? pool.intern(geneId.substring(sep + 1)) : -1;
+            start[size] = row.getInt(columns.start);
+            end[size] = row.getInt(columns.end);
+            length[size] = row.getInt(columns.length);
+            strand[size] = row.getInt(columns.strand);
+            for (int f = 0; f < TEXT_FIELDS.length; f++) {
+                text[f][size] = pool.intern(text(row, columns, f));
+            }
+            size++;
+        }
+
+        private void grow() {
+            capacity += capacity >> 1;
+            seq = Arrays.copyOf(seq, capacity);
+            suffix = Arrays.copyOf(suffix, capacity);
+            start = Arrays.copyOf(start, capacity);
+            end = Arrays.copyOf(end, capacity);
+            length = Arrays.copyOf(length, capacity);
+            strand = Arrays.copyOf(strand, capacity);
+            for (int f = 0; f < text.length; f++) {
+                text[f] = Arrays.copyOf(text[f], capacity);
+            }
+        }
+
+        GeneTable build() {
+            int[][] columns = new int[text.length][];
+            for (int f = 0; f < text.length; f++) {
+                columns[f] = Arrays.copyOf(text[f], size);
+            }
+            return new GeneTable(size, pool, Arrays.copyOf(seq, size), Arrays.copyOf(suffix, size),
+                    Arrays.copyOf(start, size), Arrays.copyOf(end, size), Arrays.copyOf(length, size),
+                    Arrays.copyOf(strand, size), columns);
+        }
+
+        /**
+         * 按文件顺序拼接各段的列；各段字符串池按段顺序并入总池，编码与顺序解析时相同
+         */
+        static GeneTable merge(List<Builder> builders) {
+            if (builders.size() == 1) {
+                return builders.get(0).build();
+            }
+            int n = 0;
+            for (Builder b : builders) {
+                n += b.size;
+            }
+            StringPool pool = new StringPool();
+            int[] seq = new int[n];
+            int[] suffix = new int[n];
+            int[] start = new int[n];
+            int[] end = new int[n];
+            int[] length = new int[n];
+            int[] strand = new int[n];
+            int[][] text = new int[TEXT_FIELDS.length][n];
+
+            int offset = 0;
+            for (Builder b : builders) {
+                int[] remap = new int[b.pool.size()];
+                for (int code = 0; code < remap.length; code++) {
+                    remap[code] = pool.intern(b.pool.get(code));
+                }
+                System.arraycopy(b.start, 0, start, offset, b.size);
+                System.arraycopy(b.end, 0, end, offset, b.size);
+                System.arraycopy(b.length, 0, length, offset, b.size);
+                System.arraycopy(b.strand, 0, strand, offset, b.size);
+                for (int i = 0; i < b.size; i++) {
+                    seq[offset + i] = remap[b.seq[i]];
+                    suffix[offset + i] = b.suffix[i] >= 0 ? remap[b.suffix[i]] : -1;
+                }
+                for (int f = 0; f < text.length; f++) {
+                    int[] from = b.text[f];
+                    int[] to = text[f];
+                    for (int i = 0; i < b.size; i++) {
+                        to[offset + i] = remap[from[i]];
+                    }
+                }
+                offset += b.size;
+            }
+            return new GeneTable(n, pool, seq, suffix, start, end, length, strand, text);
+        }
+    }
+}
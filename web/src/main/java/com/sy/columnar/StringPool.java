@@ -0,0 +1,67 @@
+package com.sy.columnar;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 字符串池
+ * 同一张表中重复出现的字符串（分类名、注释、物种名等）只保存一份，列中存放其编码。
+ * 编码 0 固定为空串。
+ */
+public class StringPool {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    public StringPool() {
+        intern("");
+    }
+
+    /**
+     * 取字符串的编码，不存在时加入池中
+     */
+    public int intern(String value) {
+        String key = value != null ? value : "";
+        Integer code = codes.get(key);
+        if (code == null) {
+            code = values.size();
+            codes.put(key, code);
+            values.add(key);
+        }
+        return code;
+    }
+
+    /**
+     * 取已有字符串的编码，不存在时返回 -1
+     */
+    public int codeOf(String value) {
+        Integer code = codes.get(value != null ? value : "");
+        return code != null ? code : -1;
+    }
+
+    public String get(int code) {
+        return values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            ColumnFile.writeString(out, value);
+        }
+    }
+
+    static StringPool read(DataInputStream in) throws IOException {
+        StringPool pool = new StringPool();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            pool.intern(ColumnFile.readString(in));
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,34 @@
+package com.sy.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * 替换默认的 JSON 转换器，记录每个接口的响应大小和序列化耗时
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                 MeterRegistry meterRegistry) {
+        return new MeteredJsonHttpMessageConverter(objectMapper, meterRegistry);
+    }
+
+    /**
+     * 替换默认的 CBOR 转换器（可视化、任务等大响应可按 Accept 协商返回 CBOR），
+     * ObjectMapper 与 JSON 使用相同的 spring.jackson 配置
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter mappingJackson2CborHttpMessageConverter(
+            Jackson2ObjectMapperBuilder builder, MeterRegistry meterRegistry) {
+        ObjectMapper cborMapper = builder.createXmlMapper(false).factory(new CBORFactory()).build();
+        return new MeteredCborHttpMessageConverter(cborMapper, meterRegistry);
+    }
+}
@@ -0,0 +1,34 @@
+package com.sy.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * 统计 CBOR 响应大小和序列化耗时的消息转换器（指标见 ResponseMetrics，format=cbor）
+ * 请求头 Accept: application/cbor 时使用，响应仍为 Result 结构；可视化数据中大量重复的键名和数值
+ * 用二进制编码后明显变小。排在 JSON 转换器之后，未指定 Accept 或接受任意类型时仍返回 JSON。
+ */
+public class MeteredCborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+    private final ResponseMetrics metrics;
+
+    /**
+     * @param objectMapper 使用 CBORFactory 的 ObjectMapper
+     */
+    public MeteredCborHttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(objectMapper);
+        this.metrics = new ResponseMetrics(meterRegistry, "cbor");
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        metrics.record(outputMessage, counting -> super.writeInternal(object, type, counting));
+    }
+}
@@ -0,0 +1,29 @@
+package com.sy.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * 统计 JSON 响应大小和序列化耗时的消息转换器（指标见 ResponseMetrics，format=json）
+ */
+public class MeteredJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final ResponseMetrics metrics;
+
+    public MeteredJsonHttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(objectMapper);
+        this.metrics = new ResponseMetrics(meterRegistry, "json");
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        metrics.record(outputMessage, counting -> super.writeInternal(object, type, counting));
+    }
+}
@@ -0,0 +1,125 @@
+package com.sy.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应体指标，按接口路径和编码格式（json、cbor）记录：
+ * http.server.response.size（响应体字节数）和 http.server.response.serialization（序列化并写出的耗时）。
+ * 序列化时直接对写出的字节计数，不需要为了统计大小而额外序列化一次。
+ */
+class ResponseMetrics {
+
+    private static final String SIZE_METRIC = "http.server.response.size";
+    private static final String SERIALIZATION_METRIC = "http.server.response.serialization";
+
+    @FunctionalInterface
+    interface Write {
+        void write(HttpOutputMessage outputMessage) throws IOException;
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final String format;
+
+    ResponseMetrics(MeterRegistry meterRegistry, String format) {
+        this.meterRegistry = meterRegistry;
+        this.format = format;
+    }
+
+    /**
+     * 执行写出并记录指标
+     */
+    void record(HttpOutputMessage outputMessage, Write write) throws IOException {
+        CountingHttpOutputMessage counting = new CountingHttpOutputMessage(outputMessage);
+        long start = System.nanoTime();
+        write.write(counting);
+        long elapsed = System.nanoTime() - start;
+        if (counting.body != null) {
+            String uri = currentUri();
+            // register 对同名同标签的指标返回已有实例
+            DistributionSummary.builder(SIZE_METRIC)
+                    .description("响应体大小")
+                    .baseUnit("bytes")
+                    .tag("uri", uri)
+                    .tag("format", format)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(counting.body.count);
+            Timer.builder(SERIALIZATION_METRIC)
+                    .description("响应体序列化耗时")
+                    .tag("uri", uri)
+                    .tag("format", format)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 当前请求匹配到的接口路径模板（如 /api/visualization/{taskId}），避免按实际路径产生大量标签
+     */
+    static String currentUri() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                    RequestAttributes.SCOPE_REQUEST);
+            if (pattern != null) {
+                return pattern.toString();
+            }
+        }
+        return "UNKNOWN";
+    }
+
+    private static class CountingHttpOutputMessage implements HttpOutputMessage {
+        private final HttpOutputMessage delegate;
+        private CountingOutputStream body;
+
+        CountingHttpOutputMessage(HttpOutputMessage delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            if (body == null) {
+                body = new CountingOutputStream(delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count = 0;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
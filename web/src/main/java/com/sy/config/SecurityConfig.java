@@ -1,7 +1,9 @@
 package com.sy.config;
 
+import com.sy.interceptor.AdminAuthInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -14,13 +16,17 @@ import org.springframework.security.web.SecurityFilterChain;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AdminAuthInterceptor adminAuthInterceptor) throws Exception {
         http
             .csrf(csrf -> csrf.disable())  // 禁用 CSRF
             .cors(cors -> cors.configure(http))  // 启用 CORS
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS))  // 使用无状态会话
             .authorizeHttpRequests(auth -> auth
+                // actuator 端点不经过 MVC 拦截器，在这里校验：健康检查公开，指标等仅管理员可见
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .requestMatchers("/actuator/**").access((authentication, context) ->
+                    new AuthorizationDecision(adminAuthInterceptor.isAdmin(context.getRequest())))
                 .anyRequest().permitAll()  // 允许所有请求通过，认证由 JwtInterceptor 处理
             );
         
@@ -31,4 +37,4 @@ public class SecurityConfig {
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
-} 
\ No newline at end of file
+} 
\ No newline at end of file
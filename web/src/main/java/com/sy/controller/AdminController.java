@@ -45,14 +45,19 @@ public class AdminController {
     }
 
     /**
-     * 获取所有用户列表
+     * 分页获取用户列表
+     * @param cursor 上一页返回的 nextCursor（可选）
+     * @param limit 每页条数（可选，默认20，最大100）
      */
     @GetMapping("/users")
-    public Result<List<Map<String, Object>>> getAllUsers(HttpServletRequest request) {
+    public Result<Map<String, Object>> getAllUsers(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            HttpServletRequest request) {
         try {
             checkAdmin(request);
-            List<Map<String, Object>> userList = adminService.getAllUsers();
-            return Result.success(userList);
+            Map<String, Object> page = adminService.getUsersPage(cursor, limit);
+            return Result.success(page);
         } catch (Exception e) {
             log.error("获取用户列表失败", e);
             return Result.error(e.getMessage());
@@ -97,14 +102,19 @@ public class AdminController {
     }
 
     /**
-     * 获取所有文件列表
+     * 分页获取文件列表
+     * @param cursor 上一页返回的 nextCursor（可选）
+     * @param limit 每页条数（可选，默认20，最大100）
      */
     @GetMapping("/files")
-    public Result<List<Map<String, Object>>> getAllFiles(HttpServletRequest request) {
+    public Result<Map<String, Object>> getAllFiles(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            HttpServletRequest request) {
         try {
             checkAdmin(request);
-            List<Map<String, Object>> fileList = adminService.getAllFiles();
-            return Result.success(fileList);
+            Map<String, Object> page = adminService.getFilesPage(cursor, limit);
+            return Result.success(page);
         } catch (Exception e) {
             log.error("获取文件列表失败", e);
             return Result.error(e.getMessage());
@@ -131,12 +141,15 @@ public class AdminController {
 
     /**
      * 获取系统统计信息
+     * @param days 趋势天数（可选，默认30，最大90）
      */
     @GetMapping("/statistics")
-    public Result<Map<String, Object>> getStatistics(HttpServletRequest request) {
+    public Result<Map<String, Object>> getStatistics(
+            @RequestParam(value = "days", defaultValue = "30") Integer days,
+            HttpServletRequest request) {
         try {
             checkAdmin(request);
-            Map<String, Object> stats = adminService.getStatistics();
+            Map<String, Object> stats = adminService.getStatistics(days);
             return Result.success(stats);
         } catch (Exception e) {
             log.error("获取统计信息失败", e);
@@ -168,10 +181,12 @@ public class AdminController {
     public Result<List<Map<String, Object>>> searchFiles(
             @RequestParam(value = "userKeyword", required = false) String userKeyword,
             @RequestParam(value = "fileKeyword", required = false) String fileKeyword,
+            @RequestParam(value = "offset", defaultValue = "0") Integer offset,
+            @RequestParam(value = "limit", defaultValue = "100") Integer limit,
             HttpServletRequest request) {
         try {
             checkAdmin(request);
-            List<Map<String, Object>> fileList = adminService.searchFiles(userKeyword, fileKeyword);
+            List<Map<String, Object>> fileList = adminService.searchFiles(userKeyword, fileKeyword, offset, limit);
             return Result.success(fileList);
         } catch (Exception e) {
             log.error("搜索文件失败", e);
@@ -7,8 +7,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 分析任务控制器
@@ -50,24 +52,39 @@ public class AnalysisTaskController {
     }
 
     /**
-     * 获取任务列表
+     * 获取任务列表（键集分页）
      * @param token JWT token
-     * @return 任务列表
+     * @param status 任务状态过滤（可选）
+     * @param type 分析类型过滤 genomad/arg（可选）
+     * @param keyword 搜索关键字（可选，搜索结果按相关度排序）
+     * @param cursor 上一页返回的 nextCursor（可选）
+     * @param limit 每页条数，默认20，最大100
+     * @param fields 需要返回的字段，逗号分隔（可选）
+     * @return 包含 list、nextCursor、hasMore 的分页结果
      */
     @GetMapping("/list")
-    public Result<List<Map<String, Object>>> getTaskList(
+    public Result<Map<String, Object>> getTaskList(
             @RequestHeader("Authorization") String token,
             @RequestParam(value = "status", required = false) String status,
-            @RequestParam(value = "keyword", required = false) String keyword) {
+            @RequestParam(value = "type", required = false) String type,
+            @RequestParam(value = "keyword", required = false) String keyword,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "fields", required = false) String fields) {
         try {
             Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
-            List<Map<String, Object>> tasks;
+            Map<String, Object> page;
             if (keyword != null && !keyword.trim().isEmpty()) {
-                tasks = analysisTaskService.searchTasks(userId, keyword.trim());
+                page = analysisTaskService.searchTasks(userId, keyword.trim(), cursor, limit);
             } else {
-                tasks = analysisTaskService.getUserTasks(userId, status);
+                Set<String> fieldSet = fields == null || fields.trim().isEmpty() ? null :
+                        Arrays.stream(fields.split(","))
+                                .map(String::trim)
+                                .filter(f -> !f.isEmpty())
+                                .collect(Collectors.toSet());
+                page = analysisTaskService.getUserTasksPage(userId, status, type, cursor, limit, fieldSet);
             }
-            return Result.success(tasks);
+            return Result.success(page);
         } catch (Exception e) {
             log.error("获取任务列表失败", e);
             return Result.error("获取任务列表失败: " + e.getMessage());
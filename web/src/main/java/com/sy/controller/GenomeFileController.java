@@ -1,12 +1,16 @@
 package com.sy.controller;
 
+import com.sy.index.FastaSlice;
 import com.sy.service.GenomeFileService;
 import com.sy.util.JwtUtil;
 import com.sy.vo.Result;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -140,6 +144,58 @@ public class GenomeFileController {
         }
     }
 
+    /**
+     * 获取 FASTA 文件中的序列列表
+     * @param fileId 文件ID
+     * @param token JWT token
+     * @return 序列名称和长度
+     */
+    @GetMapping("/{fileId}/sequences")
+    public Result<List<Map<String, Object>>> getSequences(
+            @PathVariable Long fileId,
+            @RequestHeader("Authorization") String token) {
+        try {
+            Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            return Result.success(genomeFileService.getSequences(fileId, userId));
+        } catch (Exception e) {
+            log.error("获取序列列表失败", e);
+            return Result.error("获取序列列表失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 流式获取序列片段（纯文本碱基，不含换行）
+     * @param fileId 文件ID
+     * @param seqName 序列名
+     * @param start 起始位置（从 1 开始，包含，可选）
+     * @param end 结束位置（包含，可选）
+     * @param reverseComplement 是否取反向互补
+     * @param token JWT token
+     * @return 序列片段
+     */
+    @GetMapping("/{fileId}/sequences/{seqName}")
+    public ResponseEntity<?> getSequence(
+            @PathVariable Long fileId,
+            @PathVariable String seqName,
+            @RequestParam(required = false) Long start,
+            @RequestParam(required = false) Long end,
+            @RequestParam(defaultValue = "false") boolean reverseComplement,
+            @RequestHeader("Authorization") String token) {
+        try {
+            Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            FastaSlice slice = genomeFileService.getSequence(fileId, userId, seqName, start, end, reverseComplement);
+            StreamingResponseBody body = slice::writeTo;
+            return ResponseEntity.ok()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .contentLength(slice.length())
+                    .header("X-Sequence-Length", String.valueOf(slice.getSequenceLength()))
+                    .body(body);
+        } catch (Exception e) {
+            log.error("获取序列失败", e);
+            return ResponseEntity.badRequest().body(Result.error("获取序列失败: " + e.getMessage()));
+        }
+    }
+
     /**
      * 删除基因组文件
      * @param fileId 文件ID
@@ -0,0 +1,86 @@
+package com.sy.controller;
+
+import com.sy.export.ArgClassMatrix;
+import com.sy.service.ArgMatrixService;
+import com.sy.service.ResultIndexService;
+import com.sy.util.JwtUtil;
+import com.sy.vo.Result;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 跨任务结果查询控制器
+ * 在当前用户的全部已完成任务中按 ARG 分类、marker、taxname、注释、整合酶等条件查找
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/results")
+@RequiredArgsConstructor
+public class ResultController {
+
+    private final ResultIndexService resultIndexService;
+    private final ArgMatrixService argMatrixService;
+    private final JwtUtil jwtUtil;
+
+    /**
+     * 布尔查询
+     * 字段：argClass、amr、marker、taxname、annotation、accession、integrase（yes/no）；
+     * 空格为 AND，OR 分隔多组条件，-字段:值 排除，值末尾 * 为前缀匹配
+     * @param q 查询，如 argClass:beta-lactam、integrase:yes annotation:recombinase
+     * @param scope 命中粒度：task（默认）、region、gene
+     * @param limit 最多返回条数（默认 50，最大 1000）
+     * @param token JWT token
+     * @return total、hits（taskId、type、name、region、score、matches）
+     */
+    @GetMapping("/search")
+    public Result<Map<String, Object>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String scope,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestHeader("Authorization") String token) {
+        try {
+            Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            return Result.success(resultIndexService.search(userId, q, scope, Math.min(Math.max(limit, 1), 1000)));
+        } catch (Exception e) {
+            log.error("结果查询失败", e);
+            return Result.error("结果查询失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 样本 x ARG 分类丰度矩阵（流式下载）
+     * @param taskIds 任务ID，逗号分隔（为空时取全部已完成的 ARG 任务，最多 1000 个）
+     * @param value 单元格取值：count（阳性数，默认）、meanProb（平均概率）、fraction（占样本阳性的比例）
+     * @param format 输出格式：tsv（默认）或 json
+     * @param token JWT token
+     */
+    @GetMapping("/arg-matrix")
+    public ResponseEntity<?> argMatrix(
+            @RequestParam(required = false) List<Long> taskIds,
+            @RequestParam(required = false) String value,
+            @RequestParam(required = false) String format,
+            @RequestHeader("Authorization") String token) {
+        try {
+            Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            String outputFormat = ArgClassMatrix.format(format);
+            ArgClassMatrix matrix = argMatrixService.buildMatrix(userId, taskIds, value);
+            StreamingResponseBody body = out -> matrix.writeTo(out, outputFormat);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(ArgClassMatrix.contentType(outputFormat)))
+                    .header("Content-Disposition", ContentDisposition.attachment()
+                            .filename("arg_class_matrix." + outputFormat).build().toString())
+                    .body(body);
+        } catch (Exception e) {
+            log.error("生成 ARG 分类矩阵失败", e);
+            return ResponseEntity.badRequest().body(Result.error("生成 ARG 分类矩阵失败: " + e.getMessage()));
+        }
+    }
+}
@@ -1,12 +1,29 @@
 package com.sy.controller;
 
+import com.sy.columnar.ArgQuery;
+import com.sy.export.StreamingExport;
+import com.sy.index.FastaSlice;
+import com.sy.service.ProphageSketchService;
 import com.sy.service.VisualizationService;
 import com.sy.util.JwtUtil;
 import com.sy.vo.Result;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -20,25 +37,64 @@ import java.util.Map;
 public class VisualizationController {
 
     private final VisualizationService visualizationService;
+    private final ProphageSketchService prophageSketchService;
     private final JwtUtil jwtUtil;
 
+    /**
+     * 结果只属于任务所属用户：只允许浏览器私有缓存，每次使用前按 ETag 重新验证，未变化时返回 304 且不读取结果文件；
+     * 响应另按 Authorization 区分（Vary），同一浏览器换用户登录后不会复用上一个用户的缓存
+     */
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private static final MediaType APPLICATION_CBOR = MediaType.parseMediaType("application/cbor");
+
     /**
      * 获取基因组可视化数据
+     * If-None-Match 命中时返回 304，不读取结果文件；客户端接受 gzip 时直接返回任务完成时预压缩的响应
      * @param taskId 任务ID
      * @param token JWT token
      * @return 包含基因组序列和原噬菌体区域的可视化数据
      */
     @GetMapping("/genome/{taskId}")
-    public Result<Map<String, Object>> getGenomeVisualization(
+    public ResponseEntity<?> getGenomeVisualization(
             @PathVariable Long taskId,
-            @RequestHeader("Authorization") String token) {
+            @RequestHeader("Authorization") String token,
+            WebRequest request) {
         try {
             Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            String version = visualizationService.getResultVersion(taskId, userId);
+            MediaType mediaType = negotiate(request);
+            Path gzip = acceptsPrecompressed(request, mediaType)
+                    ? visualizationService.getPrecompressedVisualization(taskId, version) : null;
+            if (gzip != null) {
+                // 压缩和未压缩的表示使用不同的强 ETag
+                String etag = etag("genome-" + version + "-gzip", mediaType);
+                if (request.checkNotModified(etag)) {
+                    return notModified(etag, HttpHeaders.ACCEPT_ENCODING);
+                }
+                return ResponseEntity.ok()
+                        .cacheControl(REVALIDATE)
+                        .eTag(etag)
+                        .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .contentLength(Files.size(gzip))
+                        .body(new FileSystemResource(gzip));
+            }
+            String etag = etag("genome-" + version, mediaType);
+            if (request.checkNotModified(etag)) {
+                return notModified(etag, HttpHeaders.ACCEPT_ENCODING);
+            }
             Map<String, Object> data = visualizationService.getGenomeVisualization(taskId, userId);
-            return Result.success(data);
+            return ResponseEntity.ok()
+                    .cacheControl(REVALIDATE)
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .contentType(mediaType)
+                    .body(Result.success(data));
         } catch (Exception e) {
             log.error("获取基因组可视化数据失败", e);
-            return Result.error("获取可视化数据失败: " + e.getMessage());
+            return ResponseEntity.ok(Result.error("获取可视化数据失败: " + e.getMessage()));
         }
     }
 
@@ -50,37 +106,372 @@ public class VisualizationController {
      * @return 原噬菌体区域的详细信息
      */
     @GetMapping("/prophage/{taskId}/{regionId}")
-    public Result<Map<String, Object>> getProphageDetail(
+    public ResponseEntity<?> getProphageDetail(
             @PathVariable Long taskId,
             @PathVariable Long regionId,
-            @RequestHeader("Authorization") String token) {
+            @RequestHeader("Authorization") String token,
+            WebRequest request) {
         try {
             Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            MediaType mediaType = negotiate(request);
+            String etag = etag("prophage-" + visualizationService.getResultVersion(taskId, userId) + "-" + regionId,
+                    mediaType);
+            if (request.checkNotModified(etag)) {
+                return notModified(etag);
+            }
             Map<String, Object> detail = visualizationService.getProphageDetail(taskId, regionId, userId);
-            return Result.success(detail);
+            return revalidated(etag, mediaType).body(Result.success(detail));
         } catch (Exception e) {
             log.error("获取原噬菌体详情失败", e);
-            return Result.error("获取详情失败: " + e.getMessage());
+            return ResponseEntity.ok(Result.error("获取详情失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 流式获取原噬菌体序列片段（纯文本碱基，不含换行）
+     * 查看器只请求当前显示窗口，不再随详情一次性返回整条序列
+     * @param taskId 任务ID
+     * @param regionId 区域ID
+     * @param start 起始位置（从 1 开始，包含，可选）
+     * @param end 结束位置（包含，可选）
+     * @param reverseComplement 是否取反向互补
+     * @param token JWT token
+     * @return 序列片段
+     */
+    @GetMapping("/prophage/{taskId}/{regionId}/sequence")
+    public ResponseEntity<?> getProphageSequence(
+            @PathVariable Long taskId,
+            @PathVariable Long regionId,
+            @RequestParam(required = false) Long start,
+            @RequestParam(required = false) Long end,
+            @RequestParam(defaultValue = "false") boolean reverseComplement,
+            @RequestHeader("Authorization") String token) {
+        try {
+            Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            FastaSlice slice = visualizationService.getProphageSequence(
+                    taskId, regionId, userId, start, end, reverseComplement);
+            StreamingResponseBody body = slice::writeTo;
+            return ResponseEntity.ok()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .contentLength(slice.length())
+                    .header("X-Sequence-Length", String.valueOf(slice.getSequenceLength()))
+                    .body(body);
+        } catch (Exception e) {
+            log.error("获取原噬菌体序列失败", e);
+            return ResponseEntity.badRequest().body(Result.error("获取序列失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 查找相似原噬菌体（当前用户全部任务中，按 MinHash 估计的 Jaccard / ANI 降序）
+     * @param taskId 任务ID
+     * @param regionId 区域ID
+     * @param minAni 最低 ANI（0~1，默认 0 即返回全部 LSH 候选）
+     * @param limit 最多返回条数（默认 20，最大 500）
+     * @param token JWT token
+     * @return query、similar、candidateCount、indexedCount
+     */
+    @GetMapping("/prophage/{taskId}/{regionId}/similar")
+    public Result<Map<String, Object>> findSimilarProphages(
+            @PathVariable Long taskId,
+            @PathVariable Long regionId,
+            @RequestParam(defaultValue = "0") double minAni,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestHeader("Authorization") String token) {
+        try {
+            Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            return Result.success(prophageSketchService.findSimilar(taskId, regionId, userId, minAni,
+                    Math.min(Math.max(limit, 1), 500)));
+        } catch (Exception e) {
+            log.error("查找相似原噬菌体失败", e);
+            return Result.error("查找相似原噬菌体失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询 ARG 预测结果（服务端过滤、排序、分页）
+     * @param taskId 任务ID
+     * @param query 查询条件（isArg、argClass、keyword、minProb、minPredProb、minClassProb、sort、desc、topK、cursor、limit）
+     * @param token JWT token
+     * @return 分页结果
+     */
+    @GetMapping("/arg/{taskId}/predictions")
+    public Result<Map<String, Object>> queryArgPredictions(
+            @PathVariable Long taskId,
+            ArgQuery query,
+            @RequestHeader("Authorization") String token) {
+        try {
+            Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            return Result.success(visualizationService.queryArgPredictions(taskId, userId, query));
+        } catch (Exception e) {
+            log.error("查询ARG预测结果失败", e);
+            return Result.error("查询失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 获取 ARG 预测汇总
+     * @param taskId 任务ID
+     * @param token JWT token
+     * @return 总数、阳性数和各分类数量
+     */
+    @GetMapping("/arg/{taskId}/summary")
+    public Result<Map<String, Object>> getArgSummary(
+            @PathVariable Long taskId,
+            @RequestHeader("Authorization") String token) {
+        try {
+            Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            return Result.success(visualizationService.getArgSummary(taskId, userId));
+        } catch (Exception e) {
+            log.error("获取ARG汇总失败", e);
+            return Result.error("获取汇总失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 区间重叠查询：宿主序列某一段内的原噬菌体区域、基因和 ARG 命中
+     * @param taskId 任务ID（genomad）
+     * @param seq 宿主序列名
+     * @param start 起点（从 1 开始，含）
+     * @param end 终点（含）
+     * @param argTaskId 关联的 ARG 任务ID（可选）
+     * @param limit 基因最多返回条数（默认 1000）
+     * @param token JWT token
+     * @return regions、genes、geneTotal、argHits
+     */
+    @GetMapping("/intervals/{taskId}")
+    public Result<Map<String, Object>> queryIntervals(
+            @PathVariable Long taskId,
+            @RequestParam String seq,
+            @RequestParam long start,
+            @RequestParam long end,
+            @RequestParam(required = false) Long argTaskId,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestHeader("Authorization") String token) {
+        try {
+            Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            return Result.success(visualizationService.queryIntervals(taskId, userId, seq, start, end, argTaskId, limit));
+        } catch (Exception e) {
+            log.error("区间查询失败", e);
+            return Result.error("区间查询失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 最近邻查询：距离宿主序列某个位置最近的原噬菌体区域、基因和 ARG 命中
+     * @param taskId 任务ID（genomad）
+     * @param seq 宿主序列名
+     * @param position 位置（从 1 开始）
+     * @param argTaskId 关联的 ARG 任务ID（可选）
+     * @param token JWT token
+     * @return region、gene、argHit（各含 distance）
+     */
+    @GetMapping("/intervals/{taskId}/nearest")
+    public Result<Map<String, Object>> nearestIntervals(
+            @PathVariable Long taskId,
+            @RequestParam String seq,
+            @RequestParam long position,
+            @RequestParam(required = false) Long argTaskId,
+            @RequestHeader("Authorization") String token) {
+        try {
+            Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            return Result.success(visualizationService.nearestIntervals(taskId, userId, seq, position, argTaskId));
+        } catch (Exception e) {
+            log.error("最近邻查询失败", e);
+            return Result.error("最近邻查询失败: " + e.getMessage());
         }
     }
 
     /**
-     * 获取统计图表数据
+     * 原噬菌体与 ARG 共定位（哪些 ARG 位于原噬菌体上）
+     * @param taskId 任务ID（genomad）
+     * @param argTaskId 关联的 ARG 任务ID（可选，不传时只用 geNomad 的 AMR 注释）
+     * @param token JWT token
+     * @return 各原噬菌体携带的 ARG 及每个命中所在或最近的原噬菌体
+     */
+    @GetMapping("/colocalization/{taskId}")
+    public Result<Map<String, Object>> getColocalization(
+            @PathVariable Long taskId,
+            @RequestParam(required = false) Long argTaskId,
+            @RequestHeader("Authorization") String token) {
+        try {
+            Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            return Result.success(visualizationService.getColocalization(taskId, userId, argTaskId));
+        } catch (Exception e) {
+            log.error("共定位分析失败", e);
+            return Result.error("共定位分析失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 获取基因组轨道瓦片的级别信息
+     * @param taskId 任务ID
+     * @param token JWT token
+     * @return 基因组长度、各级箱宽与瓦片数、序列偏移
+     */
+    @GetMapping("/tiles/{taskId}")
+    public ResponseEntity<?> getTrackTileMeta(
+            @PathVariable Long taskId,
+            @RequestHeader("Authorization") String token,
+            WebRequest request) {
+        try {
+            Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            Map<String, Object> meta = visualizationService.getTrackTileMeta(taskId, userId);
+            return cachedTile(request, "tiles-" + meta.get("version"), meta);
+        } catch (Exception e) {
+            log.error("获取轨道瓦片信息失败", e);
+            return ResponseEntity.ok(Result.error("获取轨道瓦片信息失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取一张基因组轨道瓦片
+     * 已完成任务的瓦片不会再变化，按任务完成时间生成 ETag，重新验证时返回 304
+     * @param taskId 任务ID
+     * @param level 级别（0 最粗，每级箱宽缩小 4 倍）
+     * @param index 瓦片编号
+     * @param token JWT token
+     * @return 各箱的覆盖、基因密度、链方向和 ARG 命中
+     */
+    @GetMapping("/tiles/{taskId}/{level}/{index}")
+    public ResponseEntity<?> getTrackTile(
+            @PathVariable Long taskId,
+            @PathVariable int level,
+            @PathVariable int index,
+            @RequestHeader("Authorization") String token,
+            WebRequest request) {
+        try {
+            Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            Map<String, Object> tile = visualizationService.getTrackTile(taskId, userId, level, index);
+            return cachedTile(request, "tile-" + tile.get("version") + "-" + level + "-" + index, tile);
+        } catch (Exception e) {
+            log.error("获取轨道瓦片失败", e);
+            return ResponseEntity.ok(Result.error("获取轨道瓦片失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * ETag 未变化时返回 304，否则返回带缓存头的瓦片数据
+     */
+    private ResponseEntity<?> cachedTile(WebRequest request, String tag, Map<String, Object> body) {
+        MediaType mediaType = negotiate(request);
+        String etag = etag(tag, mediaType);
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return revalidated(etag, mediaType).body(Result.success(body));
+    }
+
+    /**
+     * 带缓存头的 200 响应，按协商结果显式指定 Content-Type，保证响应格式与 ETag 一致
+     */
+    private static ResponseEntity.BodyBuilder revalidated(String etag, MediaType mediaType) {
+        return ResponseEntity.ok().cacheControl(REVALIDATE).eTag(etag)
+                .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT).contentType(mediaType);
+    }
+
+    private static ResponseEntity<?> notModified(String etag, String... vary) {
+        String[] headers = new String[vary.length + 2];
+        headers[0] = HttpHeaders.AUTHORIZATION;
+        headers[1] = HttpHeaders.ACCEPT;
+        System.arraycopy(vary, 0, headers, 2, vary.length);
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).eTag(etag)
+                .varyBy(headers).build();
+    }
+
+    /**
+     * 强 ETag：结果版本加响应格式，JSON 和 CBOR 两种表示的 ETag 不同
+     */
+    private static String etag(String tag, MediaType mediaType) {
+        return "\"" + tag + "-" + mediaType.getSubtype() + "\"";
+    }
+
+    /**
+     * 按 Accept 协商响应格式（JSON 或 CBOR）
+     * 每种格式取匹配它的最具体媒体范围的 q 值，q 较高者胜出；相同或无法解析时返回 JSON
+     */
+    private static MediaType negotiate(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        return quality(accepted, APPLICATION_CBOR) > quality(accepted, MediaType.APPLICATION_JSON)
+                ? APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * 媒体类型在 Accept 中的 q 值（RFC 9110：取匹配的最具体范围，type/subtype 优先于 type/*，再优先于 *&#47;*）
+     * Accept 为空时视为接受任意类型
+     */
+    private static double quality(List<MediaType> accepted, MediaType mediaType) {
+        if (accepted.isEmpty()) {
+            return 1;
+        }
+        int bestRank = -1;
+        double quality = 0;
+        for (MediaType range : accepted) {
+            if (!range.includes(mediaType)) {
+                continue;
+            }
+            int rank = range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+            if (rank > bestRank) {
+                bestRank = rank;
+                quality = range.getQualityValue();
+            }
+        }
+        return quality;
+    }
+
+    /**
+     * 客户端是否接受 gzip 编码，且协商结果为 JSON（预压缩文件只有 JSON 一种格式）
+     */
+    private static boolean acceptsPrecompressed(WebRequest request, MediaType mediaType) {
+        if (!MediaType.APPLICATION_JSON.equals(mediaType)) {
+            return false;
+        }
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean gzip = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                gzip = parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return gzip;
+    }
+
+    /**
+     * 获取统计图表数据（任务完成时预先计算）
      * @param taskId 任务ID
      * @param token JWT token
      * @return ECharts 格式的统计数据
      */
     @GetMapping("/statistics/{taskId}")
-    public Result<Map<String, Object>> getStatistics(
+    public ResponseEntity<?> getStatistics(
             @PathVariable Long taskId,
-            @RequestHeader("Authorization") String token) {
+            @RequestHeader("Authorization") String token,
+            WebRequest request) {
         try {
             Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            MediaType mediaType = negotiate(request);
+            String etag = etag("statistics-" + visualizationService.getResultVersion(taskId, userId), mediaType);
+            if (request.checkNotModified(etag)) {
+                return notModified(etag);
+            }
             Map<String, Object> statistics = visualizationService.getStatistics(taskId, userId);
-            return Result.success(statistics);
+            return revalidated(etag, mediaType).body(Result.success(statistics));
         } catch (Exception e) {
             log.error("获取统计数据失败", e);
-            return Result.error("获取统计数据失败: " + e.getMessage());
+            return ResponseEntity.ok(Result.error("获取统计数据失败: " + e.getMessage()));
         }
     }
 
@@ -103,5 +494,45 @@ public class VisualizationController {
             return Result.error("导出数据失败: " + e.getMessage());
         }
     }
+
+    /**
+     * 流式导出（NDJSON / JSON Lines / TSV，可选 gzip）
+     * 边解析边写出，内存占用与导出大小无关；首次导出完成后会缓存导出文件，支持 Range 断点续传
+     * @param taskId 任务ID
+     * @param format 导出格式（ndjson、jsonl、tsv，默认 ndjson）
+     * @param section 导出内容（all、regions、genes，可选）
+     * @param gzip 是否 gzip 压缩
+     * @param range Range 请求头（断点续传）
+     * @param token JWT token
+     * @return 导出文件
+     */
+    @GetMapping("/export/{taskId}/stream")
+    public ResponseEntity<?> streamExport(
+            @PathVariable Long taskId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String section,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader("Authorization") String token) {
+        try {
+            Long userId = jwtUtil.getUserIdFromToken(token.replace("Bearer ", ""));
+            StreamingExport export = visualizationService.prepareExport(taskId, userId, format, section, gzip);
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(export.getContentType()))
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename(export.getFileName()).build().toString());
+            
+            // 已有缓存或断点续传时返回文件，由 Spring 处理 Range 请求
+            if (range != null || export.isCached()) {
+                return builder.body(new FileSystemResource(export.materialize()));
+            }
+            StreamingResponseBody body = export::writeTo;
+            return builder.body(body);
+        } catch (Exception e) {
+            log.error("流式导出失败", e);
+            return ResponseEntity.badRequest().body(Result.error("导出数据失败: " + e.getMessage()));
+        }
+    }
 }
 
@@ -0,0 +1,22 @@
+package com.sy.event;
+
+import com.sy.pojo.AnalysisTask;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 文件删除事件（文件下的任务随之级联删除）
+ */
+@Data
+@AllArgsConstructor
+public class FileDeletedEvent {
+
+    private Long userId;
+
+    private Long fileId;
+
+    // 随文件一起删除的任务
+    private List<AnalysisTask> tasks;
+}
@@ -0,0 +1,16 @@
+package com.sy.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 文件上传完成事件
+ */
+@Data
+@AllArgsConstructor
+public class FileUploadedEvent {
+
+    private Long userId;
+
+    private Long fileId;
+}
@@ -0,0 +1,15 @@
+package com.sy.event;
+
+import com.sy.pojo.AnalysisTask;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 分析任务创建事件
+ */
+@Data
+@AllArgsConstructor
+public class TaskCreatedEvent {
+
+    private AnalysisTask task;
+}
@@ -0,0 +1,20 @@
+package com.sy.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 分析任务状态变更事件
+ */
+@Data
+@AllArgsConstructor
+public class TaskStatusChangedEvent {
+
+    private Long taskId;
+
+    private String analysisType;
+
+    private String oldStatus;
+
+    private String newStatus;
+}
@@ -0,0 +1,14 @@
+package com.sy.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 用户删除事件
+ */
+@Data
+@AllArgsConstructor
+public class UserDeletedEvent {
+
+    private Long userId;
+}
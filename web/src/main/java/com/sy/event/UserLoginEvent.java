@@ -0,0 +1,14 @@
+package com.sy.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 用户登录成功事件
+ */
+@Data
+@AllArgsConstructor
+public class UserLoginEvent {
+
+    private Long userId;
+}
@@ -0,0 +1,14 @@
+package com.sy.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 用户注册事件
+ */
+@Data
+@AllArgsConstructor
+public class UserRegisteredEvent {
+
+    private Long userId;
+}
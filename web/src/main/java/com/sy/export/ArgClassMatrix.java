@@ -0,0 +1,208 @@
+package com.sy.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sy.pojo.ArgClassSummary;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 样本 x ARG 分类矩阵
+ * 由各任务的分类汇总行拼成（每个样本只有几十个分类，不涉及逐条预测），逐行写出 TSV 或 JSON。
+ * 列按全部样本的阳性总数降序排列。
+ */
+public class ArgClassMatrix {
+
+    public static final String COUNT = "count";
+    public static final String MEAN_PROB = "meanProb";
+    public static final String FRACTION = "fraction";
+
+    public static final String TSV = "tsv";
+    public static final String JSON = "json";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final String value;
+    private final List<String> classes;
+    private final List<Sample> samples;
+
+    private ArgClassMatrix(String value, List<String> classes, List<Sample> samples) {
+        this.value = value;
+        this.classes = classes;
+        this.samples = samples;
+    }
+
+    /**
+     * @param value 单元格取值：count（阳性数）、meanProb（阳性平均概率）、fraction（占该样本阳性的比例）
+     * @param samples 样本（按输出顺序）
+     * @param summaries 这些样本的分类汇总行
+     */
+    public static ArgClassMatrix of(String value, List<Sample> samples, List<ArgClassSummary> summaries) {
+        String normalized = value == null || value.isEmpty() ? COUNT : value;
+        if (!COUNT.equals(normalized) && !MEAN_PROB.equals(normalized) && !FRACTION.equals(normalized)) {
+            throw new IllegalArgumentException("不支持的取值: " + value + "（可选 count、meanProb、fraction）");
+        }
+        Map<Long, Sample> byTask = new HashMap<>();
+        for (Sample sample : samples) {
+            byTask.put(sample.taskId, sample);
+        }
+        Map<String, Integer> classTotals = new HashMap<>();
+        for (ArgClassSummary summary : summaries) {
+            Sample sample = byTask.get(summary.getTaskId());
+            if (sample == null) {
+                continue;
+            }
+            if (ArgClassSummary.ALL.equals(summary.getArgClass())) {
+                sample.total = summary.getHitCount();
+                continue;
+            }
+            sample.cells.put(summary.getArgClass(), summary);
+            sample.positives += summary.getHitCount();
+            classTotals.merge(summary.getArgClass(), summary.getHitCount(), Integer::sum);
+        }
+        List<String> classes = new ArrayList<>(classTotals.keySet());
+        classes.sort((a, b) -> {
+            int c = Integer.compare(classTotals.get(b), classTotals.get(a));
+            return c != 0 ? c : a.compareTo(b);
+        });
+        return new ArgClassMatrix(normalized, classes, samples);
+    }
+
+    public List<String> getClasses() {
+        return classes;
+    }
+
+    public static String contentType(String format) {
+        return TSV.equals(format) ? "text/tab-separated-values" : "application/json";
+    }
+
+    /**
+     * 校验输出格式，为空时默认 TSV
+     */
+    public static String format(String format) {
+        if (format == null || format.isEmpty()) {
+            return TSV;
+        }
+        String normalized = format.toLowerCase(Locale.ROOT);
+        if (!TSV.equals(normalized) && !JSON.equals(normalized)) {
+            throw new IllegalArgumentException("不支持的格式: " + format + "（可选 tsv、json）");
+        }
+        return normalized;
+    }
+
+    /**
+     * 写出矩阵（不关闭输出流）
+     */
+    public void writeTo(OutputStream out, String format) throws IOException {
+        if (JSON.equals(format)) {
+            writeJson(out);
+        } else {
+            writeTsv(out);
+        }
+    }
+
+    private void writeTsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write("task_id\tsample\ttotal_predictions\tpositive_predictions");
+        for (String argClass : classes) {
+            writer.write('\t');
+            writer.write(clean(argClass));
+        }
+        writer.write('\n');
+        for (Sample sample : samples) {
+            writer.write(String.valueOf(sample.taskId));
+            writer.write('\t');
+            writer.write(clean(sample.name));
+            writer.write('\t');
+            writer.write(String.valueOf(sample.total));
+            writer.write('\t');
+            writer.write(String.valueOf(sample.positives));
+            for (String argClass : classes) {
+                writer.write('\t');
+                Number cell = cell(sample, argClass);
+                if (cell != null) {
+                    writer.write(cell instanceof Double ? String.format(Locale.ROOT, "%.4f", cell.doubleValue())
+                            : cell.toString());
+                }
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private void writeJson(OutputStream out) throws IOException {
+        JsonGenerator json = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.writeStartObject();
+        json.writeStringField("value", value);
+        json.writeArrayFieldStart("classes");
+        for (String argClass : classes) {
+            json.writeString(argClass);
+        }
+        json.writeEndArray();
+        json.writeArrayFieldStart("rows");
+        for (Sample sample : samples) {
+            json.writeStartObject();
+            json.writeNumberField("taskId", sample.taskId);
+            json.writeStringField("sample", sample.name);
+            json.writeNumberField("totalPredictions", sample.total);
+            json.writeNumberField("positivePredictions", sample.positives);
+            json.writeArrayFieldStart("values");
+            for (String argClass : classes) {
+                Number cell = cell(sample, argClass);
+                if (cell == null) {
+                    json.writeNull();
+                } else if (cell instanceof Double) {
+                    json.writeNumber(Math.round(cell.doubleValue() * 10000) / 10000.0);
+                } else {
+                    json.writeNumber(cell.intValue());
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.flush();
+    }
+
+    /**
+     * 单元格取值（平均概率在没有阳性时为 null）
+     */
+    private Number cell(Sample sample, String argClass) {
+        ArgClassSummary summary = sample.cells.get(argClass);
+        int count = summary != null ? summary.getHitCount() : 0;
+        switch (value) {
+            case MEAN_PROB:
+                return summary != null && summary.getProbCount() > 0
+                        ? summary.getProbSum() / summary.getProbCount() : null;
+            case FRACTION:
+                return sample.positives > 0 ? (double) count / sample.positives : 0.0;
+            default:
+                return count;
+        }
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    /**
+     * 一个样本（任务）
+     */
+    public static class Sample {
+        private final long taskId;
+        private final String name;
+        private final Map<String, ArgClassSummary> cells = new HashMap<>();
+        private int total = 0;
+        private int positives = 0;
+
+        public Sample(long taskId, String name) {
+            this.taskId = taskId;
+            this.name = name;
+        }
+    }
+}
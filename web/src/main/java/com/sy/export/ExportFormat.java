@@ -0,0 +1,47 @@
+package com.sy.export;
+
+/**
+ * 导出格式
+ * NDJSON 与 JSON Lines 内容相同（每行一个 JSON 对象），仅 Content-Type 和扩展名不同。
+ */
+public enum ExportFormat {
+
+    NDJSON("ndjson", "application/x-ndjson"),
+    JSONL("jsonl", "application/jsonl"),
+    TSV("tsv", "text/tab-separated-values");
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public boolean isJson() {
+        return this != TSV;
+    }
+
+    /**
+     * 按名称解析格式（大小写不敏感），为空时默认 NDJSON
+     */
+    public static ExportFormat of(String name) {
+        if (name == null || name.isEmpty()) {
+            return NDJSON;
+        }
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new RuntimeException("不支持的导出格式: " + name);
+    }
+}
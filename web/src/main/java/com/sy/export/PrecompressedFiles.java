@@ -0,0 +1,61 @@
+package com.sy.export;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 预压缩的响应文件（.index/&lt;name&gt;-&lt;version&gt;.json.gz）
+ * 文件名带结果版本，结果文件变化后旧版本自然失效；写入新版本时删除同名的旧版本。
+ */
+public final class PrecompressedFiles {
+
+    private static final String SUFFIX = ".json.gz";
+
+    @FunctionalInterface
+    public interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private PrecompressedFiles() {
+    }
+
+    /**
+     * @return 指定版本的压缩文件，不存在时返回 null
+     */
+    public static Path find(Path dir, String name, String version) {
+        Path file = dir.resolve(name + "-" + version + SUFFIX);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * 写入 gzip 压缩文件（先写临时文件再原子替换），并删除其他版本
+     */
+    public static Path write(Path dir, String name, String version, Writer writer) throws IOException {
+        Files.createDirectories(dir);
+        Path file = dir.resolve(name + "-" + version + SUFFIX);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16), 1 << 16)) {
+                writer.write(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(dir, name + "-*" + SUFFIX)) {
+            for (Path old : stale) {
+                if (!old.equals(file)) {
+                    Files.deleteIfExists(old);
+                }
+            }
+        }
+        return file;
+    }
+}
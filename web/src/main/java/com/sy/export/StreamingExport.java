@@ -0,0 +1,137 @@
+package com.sy.export;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 流式导出
+ * 首次导出时边生成边写给客户端，同时写入任务目录下的缓存文件；导出完整结束后缓存文件才生效。
+ * 之后的请求（包括断点续传的 Range 请求）直接读取缓存文件。
+ * 任务完成后输出文件不再变化，缓存无需失效，随任务目录一起删除。
+ */
+public class StreamingExport {
+
+    @FunctionalInterface
+    public interface ContentWriter {
+        /**
+         * 写出导出内容（不得关闭输出流）
+         */
+        void write(OutputStream out) throws IOException;
+    }
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final Path cacheFile;
+    private final String fileName;
+    private final String contentType;
+    private final boolean gzip;
+    private final ContentWriter writer;
+
+    public StreamingExport(Path cacheFile, ExportFormat format, boolean gzip, ContentWriter writer) {
+        this.cacheFile = cacheFile;
+        this.fileName = cacheFile.getFileName().toString();
+        this.contentType = gzip ? "application/gzip" : format.getContentType();
+        this.gzip = gzip;
+        this.writer = writer;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public boolean isCached() {
+        return Files.exists(cacheFile);
+    }
+
+    /**
+     * 写出导出内容，未缓存时同时生成缓存文件
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (isCached()) {
+            Files.copy(cacheFile, out);
+            out.flush();
+            return;
+        }
+        generate(out);
+    }
+
+    /**
+     * 确保缓存文件存在并返回其路径
+     */
+    public Path materialize() throws IOException {
+        if (!isCached()) {
+            generate(OutputStream.nullOutputStream());
+        }
+        return cacheFile;
+    }
+
+    private void generate(OutputStream out) throws IOException {
+        Files.createDirectories(cacheFile.getParent());
+        Path tmp = Files.createTempFile(cacheFile.getParent(), fileName, ".tmp");
+        boolean completed = false;
+        try {
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                OutputStream tee = new TeeOutputStream(out, file);
+                if (gzip) {
+                    GZIPOutputStream gz = new GZIPOutputStream(tee, GZIP_BUFFER_SIZE);
+                    writer.write(gz);
+                    gz.finish();
+                } else {
+                    writer.write(tee);
+                }
+                tee.flush();
+            }
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            completed = true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    /**
+     * 同时写入客户端和缓存文件；关闭时不关闭客户端输出流
+     */
+    private static class TeeOutputStream extends OutputStream {
+        private final OutputStream first;
+        private final OutputStream second;
+
+        TeeOutputStream(OutputStream first, OutputStream second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            first.write(b);
+            second.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            first.write(b, off, len);
+            second.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            first.flush();
+            second.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.sy.index;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * FASTA 索引（与 samtools faidx 的 .fai 格式兼容）
+ * 每条序列记录：名称、长度、首个碱基的字节偏移、每行碱基数、每行字节数（含换行符）。
+ * 据此可以直接计算任意碱基位置在文件中的字节偏移，无需从头扫描。
+ * 索引文件与 FASTA 文件放在同一目录，命名为 &lt;文件名&gt;.fai。
+ */
+public class FastaIndex {
+
+    public static final String SUFFIX = ".fai";
+
+    /**
+     * 单条序列的索引记录
+     */
+    public static class Entry {
+        private final String name;
+        private long length;
+        private long offset = -1;
+        private int lineBases;
+        private int lineWidth;
+
+        Entry(String name) {
+            this.name = name;
+        }
+
+        Entry(String name, long length, long offset, int lineBases, int lineWidth) {
+            this.name = name;
+            this.length = length;
+            this.offset = offset;
+            this.lineBases = lineBases;
+            this.lineWidth = lineWidth;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * 第 position 个碱基（从 0 开始）在文件中的字节偏移
+         */
+        long byteOffset(long position) {
+            return offset + (position / lineBases) * lineWidth + position % lineBases;
+        }
+    }
+
+    private final Map<String, Entry> entries;
+
+    private FastaIndex(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * 读取 FASTA 文件的索引，不存在或早于 FASTA 文件时重新构建并写入
+     */
+    public static FastaIndex loadOrBuild(Path fasta) throws IOException {
+        Path indexFile = indexPath(fasta);
+        if (Files.exists(indexFile)
+                && Files.getLastModifiedTime(indexFile).compareTo(Files.getLastModifiedTime(fasta)) >= 0) {
+            FastaIndex index = read(indexFile);
+            if (index != null) {
+                return index;
+            }
+        }
+        FastaIndex index = build(fasta);
+        index.write(indexFile);
+        return index;
+    }
+
+    public static Path indexPath(Path fasta) {
+        return fasta.resolveSibling(fasta.getFileName() + SUFFIX);
+    }
+
+    /**
+     * 扫描 FASTA 文件构建索引
+     * 同一序列内除最后一行外每行长度必须一致，否则无法按位置计算偏移
+     */
+    public static FastaIndex build(Path fasta) throws IOException {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        Entry[] current = {null};
+        // 当前序列是否已出现短行或空行（之后不允许再有数据行）
+        boolean[] closed = {false};
+        // 首个数据行之后的下一行用于确定每行字节数
+        boolean[] widthPending = {false};
+
+        LineScanner.scan(fasta, (offset, length, line) -> {
+            Entry entry = current[0];
+            if (widthPending[0]) {
+                entry.lineWidth = (int) (offset - entry.offset);
+                widthPending[0] = false;
+            }
+
+            if (line.startsWith(">")) {
+                String name = line.substring(1).trim().split("\\s+")[0];
+                if (entries.containsKey(name)) {
+                    throw new IOException("FASTA 序列名重复: " + name);
+                }
+                current[0] = new Entry(name);
+                entries.put(name, current[0]);
+                closed[0] = false;
+                return;
+            }
+            if (entry == null) {
+                return;
+            }
+            if (line.trim().isEmpty()) {
+                closed[0] = entry.length > 0;
+                return;
+            }
+            if (closed[0]) {
+                throw new IOException("FASTA 序列 " + entry.name + " 行长度不一致，无法建立索引");
+            }
+
+            if (entry.length == 0) {
+                entry.offset = offset;
+                entry.lineBases = length;
+                entry.lineWidth = length;
+                widthPending[0] = true;
+            } else if (length > entry.lineBases) {
+                throw new IOException("FASTA 序列 " + entry.name + " 行长度不一致，无法建立索引");
+            }
+            if (length < entry.lineBases) {
+                closed[0] = true;
+            }
+            entry.length += length;
+        });
+
+        // 空序列无法切片，不记录
+        entries.values().removeIf(e -> e.length == 0);
+        return new FastaIndex(entries);
+    }
+
+    /**
+     * 读取 .fai 文件，格式不符时返回 null
+     */
+    public static FastaIndex read(Path indexFile) {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(indexFile)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] values = line.split("\t");
+                if (values.length < 5) {
+                    return null;
+                }
+                entries.put(values[0], new Entry(values[0], Long.parseLong(values[1]),
+                        Long.parseLong(values[2]), Integer.parseInt(values[3]), Integer.parseInt(values[4])));
+            }
+            return new FastaIndex(entries);
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 写入 .fai 文件（先写临时文件再原子替换）
+     */
+    public void write(Path indexFile) throws IOException {
+        Path tmp = Files.createTempFile(indexFile.toAbsolutePath().getParent(), indexFile.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp)) {
+                for (Entry e : entries.values()) {
+                    writer.write(e.name + "\t" + e.length + "\t" + e.offset + "\t" + e.lineBases + "\t" + e.lineWidth);
+                    writer.write('\n');
+                }
+            }
+            Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public Entry get(String name) {
+        return entries.get(name);
+    }
+
+    public Collection<Entry> entries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * 取序列片段
+     * @param fasta FASTA 文件
+     * @param name 序列名
+     * @param start 起始位置（从 1 开始，包含），为空时从序列开头
+     * @param end 结束位置（包含），为空时到序列末尾
+     * @param reverseComplement 是否取反向互补
+     */
+    public FastaSlice slice(Path fasta, String name, Long start, Long end, boolean reverseComplement) {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("序列不存在: " + name);
+        }
+        long from = start != null ? start : 1;
+        long to = end != null ? end : entry.length;
+        if (from < 1 || to > entry.length || from > to) {
+            throw new IllegalArgumentException("序列范围无效: " + from + "-" + to + "（序列长度 " + entry.length + "）");
+        }
+        return new FastaSlice(fasta, entry, from - 1, to, reverseComplement);
+    }
+}
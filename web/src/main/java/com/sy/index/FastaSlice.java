@@ -0,0 +1,116 @@
+package com.sy.index;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * FASTA 序列片段
+ * 按 .fai 索引把需要的字节范围分窗口映射到内存，跳过换行符后直接写出碱基，
+ * 不在堆上拼接整条序列。反向互补时从末尾向前读取并逐个取互补碱基。
+ */
+public class FastaSlice {
+
+    // 每次映射的碱基数
+    private static final long WINDOW_BASES = 4L << 20;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] COMPLEMENT = new byte[128];
+
+    static {
+        for (int i = 0; i < COMPLEMENT.length; i++) {
+            COMPLEMENT[i] = (byte) i;
+        }
+        String from = "ACGTURYKMBVDHacgturykmbvdh";
+        String to = "TGCAAYRMKVBHDtgcaayrmkvbhd";
+        for (int i = 0; i < from.length(); i++) {
+            COMPLEMENT[from.charAt(i)] = (byte) to.charAt(i);
+        }
+    }
+
+    private final Path fasta;
+    private final FastaIndex.Entry entry;
+    // 从 0 开始，左闭右开
+    private final long start;
+    private final long end;
+    private final boolean reverseComplement;
+
+    FastaSlice(Path fasta, FastaIndex.Entry entry, long start, long end, boolean reverseComplement) {
+        this.fasta = fasta;
+        this.entry = entry;
+        this.start = start;
+        this.end = end;
+        this.reverseComplement = reverseComplement;
+    }
+
+    public String getName() {
+        return entry.getName();
+    }
+
+    public long getSequenceLength() {
+        return entry.getLength();
+    }
+
+    public long length() {
+        return end - start;
+    }
+
+    /**
+     * 写出片段的碱基（不含标题行和换行符）
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int pos = 0;
+        try (FileChannel channel = FileChannel.open(fasta, StandardOpenOption.READ)) {
+            if (!reverseComplement) {
+                for (long from = start; from < end; from += WINDOW_BASES) {
+                    long to = Math.min(end, from + WINDOW_BASES);
+                    MappedByteBuffer window = map(channel, from, to);
+                    while (window.hasRemaining()) {
+                        byte b = window.get();
+                        if (b == '\n' || b == '\r') {
+                            continue;
+                        }
+                        buffer[pos++] = b;
+                        if (pos == buffer.length) {
+                            out.write(buffer, 0, pos);
+                            pos = 0;
+                        }
+                    }
+                }
+            } else {
+                for (long to = end; to > start; to -= WINDOW_BASES) {
+                    long from = Math.max(start, to - WINDOW_BASES);
+                    MappedByteBuffer window = map(channel, from, to);
+                    for (int i = window.limit() - 1; i >= 0; i--) {
+                        byte b = window.get(i);
+                        if (b == '\n' || b == '\r') {
+                            continue;
+                        }
+                        buffer[pos++] = b >= 0 ? COMPLEMENT[b] : b;
+                        if (pos == buffer.length) {
+                            out.write(buffer, 0, pos);
+                            pos = 0;
+                        }
+                    }
+                }
+            }
+        }
+        if (pos > 0) {
+            out.write(buffer, 0, pos);
+        }
+        out.flush();
+    }
+
+    /**
+     * 映射碱基区间 [from, to) 对应的字节范围
+     */
+    private MappedByteBuffer map(FileChannel channel, long from, long to) throws IOException {
+        long byteStart = entry.byteOffset(from);
+        long byteEnd = entry.byteOffset(to - 1) + 1;
+        return channel.map(FileChannel.MapMode.READ_ONLY, byteStart, byteEnd - byteStart);
+    }
+}
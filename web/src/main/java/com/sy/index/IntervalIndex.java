@@ -0,0 +1,214 @@
+package com.sy.index;
+
+import java.util.*;
+
+/**
+ * 只读区间索引（按序列分组的隐式区间树）
+ * 每条序列的区间按起点排序后存成数组，以数组中点为根构成平衡二叉树，
+ * 每个节点记录子树内的最大终点；重叠查询时剪掉最大终点在查询起点之前的子树，
+ * 复杂度 O(log n + k)。另存前缀最大终点，最近邻查询只需两次二分查找。
+ * 坐标为闭区间 [start, end]（与 genomad 输出一致，从 1 开始）。
+ */
+public class IntervalIndex {
+
+    private final Map<String, Tree> trees;
+    private final int size;
+
+    private IntervalIndex(Map<String, Tree> trees, int size) {
+        this.trees = trees;
+        this.size = size;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 与 [start, end] 重叠的区间（按起点升序）
+     * @param seq 序列名
+     * @return 区间ID
+     */
+    public int[] overlapping(String seq, long start, long end) {
+        Tree tree = trees.get(seq);
+        if (tree == null || start > end) {
+            return new int[0];
+        }
+        IntList out = new IntList();
+        tree.overlapping(0, tree.starts.length, start, end, out);
+        return out.toArray();
+    }
+
+    /**
+     * 与 [start, end] 距离最近的区间（重叠时距离为 0，取起点最小的重叠区间）
+     * @param seq 序列名
+     * @return 区间ID，序列上没有区间时返回 -1
+     */
+    public int nearest(String seq, long start, long end) {
+        Tree tree = trees.get(seq);
+        if (tree == null) {
+            return -1;
+        }
+        return tree.nearest(start, end);
+    }
+
+    /**
+     * 两个闭区间之间的距离（重叠时为 0）
+     */
+    public static long distance(long start1, long end1, long start2, long end2) {
+        if (end1 < start2) {
+            return start2 - end1;
+        }
+        if (end2 < start1) {
+            return start1 - end2;
+        }
+        return 0;
+    }
+
+    private static class Tree {
+        private final long[] starts;
+        private final long[] ends;
+        private final int[] ids;
+        // 以 mid 为根的子树 [lo, hi) 内的最大终点
+        private final long[] maxEnds;
+        // [0, i] 内终点最大的下标
+        private final int[] prefixMaxEnd;
+
+        Tree(long[] starts, long[] ends, int[] ids) {
+            this.starts = starts;
+            this.ends = ends;
+            this.ids = ids;
+            this.maxEnds = new long[starts.length];
+            this.prefixMaxEnd = new int[starts.length];
+            buildMaxEnds(0, starts.length);
+            for (int i = 0; i < starts.length; i++) {
+                prefixMaxEnd[i] = i > 0 && ends[prefixMaxEnd[i - 1]] >= ends[i] ? prefixMaxEnd[i - 1] : i;
+            }
+        }
+
+        private long buildMaxEnds(int lo, int hi) {
+            if (lo >= hi) {
+                return Long.MIN_VALUE;
+            }
+            int mid = (lo + hi) >>> 1;
+            long max = Math.max(ends[mid], Math.max(buildMaxEnds(lo, mid), buildMaxEnds(mid + 1, hi)));
+            maxEnds[mid] = max;
+            return max;
+        }
+
+        void overlapping(int lo, int hi, long start, long end, IntList out) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (maxEnds[mid] < start) {
+                return;
+            }
+            overlapping(lo, mid, start, end, out);
+            if (starts[mid] > end) {
+                return;
+            }
+            if (ends[mid] >= start) {
+                out.add(ids[mid]);
+            }
+            overlapping(mid + 1, hi, start, end, out);
+        }
+
+        int nearest(long start, long end) {
+            // 起点不超过 end 的最后一个区间
+            int last = upperBound(end) - 1;
+            int best = -1;
+            long bestDistance = Long.MAX_VALUE;
+            if (last >= 0) {
+                int left = prefixMaxEnd[last];
+                if (ends[left] >= start) {
+                    // 有重叠
+                    IntList out = new IntList();
+                    overlapping(0, starts.length, start, end, out);
+                    return out.values[0];
+                }
+                best = left;
+                bestDistance = start - ends[left];
+            }
+            int right = last + 1;
+            if (right < starts.length && starts[right] - end < bestDistance) {
+                best = right;
+            }
+            return best < 0 ? -1 : ids[best];
+        }
+
+        private int upperBound(long value) {
+            int lo = 0;
+            int hi = starts.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] <= value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    private static class IntList {
+        private int[] values = new int[8];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * 逐个添加区间后一次性排序建树
+     */
+    public static class Builder {
+        private final Map<String, List<long[]>> intervals = new HashMap<>();
+        private int size = 0;
+
+        /**
+         * @param seq 序列名
+         * @param start 起点（含）
+         * @param end 终点（含）
+         * @param id 区间ID（查询结果返回该值）
+         */
+        public Builder add(String seq, long start, long end, int id) {
+            intervals.computeIfAbsent(seq, k -> new ArrayList<>())
+                    .add(new long[]{Math.min(start, end), Math.max(start, end), id});
+            size++;
+            return this;
+        }
+
+        public IntervalIndex build() {
+            Map<String, Tree> trees = new HashMap<>(intervals.size() * 2);
+            for (Map.Entry<String, List<long[]>> entry : intervals.entrySet()) {
+                List<long[]> list = entry.getValue();
+                list.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+                int n = list.size();
+                long[] starts = new long[n];
+                long[] ends = new long[n];
+                int[] ids = new int[n];
+                for (int i = 0; i < n; i++) {
+                    long[] interval = list.get(i);
+                    starts[i] = interval[0];
+                    ends[i] = interval[1];
+                    ids[i] = (int) interval[2];
+                }
+                trees.put(entry.getKey(), new Tree(starts, ends, ids));
+            }
+            return new IntervalIndex(trees, size);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.sy.index;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 按行扫描文件并给出每行的字节偏移（用于构建偏移索引）
+ * 行内容不含换行符，兼容 \n 和 \r\n。
+ */
+public final class LineScanner {
+
+    @FunctionalInterface
+    public interface LineHandler {
+        /**
+         * @param offset 行首字节偏移
+         * @param length 行字节长度（不含换行符）
+         * @param line 行内容
+         */
+        void onLine(long offset, int length, String line) throws IOException;
+    }
+
+    private LineScanner() {
+    }
+
+    public static void scan(Path file, LineHandler handler) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            long offset = 0;
+            long lineStart = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                offset++;
+                if (b == '\n') {
+                    emit(handler, lineStart, line);
+                    line.reset();
+                    lineStart = offset;
+                } else {
+                    line.write(b);
+                }
+            }
+            if (line.size() > 0) {
+                emit(handler, lineStart, line);
+            }
+        }
+    }
+
+    private static void emit(LineHandler handler, long lineStart, ByteArrayOutputStream line) throws IOException {
+        byte[] bytes = line.toByteArray();
+        int length = bytes.length;
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        handler.onLine(lineStart, length, new String(bytes, 0, length, StandardCharsets.UTF_8));
+    }
+}
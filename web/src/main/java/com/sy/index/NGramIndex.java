@@ -0,0 +1,198 @@
+package com.sy.index;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * 进程内 n-gram 倒排索引（子串搜索）
+ * 每个文档由若干字段组成，字段按顺序代表权重（越靠前越重要）。
+ * 查询时先用 n-gram 倒排表求交得到候选，再逐个校验真实子串并排序：
+ * 完全相等 > 前缀匹配 > 包含；同分时文档ID大的（较新的）在前。
+ * 查询串不短于 {@link #MIN_QUERY_LENGTH}，更短的查询无法走倒排表，由调用方回退到数据库查询。
+ */
+public class NGramIndex {
+
+    private static final int N = 3;
+
+    /**
+     * 支持的最短查询长度（去除首尾空白后）
+     */
+    public static final int MIN_QUERY_LENGTH = N;
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, String[]> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 添加或替换文档
+     * @param id 文档ID
+     * @param fields 文档字段（可包含 null）
+     */
+    public void put(long id, String... fields) {
+        String[] normalized = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            normalized[i] = normalize(fields[i]);
+        }
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            documents.put(id, normalized);
+            for (String field : normalized) {
+                for (String gram : grams(field)) {
+                    postings.computeIfAbsent(gram, k -> new HashSet<>()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文档
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 清空索引
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询所有匹配的文档ID（已排序）
+     * @param query 查询串（大小写不敏感的子串，短于 MIN_QUERY_LENGTH 时不匹配任何文档）
+     * @param filter 文档过滤条件，可为 null
+     * @return 按相关度排序的文档ID
+     */
+    public List<Long> search(String query, LongPredicate filter) {
+        String q = normalize(query);
+        if (q.length() < N) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates = candidates(q);
+            List<long[]> scored = new ArrayList<>();
+            for (Long id : candidates) {
+                if (filter != null && !filter.test(id)) {
+                    continue;
+                }
+                int score = score(documents.get(id), q);
+                if (score > 0) {
+                    scored.add(new long[]{score, id});
+                }
+            }
+            scored.sort((a, b) -> a[0] != b[0] ? Long.compare(b[0], a[0]) : Long.compare(b[1], a[1]));
+
+            List<Long> ids = new ArrayList<>(scored.size());
+            for (long[] s : scored) {
+                ids.add(s[1]);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 通过倒排表求候选集（查询长度不小于 n）
+     */
+    private Collection<Long> candidates(String q) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(q)) {
+            Set<Long> list = postings.get(gram);
+            if (list == null) {
+                return Collections.emptyList();
+            }
+            lists.add(list);
+        }
+        // 从最短的倒排表开始求交
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * 计算文档得分，0 表示不匹配
+     */
+    private int score(String[] fields, String q) {
+        if (fields == null) {
+            return 0;
+        }
+        int best = 0;
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i];
+            int match;
+            if (field.equals(q)) {
+                match = 3;
+            } else if (field.startsWith(q)) {
+                match = 2;
+            } else if (field.contains(q)) {
+                match = 1;
+            } else {
+                continue;
+            }
+            // 匹配类型优先，其次是字段顺序
+            best = Math.max(best, match * 100 + (fields.length - i));
+        }
+        return best;
+    }
+
+    private void removeInternal(long id) {
+        String[] old = documents.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String field : old) {
+            for (String gram : grams(field)) {
+                Set<Long> list = postings.get(gram);
+                if (list != null) {
+                    list.remove(id);
+                    if (list.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + N <= text.length(); i++) {
+            grams.add(text.substring(i, i + N));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+}
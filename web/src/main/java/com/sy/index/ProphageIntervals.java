@@ -0,0 +1,352 @@
+package com.sy.index;
+
+import com.sy.columnar.ArgTable;
+import com.sy.columnar.GeneTable;
+import com.sy.tsv.ProvirusColumns;
+import com.sy.tsv.TsvReader;
+import com.sy.tsv.TsvRow;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * 任务的区间索引：原噬菌体区域、基因和 ARG 命中，坐标统一为宿主序列上的绝对位置
+ * 基因优先取 annotate 目录下的全基因组基因表（坐标本身就是宿主序列坐标），
+ * 没有时取原噬菌体基因表，按所在区域的起点换算。
+ * ARG 命中包括 geNomad 自带的 annotation_amr 注释，以及 ARG 任务中预测为阳性、
+ * 序列ID能对应到本任务基因ID的蛋白（ARG 任务的输入为 geNomad 输出的 proteins.faa 时）。
+ */
+public class ProphageIntervals {
+
+    public static final String SOURCE_GENOMAD = "genomad";
+    public static final String SOURCE_ARG = "arg";
+
+    private final String[] regionNames;
+    private final String[] regionSources;
+    private final long[] regionStarts;
+    private final long[] regionEnds;
+    private final IntervalIndex regionIndex;
+
+    // 用于坐标查询的基因表（annotate 全基因组基因表，或原噬菌体基因表）
+    private final GeneTable genes;
+    private final boolean contigCoordinates;
+    private final String[] geneSeqs;
+    private final long[] geneStarts;
+    private final long[] geneEnds;
+    private final IntervalIndex geneIndex;
+    // 原噬菌体基因表（ARG 序列ID为原噬菌体基因ID时用于定位）
+    private final GeneTable provirusGenes;
+    private final Map<String, Integer> regionByName;
+
+    private ProphageIntervals(String[] regionNames, String[] regionSources, long[] regionStarts, long[] regionEnds,
+                              GeneTable genes, boolean contigCoordinates, GeneTable provirusGenes) {
+        this.regionNames = regionNames;
+        this.regionSources = regionSources;
+        this.regionStarts = regionStarts;
+        this.regionEnds = regionEnds;
+        this.genes = genes;
+        this.contigCoordinates = contigCoordinates;
+        this.provirusGenes = provirusGenes;
+
+        regionByName = new HashMap<>(regionNames.length * 2);
+        IntervalIndex.Builder regions = IntervalIndex.builder();
+        for (int r = 0; r < regionNames.length; r++) {
+            regionByName.put(regionNames[r], r);
+            regions.add(regionSources[r], regionStarts[r], regionEnds[r], r);
+        }
+        regionIndex = regions.build();
+
+        int n = genes != null ? genes.size() : 0;
+        geneSeqs = new String[n];
+        geneStarts = new long[n];
+        geneEnds = new long[n];
+        IntervalIndex.Builder geneBuilder = IntervalIndex.builder();
+        for (int i = 0; i < n; i++) {
+            if (contigCoordinates) {
+                geneSeqs[i] = genes.seqName(i);
+                geneStarts[i] = genes.start(i);
+                geneEnds[i] = genes.end(i);
+            } else {
+                Integer region = regionByName.get(genes.seqName(i));
+                if (region == null) {
+                    continue;
+                }
+                geneSeqs[i] = regionSources[region];
+                geneStarts[i] = regionStarts[region] + genes.start(i) - 1;
+                geneEnds[i] = regionStarts[region] + genes.end(i) - 1;
+            }
+            geneBuilder.add(geneSeqs[i], geneStarts[i], geneEnds[i], i);
+        }
+        geneIndex = geneBuilder.build();
+    }
+
+    /**
+     * @param provirusTsv provirus.tsv
+     * @param provirusGenes 原噬菌体基因表（可为 null）
+     * @param contigGenes annotate 全基因组基因表（可为 null）
+     */
+    public static ProphageIntervals build(Path provirusTsv, GeneTable provirusGenes, GeneTable contigGenes)
+            throws IOException {
+        List<String> names = new ArrayList<>();
+        List<String> sources = new ArrayList<>();
+        List<long[]> ranges = new ArrayList<>();
+        try (TsvReader reader = TsvReader.open(provirusTsv)) {
+            ProvirusColumns c = ProvirusColumns.of(reader.header());
+            while (reader.next()) {
+                TsvRow row = reader.row();
+                names.add(row.getString(c.seqName));
+                sources.add(row.getString(c.sourceSeq));
+                ranges.add(new long[]{row.getInt(c.start), row.getInt(c.end)});
+            }
+        }
+        int n = names.size();
+        long[] starts = new long[n];
+        long[] ends = new long[n];
+        for (int r = 0; r < n; r++) {
+            starts[r] = ranges.get(r)[0];
+            ends[r] = ranges.get(r)[1];
+        }
+        boolean contig = contigGenes != null;
+        return new ProphageIntervals(names.toArray(new String[0]), sources.toArray(new String[0]), starts, ends,
+                contig ? contigGenes : provirusGenes, contig, provirusGenes);
+    }
+
+    /**
+     * 区域数 + 基因数（用于缓存容量计算）
+     */
+    public int size() {
+        return regionNames.length + geneSeqs.length;
+    }
+
+    /**
+     * 与 [start, end] 重叠的原噬菌体区域
+     */
+    public List<Map<String, Object>> regionsOverlapping(String seq, long start, long end) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int r : regionIndex.overlapping(seq, start, end)) {
+            result.add(region(r));
+        }
+        return result;
+    }
+
+    /**
+     * 与 [start, end] 重叠的基因行号（按起点升序）
+     */
+    public int[] genesOverlapping(String seq, long start, long end) {
+        return geneIndex.overlapping(seq, start, end);
+    }
+
+    /**
+     * 距离 [start, end] 最近的原噬菌体区域（含 distance 字段），序列上没有区域时返回 null
+     */
+    public Map<String, Object> nearestRegion(String seq, long start, long end) {
+        int r = regionIndex.nearest(seq, start, end);
+        if (r < 0) {
+            return null;
+        }
+        Map<String, Object> region = region(r);
+        region.put("distance", IntervalIndex.distance(start, end, regionStarts[r], regionEnds[r]));
+        return region;
+    }
+
+    /**
+     * 距离 [start, end] 最近的基因（含 distance 字段），序列上没有基因时返回 null
+     */
+    public Map<String, Object> nearestGene(String seq, long start, long end) {
+        int i = geneIndex.nearest(seq, start, end);
+        if (i < 0) {
+            return null;
+        }
+        Map<String, Object> gene = gene(i);
+        gene.put("distance", IntervalIndex.distance(start, end, geneStarts[i], geneEnds[i]));
+        return gene;
+    }
+
+    public Map<String, Object> region(int r) {
+        Map<String, Object> region = new LinkedHashMap<>();
+        region.put("regionId", r + 1L);
+        region.put("seqName", regionNames[r]);
+        region.put("sourceSeq", regionSources[r]);
+        region.put("start", regionStarts[r]);
+        region.put("end", regionEnds[r]);
+        return region;
+    }
+
+    /**
+     * 基因（宿主序列坐标）
+     */
+    public Map<String, Object> gene(int i) {
+        Map<String, Object> gene = new LinkedHashMap<>();
+        gene.put("gene", genes.geneId(i));
+        gene.put("sourceSeq", geneSeqs[i]);
+        gene.put("start", geneStarts[i]);
+        gene.put("end", geneEnds[i]);
+        gene.put("strand", genes.strand(i));
+        String amr = genes.annotationAmr(i);
+        if (!amr.isEmpty()) {
+            gene.put("annotationAmr", amr);
+        }
+        return gene;
+    }
+
+    /**
+     * 收集 ARG 命中：geNomad annotation_amr 注释的基因，加上 ARG 任务中能定位到基因的阳性预测
+     * @param predictions ARG 任务的预测表（可为 null）
+     */
+    public ArgHits argHits(ArgTable predictions) {
+        List<Map<String, Object>> hits = new ArrayList<>();
+        IntervalIndex.Builder index = IntervalIndex.builder();
+        int unmapped = 0;
+        for (int i = 0; i < geneSeqs.length; i++) {
+            if (geneSeqs[i] != null && !genes.annotationAmr(i).isEmpty()) {
+                Map<String, Object> hit = gene(i);
+                hit.put("source", SOURCE_GENOMAD);
+                hit.put("argClass", genes.annotationAmr(i));
+                index.add(geneSeqs[i], geneStarts[i], geneEnds[i], hits.size());
+                hits.add(hit);
+            }
+        }
+        if (predictions != null) {
+            for (int p = 0; p < predictions.size(); p++) {
+                if (!predictions.isArg(p)) {
+                    continue;
+                }
+                Map<String, Object> hit = locate(predictions.id(p));
+                if (hit == null) {
+                    unmapped++;
+                    continue;
+                }
+                Map<String, Object> prediction = predictions.row(p);
+                hit.put("source", SOURCE_ARG);
+                hit.put("argClass", prediction.get("argClass"));
+                hit.put("prob", prediction.get("prob"));
+                hit.put("predictionIndex", prediction.get("index"));
+                index.add((String) hit.get("sourceSeq"), (Long) hit.get("start"), (Long) hit.get("end"), hits.size());
+                hits.add(hit);
+            }
+        }
+        return new ArgHits(hits, index.build(), unmapped);
+    }
+
+    /**
+     * 按基因ID定位（本任务的基因表，或原噬菌体基因ID换算为宿主坐标），找不到时返回 null
+     */
+    private Map<String, Object> locate(String geneId) {
+        if (geneId == null || geneId.isEmpty() || genes == null) {
+            return null;
+        }
+        int i = genes.indexOf(geneId);
+        if (i >= 0 && geneSeqs[i] != null) {
+            return gene(i);
+        }
+        if (contigCoordinates && provirusGenes != null) {
+            int row = provirusGenes.indexOf(geneId);
+            Integer region = row >= 0 ? regionByName.get(provirusGenes.seqName(row)) : null;
+            if (region != null) {
+                Map<String, Object> gene = new LinkedHashMap<>();
+                gene.put("gene", geneId);
+                gene.put("sourceSeq", regionSources[region]);
+                gene.put("start", regionStarts[region] + provirusGenes.start(row) - 1);
+                gene.put("end", regionStarts[region] + provirusGenes.end(row) - 1);
+                gene.put("strand", provirusGenes.strand(row));
+                return gene;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 原噬菌体与 ARG 共定位：每个命中标注所在（或最近的）原噬菌体，并按原噬菌体汇总
+     */
+    public Map<String, Object> colocalize(ArgHits argHits) {
+        Map<Integer, List<Map<String, Object>>> byRegion = new TreeMap<>();
+        List<Map<String, Object>> hits = new ArrayList<>(argHits.hits.size());
+        int onProphage = 0;
+        for (Map<String, Object> source : argHits.hits) {
+            Map<String, Object> hit = new LinkedHashMap<>(source);
+            String seq = (String) hit.get("sourceSeq");
+            long start = (Long) hit.get("start");
+            long end = (Long) hit.get("end");
+            int[] regions = regionIndex.overlapping(seq, start, end);
+            if (regions.length > 0) {
+                onProphage++;
+                hit.put("onProphage", true);
+                hit.put("prophage", regionNames[regions[0]]);
+                hit.put("distance", 0L);
+                for (int r : regions) {
+                    byRegion.computeIfAbsent(r, k -> new ArrayList<>()).add(hit);
+                }
+            } else {
+                hit.put("onProphage", false);
+                int r = regionIndex.nearest(seq, start, end);
+                hit.put("prophage", r >= 0 ? regionNames[r] : null);
+                hit.put("distance", r >= 0 ? IntervalIndex.distance(start, end, regionStarts[r], regionEnds[r]) : null);
+            }
+            hits.add(hit);
+        }
+
+        List<Map<String, Object>> prophages = new ArrayList<>(byRegion.size());
+        for (Map.Entry<Integer, List<Map<String, Object>>> entry : byRegion.entrySet()) {
+            Map<String, Object> region = region(entry.getKey());
+            region.put("argCount", entry.getValue().size());
+            region.put("args", entry.getValue());
+            prophages.add(region);
+        }
+        prophages.sort((a, b) -> Integer.compare((Integer) b.get("argCount"), (Integer) a.get("argCount")));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("totalHits", hits.size());
+        result.put("onProphageCount", onProphage);
+        result.put("prophagesWithArgs", prophages.size());
+        result.put("prophageCount", regionNames.length);
+        result.put("unmappedPredictions", argHits.unmapped);
+        result.put("contigCoordinates", contigCoordinates);
+        result.put("prophages", prophages);
+        result.put("hits", hits);
+        return result;
+    }
+
+    /**
+     * ARG 命中及其区间索引
+     */
+    public static class ArgHits {
+        private final List<Map<String, Object>> hits;
+        private final IntervalIndex index;
+        private final int unmapped;
+
+        ArgHits(List<Map<String, Object>> hits, IntervalIndex index, int unmapped) {
+            this.hits = hits;
+            this.index = index;
+            this.unmapped = unmapped;
+        }
+
+        public int size() {
+            return hits.size();
+        }
+
+        /**
+         * 与 [start, end] 重叠的命中
+         */
+        public List<Map<String, Object>> overlapping(String seq, long start, long end) {
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (int h : index.overlapping(seq, start, end)) {
+                result.add(hits.get(h));
+            }
+            return result;
+        }
+
+        /**
+         * 距离 [start, end] 最近的命中（含 distance 字段），没有时返回 null
+         */
+        public Map<String, Object> nearest(String seq, long start, long end) {
+            int h = index.nearest(seq, start, end);
+            if (h < 0) {
+                return null;
+            }
+            Map<String, Object> hit = new LinkedHashMap<>(hits.get(h));
+            hit.put("distance", IntervalIndex.distance(start, end, (Long) hit.get("start"), (Long) hit.get("end")));
+            return hit;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.sy.index;
+
+import com.sy.util.GenomadOutputs;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * 原噬菌体字节偏移索引
+ * 记录 provirus.tsv 中每个区域数据行、provirus_genes.tsv 中每个原噬菌体的基因行的字节范围，
+ * 详情请求据此直接定位读取，不再扫描整个文件。序列由 provirus.fna 的 {@link FastaIndex} 提供。
+ * 索引文件同时记录源文件的大小和修改时间，源文件变化后视为失效。
+ */
+public class ProphageOffsetIndex {
+
+    private static final int MAGIC = 0x50494458; // "PIDX"
+    private static final int VERSION = 2;
+
+    // 源文件指纹：provirus.tsv、genes.tsv 各 (size, mtime)
+    private final long[] fingerprint;
+    // 区域数据行：[offset, length]，下标为 regionId - 1
+    private final List<long[]> regionRows;
+    // seqName -> 基因行字节范围列表 [start, end)
+    private final Map<String, List<long[]>> geneRanges;
+
+    private ProphageOffsetIndex(long[] fingerprint, List<long[]> regionRows, Map<String, List<long[]>> geneRanges) {
+        this.fingerprint = fingerprint;
+        this.regionRows = regionRows;
+        this.geneRanges = geneRanges;
+    }
+
+    /**
+     * 读取任务的索引，不存在或已失效时重新构建并写入 task_X/.index/prophage.idx
+     * @param taskDir 任务输出目录
+     * @param baseName genomad 基础名称
+     */
+    public static ProphageOffsetIndex loadOrBuild(Path taskDir, String baseName) throws IOException {
+        Path dir = GenomadOutputs.findProvirusesDir(taskDir, baseName);
+        Path provirusTsv = dir.resolve(baseName + "_provirus.tsv");
+        Path genesTsv = dir.resolve(baseName + "_provirus_genes.tsv");
+        Path indexFile = taskDir.resolve(".index").resolve("prophage.idx");
+
+        ProphageOffsetIndex index = read(indexFile, provirusTsv, genesTsv);
+        if (index == null) {
+            index = build(provirusTsv, genesTsv);
+            index.write(indexFile);
+        }
+        return index;
+    }
+
+    /**
+     * 扫描源文件构建索引（genes 不存在时基因部分为空）
+     */
+    public static ProphageOffsetIndex build(Path provirusTsv, Path genesTsv) throws IOException {
+        List<long[]> regionRows = new ArrayList<>();
+        boolean[] headerSeen = {false};
+        LineScanner.scan(provirusTsv, (offset, length, line) -> {
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                return;
+            }
+            if (!headerSeen[0]) {
+                headerSeen[0] = true;
+                return;
+            }
+            regionRows.add(new long[]{offset, length});
+        });
+
+        Map<String, List<long[]>> geneRanges = new HashMap<>();
+        if (Files.exists(genesTsv)) {
+            boolean[] genesHeaderSeen = {false};
+            LineScanner.scan(genesTsv, (offset, length, line) -> {
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    return;
+                }
+                if (!genesHeaderSeen[0]) {
+                    genesHeaderSeen[0] = true;
+                    return;
+                }
+                // 基因ID形如 <seqName>_<序号>
+                int tab = line.indexOf('\t');
+                String geneId = tab >= 0 ? line.substring(0, tab) : line;
+                int sep = geneId.lastIndexOf('_');
+                String seqName = sep > 0 ? geneId.substring(0, sep) : geneId;
+                List<long[]> ranges = geneRanges.computeIfAbsent(seqName, k -> new ArrayList<>());
+                long end = offset + length;
+                long[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+                // 同一原噬菌体的基因通常连续存放，相邻行合并为一个范围
+                if (last != null && offset - last[1] <= 2) {
+                    last[1] = end;
+                } else {
+                    ranges.add(new long[]{offset, end});
+                }
+            });
+        }
+
+        return new ProphageOffsetIndex(fingerprint(provirusTsv, genesTsv), regionRows, geneRanges);
+    }
+
+    /**
+     * 读取索引文件，文件不存在、格式不符或源文件已变化时返回 null
+     */
+    public static ProphageOffsetIndex read(Path indexFile, Path provirusTsv, Path genesTsv) {
+        if (!Files.exists(indexFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            long[] fingerprint = new long[4];
+            for (int i = 0; i < fingerprint.length; i++) {
+                fingerprint[i] = in.readLong();
+            }
+            if (!Arrays.equals(fingerprint, fingerprint(provirusTsv, genesTsv))) {
+                return null;
+            }
+
+            int regionCount = in.readInt();
+            List<long[]> regionRows = new ArrayList<>(regionCount);
+            for (int i = 0; i < regionCount; i++) {
+                regionRows.add(new long[]{in.readLong(), in.readInt()});
+            }
+
+            int geneCount = in.readInt();
+            Map<String, List<long[]>> geneRanges = new HashMap<>();
+            for (int i = 0; i < geneCount; i++) {
+                String seqName = in.readUTF();
+                int rangeCount = in.readInt();
+                List<long[]> ranges = new ArrayList<>(rangeCount);
+                for (int j = 0; j < rangeCount; j++) {
+                    ranges.add(new long[]{in.readLong(), in.readLong()});
+                }
+                geneRanges.put(seqName, ranges);
+            }
+            return new ProphageOffsetIndex(fingerprint, regionRows, geneRanges);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 写入索引文件（先写临时文件再原子替换）
+     */
+    public void write(Path indexFile) throws IOException {
+        Files.createDirectories(indexFile.getParent());
+        Path tmp = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                for (long value : fingerprint) {
+                    out.writeLong(value);
+                }
+
+                out.writeInt(regionRows.size());
+                for (long[] row : regionRows) {
+                    out.writeLong(row[0]);
+                    out.writeInt((int) row[1]);
+                }
+
+                out.writeInt(geneRanges.size());
+                for (Map.Entry<String, List<long[]>> entry : geneRanges.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().size());
+                    for (long[] range : entry.getValue()) {
+                        out.writeLong(range[0]);
+                        out.writeLong(range[1]);
+                    }
+                }
+            }
+            Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public int regionCount() {
+        return regionRows.size();
+    }
+
+    /**
+     * 读取指定区域的数据行
+     * @param regionId 区域序号（从 1 开始）
+     * @return 行内容，不存在时返回 null
+     */
+    public String readRegionRow(Path provirusTsv, long regionId) throws IOException {
+        if (regionId < 1 || regionId > regionRows.size()) {
+            return null;
+        }
+        long[] row = regionRows.get((int) (regionId - 1));
+        return readRange(provirusTsv, row[0], row[0] + row[1]);
+    }
+
+    /**
+     * 读取指定原噬菌体的全部基因行
+     */
+    public List<String> readGeneRows(Path genesTsv, String seqName) throws IOException {
+        List<long[]> ranges = geneRanges.get(seqName);
+        if (ranges == null) {
+            return Collections.emptyList();
+        }
+        List<String> rows = new ArrayList<>();
+        for (long[] range : ranges) {
+            for (String line : readRange(genesTsv, range[0], range[1]).split("\n")) {
+                String row = line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+                if (!row.isEmpty()) {
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 定位读取字节范围 [start, end)
+     */
+    public static String readRange(Path file, long start, long end) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+            long position = start;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+            }
+            return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static long[] fingerprint(Path provirusTsv, Path genesTsv) throws IOException {
+        long[] fingerprint = new long[4];
+        Path[] files = {provirusTsv, genesTsv};
+        for (int i = 0; i < files.length; i++) {
+            if (Files.exists(files[i])) {
+                fingerprint[i * 2] = Files.size(files[i]);
+                fingerprint[i * 2 + 1] = Files.getLastModifiedTime(files[i]).toMillis();
+            }
+        }
+        return fingerprint;
+    }
+}
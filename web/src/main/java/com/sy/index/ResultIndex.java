@@ -0,0 +1,518 @@
+package com.sy.index;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+/**
+ * 跨任务结果倒排索引
+ * 每个任务的结果是一个段（Segment）：单元为原噬菌体区域、基因或 ARG 预测，
+ * 词项为 字段:值（ARG 分类、marker、taxname、注释词、accession、整合酶等），段内倒排表为有序单元号。
+ * 全局只保存 词项 -> 含该词项的任务集合，查询时先按词项求交筛出候选任务（并按用户过滤），
+ * 再在各候选段内求值布尔条件。任务完成时整段替换，删除任务时整段移除。
+ * 打分：每个条件 idf（按任务数计算）乘以 1 + ln(命中单元数)，求和后降序。
+ */
+public class ResultIndex {
+
+    public static final byte REGION = 0;
+    public static final byte GENE = 1;
+    public static final byte PREDICTION = 2;
+
+    private static final String[] TYPE_NAMES = {"region", "gene", "prediction"};
+
+    /**
+     * 命中粒度：任务、原噬菌体区域（区域内基因的词项归入区域）、单元（基因继承所在区域的词项）
+     */
+    public enum Scope {
+        TASK, REGION, GENE;
+
+        /**
+         * 按名称解析（大小写不敏感），为空时默认 TASK
+         */
+        public static Scope of(String name) {
+            if (name == null || name.isEmpty()) {
+                return TASK;
+            }
+            for (Scope scope : values()) {
+                if (scope.name().equalsIgnoreCase(name)) {
+                    return scope;
+                }
+            }
+            throw new IllegalArgumentException("不支持的查询粒度: " + name + "（可选 task、region、gene）");
+        }
+    }
+
+    private final Map<Long, Segment> segments = new HashMap<>();
+    // 词项 -> 含该词项的任务
+    private final TreeMap<String, Set<Long>> termTasks = new TreeMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 添加或替换任务的段
+     */
+    public void put(Segment segment) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(segment.taskId);
+            segments.put(segment.taskId, segment);
+            for (String term : segment.postings.keySet()) {
+                termTasks.computeIfAbsent(term, k -> new HashSet<>()).add(segment.taskId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long taskId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(taskId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除用户的全部任务
+     */
+    public void removeUser(long userId) {
+        lock.writeLock().lock();
+        try {
+            List<Long> taskIds = new ArrayList<>();
+            for (Segment segment : segments.values()) {
+                if (segment.userId == userId) {
+                    taskIds.add(segment.taskId);
+                }
+            }
+            taskIds.forEach(this::removeInternal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(long taskId) {
+        Segment old = segments.remove(taskId);
+        if (old == null) {
+            return;
+        }
+        for (String term : old.postings.keySet()) {
+            Set<Long> tasks = termTasks.get(term);
+            if (tasks != null) {
+                tasks.remove(taskId);
+                if (tasks.isEmpty()) {
+                    termTasks.remove(term);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询
+     * @param query 布尔查询
+     * @param scope 命中粒度
+     * @param userId 只返回该用户的任务
+     * @param limit 最多返回条数
+     */
+    public SearchResult search(ResultQuery query, Scope scope, long userId, int limit) {
+        lock.readLock().lock();
+        try {
+            int totalTasks = Math.max(segments.size(), 1);
+            Map<Long, Map<Integer, Map<String, Object>>> hits = new HashMap<>();
+            for (ResultQuery.Conjunction conjunction : query.getConjunctions()) {
+                List<Clause> required = new ArrayList<>();
+                for (ResultQuery.Term term : conjunction.getRequired()) {
+                    required.add(expand(term, totalTasks));
+                }
+                List<Clause> excluded = new ArrayList<>();
+                for (ResultQuery.Term term : conjunction.getExcluded()) {
+                    excluded.add(expand(term, totalTasks));
+                }
+                for (long taskId : candidates(required, userId)) {
+                    evaluate(segments.get(taskId), scope, required, excluded, hits);
+                }
+            }
+
+            List<Map<String, Object>> ranked = new ArrayList<>();
+            hits.values().forEach(byKey -> ranked.addAll(byKey.values()));
+            ranked.sort((a, b) -> {
+                int c = Double.compare((Double) b.get("score"), (Double) a.get("score"));
+                if (c != 0) {
+                    return c;
+                }
+                c = Long.compare((Long) b.get("taskId"), (Long) a.get("taskId"));
+                return c != 0 ? c : String.valueOf(a.get("name")).compareTo(String.valueOf(b.get("name")));
+            });
+            int total = ranked.size();
+            return new SearchResult(total, new ArrayList<>(ranked.subList(0, Math.min(total, Math.max(limit, 0)))));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 展开条件为具体词项（不带字段时展开到所有字段，前缀匹配时展开到所有同前缀词项）
+     */
+    private Clause expand(ResultQuery.Term term, int totalTasks) {
+        List<String> fields = term.getField() != null
+                ? Collections.singletonList(term.getField()) : ResultQuery.FIELDS;
+        List<String> terms = new ArrayList<>();
+        Set<Long> tasks = new HashSet<>();
+        for (String field : fields) {
+            String key = field + ":" + term.getValue();
+            Map<String, Set<Long>> matched = term.isPrefix()
+                    ? termTasks.subMap(key, true, key + Character.MAX_VALUE, true)
+                    : (termTasks.containsKey(key) ? Collections.singletonMap(key, termTasks.get(key)) : Collections.emptyMap());
+            for (Map.Entry<String, Set<Long>> entry : matched.entrySet()) {
+                terms.add(entry.getKey());
+                tasks.addAll(entry.getValue());
+            }
+        }
+        double idf = Math.log(1 + (double) totalTasks / Math.max(tasks.size(), 1));
+        return new Clause(term.toString(), terms, tasks, idf);
+    }
+
+    /**
+     * 所有必需条件都出现的用户任务（从任务数最少的条件开始求交）
+     */
+    private List<Long> candidates(List<Clause> required, long userId) {
+        List<Clause> ordered = new ArrayList<>(required);
+        ordered.sort(Comparator.comparingInt(c -> c.tasks.size()));
+        List<Long> result = new ArrayList<>();
+        outer:
+        for (long taskId : ordered.get(0).tasks) {
+            if (segments.get(taskId).userId != userId) {
+                continue;
+            }
+            for (int i = 1; i < ordered.size(); i++) {
+                if (!ordered.get(i).tasks.contains(taskId)) {
+                    continue outer;
+                }
+            }
+            result.add(taskId);
+        }
+        return result;
+    }
+
+    private void evaluate(Segment segment, Scope scope, List<Clause> required, List<Clause> excluded,
+                          Map<Long, Map<Integer, Map<String, Object>>> hits) {
+        int keys = scope == Scope.TASK ? 1 : segment.size();
+        int[][] counts = new int[required.size()][];
+        BitSet alive = null;
+        for (int c = 0; c < required.size(); c++) {
+            counts[c] = count(segment, scope, required.get(c), keys);
+            BitSet matched = nonZero(counts[c]);
+            if (alive == null) {
+                alive = matched;
+            } else {
+                alive.and(matched);
+            }
+            if (alive.isEmpty()) {
+                return;
+            }
+        }
+        for (Clause clause : excluded) {
+            alive.andNot(nonZero(count(segment, scope, clause, keys)));
+        }
+
+        Map<Integer, Map<String, Object>> taskHits = hits.computeIfAbsent(segment.taskId, k -> new HashMap<>());
+        for (int key = alive.nextSetBit(0); key >= 0; key = alive.nextSetBit(key + 1)) {
+            double score = 0;
+            Map<String, Integer> matches = new LinkedHashMap<>();
+            for (int c = 0; c < required.size(); c++) {
+                int tf = counts[c][key];
+                score += required.get(c).idf * (1 + Math.log(tf));
+                matches.put(required.get(c).label, tf);
+            }
+            score = Math.round(score * 1000) / 1000.0;
+            Map<String, Object> existing = taskHits.get(key);
+            if (existing != null && (Double) existing.get("score") >= score) {
+                continue;
+            }
+            taskHits.put(key, hit(segment, scope, key, score, matches));
+        }
+    }
+
+    /**
+     * 各命中键上该条件的命中单元数
+     */
+    private static int[] count(Segment segment, Scope scope, Clause clause, int keys) {
+        int[] tf = new int[keys];
+        IntConsumer increment = key -> tf[key]++;
+        for (String term : clause.terms) {
+            int[] posting = segment.postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+            for (int unit : posting) {
+                segment.forEachKey(unit, scope, increment);
+            }
+        }
+        return tf;
+    }
+
+    private static BitSet nonZero(int[] counts) {
+        BitSet set = new BitSet(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                set.set(i);
+            }
+        }
+        return set;
+    }
+
+    private static Map<String, Object> hit(Segment segment, Scope scope, int key, double score,
+                                           Map<String, Integer> matches) {
+        Map<String, Object> hit = new LinkedHashMap<>();
+        hit.put("taskId", segment.taskId);
+        hit.put("fileId", segment.fileId);
+        hit.put("analysisType", segment.analysisType);
+        if (scope == Scope.TASK) {
+            hit.put("type", "task");
+            hit.put("name", null);
+        } else {
+            hit.put("type", TYPE_NAMES[segment.types[key]]);
+            hit.put("name", segment.names[key]);
+            int region = segment.regionOf[key];
+            hit.put("region", region >= 0 ? segment.names[region] : null);
+        }
+        hit.put("score", score);
+        hit.put("matches", matches);
+        return hit;
+    }
+
+    /**
+     * 值的规范形式（去首尾空白、小写）
+     */
+    public static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 注释文本切词：按非字母数字（保留连字符）切分，去掉少于 3 个字符的词和纯数字
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : normalize(text).split("[^\\p{L}\\p{N}-]+")) {
+            if (word.length() >= 3 && !word.chars().allMatch(Character::isDigit)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static class Clause {
+        private final String label;
+        private final List<String> terms;
+        private final Set<Long> tasks;
+        private final double idf;
+
+        Clause(String label, List<String> terms, Set<Long> tasks, double idf) {
+            this.label = label;
+            this.terms = terms;
+            this.tasks = tasks;
+            this.idf = idf;
+        }
+    }
+
+    /**
+     * 查询结果
+     */
+    public static class SearchResult {
+        private final int total;
+        private final List<Map<String, Object>> hits;
+
+        SearchResult(int total, List<Map<String, Object>> hits) {
+            this.total = total;
+            this.hits = hits;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public List<Map<String, Object>> getHits() {
+            return hits;
+        }
+    }
+
+    /**
+     * 一个任务的结果（只读）
+     */
+    public static class Segment {
+        private final long taskId;
+        private final long userId;
+        private final Long fileId;
+        private final String analysisType;
+        private final byte[] types;
+        private final String[] names;
+        // 单元所在区域的单元号（不属于任何区域时为 -1）
+        private final int[] regionOf;
+        // 区域单元号 -> 区域内的基因单元号
+        private final Map<Integer, int[]> regionGenes;
+        private final Map<String, int[]> postings;
+
+        private Segment(long taskId, long userId, Long fileId, String analysisType, byte[] types, String[] names,
+                        int[] regionOf, Map<Integer, int[]> regionGenes, Map<String, int[]> postings) {
+            this.taskId = taskId;
+            this.userId = userId;
+            this.fileId = fileId;
+            this.analysisType = analysisType;
+            this.types = types;
+            this.names = names;
+            this.regionOf = regionOf;
+            this.regionGenes = regionGenes;
+            this.postings = postings;
+        }
+
+        public int size() {
+            return types.length;
+        }
+
+        public int termCount() {
+            return postings.size();
+        }
+
+        /**
+         * 单元在给定粒度下对应的命中键
+         */
+        private void forEachKey(int unit, Scope scope, IntConsumer consumer) {
+            switch (scope) {
+                case TASK:
+                    consumer.accept(0);
+                    break;
+                case REGION:
+                    int region = types[unit] == REGION ? unit : regionOf[unit];
+                    if (region >= 0) {
+                        consumer.accept(region);
+                    }
+                    break;
+                default:
+                    if (types[unit] == REGION) {
+                        for (int gene : regionGenes.getOrDefault(unit, new int[0])) {
+                            consumer.accept(gene);
+                        }
+                    } else {
+                        consumer.accept(unit);
+                    }
+            }
+        }
+    }
+
+    /**
+     * 逐个添加单元和词项后生成段
+     */
+    public static class SegmentBuilder {
+        private final long taskId;
+        private final long userId;
+        private final Long fileId;
+        private final String analysisType;
+        private final List<Byte> types = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<Integer> regionOf = new ArrayList<>();
+        private final Map<String, List<Integer>> postings = new HashMap<>();
+
+        public SegmentBuilder(long taskId, long userId, Long fileId, String analysisType) {
+            this.taskId = taskId;
+            this.userId = userId;
+            this.fileId = fileId;
+            this.analysisType = analysisType;
+        }
+
+        public int addRegion(String name) {
+            return addUnit(REGION, name, -1);
+        }
+
+        /**
+         * @param region 所在区域的单元号（没有时为 -1）
+         */
+        public int addGene(String name, int region) {
+            return addUnit(GENE, name, region);
+        }
+
+        public int addPrediction(String name) {
+            return addUnit(PREDICTION, name, -1);
+        }
+
+        private int addUnit(byte type, String name, int region) {
+            types.add(type);
+            names.add(name);
+            regionOf.add(region);
+            return types.size() - 1;
+        }
+
+        /**
+         * 添加词项（空值和 NA 忽略）
+         */
+        public void addTerm(int unit, String field, String value) {
+            String normalized = normalize(value);
+            if (normalized.isEmpty() || "na".equals(normalized)) {
+                return;
+            }
+            List<Integer> posting = postings.computeIfAbsent(field + ":" + normalized, k -> new ArrayList<>());
+            if (posting.isEmpty() || posting.get(posting.size() - 1) != unit) {
+                posting.add(unit);
+            }
+        }
+
+        /**
+         * 按分隔符拆分后逐个添加词项
+         */
+        public void addTerms(int unit, String field, String values, String separator) {
+            if (values == null) {
+                return;
+            }
+            for (String value : values.split(separator)) {
+                addTerm(unit, field, value);
+            }
+        }
+
+        /**
+         * 文本切词后逐个添加词项
+         */
+        public void addWords(int unit, String field, String text) {
+            for (String word : words(text)) {
+                addTerm(unit, field, word);
+            }
+        }
+
+        public Segment build() {
+            int n = types.size();
+            byte[] typeArray = new byte[n];
+            int[] regionArray = new int[n];
+            Map<Integer, List<Integer>> genes = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                typeArray[i] = types.get(i);
+                regionArray[i] = regionOf.get(i);
+                if (regionArray[i] >= 0) {
+                    genes.computeIfAbsent(regionArray[i], k -> new ArrayList<>()).add(i);
+                }
+            }
+            Map<Integer, int[]> regionGenes = new HashMap<>(genes.size() * 2);
+            genes.forEach((region, list) -> regionGenes.put(region, toArray(list)));
+            Map<String, int[]> postingArrays = new HashMap<>(postings.size() * 2);
+            postings.forEach((term, list) -> postingArrays.put(term, toArray(list)));
+            return new Segment(taskId, userId, fileId, analysisType, typeArray, names.toArray(new String[0]),
+                    regionArray, regionGenes, postingArrays);
+        }
+
+        private static int[] toArray(List<Integer> list) {
+            int[] array = new int[list.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = list.get(i);
+            }
+            return array;
+        }
+    }
+}
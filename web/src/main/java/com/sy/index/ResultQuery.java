@@ -0,0 +1,189 @@
+package com.sy.index;
+
+import java.util.*;
+
+/**
+ * 结果索引的布尔查询
+ * 语法：空格分隔的条件默认为 AND，OR 分隔多组条件，条件前加 - 或 NOT 表示排除；
+ * 条件形如 字段:值，值含空格时用双引号括起，末尾 * 表示前缀匹配；不带字段时在所有字段中匹配。
+ * 例：argClass:beta-lactam OR argClass:tetracycline、integrase:yes -taxname:inoviridae
+ */
+public class ResultQuery {
+
+    public static final String ARG_CLASS = "argclass";
+    public static final String AMR = "amr";
+    public static final String MARKER = "marker";
+    public static final String TAXNAME = "taxname";
+    public static final String ANNOTATION = "annotation";
+    public static final String ACCESSION = "accession";
+    public static final String INTEGRASE = "integrase";
+
+    public static final List<String> FIELDS =
+            Arrays.asList(ARG_CLASS, AMR, MARKER, TAXNAME, ANNOTATION, ACCESSION, INTEGRASE);
+
+    // 各组之间为 OR
+    private final List<Conjunction> conjunctions;
+
+    private ResultQuery(List<Conjunction> conjunctions) {
+        this.conjunctions = conjunctions;
+    }
+
+    public List<Conjunction> getConjunctions() {
+        return conjunctions;
+    }
+
+    /**
+     * 解析查询
+     * @throws IllegalArgumentException 语法错误或字段不存在
+     */
+    public static ResultQuery parse(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new IllegalArgumentException("查询不能为空");
+        }
+        List<Conjunction> conjunctions = new ArrayList<>();
+        Conjunction current = new Conjunction();
+        boolean negate = false;
+        for (String token : tokens(query)) {
+            if ("OR".equals(token)) {
+                conjunctions.add(current.validate());
+                current = new Conjunction();
+                negate = false;
+                continue;
+            }
+            if ("AND".equals(token)) {
+                continue;
+            }
+            if ("NOT".equals(token)) {
+                negate = true;
+                continue;
+            }
+            if (token.startsWith("-") && token.length() > 1) {
+                negate = true;
+                token = token.substring(1);
+            }
+            for (Term term : terms(token)) {
+                (negate ? current.excluded : current.required).add(term);
+            }
+            negate = false;
+        }
+        conjunctions.add(current.validate());
+        return new ResultQuery(conjunctions);
+    }
+
+    /**
+     * 按空白切分，双引号内的空白保留
+     */
+    private static List<String> tokens(String query) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (token.length() > 0) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                }
+            } else {
+                token.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("查询中的引号未闭合");
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * 单个条件；注释按词索引，多词的注释条件拆成多个词条件
+     */
+    private static List<Term> terms(String token) {
+        int colon = token.indexOf(':');
+        String field = colon > 0 ? token.substring(0, colon).toLowerCase(Locale.ROOT) : null;
+        String value = colon > 0 ? token.substring(colon + 1) : token;
+        if (field != null && !FIELDS.contains(field)) {
+            throw new IllegalArgumentException("未知的查询字段: " + field + "，可用字段: " + String.join(", ", FIELDS));
+        }
+        boolean prefix = value.endsWith("*");
+        if (prefix) {
+            value = value.substring(0, value.length() - 1);
+        }
+        value = ResultIndex.normalize(value);
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("查询条件缺少值: " + token);
+        }
+        List<Term> terms = new ArrayList<>();
+        if (ANNOTATION.equals(field)) {
+            List<String> words = ResultIndex.words(value);
+            for (int i = 0; i < words.size(); i++) {
+                terms.add(new Term(field, words.get(i), prefix && i == words.size() - 1));
+            }
+            if (terms.isEmpty()) {
+                throw new IllegalArgumentException("注释条件至少需要一个不少于 3 个字符的词: " + token);
+            }
+        } else {
+            terms.add(new Term(field, value, prefix));
+        }
+        return terms;
+    }
+
+    /**
+     * 一组 AND 条件
+     */
+    public static class Conjunction {
+        private final List<Term> required = new ArrayList<>();
+        private final List<Term> excluded = new ArrayList<>();
+
+        public List<Term> getRequired() {
+            return required;
+        }
+
+        public List<Term> getExcluded() {
+            return excluded;
+        }
+
+        private Conjunction validate() {
+            if (required.isEmpty()) {
+                throw new IllegalArgumentException("每组查询条件至少需要一个非排除条件");
+            }
+            return this;
+        }
+    }
+
+    /**
+     * 字段:值（字段为 null 时匹配所有字段）
+     */
+    public static class Term {
+        private final String field;
+        private final String value;
+        private final boolean prefix;
+
+        Term(String field, String value, boolean prefix) {
+            this.field = field;
+            this.value = value;
+            this.prefix = prefix;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public boolean isPrefix() {
+            return prefix;
+        }
+
+        @Override
+        public String toString() {
+            return (field != null ? field + ":" : "") + value + (prefix ? "*" : "");
+        }
+    }
+}
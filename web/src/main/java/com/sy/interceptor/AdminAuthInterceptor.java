@@ -28,34 +28,51 @@ public class AdminAuthInterceptor implements HandlerInterceptor {
             return true;
         }
         
+        int status = check(request);
+        if (status != HttpServletResponse.SC_OK) {
+            response.setStatus(status);
+            return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * 请求是否携带有效的管理员 token（SecurityConfig 也用它保护 /actuator 端点）
+     */
+    public boolean isAdmin(HttpServletRequest request) {
+        return check(request) == HttpServletResponse.SC_OK;
+    }
+    
+    /**
+     * 校验管理员 token
+     * @return 通过时为 200，未登录或 token 无效为 401，非管理员为 403
+     */
+    private int check(HttpServletRequest request) {
         // 获取token
         String token = request.getHeader("Authorization");
         if (token == null || !token.startsWith("Bearer ")) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            return false;
+            return HttpServletResponse.SC_UNAUTHORIZED;
         }
         
         token = token.substring(7);
         
         // 验证token并检查管理员权限
         if (!jwtUtil.validateToken(token)) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            return false;
+            return HttpServletResponse.SC_UNAUTHORIZED;
         }
         
         // 获取用户ID并检查是否为管理员
         Long userId = jwtUtil.getUserIdFromToken(token);
         if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            return false;
+            return HttpServletResponse.SC_UNAUTHORIZED;
         }
         
         User user = userMapper.findById(userId);
         if (user == null || !"ADMIN".equals(user.getRole())) {
-            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-            return false;
+            return HttpServletResponse.SC_FORBIDDEN;
         }
         
-        return true;
+        return HttpServletResponse.SC_OK;
     }
-} 
\ No newline at end of file
+} 
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.sy.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.sy.pojo.AnalysisResult;
+import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
@@ -31,5 +32,11 @@ public interface AnalysisResultMapper extends BaseMapper<AnalysisResult> {
      */
     @Select("SELECT COUNT(*) FROM analysis_results WHERE task_id = #{taskId}")
     Integer countByTaskId(@Param("taskId") Long taskId);
+    
+    /**
+     * 删除任务的全部结果
+     */
+    @Delete("DELETE FROM analysis_results WHERE task_id = #{taskId}")
+    int deleteByTaskId(@Param("taskId") Long taskId);
 }
 
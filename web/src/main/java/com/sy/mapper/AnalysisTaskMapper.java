@@ -5,8 +5,11 @@ import com.sy.pojo.AnalysisTask;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 分析任务 Mapper 接口
@@ -26,6 +29,73 @@ public interface AnalysisTaskMapper extends BaseMapper<AnalysisTask> {
     @Select("SELECT * FROM analysis_tasks WHERE user_id = #{userId} AND status = #{status} ORDER BY created_at DESC")
     List<AnalysisTask> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") String status);
     
+    /**
+     * 键集分页查询用户任务（按 created_at, task_id 倒序）
+     * 依赖索引 idx_tasks_user_created (user_id, created_at, task_id)
+     * 和 idx_tasks_user_type_created (user_id, analysis_type, created_at, task_id)
+     * @param userId 用户ID
+     * @param status 任务状态（可选）
+     * @param analysisType 分析类型 genomad/arg（可选）
+     * @param cursorTime 上一页最后一条的创建时间（为空表示第一页）
+     * @param cursorId 上一页最后一条的任务ID
+     * @param limit 返回条数
+     * @return 任务列表
+     */
+    @Select({
+        "<script>",
+        "SELECT * FROM analysis_tasks ",
+        "WHERE user_id = #{userId} ",
+        "<if test='status != null and status != \"\"'>",
+        "   AND status = #{status} ",
+        "</if>",
+        "<if test='analysisType != null and analysisType != \"\"'>",
+        "   AND analysis_type = #{analysisType} ",
+        "</if>",
+        "<if test='cursorTime != null'>",
+        "   AND (created_at &lt; #{cursorTime} OR (created_at = #{cursorTime} AND task_id &lt; #{cursorId})) ",
+        "</if>",
+        "ORDER BY created_at DESC, task_id DESC ",
+        "LIMIT #{limit}",
+        "</script>"
+    })
+    List<AnalysisTask> findUserTasksPage(@Param("userId") Long userId,
+                                         @Param("status") String status,
+                                         @Param("analysisType") String analysisType,
+                                         @Param("cursorTime") LocalDateTime cursorTime,
+                                         @Param("cursorId") Long cursorId,
+                                         @Param("limit") int limit);
+
+    /**
+     * 查询尚未回填分析类型的任务（一次性迁移用）
+     */
+    @Select("SELECT * FROM analysis_tasks WHERE analysis_type IS NULL ORDER BY task_id ASC LIMIT #{limit}")
+    List<AnalysisTask> findWithoutAnalysisType(@Param("limit") int limit);
+
+    /**
+     * 更新任务的分析类型
+     */
+    @Update("UPDATE analysis_tasks SET analysis_type = #{analysisType} WHERE task_id = #{taskId}")
+    int updateAnalysisType(@Param("taskId") Long taskId, @Param("analysisType") String analysisType);
+
+    /**
+     * 仅当任务仍在运行时写入最终状态（与取消、删除并发时以先提交者为准）
+     * @param progress 为空时保持原进度
+     * @param errorMessage 为空时保持原错误信息
+     * @return 更新行数，0 表示任务已不在运行
+     */
+    @Update("UPDATE analysis_tasks SET status = #{status}, progress = COALESCE(#{progress}, progress), "
+            + "error_message = COALESCE(#{errorMessage}, error_message), completed_at = #{completedAt} "
+            + "WHERE task_id = #{taskId} AND status = 'RUNNING'")
+    int finishIfRunning(@Param("taskId") Long taskId, @Param("status") String status,
+                        @Param("progress") Integer progress, @Param("errorMessage") String errorMessage,
+                        @Param("completedAt") LocalDateTime completedAt);
+
+    /**
+     * 按主键顺序分批扫描任务（用于构建搜索索引）
+     */
+    @Select("SELECT * FROM analysis_tasks WHERE task_id > #{lastId} ORDER BY task_id ASC LIMIT #{limit}")
+    List<AnalysisTask> findAfterId(@Param("lastId") Long lastId, @Param("limit") int limit);
+
     /**
      * 查询运行中的任务
      */
@@ -38,6 +108,44 @@ public interface AnalysisTaskMapper extends BaseMapper<AnalysisTask> {
     @Select("SELECT COUNT(*) FROM analysis_tasks WHERE user_id = #{userId}")
     Integer countByUserId(@Param("userId") Long userId);
     
+    /**
+     * 按用户分组统计任务数量（一次查询一批用户）
+     * @return 每行包含 userId、cnt
+     */
+    @Select("<script>" +
+            "SELECT user_id AS userId, COUNT(*) AS cnt FROM analysis_tasks " +
+            "WHERE user_id IN " +
+            "<foreach collection='userIds' item='id' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            " GROUP BY user_id" +
+            "</script>")
+    List<Map<String, Object>> countGroupByUserIds(@Param("userIds") List<Long> userIds);
+    
+    /**
+     * 按状态统计任务数量（用于统计对账）
+     * @return 每行包含 name、cnt
+     */
+    @Select("SELECT status AS name, COUNT(*) AS cnt FROM analysis_tasks GROUP BY status")
+    List<Map<String, Object>> countGroupByStatus();
+    
+    /**
+     * 按分析类型统计任务数量（用于统计对账）
+     * @return 每行包含 name、cnt
+     */
+    @Select("SELECT analysis_type AS name, COUNT(*) AS cnt FROM analysis_tasks " +
+            "WHERE analysis_type IS NOT NULL GROUP BY analysis_type")
+    List<Map<String, Object>> countGroupByAnalysisType();
+    
+    /**
+     * 按天统计创建的任务数（用于统计对账）
+     * @return 每行包含 day（yyyy-MM-dd）、cnt
+     */
+    @Select("SELECT DATE_FORMAT(created_at, '%Y-%m-%d') AS day, COUNT(*) AS cnt FROM analysis_tasks " +
+            "WHERE created_at >= #{startTime} " +
+            "GROUP BY DATE_FORMAT(created_at, '%Y-%m-%d')")
+    List<Map<String, Object>> countDailyCreated(@Param("startTime") LocalDateTime startTime);
+    
     /**
      * 根据文件ID查询任务列表
      */
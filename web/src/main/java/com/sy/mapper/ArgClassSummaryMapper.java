@@ -0,0 +1,45 @@
+package com.sy.mapper;
+
+import com.sy.pojo.ArgClassSummary;
+import org.apache.ibatis.annotations.*;
+
+import java.util.List;
+
+/**
+ * ARG 分类汇总 Mapper 接口
+ */
+@Mapper
+public interface ArgClassSummaryMapper {
+
+    /**
+     * 批量写入，(task_id, arg_class) 已存在时覆盖
+     */
+    @Insert({
+        "<script>",
+        "INSERT INTO arg_class_summary (task_id, arg_class, hit_count, prob_sum, prob_count) VALUES ",
+        "<foreach collection='rows' item='r' separator=','>",
+        "(#{r.taskId}, #{r.argClass}, #{r.hitCount}, #{r.probSum}, #{r.probCount})",
+        "</foreach>",
+        " ON DUPLICATE KEY UPDATE hit_count = VALUES(hit_count), prob_sum = VALUES(prob_sum),",
+        " prob_count = VALUES(prob_count)",
+        "</script>"
+    })
+    int upsertBatch(@Param("rows") List<ArgClassSummary> rows);
+
+    /**
+     * 删除任务的汇总
+     */
+    @Delete("DELETE FROM arg_class_summary WHERE task_id = #{taskId}")
+    int deleteByTaskId(@Param("taskId") Long taskId);
+
+    /**
+     * 查询一批任务的汇总
+     */
+    @Select({
+        "<script>",
+        "SELECT * FROM arg_class_summary WHERE task_id IN ",
+        "<foreach collection='taskIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>",
+        "</script>"
+    })
+    List<ArgClassSummary> findByTaskIds(@Param("taskIds") List<Long> taskIds);
+}
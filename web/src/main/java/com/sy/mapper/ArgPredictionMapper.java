@@ -0,0 +1,24 @@
+package com.sy.mapper;
+
+import com.sy.pojo.ArgPrediction;
+import org.apache.ibatis.annotations.*;
+
+/**
+ * ARG 预测结果 Mapper 接口
+ */
+@Mapper
+public interface ArgPredictionMapper {
+
+    /**
+     * 插入一行（批量写入时在 BATCH 执行器中逐行调用，由驱动改写为多值 INSERT）
+     */
+    @Insert("INSERT INTO arg_predictions (task_id, row_index, seq_id, is_arg, pred_prob, arg_class, class_prob, prob) "
+            + "VALUES (#{taskId}, #{rowIndex}, #{seqId}, #{isArg}, #{predProb}, #{argClass}, #{classProb}, #{prob})")
+    int insert(ArgPrediction prediction);
+
+    /**
+     * 删除任务的全部预测
+     */
+    @Delete("DELETE FROM arg_predictions WHERE task_id = #{taskId}")
+    int deleteByTaskId(@Param("taskId") Long taskId);
+}
@@ -6,7 +6,9 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 基因文件 Mapper 接口
@@ -26,12 +28,61 @@ public interface GenomeFileMapper extends BaseMapper<GenomeFile> {
     @Select("SELECT * FROM genome_files WHERE md5_hash = #{md5Hash} AND user_id = #{userId} AND status = 'UPLOADED' LIMIT 1")
     GenomeFile findByMd5Hash(@Param("md5Hash") String md5Hash, @Param("userId") Long userId);
     
+    /**
+     * 按主键顺序分批扫描文件（用于构建搜索索引）
+     */
+    @Select("SELECT * FROM genome_files WHERE file_id > #{lastId} ORDER BY file_id ASC LIMIT #{limit}")
+    List<GenomeFile> findAfterId(@Param("lastId") Long lastId, @Param("limit") int limit);
+
     /**
      * 统计用户文件数量
      */
     @Select("SELECT COUNT(*) FROM genome_files WHERE user_id = #{userId} AND status = 'UPLOADED'")
     Integer countByUserId(@Param("userId") Long userId);
     
+    /**
+     * 键集分页查询所有文件（管理员）
+     * 按 (upload_time, file_id) 倒序，游标为上一页最后一条记录
+     */
+    @Select({
+        "<script>",
+        "SELECT * FROM genome_files ",
+        "<where>",
+        "<if test='cursorTime != null'>",
+        "   (upload_time &lt; #{cursorTime} OR (upload_time = #{cursorTime} AND file_id &lt; #{cursorId})) ",
+        "</if>",
+        "</where>",
+        "ORDER BY upload_time DESC, file_id DESC ",
+        "LIMIT #{limit}",
+        "</script>"
+    })
+    List<GenomeFile> findFilesPage(@Param("cursorTime") LocalDateTime cursorTime,
+                                   @Param("cursorId") Long cursorId,
+                                   @Param("limit") int limit);
+    
+    /**
+     * 按用户分组统计文件数量（一次查询一批用户）
+     * @return 每行包含 userId、cnt
+     */
+    @Select("<script>" +
+            "SELECT user_id AS userId, COUNT(*) AS cnt FROM genome_files " +
+            "WHERE status = 'UPLOADED' AND user_id IN " +
+            "<foreach collection='userIds' item='id' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            " GROUP BY user_id" +
+            "</script>")
+    List<Map<String, Object>> countGroupByUserIds(@Param("userIds") List<Long> userIds);
+    
+    /**
+     * 按天统计上传文件数（用于统计对账）
+     * @return 每行包含 day（yyyy-MM-dd）、cnt
+     */
+    @Select("SELECT DATE_FORMAT(upload_time, '%Y-%m-%d') AS day, COUNT(*) AS cnt FROM genome_files " +
+            "WHERE upload_time >= #{startTime} " +
+            "GROUP BY DATE_FORMAT(upload_time, '%Y-%m-%d')")
+    List<Map<String, Object>> countDailyUploads(@Param("startTime") LocalDateTime startTime);
+    
     /**
      * 搜索文件（根据文件名或用户名）
      * @param keyword 搜索关键字
@@ -8,6 +8,7 @@ import org.apache.ibatis.annotations.Select;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 登录日志 Mapper 接口
@@ -54,10 +55,27 @@ public interface LoginLogMapper extends BaseMapper<LoginLog> {
     @Select("SELECT COUNT(DISTINCT user_id) FROM login_logs " +
             "WHERE status = 'SUCCESS' AND login_time >= #{startTime}")
     long countActiveUsers(@Param("startTime") LocalDateTime startTime);
+
+    /**
+     * 按天统计成功登录次数（用于统计对账）
+     * @return 每行包含 day（yyyy-MM-dd）、cnt
+     */
+    @Select("SELECT DATE_FORMAT(login_time, '%Y-%m-%d') AS day, COUNT(*) AS cnt FROM login_logs " +
+            "WHERE status = 'SUCCESS' AND login_time >= #{startTime} " +
+            "GROUP BY DATE_FORMAT(login_time, '%Y-%m-%d')")
+    List<Map<String, Object>> countDailyLogins(@Param("startTime") LocalDateTime startTime);
+
+    /**
+     * 查询每天登录过的用户（用于重建每日活跃用户）
+     * @return 每行包含 day（yyyy-MM-dd）、userId
+     */
+    @Select("SELECT DISTINCT DATE_FORMAT(login_time, '%Y-%m-%d') AS day, user_id AS userId FROM login_logs " +
+            "WHERE status = 'SUCCESS' AND login_time >= #{startTime}")
+    List<Map<String, Object>> findDailyActiveUsers(@Param("startTime") LocalDateTime startTime);
     
     /**
      * 查询用户的登录历史
      */
     @Select("SELECT * FROM login_logs WHERE user_id = #{userId} ORDER BY login_time DESC LIMIT #{limit}")
     List<LoginLog> findUserLoginHistory(@Param("userId") Long userId, @Param("limit") Integer limit);
-} 
\ No newline at end of file
+} 
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.sy.pojo.User;
 import org.apache.ibatis.annotations.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -85,4 +86,24 @@ public interface UserMapper extends BaseMapper<User> {
         "</script>"
     })
     List<User> selectUsersWithKeyword(@Param("keyword") String keyword);
+
+    /**
+     * 键集分页查询用户列表
+     * 按 (created_at, user_id) 倒序，游标为上一页最后一条记录
+     */
+    @Select({
+        "<script>",
+        "SELECT * FROM users ",
+        "<where>",
+        "<if test='cursorTime != null'>",
+        "   (created_at &lt; #{cursorTime} OR (created_at = #{cursorTime} AND user_id &lt; #{cursorId})) ",
+        "</if>",
+        "</where>",
+        "ORDER BY created_at DESC, user_id DESC ",
+        "LIMIT #{limit}",
+        "</script>"
+    })
+    List<User> findUsersPage(@Param("cursorTime") LocalDateTime cursorTime,
+                             @Param("cursorId") Long cursorId,
+                             @Param("limit") int limit);
 }
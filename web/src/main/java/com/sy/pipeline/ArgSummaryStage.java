@@ -0,0 +1,35 @@
+package com.sy.pipeline;
+
+import com.sy.pojo.AnalysisTask;
+import com.sy.service.ArgMatrixService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * 汇总 ARG 任务的分类丰度（依赖 ColumnarTableStage 生成的 arg.col）
+ */
+@Component
+@Order(60)
+@RequiredArgsConstructor
+public class ArgSummaryStage implements TaskCompletionStage {
+
+    private final ArgMatrixService argMatrixService;
+
+    @Override
+    public String getName() {
+        return "arg-summary";
+    }
+
+    @Override
+    public boolean supports(AnalysisTask task) {
+        return "arg".equals(task.getAnalysisType());
+    }
+
+    @Override
+    public void run(AnalysisTask task, Path taskDir) throws Exception {
+        argMatrixService.summarizeTask(task, taskDir);
+    }
+}
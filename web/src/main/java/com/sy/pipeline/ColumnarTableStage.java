@@ -0,0 +1,58 @@
+package com.sy.pipeline;
+
+import com.sy.cache.ColumnarTableCache;
+import com.sy.pojo.AnalysisTask;
+import com.sy.util.GenomadOutputs;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 构建列式表：ARG 任务的 all_predictions.tsv、genomad 任务的 provirus_genes.tsv 和 annotate/genes.tsv
+ * 写入任务目录下的 .index/*.col，同时放入缓存，首次打开可视化时无需再解析 TSV
+ */
+@Component
+@Order(20)
+@RequiredArgsConstructor
+public class ColumnarTableStage implements TaskCompletionStage {
+
+    private final ColumnarTableCache columnarTableCache;
+
+    @Override
+    public String getName() {
+        return "columnar-table";
+    }
+
+    @Override
+    public boolean supports(AnalysisTask task) {
+        return true;
+    }
+
+    @Override
+    public void run(AnalysisTask task, Path taskDir) throws Exception {
+        if ("arg".equals(task.getAnalysisType())) {
+            Path argFile = taskDir.resolve("all_predictions.tsv");
+            if (Files.exists(argFile)) {
+                columnarTableCache.getArgTable(task.getTaskId(), taskDir, argFile);
+            }
+            return;
+        }
+
+        String baseName = GenomadOutputs.baseName(taskDir);
+        if (baseName == null) {
+            return;
+        }
+        Path dir = GenomadOutputs.findProvirusesDir(taskDir, baseName);
+        Path genesFile = dir.resolve(baseName + "_provirus_genes.tsv");
+        if (Files.exists(genesFile)) {
+            columnarTableCache.getGeneTable(task.getTaskId(), taskDir, genesFile);
+        }
+        Path contigGenesFile = taskDir.resolve(baseName + "_annotate").resolve(baseName + "_genes.tsv");
+        if (Files.exists(contigGenesFile)) {
+            columnarTableCache.getContigGeneTable(task.getTaskId(), taskDir, contigGenesFile);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.sy.pipeline;
+
+import com.sy.pojo.AnalysisTask;
+import com.sy.service.VisualizationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * 预先生成 gzip 压缩的基因组可视化响应，重复查看同一任务时直接返回文件
+ */
+@Component
+@Order(80)
+@RequiredArgsConstructor
+public class PrecompressStage implements TaskCompletionStage {
+
+    private final VisualizationService visualizationService;
+
+    @Override
+    public String getName() {
+        return "precompress";
+    }
+
+    @Override
+    public boolean supports(AnalysisTask task) {
+        return true;
+    }
+
+    @Override
+    public void run(AnalysisTask task, Path taskDir) throws Exception {
+        visualizationService.precompressVisualization(task);
+    }
+}
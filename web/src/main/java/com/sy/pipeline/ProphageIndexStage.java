@@ -0,0 +1,44 @@
+package com.sy.pipeline;
+
+import com.sy.index.FastaIndex;
+import com.sy.index.ProphageOffsetIndex;
+import com.sy.pojo.AnalysisTask;
+import com.sy.util.GenomadOutputs;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 构建原噬菌体字节偏移索引和 provirus.fna 的 FASTA 索引（genomad 任务）
+ */
+@Component
+@Order(10)
+public class ProphageIndexStage implements TaskCompletionStage {
+
+    @Override
+    public String getName() {
+        return "prophage-index";
+    }
+
+    @Override
+    public boolean supports(AnalysisTask task) {
+        return !"arg".equals(task.getAnalysisType());
+    }
+
+    @Override
+    public void run(AnalysisTask task, Path taskDir) throws Exception {
+        String baseName = GenomadOutputs.baseName(taskDir);
+        if (baseName == null) {
+            return;
+        }
+        Path dir = GenomadOutputs.findProvirusesDir(taskDir, baseName);
+        ProphageOffsetIndex.loadOrBuild(taskDir, baseName);
+
+        Path fna = dir.resolve(baseName + "_provirus.fna");
+        if (Files.exists(fna)) {
+            FastaIndex.loadOrBuild(fna);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.sy.pipeline;
+
+import com.sy.pojo.AnalysisTask;
+import com.sy.service.ProphageSketchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * 计算原噬菌体 MinHash 签名并加入用户的 LSH 索引（genomad 任务，依赖 provirus.fna 的 .fai 索引）
+ */
+@Component
+@Order(50)
+@RequiredArgsConstructor
+public class ProphageSketchStage implements TaskCompletionStage {
+
+    private final ProphageSketchService prophageSketchService;
+
+    @Override
+    public String getName() {
+        return "prophage-sketch";
+    }
+
+    @Override
+    public boolean supports(AnalysisTask task) {
+        return !"arg".equals(task.getAnalysisType());
+    }
+
+    @Override
+    public void run(AnalysisTask task, Path taskDir) throws Exception {
+        prophageSketchService.indexTask(task, taskDir);
+    }
+}
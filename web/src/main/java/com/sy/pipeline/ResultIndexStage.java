@@ -0,0 +1,35 @@
+package com.sy.pipeline;
+
+import com.sy.pojo.AnalysisTask;
+import com.sy.service.ResultIndexService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * 把任务结果加入跨任务结果索引（在列式表构建之后，直接读取 .col 文件）
+ */
+@Component
+@Order(40)
+@RequiredArgsConstructor
+public class ResultIndexStage implements TaskCompletionStage {
+
+    private final ResultIndexService resultIndexService;
+
+    @Override
+    public String getName() {
+        return "result-index";
+    }
+
+    @Override
+    public boolean supports(AnalysisTask task) {
+        return true;
+    }
+
+    @Override
+    public void run(AnalysisTask task, Path taskDir) throws Exception {
+        resultIndexService.indexTask(task, taskDir);
+    }
+}
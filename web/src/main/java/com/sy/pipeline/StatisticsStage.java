@@ -0,0 +1,35 @@
+package com.sy.pipeline;
+
+import com.sy.pojo.AnalysisTask;
+import com.sy.stats.TaskStatisticsLoader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * 预先计算任务统计数据并写入 .index/statistics.json（ARG 任务依赖 ColumnarTableStage 生成的 arg.col）
+ */
+@Component
+@Order(70)
+@RequiredArgsConstructor
+public class StatisticsStage implements TaskCompletionStage {
+
+    private final TaskStatisticsLoader taskStatisticsLoader;
+
+    @Override
+    public String getName() {
+        return "statistics";
+    }
+
+    @Override
+    public boolean supports(AnalysisTask task) {
+        return true;
+    }
+
+    @Override
+    public void run(AnalysisTask task, Path taskDir) throws Exception {
+        taskStatisticsLoader.load(task, taskDir);
+    }
+}
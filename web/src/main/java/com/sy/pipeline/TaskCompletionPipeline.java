@@ -0,0 +1,90 @@
+package com.sy.pipeline;
+
+import com.sy.event.TaskStatusChangedEvent;
+import com.sy.mapper.AnalysisTaskMapper;
+import com.sy.pojo.AnalysisTask;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 任务完成后处理流水线
+ * 监听任务状态变更，任务完成后按 @Order 顺序执行所有 TaskCompletionStage。
+ * 各步骤在单独的后台线程上按任务完成顺序执行，不占用分析工作线程，分析线程发布事件后即可处理下一个任务。
+ * 单个步骤失败只记录日志，不影响任务状态；读取方在派生文件缺失时会自行回退或补建。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TaskCompletionPipeline {
+
+    private final List<TaskCompletionStage> stages;
+    private final AnalysisTaskMapper analysisTaskMapper;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "task-pipeline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${analysis.output-dir:./outputs}")
+    private String outputBaseDir;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskStatusChanged(TaskStatusChangedEvent event) {
+        if (!"COMPLETED".equals(event.getNewStatus())) {
+            return;
+        }
+        Long taskId = event.getTaskId();
+        executor.execute(() -> {
+            try {
+                AnalysisTask task = analysisTaskMapper.selectById(taskId);
+                if (task != null) {
+                    run(task);
+                }
+            } catch (Exception e) {
+                log.error("任务后处理失败: taskId={}", taskId, e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 对任务执行全部适用的步骤
+     */
+    public void run(AnalysisTask task) {
+        Path taskDir = Paths.get(outputBaseDir, "task_" + task.getTaskId());
+        if (!Files.isDirectory(taskDir)) {
+            log.warn("任务输出目录不存在，跳过后处理: {}", taskDir);
+            return;
+        }
+        for (TaskCompletionStage stage : stages) {
+            if (!stage.supports(task)) {
+                continue;
+            }
+            long start = System.currentTimeMillis();
+            try {
+                stage.run(task, taskDir);
+                log.info("任务后处理完成: taskId={}, stage={}, 耗时 {} ms",
+                        task.getTaskId(), stage.getName(), System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                log.error("任务后处理失败: taskId={}, stage={}", task.getTaskId(), stage.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.sy.pipeline;
+
+import com.sy.pojo.AnalysisTask;
+
+import java.nio.file.Path;
+
+/**
+ * 任务完成后处理步骤
+ * 任务状态变为 COMPLETED 后依次执行，用于生成索引等派生文件。
+ * 派生文件统一写在任务输出目录的 .index 子目录下。
+ */
+public interface TaskCompletionStage {
+
+    /**
+     * 步骤名称（用于日志）
+     */
+    String getName();
+
+    /**
+     * 是否处理该任务（通常按分析类型判断）
+     */
+    boolean supports(AnalysisTask task);
+
+    /**
+     * 执行步骤
+     * @param task 已完成的任务
+     * @param taskDir 任务输出目录
+     */
+    void run(AnalysisTask task, Path taskDir) throws Exception;
+}
@@ -0,0 +1,35 @@
+package com.sy.pipeline;
+
+import com.sy.pojo.AnalysisTask;
+import com.sy.tiles.TrackTileLoader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * 预先计算基因组轨道瓦片（genomad 任务）
+ */
+@Component
+@Order(30)
+@RequiredArgsConstructor
+public class TrackTileStage implements TaskCompletionStage {
+
+    private final TrackTileLoader trackTileLoader;
+
+    @Override
+    public String getName() {
+        return "track-tiles";
+    }
+
+    @Override
+    public boolean supports(AnalysisTask task) {
+        return !"arg".equals(task.getAnalysisType());
+    }
+
+    @Override
+    public void run(AnalysisTask task, Path taskDir) throws Exception {
+        trackTileLoader.load(task, taskDir);
+    }
+}
@@ -20,6 +20,8 @@ public class AnalysisTask {
     
     private String taskName;
     
+    private String analysisType; // genomad, arg
+    
     private String status; // PENDING, RUNNING, COMPLETED, FAILED, CANCELLED
     
     private Integer progress;
@@ -0,0 +1,34 @@
+package com.sy.pojo;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ARG 分类汇总实体类（每个任务每个分类一行）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("arg_class_summary")
+public class ArgClassSummary {
+
+    /**
+     * 全部预测（含阴性）合计行的分类名
+     */
+    public static final String ALL = "*";
+
+    private Long taskId;
+
+    private String argClass;
+
+    // 阳性预测数（合计行为全部预测数）
+    private Integer hitCount;
+
+    // 概率（prob 列）之和，缺失值不计
+    private Double probSum;
+
+    // 参与求和的概率个数
+    private Integer probCount;
+}
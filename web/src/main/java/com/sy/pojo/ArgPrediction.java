@@ -0,0 +1,29 @@
+package com.sy.pojo;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+/**
+ * ARG 预测结果实体类（all_predictions.tsv 的一行）
+ */
+@Data
+@TableName("arg_predictions")
+public class ArgPrediction {
+
+    private Long taskId;
+
+    // 在 all_predictions.tsv 中的行号（从 1 开始）
+    private Integer rowIndex;
+
+    private String seqId;
+
+    private Boolean isArg;
+
+    private Double predProb;
+
+    private String argClass;
+
+    private Double classProb;
+
+    private Double prob;
+}
@@ -21,16 +21,20 @@ public interface AdminService {
     void deleteFile(Long fileId);
     
     /**
-     * 获取所有用户列表（包含统计信息）
-     * @return 用户列表
+     * 分页获取用户列表（包含统计信息）
+     * @param cursor 上一页返回的 nextCursor（为空表示第一页）
+     * @param limit 每页条数
+     * @return 包含 list、nextCursor、hasMore 的分页结果
      */
-    List<Map<String, Object>> getAllUsers();
+    Map<String, Object> getUsersPage(String cursor, Integer limit);
     
     /**
-     * 获取所有文件列表（包含用户信息）
-     * @return 文件列表
+     * 分页获取文件列表（包含用户信息）
+     * @param cursor 上一页返回的 nextCursor（为空表示第一页）
+     * @param limit 每页条数
+     * @return 包含 list、nextCursor、hasMore 的分页结果
      */
-    List<Map<String, Object>> getAllFiles();
+    Map<String, Object> getFilesPage(String cursor, Integer limit);
     
     /**
      * 封禁/解封用户
@@ -41,9 +45,10 @@ public interface AdminService {
     
     /**
      * 获取系统统计信息
-     * @return 统计信息
+     * @param days 趋势天数
+     * @return 总量、任务状态/类型分布和每日趋势
      */
-    Map<String, Object> getStatistics();
+    Map<String, Object> getStatistics(int days);
     
     /**
      * 搜索用户（根据用户名或用户ID）
@@ -56,8 +61,10 @@ public interface AdminService {
      * 搜索文件（根据用户信息和文件信息）
      * @param userKeyword 用户搜索关键字（用户ID或用户名），可为空
      * @param fileKeyword 文件搜索关键字（文件ID或文件名），可为空
-     * @return 文件列表
+     * @param offset 结果偏移量
+     * @param limit 返回条数上限
+     * @return 文件列表（按相关度排序）
      */
-    List<Map<String, Object>> searchFiles(String userKeyword, String fileKeyword);
+    List<Map<String, Object>> searchFiles(String userKeyword, String fileKeyword, int offset, int limit);
 }
 
@@ -2,6 +2,7 @@ package com.sy.service;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 分析任务服务接口
@@ -24,7 +25,20 @@ public interface AnalysisTaskService {
      * @return 任务列表
      */
     List<Map<String, Object>> getUserTasks(Long userId, String status);
-    
+
+    /**
+     * 键集分页获取用户的任务列表
+     * @param userId 用户ID
+     * @param status 任务状态（可选）
+     * @param type 分析类型 genomad/arg（可选）
+     * @param cursor 上一页返回的 nextCursor（为空表示第一页）
+     * @param limit 每页条数
+     * @param fields 需要返回的字段（为空表示全部字段）
+     * @return 包含 list、nextCursor、hasMore 的分页结果
+     */
+    Map<String, Object> getUserTasksPage(Long userId, String status, String type,
+                                         String cursor, Integer limit, Set<String> fields);
+
     /**
      * 获取任务详情
      * @param taskId 任务ID
@@ -64,11 +78,13 @@ public interface AnalysisTaskService {
     Map<String, Object> getTaskResult(Long taskId, Long userId);
     
     /**
-     * 搜索任务（根据任务ID、文件ID或文件名）
+     * 搜索任务（根据任务ID、文件ID或文件名），结果按相关度排序并分页
      * @param userId 用户ID
      * @param keyword 搜索关键字
-     * @return 任务列表
+     * @param cursor 上一页返回的 nextCursor（为空表示第一页）
+     * @param limit 每页条数
+     * @return 包含 list、nextCursor、hasMore 的分页结果
      */
-    List<Map<String, Object>> searchTasks(Long userId, String keyword);
+    Map<String, Object> searchTasks(Long userId, String keyword, String cursor, Integer limit);
 }
 
@@ -0,0 +1,68 @@
+package com.sy.service;
+
+import com.sy.mapper.AnalysisTaskMapper;
+import com.sy.pojo.AnalysisTask;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * 分析类型一次性回填
+ * 对 analysis_type 为空的历史任务，沿用旧的判断规则（任务名、参数、输出文件）推断类型并写回数据库。
+ * 回填完成后所有任务在创建时即写入类型，列表和可视化只读该列。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnalysisTypeBackfillRunner implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final AnalysisTaskMapper analysisTaskMapper;
+
+    @Value("${analysis.output-dir:./outputs}")
+    private String outputBaseDir;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            int total = 0;
+            List<AnalysisTask> tasks;
+            while (!(tasks = analysisTaskMapper.findWithoutAnalysisType(BATCH_SIZE)).isEmpty()) {
+                for (AnalysisTask task : tasks) {
+                    analysisTaskMapper.updateAnalysisType(task.getTaskId(), inferAnalysisType(task));
+                }
+                total += tasks.size();
+            }
+            if (total > 0) {
+                log.info("分析类型回填完成，共处理 {} 个历史任务", total);
+            }
+        } catch (Exception e) {
+            // 回填失败不影响服务启动，下次启动会继续处理剩余任务
+            log.error("分析类型回填失败", e);
+        }
+    }
+
+    /**
+     * 按旧规则推断任务类型
+     */
+    private String inferAnalysisType(AnalysisTask task) {
+        if (task.getTaskName() != null && task.getTaskName().contains("抗性基因")) {
+            return "arg";
+        }
+        if (task.getParameters() != null && task.getParameters().contains("\"analysisType\":\"arg\"")) {
+            return "arg";
+        }
+        if (Files.exists(Paths.get(outputBaseDir, "task_" + task.getTaskId(), "arg_predictions.tsv"))) {
+            return "arg";
+        }
+        return "genomad";
+    }
+}
@@ -0,0 +1,31 @@
+package com.sy.service;
+
+import com.sy.export.ArgClassMatrix;
+import com.sy.pojo.AnalysisTask;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * ARG 分类丰度矩阵服务接口
+ * 任务完成时把 all_predictions.tsv 汇总为每个分类一行存入数据库，多样本矩阵只读汇总行
+ */
+public interface ArgMatrixService {
+
+    /**
+     * 汇总任务的 ARG 分类（已有汇总时覆盖）
+     * @param task 已完成的 ARG 任务
+     * @param taskDir 任务输出目录
+     */
+    void summarizeTask(AnalysisTask task, Path taskDir) throws IOException;
+
+    /**
+     * 构建样本 x ARG 分类矩阵
+     * @param userId 用户ID
+     * @param taskIds 任务ID（为空时取用户全部已完成的 ARG 任务）
+     * @param value 单元格取值：count（默认）、meanProb、fraction
+     * @return 矩阵（由调用方流式写出）
+     */
+    ArgClassMatrix buildMatrix(Long userId, List<Long> taskIds, String value);
+}
@@ -1,5 +1,6 @@
 package com.sy.service;
 
+import com.sy.index.FastaSlice;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -41,6 +42,27 @@ public interface GenomeFileService {
      */
     void deleteFile(Long fileId, Long userId);
     
+    /**
+     * 获取 FASTA 文件中的序列列表（名称和长度）
+     * @param fileId 文件ID
+     * @param userId 用户ID
+     * @return 序列列表
+     */
+    List<Map<String, Object>> getSequences(Long fileId, Long userId);
+    
+    /**
+     * 获取 FASTA 文件中的序列片段
+     * @param fileId 文件ID
+     * @param userId 用户ID
+     * @param seqName 序列名
+     * @param start 起始位置（从 1 开始，包含），为空时从序列开头
+     * @param end 结束位置（包含），为空时到序列末尾
+     * @param reverseComplement 是否取反向互补
+     * @return 序列片段
+     */
+    FastaSlice getSequence(Long fileId, Long userId, String seqName,
+                           Long start, Long end, boolean reverseComplement);
+    
     /**
      * 搜索文件（根据用户名、用户ID、文件ID或文件名）
      * @param keyword 搜索关键字
@@ -0,0 +1,43 @@
+package com.sy.service;
+
+import com.sy.pojo.AnalysisTask;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * 原噬菌体 MinHash 签名服务接口
+ * 每个用户的全部任务共用一个 LSH 索引，用于在不同样本间找出重复出现的原噬菌体
+ */
+public interface ProphageSketchService {
+
+    /**
+     * 索引是否已完成初始构建（未完成时查询结果可能不全）
+     */
+    boolean isReady();
+
+    /**
+     * 计算（或读取）任务的原噬菌体签名并加入所属用户的索引
+     * @param task 已完成的 genomad 任务
+     * @param taskDir 任务输出目录
+     */
+    void indexTask(AnalysisTask task, Path taskDir) throws IOException;
+
+    /**
+     * 从索引中删除任务
+     * @param taskId 任务ID
+     */
+    void removeTask(Long taskId);
+
+    /**
+     * 查找与某个原噬菌体相似的原噬菌体（同一用户的全部任务）
+     * @param taskId 任务ID
+     * @param regionId 原噬菌体区域ID
+     * @param userId 用户ID
+     * @param minAni 最低 ANI（0~1）
+     * @param limit 最多返回条数
+     * @return query、similar（taskId、regionId、seqName、jaccard、ani 等）、candidateCount、indexedCount
+     */
+    Map<String, Object> findSimilar(Long taskId, Long regionId, Long userId, double minAni, int limit);
+}
@@ -0,0 +1,43 @@
+package com.sy.service;
+
+import com.sy.pojo.AnalysisTask;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * 跨任务结果索引服务接口
+ * 把各任务的 ARG 分类、marker、taxname、注释词和整合酶等映射到（任务，区域/基因）倒排表，
+ * 支持按用户过滤的布尔查询，无需逐个打开任务输出目录
+ */
+public interface ResultIndexService {
+
+    /**
+     * 索引是否已完成初始构建（未完成时查询结果可能不全）
+     */
+    boolean isReady();
+
+    /**
+     * 添加或更新任务的结果索引
+     * @param task 已完成的任务
+     * @param taskDir 任务输出目录
+     */
+    void indexTask(AnalysisTask task, Path taskDir) throws IOException;
+
+    /**
+     * 删除任务的结果索引
+     * @param taskId 任务ID
+     */
+    void removeTask(Long taskId);
+
+    /**
+     * 查询用户的结果
+     * @param userId 用户ID
+     * @param query 布尔查询（如 argClass:beta-lactam、integrase:yes -taxname:inoviridae）
+     * @param scope 命中粒度：task、region、gene
+     * @param limit 最多返回条数
+     * @return total、hits（按得分降序）、ready、tookMs
+     */
+    Map<String, Object> search(Long userId, String query, String scope, int limit);
+}
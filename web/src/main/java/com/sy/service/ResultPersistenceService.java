@@ -0,0 +1,30 @@
+package com.sy.service;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 分析结果持久化服务接口
+ * 结果在后台写入线程中批量写入数据库，不占用分析线程；同一任务重复写入时先删除旧结果
+ * ARG 预测是尽力写入的副本，与原噬菌体区域使用不同的写入线程
+ */
+public interface ResultPersistenceService {
+
+    /**
+     * 写入原噬菌体区域（analysis_results）
+     * @param taskId 任务ID
+     * @param prophageRegions 原噬菌体识别返回的区域
+     * @return 写入行数
+     */
+    CompletableFuture<Integer> saveProphageResults(Long taskId, List<Map<String, Object>> prophageRegions);
+
+    /**
+     * 写入 ARG 预测（arg_predictions），超长的序列ID和类别按列宽截断
+     * @param taskId 任务ID
+     * @param argFile all_predictions.tsv
+     * @return 写入行数
+     */
+    CompletableFuture<Integer> saveArgPredictions(Long taskId, Path argFile);
+}
@@ -0,0 +1,74 @@
+package com.sy.service;
+
+import com.sy.pojo.AnalysisTask;
+import com.sy.pojo.GenomeFile;
+
+import java.util.List;
+
+/**
+ * 搜索索引服务接口
+ * 维护任务和文件的进程内 n-gram 倒排索引，替代前导通配符 LIKE 全表扫描
+ */
+public interface SearchIndexService {
+
+    /**
+     * 索引是否已完成初始构建（未完成时调用方应回退到数据库查询）
+     */
+    boolean isReady();
+
+    /**
+     * 索引能否处理这些关键字：已完成初始构建，且每个非空关键字都不短于 NGramIndex.MIN_QUERY_LENGTH
+     * 不能处理时调用方应回退到数据库查询
+     * @param keywords 搜索关键字（可包含 null 或空串，表示该条件不参与搜索）
+     */
+    boolean canSearch(String... keywords);
+
+    /**
+     * 添加或更新任务索引
+     * @param task 任务
+     * @param fileName 任务关联的文件名
+     */
+    void indexTask(AnalysisTask task, String fileName);
+
+    /**
+     * 删除任务索引
+     * @param taskId 任务ID
+     */
+    void removeTask(Long taskId);
+
+    /**
+     * 添加或更新文件索引
+     * @param file 文件
+     * @param username 文件所属用户名
+     */
+    void indexFile(GenomeFile file, String username);
+
+    /**
+     * 删除文件索引（同时删除该文件下所有任务的索引）
+     * @param fileId 文件ID
+     */
+    void removeFile(Long fileId);
+
+    /**
+     * 搜索用户的任务（根据任务ID、文件ID或文件名）
+     * @param userId 用户ID
+     * @param keyword 搜索关键字
+     * @return 按相关度排序的任务ID
+     */
+    List<Long> searchTasks(Long userId, String keyword);
+
+    /**
+     * 搜索文件（根据文件名或用户名）
+     * @param keyword 搜索关键字
+     * @return 按相关度排序的文件ID
+     */
+    List<Long> searchFiles(String keyword);
+
+    /**
+     * 搜索文件（用户条件和文件条件同时满足）
+     * @param userKeyword 用户搜索关键字（用户ID或用户名），可为null
+     * @param fileKeyword 文件搜索关键字（文件ID或文件名），可为null
+     * @return 按相关度排序的文件ID
+     */
+    List<Long> searchFiles(String userKeyword, String fileKeyword);
+}
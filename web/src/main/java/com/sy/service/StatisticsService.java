@@ -0,0 +1,22 @@
+package com.sy.service;
+
+import java.util.Map;
+
+/**
+ * 系统统计服务
+ * 维护总量计数、任务状态/类型分布和按天的趋势序列，供管理员仪表盘读取
+ */
+public interface StatisticsService {
+
+    /**
+     * 获取仪表盘统计数据
+     * @param days 趋势天数
+     * @return 总量、分布和每日趋势
+     */
+    Map<String, Object> getDashboard(int days);
+
+    /**
+     * 从数据库重新统计并覆盖计数，修正增量更新的偏差
+     */
+    void reconcile();
+}
@@ -0,0 +1,40 @@
+package com.sy.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 用户计数服务
+ * 维护每个用户的文件数、任务数，供管理员用户列表使用
+ */
+public interface UserCounterService {
+
+    /**
+     * 批量获取用户文件数
+     * @param userIds 用户ID集合
+     * @return 用户ID -> 文件数
+     */
+    Map<Long, Long> getFileCounts(Collection<Long> userIds);
+
+    /**
+     * 批量获取用户任务数
+     * @param userIds 用户ID集合
+     * @return 用户ID -> 任务数
+     */
+    Map<Long, Long> getTaskCounts(Collection<Long> userIds);
+
+    /**
+     * 调整用户文件数（上传 +1，删除 -1）
+     */
+    void adjustFileCount(Long userId, long delta);
+
+    /**
+     * 调整用户任务数（创建 +1，删除 -n）
+     */
+    void adjustTaskCount(Long userId, long delta);
+
+    /**
+     * 清除用户计数（删除用户时调用）
+     */
+    void evict(Long userId);
+}
@@ -0,0 +1,83 @@
+package com.sy.service;
+
+import com.sy.mapper.UserMapper;
+import com.sy.pojo.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 用户摘要缓存（用户ID -> 用户名）
+ * 文件列表等场景需要为每条记录展示所属用户名，这里先收集去重后的用户ID，
+ * 未命中的部分用一次 selectBatchIds 批量取回。容量有限，按最近使用淘汰。
+ */
+@Component
+@RequiredArgsConstructor
+public class UserSummaryCache {
+
+    private static final int MAX_ENTRIES = 2048;
+    private static final long TTL_MILLIS = 10 * 60 * 1000L;
+
+    private final UserMapper userMapper;
+
+    private final Map<Long, Entry> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * 批量获取用户名，不存在的用户不出现在结果中
+     */
+    public Map<Long, String> getUsernames(Collection<Long> userIds) {
+        Map<Long, String> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        synchronized (cache) {
+            for (Long userId : new LinkedHashSet<>(userIds)) {
+                if (userId == null) {
+                    continue;
+                }
+                Entry entry = cache.get(userId);
+                if (entry != null && entry.expiresAt > now) {
+                    result.put(userId, entry.username);
+                } else {
+                    missing.add(userId);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<User> users = userMapper.selectBatchIds(missing);
+            synchronized (cache) {
+                for (User user : users) {
+                    cache.put(user.getUserId(), new Entry(user.getUsername(), now + TTL_MILLIS));
+                    result.put(user.getUserId(), user.getUsername());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 移除缓存（删除用户时调用）
+     */
+    public void evict(Long userId) {
+        synchronized (cache) {
+            cache.remove(userId);
+        }
+    }
+
+    private static class Entry {
+        private final String username;
+        private final long expiresAt;
+
+        private Entry(String username, long expiresAt) {
+            this.username = username;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,5 +1,12 @@
 package com.sy.service;
 
+import com.sy.columnar.ArgQuery;
+import com.sy.export.StreamingExport;
+import com.sy.index.FastaSlice;
+import com.sy.pojo.AnalysisTask;
+
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Map;
 
 /**
@@ -15,6 +22,28 @@ public interface VisualizationService {
      */
     Map<String, Object> getGenomeVisualization(Long taskId, Long userId);
     
+    /**
+     * 获取结果版本（用作强 ETag）：任务ID、完成时间以及结果文件的大小和修改时间
+     * @param taskId 任务ID
+     * @param userId 用户ID
+     * @return 版本字符串，结果文件变化后随之变化
+     */
+    String getResultVersion(Long taskId, Long userId);
+    
+    /**
+     * 获取任务完成时预先压缩的基因组可视化响应（Result 结构的 JSON，gzip）
+     * @param taskId 任务ID（调用方已通过 getResultVersion 校验权限）
+     * @param version 结果版本
+     * @return 压缩文件，不存在或版本不符时返回 null
+     */
+    Path getPrecompressedVisualization(Long taskId, String version);
+    
+    /**
+     * 预先压缩基因组可视化响应（任务完成后处理调用）
+     * @param task 已完成的任务
+     */
+    void precompressVisualization(AnalysisTask task) throws IOException;
+    
     /**
      * 获取原噬菌体区域详情
      * @param taskId 任务ID
@@ -25,10 +54,93 @@ public interface VisualizationService {
     Map<String, Object> getProphageDetail(Long taskId, Long regionId, Long userId);
     
     /**
-     * 获取统计数据
+     * 获取原噬菌体序列片段（从 provirus.fna 按索引读取）
+     * @param taskId 任务ID
+     * @param regionId 区域ID
+     * @param userId 用户ID
+     * @param start 起始位置（从 1 开始，包含），为空时从序列开头
+     * @param end 结束位置（包含），为空时到序列末尾
+     * @param reverseComplement 是否取反向互补
+     * @return 序列片段
+     */
+    FastaSlice getProphageSequence(Long taskId, Long regionId, Long userId,
+                                   Long start, Long end, boolean reverseComplement);
+    
+    /**
+     * 查询 ARG 预测结果（服务端过滤、排序、分页）
+     * @param taskId 任务ID
+     * @param userId 用户ID
+     * @param query 查询条件
+     * @return 包含 list、nextCursor、hasMore、total（只在第一页返回）的分页结果
+     */
+    Map<String, Object> queryArgPredictions(Long taskId, Long userId, ArgQuery query);
+    
+    /**
+     * 获取 ARG 预测汇总（总数、阳性数、各分类数量）
+     * @param taskId 任务ID
+     * @param userId 用户ID
+     * @return 汇总数据
+     */
+    Map<String, Object> getArgSummary(Long taskId, Long userId);
+    
+    /**
+     * 获取基因组轨道瓦片的坐标轴和级别信息
      * @param taskId 任务ID
      * @param userId 用户ID
-     * @return 统计数据
+     * @return 基因组长度、各级箱宽与瓦片数、各序列在坐标轴上的偏移
+     */
+    Map<String, Object> getTrackTileMeta(Long taskId, Long userId);
+    
+    /**
+     * 获取一张基因组轨道瓦片
+     * @param taskId 任务ID
+     * @param userId 用户ID
+     * @param level 级别（0 最粗）
+     * @param index 瓦片编号
+     * @return 各箱的原噬菌体覆盖、基因密度、正负链基因数和 ARG 命中数
+     */
+    Map<String, Object> getTrackTile(Long taskId, Long userId, int level, int index);
+    
+    /**
+     * 区间重叠查询：宿主序列 [start, end] 内的原噬菌体区域、基因和 ARG 命中
+     * @param taskId 任务ID（genomad）
+     * @param userId 用户ID
+     * @param seq 宿主序列名
+     * @param start 起点（从 1 开始，含）
+     * @param end 终点（含）
+     * @param argTaskId 关联的 ARG 任务ID（可选）
+     * @param limit 基因最多返回条数
+     * @return regions、genes、geneTotal、argHits
+     */
+    Map<String, Object> queryIntervals(Long taskId, Long userId, String seq, long start, long end,
+                                       Long argTaskId, int limit);
+    
+    /**
+     * 最近邻查询：距离宿主序列某个位置最近的原噬菌体区域、基因和 ARG 命中
+     * @param taskId 任务ID（genomad）
+     * @param userId 用户ID
+     * @param seq 宿主序列名
+     * @param position 位置（从 1 开始）
+     * @param argTaskId 关联的 ARG 任务ID（可选）
+     * @return region、gene、argHit（各含 distance，没有时为 null）
+     */
+    Map<String, Object> nearestIntervals(Long taskId, Long userId, String seq, long position, Long argTaskId);
+    
+    /**
+     * 原噬菌体与 ARG 共定位
+     * @param taskId 任务ID（genomad）
+     * @param userId 用户ID
+     * @param argTaskId 关联的 ARG 任务ID（可选，不传时只用 geNomad 的 AMR 注释）
+     * @return 各原噬菌体携带的 ARG，以及每个 ARG 命中所在或最近的原噬菌体
+     */
+    Map<String, Object> getColocalization(Long taskId, Long userId, Long argTaskId);
+    
+    /**
+     * 获取统计数据（任务完成时预先计算）
+     * @param taskId 任务ID
+     * @param userId 用户ID
+     * @return 统计数据：genomad 任务为长度、得分、基因数的分布、直方图和分位数，
+     *         ARG 任务为预测数、各分类数量和阳性概率的分布
      */
     Map<String, Object> getStatistics(Long taskId, Long userId);
     
@@ -39,5 +151,16 @@ public interface VisualizationService {
      * @return 完整数据
      */
     Map<String, Object> exportVisualizationData(Long taskId, Long userId);
+    
+    /**
+     * 准备流式导出（逐行写出，可选 gzip 压缩）
+     * @param taskId 任务ID
+     * @param userId 用户ID
+     * @param format 导出格式（ndjson、jsonl、tsv）
+     * @param section 导出内容（all、regions、genes；ARG 任务忽略）
+     * @param gzip 是否 gzip 压缩
+     * @return 流式导出
+     */
+    StreamingExport prepareExport(Long taskId, Long userId, String format, String section, boolean gzip);
 }
 
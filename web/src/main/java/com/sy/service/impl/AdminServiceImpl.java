@@ -1,15 +1,22 @@
 package com.sy.service.impl;
 
+import com.sy.event.FileDeletedEvent;
+import com.sy.event.UserDeletedEvent;
 import com.sy.mapper.AnalysisTaskMapper;
 import com.sy.mapper.GenomeFileMapper;
-import com.sy.mapper.LoginLogMapper;
 import com.sy.mapper.UserMapper;
 import com.sy.pojo.AnalysisTask;
 import com.sy.pojo.GenomeFile;
 import com.sy.pojo.User;
 import com.sy.service.AdminService;
+import com.sy.service.SearchIndexService;
+import com.sy.service.UserSummaryCache;
+import com.sy.service.StatisticsService;
+import com.sy.service.UserCounterService;
+import com.sy.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,7 +39,14 @@ public class AdminServiceImpl implements AdminService {
     private final UserMapper userMapper;
     private final GenomeFileMapper genomeFileMapper;
     private final AnalysisTaskMapper analysisTaskMapper;
-    private final LoginLogMapper loginLogMapper;
+    private final SearchIndexService searchIndexService;
+    private final UserCounterService userCounterService;
+    private final UserSummaryCache userSummaryCache;
+    private final StatisticsService statisticsService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Override
     @Transactional
@@ -64,6 +78,8 @@ public class AdminServiceImpl implements AdminService {
         
         // 删除用户记录（会级联删除相关的表记录）
         userMapper.deleteById(userId);
+        userSummaryCache.evict(userId);
+        eventPublisher.publishEvent(new UserDeletedEvent(userId));
         
         log.info("用户删除成功: userId={}", userId);
     }
@@ -84,19 +100,61 @@ public class AdminServiceImpl implements AdminService {
     }
 
     @Override
-    public List<Map<String, Object>> getAllUsers() {
-        List<User> users = userMapper.selectList(null);
-        return users.stream()
-                .map(this::convertUserToMap)
-                .collect(Collectors.toList());
+    public Map<String, Object> getUsersPage(String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PageCursor pageCursor = PageCursor.decode(cursor);
+
+        // 多取一条用于判断是否还有下一页
+        List<User> users = userMapper.findUsersPage(
+                pageCursor != null ? pageCursor.getTime() : null,
+                pageCursor != null ? pageCursor.getId() : null,
+                pageSize + 1);
+
+        boolean hasMore = users.size() > pageSize;
+        if (hasMore) {
+            users = users.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            User last = users.get(users.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getUserId()).encode();
+        }
+
+        Map<String, Object> page = new HashMap<>();
+        page.put("list", convertUsersToMaps(users));
+        page.put("nextCursor", nextCursor);
+        page.put("hasMore", hasMore);
+        return page;
     }
 
     @Override
-    public List<Map<String, Object>> getAllFiles() {
-        List<GenomeFile> files = genomeFileMapper.selectList(null);
-        return files.stream()
-                .map(this::convertFileToMap)
-                .collect(Collectors.toList());
+    public Map<String, Object> getFilesPage(String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PageCursor pageCursor = PageCursor.decode(cursor);
+
+        // 多取一条用于判断是否还有下一页
+        List<GenomeFile> files = genomeFileMapper.findFilesPage(
+                pageCursor != null ? pageCursor.getTime() : null,
+                pageCursor != null ? pageCursor.getId() : null,
+                pageSize + 1);
+
+        boolean hasMore = files.size() > pageSize;
+        if (hasMore) {
+            files = files.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            GenomeFile last = files.get(files.size() - 1);
+            nextCursor = new PageCursor(last.getUploadTime(), last.getFileId()).encode();
+        }
+
+        Map<String, Object> page = new HashMap<>();
+        page.put("list", convertFilesToMaps(files));
+        page.put("nextCursor", nextCursor);
+        page.put("hasMore", hasMore);
+        return page;
     }
 
     @Override
@@ -114,32 +172,15 @@ public class AdminServiceImpl implements AdminService {
     }
 
     @Override
-    public Map<String, Object> getStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        // 用户统计
-        Long totalUsers = userMapper.selectCount(null);
-        stats.put("totalUsers", totalUsers);
-        
-        // 文件统计
-        Long totalFiles = genomeFileMapper.selectCount(null);
-        stats.put("totalFiles", totalFiles);
-        
-        // 任务统计
-        Long totalTasks = analysisTaskMapper.selectCount(null);
-        stats.put("totalTasks", totalTasks);
-        
-        // 登录统计
-        Long totalLogins = loginLogMapper.countByStatus("SUCCESS");
-        stats.put("totalLogins", totalLogins);
-        
-        return stats;
+    public Map<String, Object> getStatistics(int days) {
+        // 只读统计服务维护的计数，不再对全表 COUNT
+        return statisticsService.getDashboard(days);
     }
 
     @Override
     public List<Map<String, Object>> searchUsers(String keyword) {
         if (keyword == null || keyword.trim().isEmpty()) {
-            return getAllUsers();
+            return convertUsersToMaps(userMapper.selectUsersWithKeyword(null));
         }
         
         List<User> users;
@@ -154,30 +195,46 @@ public class AdminServiceImpl implements AdminService {
             users = userMapper.selectUsersWithKeyword(keyword.trim());
         }
         
-        return users.stream()
-                .map(this::convertUserToMap)
-                .collect(Collectors.toList());
+        return convertUsersToMaps(users);
     }
 
     @Override
-    public List<Map<String, Object>> searchFiles(String userKeyword, String fileKeyword) {
-        // 如果两个关键字都为空，返回所有文件
+    public List<Map<String, Object>> searchFiles(String userKeyword, String fileKeyword, int offset, int limit) {
+        int from = Math.max(0, offset);
+        int size = Math.max(1, limit);
+        
+        // 如果两个关键字都为空，按上传时间返回文件
         if ((userKeyword == null || userKeyword.trim().isEmpty()) && 
             (fileKeyword == null || fileKeyword.trim().isEmpty())) {
-            return getAllFiles();
+            List<GenomeFile> recent = genomeFileMapper.findFilesPage(null, null, from + size);
+            return convertFilesToMaps(recent.subList(Math.min(from, recent.size()), recent.size()));
         }
         
         String userKeywordTrimmed = userKeyword != null ? userKeyword.trim() : "";
         String fileKeywordTrimmed = fileKeyword != null ? fileKeyword.trim() : "";
         
-        List<GenomeFile> files = genomeFileMapper.searchFilesWithConditions(
-            userKeywordTrimmed.isEmpty() ? null : userKeywordTrimmed,
-            fileKeywordTrimmed.isEmpty() ? null : fileKeywordTrimmed
-        );
+        List<GenomeFile> files;
+        GenomeFile exact = findFileById(fileKeywordTrimmed);
+        if (exact != null && userKeywordTrimmed.isEmpty()) {
+            // 文件ID精确命中，直接走主键
+            files = from == 0 ? List.of(exact) : new ArrayList<>();
+        } else if (searchIndexService.canSearch(userKeywordTrimmed, fileKeywordTrimmed)) {
+            List<Long> ids = searchIndexService.searchFiles(
+                userKeywordTrimmed.isEmpty() ? null : userKeywordTrimmed,
+                fileKeywordTrimmed.isEmpty() ? null : fileKeywordTrimmed
+            );
+            List<Long> pageIds = ids.subList(Math.min(from, ids.size()), Math.min(from + size, ids.size()));
+            files = loadFilesInOrder(pageIds);
+        } else {
+            // 索引尚未构建完成或关键字过短，回退到数据库模糊搜索
+            List<GenomeFile> all = genomeFileMapper.searchFilesWithConditions(
+                userKeywordTrimmed.isEmpty() ? null : userKeywordTrimmed,
+                fileKeywordTrimmed.isEmpty() ? null : fileKeywordTrimmed
+            );
+            files = all.subList(Math.min(from, all.size()), Math.min(from + size, all.size()));
+        }
         
-        return files.stream()
-                .map(this::convertFileToMap)
-                .collect(Collectors.toList());
+        return convertFilesToMaps(files);
     }
 
     /**
@@ -213,10 +270,40 @@ public class AdminServiceImpl implements AdminService {
         
         // 4. 删除数据库记录（会级联删除analysis_tasks和analysis_results）
         genomeFileMapper.deleteById(fileId);
+        eventPublisher.publishEvent(new FileDeletedEvent(file.getUserId(), fileId, tasks));
         
         log.info("文件及相关数据删除完成: fileId={}", fileId);
     }
 
+    /**
+     * 关键字为数字时按文件ID精确查找
+     */
+    private GenomeFile findFileById(String keyword) {
+        if (keyword.isEmpty()) {
+            return null;
+        }
+        try {
+            return genomeFileMapper.selectById(Long.parseLong(keyword));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 按给定ID顺序批量加载文件（保持搜索排序）
+     */
+    private List<GenomeFile> loadFilesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, GenomeFile> byId = genomeFileMapper.selectBatchIds(ids).stream()
+                .collect(Collectors.toMap(GenomeFile::getFileId, f -> f));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     /**
      * 递归删除目录
      */
@@ -237,10 +324,24 @@ public class AdminServiceImpl implements AdminService {
         }
     }
 
+    /**
+     * 批量转换用户，文件数和任务数一次性取回
+     */
+    private List<Map<String, Object>> convertUsersToMaps(List<User> users) {
+        List<Long> userIds = users.stream().map(User::getUserId).collect(Collectors.toList());
+        Map<Long, Long> fileCounts = userCounterService.getFileCounts(userIds);
+        Map<Long, Long> taskCounts = userCounterService.getTaskCounts(userIds);
+        return users.stream()
+                .map(user -> convertUserToMap(user,
+                        fileCounts.getOrDefault(user.getUserId(), 0L),
+                        taskCounts.getOrDefault(user.getUserId(), 0L)))
+                .collect(Collectors.toList());
+    }
+
     /**
      * 转换用户为Map
      */
-    private Map<String, Object> convertUserToMap(User user) {
+    private Map<String, Object> convertUserToMap(User user, long fileCount, long taskCount) {
         Map<String, Object> map = new HashMap<>();
         map.put("userId", user.getUserId());
         map.put("username", user.getUsername());
@@ -252,25 +353,31 @@ public class AdminServiceImpl implements AdminService {
         map.put("lastLoginAt", user.getLastLoginAt() != null ? user.getLastLoginAt().toString() : null);
         
         // 统计用户数据
-        Integer fileCount = genomeFileMapper.countByUserId(user.getUserId());
-        Integer taskCount = analysisTaskMapper.countByUserId(user.getUserId());
         map.put("fileCount", fileCount);
         map.put("taskCount", taskCount);
         
         return map;
     }
 
+    /**
+     * 批量转换文件，所属用户名一次性取回
+     */
+    private List<Map<String, Object>> convertFilesToMaps(List<GenomeFile> files) {
+        Map<Long, String> usernames = userSummaryCache.getUsernames(
+                files.stream().map(GenomeFile::getUserId).collect(Collectors.toList()));
+        return files.stream()
+                .map(file -> convertFileToMap(file, usernames.get(file.getUserId())))
+                .collect(Collectors.toList());
+    }
+
     /**
      * 转换文件为Map
      */
-    private Map<String, Object> convertFileToMap(GenomeFile file) {
+    private Map<String, Object> convertFileToMap(GenomeFile file, String username) {
         Map<String, Object> map = new HashMap<>();
         map.put("fileId", file.getFileId());
         map.put("userId", file.getUserId());
-        
-        // 获取用户信息
-        User user = userMapper.findById(file.getUserId());
-        map.put("username", user != null ? user.getUsername() : "未知");
+        map.put("username", username != null ? username : "未知");
         
         map.put("originalFilename", file.getOriginalFilename());
         map.put("fileSize", file.getFileSize());
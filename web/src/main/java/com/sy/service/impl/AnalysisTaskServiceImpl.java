@@ -1,5 +1,8 @@
 package com.sy.service.impl;
 
+import com.sy.event.TaskCreatedEvent;
+import com.sy.event.TaskDeletedEvent;
+import com.sy.event.TaskStatusChangedEvent;
 import com.sy.mapper.AnalysisResultMapper;
 import com.sy.mapper.AnalysisTaskMapper;
 import com.sy.mapper.GenomeFileMapper;
@@ -8,16 +11,22 @@ import com.sy.pojo.AnalysisTask;
 import com.sy.pojo.GenomeFile;
 import com.sy.service.AnalysisTaskService;
 import com.sy.service.DockerService;
+import com.sy.service.ResultPersistenceService;
+import com.sy.service.SearchIndexService;
 import com.sy.service.TaskQueueManager;
 import com.sy.service.impl.DockerServiceImpl;
+import com.sy.util.PageCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +42,12 @@ public class AnalysisTaskServiceImpl implements AnalysisTaskService {
     private final GenomeFileMapper genomeFileMapper;
     private final DockerService dockerService;
     private final TaskQueueManager taskQueueManager;
+    private final SearchIndexService searchIndexService;
+    private final ResultPersistenceService resultPersistenceService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
     
     @Value("${analysis.output-dir:./outputs}")
     private String outputBaseDir;
@@ -57,6 +72,7 @@ public class AnalysisTaskServiceImpl implements AnalysisTaskService {
         task.setUserId(userId);
         task.setFileId(fileId);
         task.setTaskName(taskNamePrefix + " - " + genomeFile.getOriginalFilename());
+        task.setAnalysisType("arg".equals(analysisType) ? "arg" : "genomad");
         task.setStatus("PENDING");
         task.setProgress(0);
         task.setCreatedAt(LocalDateTime.now());
@@ -75,6 +91,8 @@ public class AnalysisTaskServiceImpl implements AnalysisTaskService {
         
         // 更新输出目录
         analysisTaskMapper.updateById(task);
+        searchIndexService.indexTask(task, genomeFile.getOriginalFilename());
+        eventPublisher.publishEvent(new TaskCreatedEvent(task));
         
         log.info("创建分析任务: taskId={}, fileId={}, userId={}, analysisType={}, outputDir={}", 
                 task.getTaskId(), fileId, userId, analysisType, outputDir);
@@ -95,43 +113,100 @@ public class AnalysisTaskServiceImpl implements AnalysisTaskService {
             tasks = analysisTaskMapper.findByUserId(userId);
         }
         
+        Map<Long, String> fileNames = resolveFileNames(tasks);
         return tasks.stream()
-                .map(task -> {
-                    GenomeFile file = genomeFileMapper.selectById(task.getFileId());
-                    return convertTaskToMap(task, file != null ? file.getOriginalFilename() : "Unknown");
-                })
+                .map(task -> convertTaskToMap(task, fileNames.getOrDefault(task.getFileId(), "Unknown")))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Map<String, Object> getUserTasksPage(Long userId, String status, String type,
+                                                String cursor, Integer limit, Set<String> fields) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        String analysisType = type != null && !type.trim().isEmpty() ? type.trim().toLowerCase() : null;
+
+        // 多取一条用于判断是否还有下一页
+        List<AnalysisTask> tasks = analysisTaskMapper.findUserTasksPage(userId,
+                status != null && !status.isEmpty() ? status : null,
+                analysisType,
+                pageCursor != null ? pageCursor.getTime() : null,
+                pageCursor != null ? pageCursor.getId() : null,
+                pageSize + 1);
+
+        boolean hasMore = tasks.size() > pageSize;
+        if (hasMore) {
+            tasks = tasks.subList(0, pageSize);
+        }
+
+        // 只有需要文件名时才批量查询文件表
+        boolean needFileName = fields == null || fields.isEmpty() || fields.contains("fileName");
+        Map<Long, String> fileNames = needFileName ? resolveFileNames(tasks) : Collections.emptyMap();
+
+        List<Map<String, Object>> list = tasks.stream()
+                .map(task -> projectFields(
+                        convertTaskToMap(task, fileNames.getOrDefault(task.getFileId(), "Unknown")), fields))
                 .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasMore) {
+            AnalysisTask last = tasks.get(tasks.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getTaskId()).encode();
+        }
+
+        Map<String, Object> page = new HashMap<>();
+        page.put("list", list);
+        page.put("nextCursor", nextCursor);
+        page.put("hasMore", hasMore);
+        return page;
     }
 
     @Override
-    public List<Map<String, Object>> searchTasks(Long userId, String keyword) {
+    public Map<String, Object> searchTasks(Long userId, String keyword, String cursor, Integer limit) {
         if (keyword == null || keyword.trim().isEmpty()) {
-            return getUserTasks(userId, null);
+            return getUserTasksPage(userId, null, null, cursor, limit, null);
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        int offset = parseOffset(cursor);
+        String kw = keyword.trim();
+        
+        List<AnalysisTask> tasks = null;
+        boolean hasMore = false;
+        // 尝试将关键字解析为数字（任务ID），直接按主键精确查找
+        if (offset == 0) {
+            try {
+                AnalysisTask task = analysisTaskMapper.selectById(Long.parseLong(kw));
+                if (task != null && task.getUserId().equals(userId)) {
+                    tasks = List.of(task);
+                }
+            } catch (NumberFormatException e) {
+                // 不是数字，继续走索引搜索
+            }
         }
         
-        List<AnalysisTask> tasks;
-        // 尝试将关键字解析为数字（任务ID）
-        try {
-            Long taskId = Long.parseLong(keyword.trim());
-            // 如果是数字，先按任务ID精确查找
-            AnalysisTask task = analysisTaskMapper.selectById(taskId);
-            if (task != null && task.getUserId().equals(userId)) {
-                tasks = List.of(task);
+        if (tasks == null) {
+            if (searchIndexService.canSearch(kw)) {
+                List<Long> ids = searchIndexService.searchTasks(userId, kw);
+                hasMore = ids.size() > offset + pageSize;
+                tasks = loadInOrder(ids.subList(Math.min(offset, ids.size()), Math.min(offset + pageSize, ids.size())));
             } else {
-                // 如果精确查找失败，使用模糊搜索
-                tasks = analysisTaskMapper.searchTasks(userId, keyword.trim());
+                // 索引尚未构建完成或关键字过短，回退到数据库模糊搜索（按用户过滤）
+                List<AnalysisTask> all = analysisTaskMapper.searchTasks(userId, kw);
+                hasMore = all.size() > offset + pageSize;
+                tasks = all.subList(Math.min(offset, all.size()), Math.min(offset + pageSize, all.size()));
             }
-        } catch (NumberFormatException e) {
-            // 如果不是数字，使用模糊搜索
-            tasks = analysisTaskMapper.searchTasks(userId, keyword.trim());
         }
-        
-        return tasks.stream()
-                .map(task -> {
-                    GenomeFile file = genomeFileMapper.selectById(task.getFileId());
-                    return convertTaskToMap(task, file != null ? file.getOriginalFilename() : "Unknown");
-                })
+
+        Map<Long, String> fileNames = resolveFileNames(tasks);
+        List<Map<String, Object>> list = tasks.stream()
+                .map(task -> convertTaskToMap(task, fileNames.getOrDefault(task.getFileId(), "Unknown")))
                 .collect(Collectors.toList());
+
+        Map<String, Object> page = new HashMap<>();
+        page.put("list", list);
+        page.put("nextCursor", hasMore ? new PageCursor(null, (long) (offset + pageSize)).encode() : null);
+        page.put("hasMore", hasMore);
+        return page;
     }
 
     @Override
@@ -203,6 +278,7 @@ public class AnalysisTaskServiceImpl implements AnalysisTaskService {
         task.setStatus("CANCELLED");
         task.setCompletedAt(LocalDateTime.now());
         analysisTaskMapper.updateById(task);
+        publishStatusChange(task, status);
         
         log.info("任务已取消: taskId={}, userId={}", taskId, userId);
     }
@@ -217,11 +293,12 @@ public class AnalysisTaskServiceImpl implements AnalysisTaskService {
             throw new RuntimeException("无权删除该任务");
         }
         
-        // 删除关联的结果
-        analysisResultMapper.delete(null); // TODO: 使用条件删除
+        // 删除关联的结果（arg_predictions 由外键级联删除）
+        analysisResultMapper.deleteByTaskId(taskId);
         
         // 删除任务
         analysisTaskMapper.deleteById(taskId);
+        eventPublisher.publishEvent(new TaskDeletedEvent(task));
         
         log.info("任务已删除: taskId={}, userId={}", taskId, userId);
     }
@@ -304,15 +381,17 @@ public class AnalysisTaskServiceImpl implements AnalysisTaskService {
             return;
         }
         
-        // 获取分析类型
-        String analysisType = params != null ? (String) params.getOrDefault("analysisType", "genomad") : "genomad";
+        // 获取分析类型（以任务表中持久化的类型为准）
+        String analysisType = task.getAnalysisType() != null ? task.getAnalysisType() : "genomad";
         
         try {
             // 更新任务状态为运行中
+            String previousStatus = task.getStatus();
             task.setStatus("RUNNING");
             task.setStartedAt(LocalDateTime.now());
             task.setProgress(10);
             analysisTaskMapper.updateById(task);
+            publishStatusChange(task, previousStatus);
             
             log.info("开始执行分析任务: taskId={}, analysisType={}", taskId, analysisType);
             
@@ -341,23 +420,13 @@ public class AnalysisTaskServiceImpl implements AnalysisTaskService {
                 }
             }
             
-            task.setProgress(90);
-            analysisTaskMapper.updateById(task);
-            
-            // 保存结果到数据库（ARG 分析只需要输出文件，不需要存数据库）
-            if (!"arg".equals(analysisType)) {
-                saveResults(taskId, result);
-            }
-            
-            // 更新任务状态
-            task.setStatus("COMPLETED");
-            task.setProgress(100);
-            task.setCompletedAt(LocalDateTime.now());
+            // 结果统计（任务仍为运行中，结果写入数据库后才标记完成）
+            task.setProgress(95);
             
             if ("arg".equals(analysisType)) {
                 // ARG 结果统计
-                List<Map<String, Object>> argResults = (List<Map<String, Object>>) result.get("argResults");
-                task.setProphageCount(argResults != null ? argResults.size() : 0); // 复用字段存储 ARG 数量
+                Object argCount = result.get("argCount");
+                task.setProphageCount(argCount instanceof Number ? ((Number) argCount).intValue() : 0); // 复用字段存储 ARG 数量
             } else {
                 // 原噬菌体结果统计
                 Object genomeLengthObj = result.get("genomeLength");
@@ -371,7 +440,18 @@ public class AnalysisTaskServiceImpl implements AnalysisTaskService {
             
             analysisTaskMapper.updateById(task);
             
-            log.info("分析任务完成: taskId={}, analysisType={}", taskId, analysisType);
+            if ("arg".equals(analysisType)) {
+                // ARG 结果从 all_predictions.tsv 读取，数据库副本尽力写入，写入失败只记录日志，不影响任务状态
+                finishTask(taskId, analysisType, null);
+                resultPersistenceService.saveArgPredictions(taskId, Paths.get(outputDir, "all_predictions.tsv"));
+            } else {
+                // 原噬菌体结果由后台线程批量写入数据库，分析线程不等待；写入结束后再标记完成并发布完成事件，
+                // 避免任务已完成但 analysis_results 尚未写入时查询到空结果
+                resultPersistenceService.saveProphageResults(taskId,
+                                (List<Map<String, Object>>) result.get("prophageRegions"))
+                        .whenComplete((rows, error) -> finishTask(taskId, analysisType, error));
+                log.info("分析执行完成，等待结果写入: taskId={}, analysisType={}", taskId, analysisType);
+            }
             
         } catch (Exception e) {
             log.error("分析任务失败: taskId={}, analysisType={}", taskId, analysisType, e);
@@ -379,35 +459,49 @@ public class AnalysisTaskServiceImpl implements AnalysisTaskService {
             task.setErrorMessage(e.getMessage());
             task.setCompletedAt(LocalDateTime.now());
             analysisTaskMapper.updateById(task);
+            publishStatusChange(task, "RUNNING");
         }
     }
 
-
     /**
-     * 保存分析结果到数据库
+     * 更新任务最终状态（原噬菌体任务在结果写入线程上、写入结束后执行）
+     * 写入失败时任务标记为失败并记录原因，不会出现已完成但结果为空的任务
      */
-    private void saveResults(Long taskId, Map<String, Object> dockerResult) {
-        List<Map<String, Object>> prophageRegions = (List<Map<String, Object>>) dockerResult.get("prophageRegions");
-        if (prophageRegions == null || prophageRegions.isEmpty()) {
-            return;
-        }
-        
-        for (Map<String, Object> region : prophageRegions) {
-            AnalysisResult result = new AnalysisResult();
-            result.setTaskId(taskId);
-            result.setRegionIndex(((Number) region.get("regionId")).intValue());
-            result.setStartPos((Integer) region.get("start"));
-            result.setEndPos((Integer) region.get("end"));
-            result.setLength((Integer) region.get("length"));
-            result.setScore(((Number) region.get("score")).doubleValue());
-            result.setCompleteness((String) region.get("completeness"));
-            result.setGeneCount((Integer) region.get("geneCount"));
+    private void finishTask(Long taskId, String analysisType, Throwable error) {
+        try {
+            String status;
+            Integer progress = null;
+            String errorMessage = null;
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                status = "FAILED";
+                errorMessage = "结果写入数据库失败: " + cause.getMessage();
+            } else {
+                status = "COMPLETED";
+                progress = 100;
+            }
+            // 条件更新：写入期间任务被取消或删除时不覆盖其状态，也不发布事件
+            if (analysisTaskMapper.finishIfRunning(taskId, status, progress, errorMessage, LocalDateTime.now()) != 1) {
+                return;
+            }
+            eventPublisher.publishEvent(new TaskStatusChangedEvent(taskId, analysisType, "RUNNING", status));
             
-            // 保存到数据库
-            analysisResultMapper.insert(result);
+            log.info("分析任务{}: taskId={}, analysisType={}", error == null ? "完成" : "失败", taskId, analysisType);
+        } catch (Exception e) {
+            log.error("更新任务最终状态失败: taskId={}", taskId, e);
         }
     }
 
+    /**
+     * 发布任务状态变更事件（统计服务据此更新状态分布）
+     */
+    private void publishStatusChange(AnalysisTask task, String oldStatus) {
+        eventPublisher.publishEvent(new TaskStatusChangedEvent(
+                task.getTaskId(), task.getAnalysisType(), oldStatus, task.getStatus()));
+    }
+
+
     /**
      * 将任务转换为Map
      */
@@ -418,6 +512,7 @@ public class AnalysisTaskServiceImpl implements AnalysisTaskService {
         map.put("fileId", task.getFileId());
         map.put("fileName", fileName);
         map.put("taskName", task.getTaskName());
+        map.put("analysisType", task.getAnalysisType());
         map.put("isArg", isArgTask(task) ? 1 : 0); // 1=ARG任务, 0=Genomad任务
         map.put("status", task.getStatus());
         map.put("progress", task.getProgress());
@@ -432,21 +527,68 @@ public class AnalysisTaskServiceImpl implements AnalysisTaskService {
     }
     
     /**
-     * 判断是否为 ARG 任务
+     * 批量查询任务关联的文件名（一次 IN 查询代替逐行 selectById）
+     */
+    private Map<Long, String> resolveFileNames(List<AnalysisTask> tasks) {
+        Set<Long> fileIds = tasks.stream()
+                .map(AnalysisTask::getFileId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (fileIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, String> fileNames = new HashMap<>();
+        for (GenomeFile file : genomeFileMapper.selectBatchIds(fileIds)) {
+            fileNames.put(file.getFileId(), file.getOriginalFilename());
+        }
+        return fileNames;
+    }
+
+    /**
+     * 按给定ID顺序批量加载任务（保持搜索排序）
+     */
+    private List<AnalysisTask> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, AnalysisTask> byId = analysisTaskMapper.selectBatchIds(ids).stream()
+                .collect(Collectors.toMap(AnalysisTask::getTaskId, t -> t));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 解析搜索分页游标（与任务列表相同的 PageCursor 编码，主键位置存放结果偏移量）
+     */
+    private int parseOffset(String cursor) {
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        if (pageCursor == null) {
+            return 0;
+        }
+        if (pageCursor.getTime() != null || pageCursor.getId() < 0 || pageCursor.getId() > Integer.MAX_VALUE) {
+            throw new RuntimeException("无效的分页游标");
+        }
+        return pageCursor.getId().intValue();
+    }
+
+    /**
+     * 按 fields 参数裁剪返回字段
+     */
+    private Map<String, Object> projectFields(Map<String, Object> map, Set<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return map;
+        }
+        map.keySet().retainAll(fields);
+        return map;
+    }
+
+    /**
+     * 判断是否为 ARG 任务（只读 analysis_type 列，不再探测文件系统）
      */
     private boolean isArgTask(AnalysisTask task) {
-        // 优先从 taskName 判断
-        if (task.getTaskName() != null && task.getTaskName().contains("抗性基因")) {
-            return true;
-        }
-        // 从 parameters 中解析
-        if (task.getParameters() != null && task.getParameters().contains("\"analysisType\":\"arg\"")) {
-            return true;
-        }
-        // 从输出目录判断（检查是否存在 arg_predictions.tsv）
-        String taskOutputDir = outputBaseDir + File.separator + "task_" + task.getTaskId();
-        File argFile = new File(taskOutputDir, "arg_predictions.tsv");
-        return argFile.exists();
+        return "arg".equals(task.getAnalysisType());
     }
 
     /**
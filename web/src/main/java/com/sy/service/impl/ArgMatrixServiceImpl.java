@@ -0,0 +1,195 @@
+package com.sy.service.impl;
+
+import com.sy.cache.ColumnarTableCache;
+import com.sy.columnar.ArgTable;
+import com.sy.event.FileDeletedEvent;
+import com.sy.event.TaskDeletedEvent;
+import com.sy.export.ArgClassMatrix;
+import com.sy.mapper.AnalysisTaskMapper;
+import com.sy.mapper.ArgClassSummaryMapper;
+import com.sy.mapper.GenomeFileMapper;
+import com.sy.pojo.AnalysisTask;
+import com.sy.pojo.ArgClassSummary;
+import com.sy.pojo.GenomeFile;
+import com.sy.service.ArgMatrixService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * ARG 分类丰度矩阵服务实现
+ * 汇总行很小（每个任务几十行），数百个样本的矩阵只需一次按任务ID批量查询；
+ * 本功能上线前完成的任务在首次参与矩阵时补算汇总。
+ * 汇总的删除和写入用 TransactionTemplate 包在一个事务里，任务完成流水线和矩阵补算（类内调用，不经过代理）都是原子的；
+ * 写入按主键 upsert，并发补算同一任务时后写入的覆盖先写入的，不会因主键冲突失败
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ArgMatrixServiceImpl implements ArgMatrixService {
+
+    // 单个矩阵最多包含的任务数
+    private static final int MAX_TASKS = 1000;
+    // 分类名列宽
+    private static final int MAX_CLASS_LENGTH = 128;
+
+    private final ArgClassSummaryMapper argClassSummaryMapper;
+    private final AnalysisTaskMapper analysisTaskMapper;
+    private final GenomeFileMapper genomeFileMapper;
+    private final ColumnarTableCache columnarTableCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${analysis.output-dir:./outputs}")
+    private String outputBaseDir;
+
+    @Override
+    public void summarizeTask(AnalysisTask task, Path taskDir) throws IOException {
+        Path argFile = taskDir.resolve("all_predictions.tsv");
+        if (!Files.exists(argFile)) {
+            return;
+        }
+        ArgTable table = columnarTableCache.getArgTable(task.getTaskId(), taskDir, argFile);
+        Map<String, ArgClassSummary> rows = new LinkedHashMap<>();
+        for (Map.Entry<String, double[]> entry : table.classTotals().entrySet()) {
+            String argClass = entry.getKey();
+            if (argClass.length() > MAX_CLASS_LENGTH) {
+                argClass = argClass.substring(0, MAX_CLASS_LENGTH);
+            }
+            // 主键列按不区分大小写的排序规则比较，大小写不同的分类合并为一行
+            String name = argClass;
+            ArgClassSummary row = rows.computeIfAbsent(argClass.toLowerCase(Locale.ROOT),
+                    k -> new ArgClassSummary(task.getTaskId(), name, 0, 0.0, 0));
+            double[] totals = entry.getValue();
+            row.setHitCount(row.getHitCount() + (int) totals[0]);
+            row.setProbSum(row.getProbSum() + totals[1]);
+            row.setProbCount(row.getProbCount() + (int) totals[2]);
+        }
+        double[] totals = table.totals();
+        rows.put(ArgClassSummary.ALL, new ArgClassSummary(task.getTaskId(), ArgClassSummary.ALL,
+                (int) totals[0], totals[1], (int) totals[2]));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            argClassSummaryMapper.deleteByTaskId(task.getTaskId());
+            argClassSummaryMapper.upsertBatch(new ArrayList<>(rows.values()));
+        });
+        log.debug("ARG 分类汇总完成: taskId={}, 分类 {} 个", task.getTaskId(), rows.size() - 1);
+    }
+
+    @Override
+    public ArgClassMatrix buildMatrix(Long userId, List<Long> taskIds, String value) {
+        List<AnalysisTask> tasks = new ArrayList<>();
+        if (taskIds == null || taskIds.isEmpty()) {
+            for (AnalysisTask task : analysisTaskMapper.findByUserIdAndStatus(userId, "COMPLETED")) {
+                if ("arg".equals(task.getAnalysisType())) {
+                    tasks.add(task);
+                }
+            }
+            tasks.sort(Comparator.comparing(AnalysisTask::getTaskId));
+        } else {
+            Set<Long> distinct = new LinkedHashSet<>(taskIds);
+            if (distinct.size() > MAX_TASKS) {
+                throw new RuntimeException("单个矩阵最多包含 " + MAX_TASKS + " 个任务");
+            }
+            Map<Long, AnalysisTask> found = new HashMap<>();
+            for (AnalysisTask task : analysisTaskMapper.selectBatchIds(distinct)) {
+                found.put(task.getTaskId(), task);
+            }
+            for (Long taskId : distinct) {
+                AnalysisTask task = found.get(taskId);
+                if (task == null || !task.getUserId().equals(userId)) {
+                    throw new RuntimeException("任务不存在或无权访问: " + taskId);
+                }
+                if (!"arg".equals(task.getAnalysisType())) {
+                    throw new RuntimeException("任务不是 ARG 分析: " + taskId);
+                }
+                if (!"COMPLETED".equals(task.getStatus())) {
+                    throw new RuntimeException("任务尚未完成: " + taskId);
+                }
+                tasks.add(task);
+            }
+        }
+        if (tasks.size() > MAX_TASKS) {
+            throw new RuntimeException("已完成的 ARG 任务超过 " + MAX_TASKS + " 个，请指定 taskIds");
+        }
+        if (tasks.isEmpty()) {
+            return ArgClassMatrix.of(value, Collections.emptyList(), Collections.emptyList());
+        }
+
+        List<Long> ids = new ArrayList<>(tasks.size());
+        for (AnalysisTask task : tasks) {
+            ids.add(task.getTaskId());
+        }
+        List<ArgClassSummary> summaries = argClassSummaryMapper.findByTaskIds(ids);
+        Set<Long> summarized = new HashSet<>();
+        for (ArgClassSummary summary : summaries) {
+            summarized.add(summary.getTaskId());
+        }
+        // 补算缺少汇总的任务（功能上线前完成的任务）
+        boolean backfilled = false;
+        for (AnalysisTask task : tasks) {
+            if (summarized.contains(task.getTaskId())) {
+                continue;
+            }
+            try {
+                summarizeTask(task, Paths.get(outputBaseDir, "task_" + task.getTaskId()));
+                backfilled = true;
+            } catch (Exception e) {
+                log.warn("补算 ARG 分类汇总失败: taskId={}, {}", task.getTaskId(), e.getMessage());
+            }
+        }
+        if (backfilled) {
+            summaries = argClassSummaryMapper.findByTaskIds(ids);
+        }
+
+        return ArgClassMatrix.of(value, samples(tasks), summaries);
+    }
+
+    /**
+     * 样本名取上传文件名，文件已删除时取任务名
+     */
+    private List<ArgClassMatrix.Sample> samples(List<AnalysisTask> tasks) {
+        Set<Long> fileIds = new HashSet<>();
+        for (AnalysisTask task : tasks) {
+            if (task.getFileId() != null) {
+                fileIds.add(task.getFileId());
+            }
+        }
+        Map<Long, String> fileNames = new HashMap<>();
+        if (!fileIds.isEmpty()) {
+            for (GenomeFile file : genomeFileMapper.selectBatchIds(fileIds)) {
+                fileNames.put(file.getFileId(), file.getOriginalFilename());
+            }
+        }
+        List<ArgClassMatrix.Sample> samples = new ArrayList<>(tasks.size());
+        for (AnalysisTask task : tasks) {
+            String name = fileNames.get(task.getFileId());
+            if (name == null || name.isEmpty()) {
+                name = task.getTaskName() != null ? task.getTaskName() : "task_" + task.getTaskId();
+            }
+            samples.add(new ArgClassMatrix.Sample(task.getTaskId(), name));
+        }
+        return samples;
+    }
+
+    // 汇总行随任务、文件一起删除，在发布事件的事务内执行（其余监听器在提交后执行）
+    @EventListener
+    public void onTaskDeleted(TaskDeletedEvent event) {
+        argClassSummaryMapper.deleteByTaskId(event.getTask().getTaskId());
+    }
+
+    @EventListener
+    public void onFileDeleted(FileDeletedEvent event) {
+        if (event.getTasks() != null) {
+            event.getTasks().forEach(task -> argClassSummaryMapper.deleteByTaskId(task.getTaskId()));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.sy.service.impl;
+
+import com.sy.mapper.AnalysisTaskMapper;
+import com.sy.pojo.AnalysisTask;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 启动后在后台构建的进程内索引（搜索索引、结果索引、原噬菌体签名索引）的公共部分
+ * 应用就绪后在守护线程中全量构建一次，完成后标记就绪；构建失败时保持未就绪，调用方回退到数据库查询。
+ * 扫描到的任务可能在写入索引前被删除，删除事件先于写入执行时任务会被写回索引，
+ * 因此构建期间记录被删除的任务，写入后再检查一次并移除。
+ */
+@Slf4j
+abstract class BackgroundIndexBuilder {
+
+    static final int SCAN_BATCH_SIZE = 1000;
+
+    private volatile boolean ready = false;
+    private volatile boolean building = false;
+    // 构建期间删除的任务ID
+    private final Set<Long> removedWhileBuilding = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 索引名称（用于日志）
+     */
+    protected abstract String indexName();
+
+    /**
+     * 构建线程名
+     */
+    protected abstract String threadName();
+
+    /**
+     * 全量构建索引
+     * @return 构建结果摘要（用于日志）
+     */
+    protected abstract String build() throws Exception;
+
+    /**
+     * 从索引中移除任务
+     */
+    public abstract void removeTask(Long taskId);
+
+    /**
+     * 应用启动完成后在后台构建索引，避免阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread builder = new Thread(this::rebuild, threadName());
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * 全量重建索引
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        building = true;
+        try {
+            String summary = build();
+            ready = true;
+            log.info("{}构建完成: {}, 耗时 {} ms", indexName(), summary, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("{}构建失败", indexName(), e);
+        } finally {
+            building = false;
+            removedWhileBuilding.clear();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 记录被删除的任务（子类在 removeTask 中调用）
+     */
+    protected void markRemoved(Long taskId) {
+        if (building && taskId != null) {
+            removedWhileBuilding.add(taskId);
+        }
+    }
+
+    /**
+     * 按主键分批扫描全部任务；每个任务处理后，若已在构建期间被删除则从索引中移除
+     */
+    protected void forEachTask(AnalysisTaskMapper mapper, Consumer<AnalysisTask> action) {
+        scan(mapper::findAfterId, AnalysisTask::getTaskId, tasks -> {
+            for (AnalysisTask task : tasks) {
+                action.accept(task);
+                if (removedWhileBuilding.contains(task.getTaskId())) {
+                    removeTask(task.getTaskId());
+                }
+            }
+        });
+    }
+
+    /**
+     * 按主键分批扫描（键集分页，每批 SCAN_BATCH_SIZE 条）
+     * @param findAfterId 查询主键大于给定值的前 N 条
+     * @param id 主键
+     * @param batch 处理一批
+     */
+    protected static <T> void scan(BiFunction<Long, Integer, List<T>> findAfterId, Function<T, Long> id,
+                                   Consumer<List<T>> batch) {
+        long lastId = 0L;
+        List<T> rows;
+        while (!(rows = findAfterId.apply(lastId, SCAN_BATCH_SIZE)).isEmpty()) {
+            batch.accept(rows);
+            lastId = id.apply(rows.get(rows.size() - 1));
+        }
+    }
+}
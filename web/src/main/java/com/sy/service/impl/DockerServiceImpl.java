@@ -1,7 +1,14 @@
 package com.sy.service.impl;
 
+import com.sy.cache.ColumnarTableCache;
+import com.sy.columnar.GeneTable;
 import com.sy.service.DockerService;
+import com.sy.tsv.ProvirusColumns;
+import com.sy.tsv.TsvHeader;
+import com.sy.tsv.TsvReader;
+import com.sy.tsv.TsvRow;
 import com.sy.service.impl.VisualizationServiceImpl;
+import com.sy.util.GenomadOutputs;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -372,7 +379,7 @@ public class DockerServiceImpl implements DockerService {
             String baseName = fileName.replaceAll("\\.(fna|fasta|fa)$", "");
 
             // genomad 原噬菌体输出文件路径
-            File provirusDir = new File(outputDir, baseName + "_find_proviruses");
+            File provirusDir = GenomadOutputs.findProvirusesDir(Paths.get(outputDir), baseName).toFile();
             File provirusFile = new File(provirusDir, baseName + "_provirus.tsv");
 
             log.info("查找原噬菌体输出文件: {}", provirusFile.getAbsolutePath());
@@ -424,42 +431,29 @@ public class DockerServiceImpl implements DockerService {
 
         long maxEndPos = 0;
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(tsvFile))) {
-            String line;
-            String[] headers = null;
-            int lineNum = 0;
-
-            while ((line = reader.readLine()) != null) {
-                lineNum++;
-
-                // 跳过注释和空行
-                if (line.startsWith("#") || line.trim().isEmpty()) {
-                    continue;
-                }
-
-                String[] values = line.split("\t");
-
-                // 第一行是表头
-                if (headers == null) {
-                    headers = values;
-                    log.debug("TSV 表头: {}", Arrays.toString(headers));
-                    continue;
-                }
-
+        try (TsvReader reader = TsvReader.open(tsvFile.toPath())) {
+            // genomad 输出格式: seq_name, start, end, length, topology, n_genes, genetic_code, virus_score, ...
+            TsvHeader header = reader.header();
+            int seqNameCol = header.column("seq_name", 0);
+            int startCol = header.column("start", 1);
+            int endCol = header.column("end", 2);
+            int lengthCol = header.column("length", 3);
+            int nGenesCol = header.column("n_genes", 5);
+            int scoreCol = header.column("virus_score", 7);
+
+            while (reader.next()) {
+                TsvRow row = reader.row();
                 try {
-                    // 解析每一行数据
-                    // genomad 输出格式: seq_name, start, end, length, topology, n_genes, genetic_code, virus_score, ...
                     Map<String, Object> prophage = new HashMap<>();
 
-                    // 提取关键字段（根据实际 genomad 输出调整索引）
                     // 使用 start/end 而不是 startPos/endPos，与 AnalysisTaskServiceImpl 保持一致
                     prophage.put("regionId", prophageRegions.size() + 1);                  // 区域ID（从1开始）
-                    prophage.put("seqName", values[0]);                                    // 序列名称
-                    prophage.put("start", Integer.parseInt(values[1]));                    // 起始位置
-                    prophage.put("end", Integer.parseInt(values[2]));                      // 结束位置
-                    prophage.put("length", Integer.parseInt(values[3]));                   // 长度
-                    prophage.put("score", values.length > 7 ? Double.parseDouble(values[7]) : 0.0);  // 病毒得分
-                    int geneCount = values.length > 5 ? Integer.parseInt(values[5]) : 0;
+                    prophage.put("seqName", row.getString(seqNameCol));                    // 序列名称
+                    prophage.put("start", row.getInt(startCol));                           // 起始位置
+                    prophage.put("end", row.getInt(endCol));                               // 结束位置
+                    prophage.put("length", row.getInt(lengthCol));                         // 长度
+                    prophage.put("score", row.has(scoreCol) ? row.getDouble(scoreCol) : 0.0);  // 病毒得分
+                    int geneCount = row.has(nGenesCol) ? row.getInt(nGenesCol) : 0;
                     prophage.put("nGenes", geneCount);      // 基因数（genomad 输出）
                     prophage.put("geneCount", geneCount);   // 基因数（AnalysisTaskServiceImpl 期望的字段名）
 
@@ -480,7 +474,7 @@ public class DockerServiceImpl implements DockerService {
                     }
 
                 } catch (Exception e) {
-                    log.warn("解析第 {} 行失败: {}", lineNum, e.getMessage());
+                    log.warn("解析第 {} 行失败: {}", reader.lineNumber(), e.getMessage());
                 }
             }
         }
@@ -503,89 +497,59 @@ public class DockerServiceImpl implements DockerService {
 
         long maxEndPos = 0;
 
-        // 解析原噬菌体区域
-        try (BufferedReader reader = new BufferedReader(new FileReader(tsvFile))) {
-            String line;
-            String[] headers = null;
-            int lineNum = 0;
-
-            while ((line = reader.readLine()) != null) {
-                lineNum++;
-
-                // 跳过注释和空行
-                if (line.startsWith("#") || line.trim().isEmpty()) {
-                    continue;
-                }
-
-                String[] values = line.split("\t");
-
-                // 第一行是表头
-                if (headers == null) {
-                    headers = values;
-                    log.debug("原噬菌体 TSV 表头: {}", Arrays.toString(headers));
-                    continue;
-                }
+        // 解析原噬菌体区域（按表头列名定位各列）
+        try (TsvReader reader = TsvReader.open(tsvFile.toPath())) {
+            ProvirusColumns c = ProvirusColumns.of(reader.header());
 
+            while (reader.next()) {
+                TsvRow row = reader.row();
                 try {
-                    // 解析原噬菌体数据
-                    // 格式: seq_name(0), source_seq(1), start(2), end(3), length(4), n_genes(5), v_vs_c_score(6), in_seq_edge(7), integrases(8)
                     Map<String, Object> prophage = new HashMap<>();
 
                     prophage.put("regionId", prophageRegions.size() + 1);  // 区域ID（从1开始）
-                    String seqName = values[0];
-                    prophage.put("seqName", seqName);                      // 原噬菌体序列名
-                    prophage.put("sourceSeq", values[1]);                  // 宿主序列名
-                    prophage.put("start", Integer.parseInt(values[2]));    // 起始位置
-                    prophage.put("end", Integer.parseInt(values[3]));      // 结束位置
-                    prophage.put("length", Integer.parseInt(values[4]));   // 长度
-
-                    int geneCount = Integer.parseInt(values[5]);
+                    prophage.put("seqName", row.getString(c.seqName));     // 原噬菌体序列名
+                    prophage.put("sourceSeq", row.getString(c.sourceSeq)); // 宿主序列名
+                    int endPos = row.getInt(c.end);
+                    int length = row.getInt(c.length);
+                    prophage.put("start", row.getInt(c.start));            // 起始位置
+                    prophage.put("end", endPos);                           // 结束位置
+                    prophage.put("length", length);                        // 长度
+
+                    int geneCount = row.getInt(c.nGenes);
                     prophage.put("nGenes", geneCount);
                     prophage.put("geneCount", geneCount);
 
                     // v_vs_c_score 作为得分
-                    double score = Double.parseDouble(values[6]);
+                    double score = row.getDouble(c.vVsCScore);
                     prophage.put("score", score);
 
                     // 计算置信度（v_vs_c_score 通常在 0-100 范围）
                     prophage.put("confidence", Math.min(score / 100.0, 1.0));
 
                     // 完整性判断
-                    int length = Integer.parseInt(values[4]);
-                    boolean inEdge = "True".equals(values[7]);
+                    boolean inEdge = row.equals(c.inSeqEdge, "True");
                     prophage.put("completeness", (!inEdge && length > 30000) ? "complete" : "incomplete");
 
                     prophageRegions.add(prophage);
 
                     // 更新最大位置
-                    int endPos = Integer.parseInt(values[3]);
                     if (endPos > maxEndPos) {
                         maxEndPos = endPos;
                     }
 
                 } catch (Exception e) {
-                    log.warn("解析第 {} 行失败: {}", lineNum, e.getMessage());
+                    log.warn("解析第 {} 行失败: {}", reader.lineNumber(), e.getMessage());
                 }
             }
         }
 
-        // 解析基因信息并关联到原噬菌体
+        // 解析基因文件为列式表（写入任务目录 .index/genes.col，可视化接口直接加载）
         File genesFile = new File(tsvFile.getParent(), tsvFile.getName().replace("_provirus.tsv", "_provirus_genes.tsv"));
         if (genesFile.exists()) {
-            Map<String, List<Map<String, Object>>> genesByProphage = parseGenesFile(genesFile);
-
-            // 将基因信息添加到对应的原噬菌体
-            for (Map<String, Object> prophage : prophageRegions) {
-                String seqName = (String) prophage.get("seqName");
-                String prophagePrefix = seqName.split("\\|provirus_")[0] + "|provirus_" +
-                        prophage.get("start") + "_" + prophage.get("end");
-
-                List<Map<String, Object>> genes = genesByProphage.get(prophagePrefix);
-                if (genes != null) {
-                    prophage.put("genes", genes);
-                    log.debug("为原噬菌体 {} 关联了 {} 个基因", seqName, genes.size());
-                }
-            }
+            Path columnFile = tsvFile.getParentFile().getParentFile().toPath()
+                    .resolve(ColumnarTableCache.INDEX_DIR).resolve("genes.col");
+            GeneTable geneTable = GeneTable.loadOrBuild(genesFile.toPath(), columnFile);
+            log.info("成功解析 {} 个原噬菌体的 {} 个基因", geneTable.countBySeqName().size(), geneTable.size());
         } else {
             log.warn("未找到基因文件: {}", genesFile.getAbsolutePath());
         }
@@ -598,68 +562,6 @@ public class DockerServiceImpl implements DockerService {
         return result;
     }
 
-    /**
-     * 解析基因文件
-     * 格式：gene, start, end, length, strand, gc_content, genetic_code, rbs_motif, marker, evalue, bitscore, uscg, taxid, taxname, annotation_accessions, annotation_description
-     */
-    private Map<String, List<Map<String, Object>>> parseGenesFile(File genesFile) throws IOException {
-        Map<String, List<Map<String, Object>>> genesByProphage = new HashMap<>();
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(genesFile))) {
-            String line;
-            String[] headers = null;
-            int lineNum = 0;
-
-            while ((line = reader.readLine()) != null) {
-                lineNum++;
-
-                if (line.startsWith("#") || line.trim().isEmpty()) {
-                    continue;
-                }
-
-                String[] values = line.split("\t");
-
-                if (headers == null) {
-                    headers = values;
-                    log.debug("基因 TSV 表头: {}", Arrays.toString(headers));
-                    continue;
-                }
-
-                try {
-                    // 解析基因数据
-                    String geneId = values[0];  // 如: Unbinned_3894_contig-100_0|provirus_3_21536_1
-
-                    // 提取原噬菌体前缀（去掉最后的基因编号）
-                    String prophagePrefix = geneId.substring(0, geneId.lastIndexOf('_'));
-
-                    Map<String, Object> gene = new HashMap<>();
-                    gene.put("geneId", geneId);
-                    gene.put("start", Integer.parseInt(values[1]));
-                    gene.put("end", Integer.parseInt(values[2]));
-                    gene.put("length", Integer.parseInt(values[3]));
-                    gene.put("strand", Integer.parseInt(values[4]));
-                    gene.put("gcContent", Double.parseDouble(values[5]));
-
-                    // 功能注释（annotation_description）
-                    String annotation = values.length > 15 ? values[15] : "NA";
-                    if ("NA".equals(annotation) || annotation.trim().isEmpty()) {
-                        annotation = "无注释";
-                    }
-                    gene.put("annotation", annotation);
-
-                    // 添加到对应原噬菌体的基因列表
-                    genesByProphage.computeIfAbsent(prophagePrefix, k -> new ArrayList<>()).add(gene);
-
-                } catch (Exception e) {
-                    log.warn("解析基因第 {} 行失败: {}", lineNum, e.getMessage());
-                }
-            }
-        }
-
-        log.info("成功解析 {} 个原噬菌体的基因信息", genesByProphage.size());
-        return genesByProphage;
-    }
-
     /**
      * 生成模拟结果（用于测试）
      */
@@ -1,13 +1,21 @@
 package com.sy.service.impl;
 
+import com.sy.event.FileDeletedEvent;
+import com.sy.event.FileUploadedEvent;
+import com.sy.index.FastaIndex;
+import com.sy.index.FastaSlice;
 import com.sy.mapper.AnalysisTaskMapper;
 import com.sy.mapper.GenomeFileMapper;
+import com.sy.mapper.UserMapper;
 import com.sy.pojo.AnalysisTask;
 import com.sy.pojo.GenomeFile;
+import com.sy.pojo.User;
 import com.sy.service.GenomeFileService;
+import com.sy.service.SearchIndexService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -33,6 +41,9 @@ public class GenomeFileServiceImpl implements GenomeFileService {
 
     private final GenomeFileMapper genomeFileMapper;
     private final AnalysisTaskMapper analysisTaskMapper;
+    private final UserMapper userMapper;
+    private final SearchIndexService searchIndexService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // 文件上传目录（从配置文件读取，如果没有则使用默认值）
     @Value("${file.upload.genome-dir:./uploads/genome}")
@@ -46,6 +57,9 @@ public class GenomeFileServiceImpl implements GenomeFileService {
             "txt"                          // Text format
     );
 
+    // 可建立 FASTA 索引的格式
+    private static final Set<String> FASTA_EXTENSIONS = Set.of("fasta", "fa", "fna", "faa");
+
     @Override
     public Map<String, Object> uploadGenomeFile(MultipartFile file, Long userId, Map<String, Object> options) {
         // 提取选项
@@ -81,6 +95,7 @@ public class GenomeFileServiceImpl implements GenomeFileService {
             // 保存文件
             Path filePath = Paths.get(uploadDir, newFilename);
             Files.write(filePath, file.getBytes());
+            buildFastaIndex(filePath, extension);
             
             // 创建数据库记录
             GenomeFile genomeFile = new GenomeFile();
@@ -104,6 +119,9 @@ public class GenomeFileServiceImpl implements GenomeFileService {
             
             // 保存到数据库
             genomeFileMapper.insert(genomeFile);
+            User owner = userMapper.findById(userId);
+            searchIndexService.indexFile(genomeFile, owner != null ? owner.getUsername() : null);
+            eventPublisher.publishEvent(new FileUploadedEvent(userId, genomeFile.getFileId()));
             
             log.info("文件上传成功: {}, 用户ID: {}, 文件ID: {}", originalFilename, userId, genomeFile.getFileId());
             
@@ -165,6 +183,7 @@ public class GenomeFileServiceImpl implements GenomeFileService {
         // 3. 删除物理基因文件
         try {
             Files.deleteIfExists(Paths.get(file.getFilePath()));
+            Files.deleteIfExists(FastaIndex.indexPath(Paths.get(file.getFilePath())));
             log.info("删除物理文件: {}", file.getFilePath());
         } catch (IOException e) {
             log.error("删除物理文件失败: {}", file.getFilePath(), e);
@@ -172,10 +191,76 @@ public class GenomeFileServiceImpl implements GenomeFileService {
         
         // 4. 删除数据库记录（会级联删除analysis_tasks和analysis_results）
         genomeFileMapper.deleteById(fileId);
+        eventPublisher.publishEvent(new FileDeletedEvent(userId, fileId, tasks));
         
         log.info("文件及相关数据删除完成: fileId={}, userId={}", fileId, userId);
     }
 
+    @Override
+    public List<Map<String, Object>> getSequences(Long fileId, Long userId) {
+        Path fasta = getFastaPath(fileId, userId);
+        try {
+            List<Map<String, Object>> sequences = new ArrayList<>();
+            for (FastaIndex.Entry entry : FastaIndex.loadOrBuild(fasta).entries()) {
+                Map<String, Object> map = new HashMap<>();
+                map.put("name", entry.getName());
+                map.put("length", entry.getLength());
+                sequences.add(map);
+            }
+            return sequences;
+        } catch (IOException e) {
+            log.error("读取FASTA索引失败: fileId={}", fileId, e);
+            throw new RuntimeException("读取序列失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public FastaSlice getSequence(Long fileId, Long userId, String seqName,
+                                  Long start, Long end, boolean reverseComplement) {
+        Path fasta = getFastaPath(fileId, userId);
+        try {
+            return FastaIndex.loadOrBuild(fasta).slice(fasta, seqName, start, end, reverseComplement);
+        } catch (IOException e) {
+            log.error("读取FASTA索引失败: fileId={}", fileId, e);
+            throw new RuntimeException("读取序列失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 校验权限并返回 FASTA 文件路径
+     */
+    private Path getFastaPath(Long fileId, Long userId) {
+        GenomeFile file = genomeFileMapper.selectById(fileId);
+        if (file == null) {
+            throw new RuntimeException("文件不存在");
+        }
+        if (!file.getUserId().equals(userId)) {
+            throw new RuntimeException("无权访问该文件");
+        }
+        if (file.getFileType() == null || !FASTA_EXTENSIONS.contains(file.getFileType().toLowerCase())) {
+            throw new RuntimeException("该文件不是FASTA格式");
+        }
+        Path path = Paths.get(file.getFilePath());
+        if (!Files.exists(path)) {
+            throw new RuntimeException("文件不存在");
+        }
+        return path;
+    }
+
+    /**
+     * 上传后为 FASTA 文件建立 .fai 索引，失败时不影响上传（首次读取序列时会重试）
+     */
+    private void buildFastaIndex(Path filePath, String extension) {
+        if (!FASTA_EXTENSIONS.contains(extension.toLowerCase())) {
+            return;
+        }
+        try {
+            FastaIndex.loadOrBuild(filePath);
+        } catch (IOException e) {
+            log.warn("FASTA索引构建失败: {}, {}", filePath, e.getMessage());
+        }
+    }
+
     @Override
     public List<Map<String, Object>> searchFiles(String keyword) {
         if (keyword == null || keyword.trim().isEmpty()) {
@@ -201,8 +286,12 @@ public class GenomeFileServiceImpl implements GenomeFileService {
                 files = genomeFileMapper.findByUserId(id);
             }
         } catch (NumberFormatException e) {
-            // 如果不是数字，按文件名或用户名查找
-            files = genomeFileMapper.searchFiles(keywordTrimmed);
+            // 如果不是数字，按文件名或用户名查找；索引未就绪或关键字过短时回退到数据库模糊搜索
+            if (searchIndexService.canSearch(keywordTrimmed)) {
+                files = loadInOrder(searchIndexService.searchFiles(keywordTrimmed));
+            } else {
+                files = genomeFileMapper.searchFiles(keywordTrimmed);
+            }
         }
         
         return files.stream()
@@ -210,6 +299,21 @@ public class GenomeFileServiceImpl implements GenomeFileService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * 按给定ID顺序批量加载文件（保持搜索排序）
+     */
+    private List<GenomeFile> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, GenomeFile> byId = genomeFileMapper.selectBatchIds(ids).stream()
+                .collect(Collectors.toMap(GenomeFile::getFileId, f -> f));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+    
     /**
      * 递归删除目录
      */
@@ -1,5 +1,7 @@
 package com.sy.service.impl;
 
+import com.sy.event.UserLoginEvent;
+import com.sy.event.UserRegisteredEvent;
 import com.sy.mapper.LoginLogMapper;
 import com.sy.mapper.UserMapper;
 import com.sy.pojo.LoginLog;
@@ -12,6 +14,7 @@ import com.sy.vo.RegisterRequest;
 import com.sy.vo.ResetPasswordRequest;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -37,6 +40,9 @@ public class LoginServiceImpl implements LoginService {
     
     @Autowired
     private EmailService emailService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     
@@ -96,6 +102,7 @@ public class LoginServiceImpl implements LoginService {
         user.setCreatedAt(LocalDateTime.now());
         
         userMapper.insert(user);
+        eventPublisher.publishEvent(new UserRegisteredEvent(user.getUserId()));
     }
     
     @Override
@@ -155,6 +162,7 @@ public class LoginServiceImpl implements LoginService {
         }
         
         loginLogMapper.insert(log);
+        eventPublisher.publishEvent(new UserLoginEvent(userId));
         
         // 更新用户最后登录时间
         User user = userMapper.findById(userId);
@@ -251,4 +259,4 @@ public class LoginServiceImpl implements LoginService {
         // 删除验证码
         redisTemplate.delete("reset:code:" + request.getEmail());
     }
-} 
\ No newline at end of file
+} 
\ No newline at end of file
@@ -0,0 +1,200 @@
+package com.sy.service.impl;
+
+import com.sy.cache.ColumnarTableCache;
+import com.sy.event.FileDeletedEvent;
+import com.sy.event.TaskDeletedEvent;
+import com.sy.event.UserDeletedEvent;
+import com.sy.mapper.AnalysisTaskMapper;
+import com.sy.pojo.AnalysisTask;
+import com.sy.service.ProphageSketchService;
+import com.sy.sketch.LshIndex;
+import com.sy.sketch.MinHash;
+import com.sy.sketch.ProphageSketches;
+import com.sy.util.GenomadOutputs;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 原噬菌体 MinHash 签名服务实现
+ * 签名在任务完成时计算并写入 .index/sketch.col；启动后在后台线程读取已完成任务的签名文件构建索引
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProphageSketchServiceImpl extends BackgroundIndexBuilder implements ProphageSketchService {
+
+    private final AnalysisTaskMapper analysisTaskMapper;
+
+    @Value("${analysis.output-dir:./outputs}")
+    private String outputBaseDir;
+
+    // 用户ID -> 该用户全部任务的 LSH 索引
+    private final Map<Long, LshIndex> userIndexes = new ConcurrentHashMap<>();
+    // 任务ID -> 用户ID（删除任务时定位索引）
+    private final Map<Long, Long> taskOwners = new ConcurrentHashMap<>();
+
+    @Override
+    protected String indexName() {
+        return "原噬菌体签名索引";
+    }
+
+    @Override
+    protected String threadName() {
+        return "prophage-sketch-builder";
+    }
+
+    @Override
+    protected String build() {
+        forEachTask(analysisTaskMapper, task -> {
+            if (!"COMPLETED".equals(task.getStatus()) || "arg".equals(task.getAnalysisType())) {
+                return;
+            }
+            Path taskDir = Paths.get(outputBaseDir, "task_" + task.getTaskId());
+            if (!Files.isDirectory(taskDir)) {
+                return;
+            }
+            try {
+                indexTask(task, taskDir);
+            } catch (Exception e) {
+                log.warn("原噬菌体签名索引失败，跳过: taskId={}, {}", task.getTaskId(), e.getMessage());
+            }
+        });
+        int total = userIndexes.values().stream().mapToInt(LshIndex::size).sum();
+        return "签名 " + total + " 条";
+    }
+
+    @Override
+    public void indexTask(AnalysisTask task, Path taskDir) throws IOException {
+        if (task == null || task.getTaskId() == null || task.getUserId() == null) {
+            return;
+        }
+        String baseName = GenomadOutputs.baseName(taskDir);
+        if (baseName == null) {
+            return;
+        }
+        Path dir = GenomadOutputs.findProvirusesDir(taskDir, baseName);
+        Path provirusTsv = dir.resolve(baseName + "_provirus.tsv");
+        Path provirusFna = dir.resolve(baseName + "_provirus.fna");
+        if (!Files.exists(provirusTsv) || !Files.exists(provirusFna)) {
+            return;
+        }
+        ProphageSketches sketches = ProphageSketches.loadOrBuild(
+                taskDir.resolve(ColumnarTableCache.INDEX_DIR).resolve("sketch.col"), provirusTsv, provirusFna);
+        userIndexes.computeIfAbsent(task.getUserId(), k -> new LshIndex())
+                .putTask(task.getTaskId(), task.getFileId(), sketches);
+        taskOwners.put(task.getTaskId(), task.getUserId());
+    }
+
+    @Override
+    public void removeTask(Long taskId) {
+        if (taskId == null) {
+            return;
+        }
+        markRemoved(taskId);
+        Long userId = taskOwners.remove(taskId);
+        LshIndex index = userId != null ? userIndexes.get(userId) : null;
+        if (index != null) {
+            index.removeTask(taskId);
+        }
+    }
+
+    @Override
+    public Map<String, Object> findSimilar(Long taskId, Long regionId, Long userId, double minAni, int limit) {
+        long start = System.nanoTime();
+        AnalysisTask task = analysisTaskMapper.selectById(taskId);
+        if (task == null) {
+            throw new RuntimeException("任务不存在");
+        }
+        if (!task.getUserId().equals(userId)) {
+            throw new RuntimeException("无权访问该任务");
+        }
+        if (!"COMPLETED".equals(task.getStatus())) {
+            throw new RuntimeException("任务未完成");
+        }
+        if ("arg".equals(task.getAnalysisType())) {
+            throw new RuntimeException("该任务不是原噬菌体识别任务");
+        }
+
+        LshIndex index = userIndexes.get(userId);
+        if (index == null || !index.containsTask(taskId)) {
+            // 启动时的后台构建尚未覆盖该任务
+            try {
+                indexTask(task, Paths.get(outputBaseDir, "task_" + taskId));
+            } catch (IOException e) {
+                log.error("计算原噬菌体签名失败: taskId={}", taskId, e);
+                throw new RuntimeException("计算原噬菌体签名失败: " + e.getMessage(), e);
+            }
+            index = userIndexes.get(userId);
+        }
+        LshIndex.Entry query = index != null ? index.get(taskId, regionId) : null;
+        if (query == null) {
+            throw new RuntimeException("原噬菌体不存在或序列过短: regionId=" + regionId);
+        }
+
+        LshIndex.Candidates candidates = index.query(query.getSketch(), MinHash.jaccardForAni(minAni), query, limit);
+        List<Map<String, Object>> similar = new ArrayList<>(candidates.getMatches().size());
+        for (LshIndex.Match match : candidates.getMatches()) {
+            Map<String, Object> item = entry(match.getEntry());
+            item.put("jaccard", round(match.getJaccard()));
+            item.put("ani", round(MinHash.ani(match.getJaccard())));
+            item.put("sharedHashes", query.getSketch().shared(match.getEntry().getSketch()));
+            similar.add(item);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("query", entry(query));
+        result.put("similar", similar);
+        result.put("candidateCount", candidates.getCandidateCount());
+        result.put("indexedCount", index.size());
+        result.put("kmerSize", MinHash.K);
+        result.put("sketchSize", MinHash.SIZE);
+        result.put("ready", isReady());
+        result.put("tookMs", (System.nanoTime() - start) / 1_000_000.0);
+        return result;
+    }
+
+    private static Map<String, Object> entry(LshIndex.Entry entry) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("taskId", entry.getTaskId());
+        item.put("fileId", entry.getFileId());
+        item.put("regionId", entry.getRegionId());
+        item.put("seqName", entry.getName());
+        item.put("length", entry.getLength());
+        return item;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10000) / 10000.0;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskDeleted(TaskDeletedEvent event) {
+        removeTask(event.getTask().getTaskId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFileDeleted(FileDeletedEvent event) {
+        if (event.getTasks() != null) {
+            event.getTasks().forEach(task -> removeTask(task.getTaskId()));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        if (event.getUserId() != null) {
+            userIndexes.remove(event.getUserId());
+            taskOwners.values().removeIf(event.getUserId()::equals);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.sy.service.impl;
+
+import com.sy.cache.ColumnarTableCache;
+import com.sy.columnar.ArgTable;
+import com.sy.columnar.GeneTable;
+import com.sy.event.FileDeletedEvent;
+import com.sy.event.TaskDeletedEvent;
+import com.sy.event.UserDeletedEvent;
+import com.sy.index.ResultIndex;
+import com.sy.index.ResultQuery;
+import com.sy.mapper.AnalysisTaskMapper;
+import com.sy.pojo.AnalysisTask;
+import com.sy.service.ResultIndexService;
+import com.sy.tsv.ProvirusColumns;
+import com.sy.tsv.TsvReader;
+import com.sy.tsv.TsvRow;
+import com.sy.util.GenomadOutputs;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 跨任务结果索引服务实现
+ * 启动后在后台线程扫描已完成任务的列式文件构建索引，之后由任务完成流水线增量更新、删除事件移除
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ResultIndexServiceImpl extends BackgroundIndexBuilder implements ResultIndexService {
+
+    private final AnalysisTaskMapper analysisTaskMapper;
+
+    @Value("${analysis.output-dir:./outputs}")
+    private String outputBaseDir;
+
+    private final ResultIndex index = new ResultIndex();
+
+    @Override
+    protected String indexName() {
+        return "结果索引";
+    }
+
+    @Override
+    protected String threadName() {
+        return "result-index-builder";
+    }
+
+    @Override
+    protected String build() {
+        forEachTask(analysisTaskMapper, task -> {
+            if (!"COMPLETED".equals(task.getStatus())) {
+                return;
+            }
+            Path taskDir = Paths.get(outputBaseDir, "task_" + task.getTaskId());
+            if (!Files.isDirectory(taskDir)) {
+                return;
+            }
+            try {
+                indexTask(task, taskDir);
+            } catch (Exception e) {
+                log.warn("任务结果索引失败，跳过: taskId={}, {}", task.getTaskId(), e.getMessage());
+            }
+        });
+        return "任务 " + index.size() + " 个";
+    }
+
+    @Override
+    public void indexTask(AnalysisTask task, Path taskDir) throws IOException {
+        if (task == null || task.getTaskId() == null || task.getUserId() == null) {
+            return;
+        }
+        boolean arg = "arg".equals(task.getAnalysisType());
+        ResultIndex.SegmentBuilder segment = new ResultIndex.SegmentBuilder(
+                task.getTaskId(), task.getUserId(), task.getFileId(), arg ? "arg" : "genomad");
+        if (arg) {
+            indexPredictions(segment, taskDir);
+        } else {
+            indexProphages(segment, taskDir);
+        }
+        ResultIndex.Segment built = segment.build();
+        index.put(built);
+        log.debug("任务结果已索引: taskId={}, 单元 {} 个, 词项 {} 个", task.getTaskId(), built.size(), built.termCount());
+    }
+
+    /**
+     * ARG 任务：阳性预测按分类索引
+     */
+    private void indexPredictions(ResultIndex.SegmentBuilder segment, Path taskDir) throws IOException {
+        Path argFile = taskDir.resolve("all_predictions.tsv");
+        if (!Files.exists(argFile)) {
+            return;
+        }
+        ArgTable table = ArgTable.loadOrBuild(argFile, taskDir.resolve(ColumnarTableCache.INDEX_DIR).resolve("arg.col"));
+        for (int i = 0; i < table.size(); i++) {
+            if (table.isArg(i)) {
+                int unit = segment.addPrediction(table.id(i));
+                segment.addTerm(unit, ResultQuery.ARG_CLASS, table.argClass(i));
+            }
+        }
+    }
+
+    /**
+     * genomad 任务：原噬菌体区域（整合酶）和区域内基因（marker、taxname、AMR、注释）
+     */
+    private void indexProphages(ResultIndex.SegmentBuilder segment, Path taskDir) throws IOException {
+        String baseName = GenomadOutputs.baseName(taskDir);
+        if (baseName == null) {
+            return;
+        }
+        Path dir = GenomadOutputs.findProvirusesDir(taskDir, baseName);
+        Path provirusFile = dir.resolve(baseName + "_provirus.tsv");
+        if (!Files.exists(provirusFile)) {
+            return;
+        }
+
+        Map<String, Integer> regions = new HashMap<>();
+        try (TsvReader reader = TsvReader.open(provirusFile)) {
+            ProvirusColumns c = ProvirusColumns.of(reader.header());
+            while (reader.next()) {
+                TsvRow row = reader.row();
+                String seqName = row.getString(c.seqName);
+                int unit = segment.addRegion(seqName);
+                regions.put(seqName, unit);
+                String integrases = row.getString(c.integrases).trim();
+                boolean hasIntegrase = !integrases.isEmpty() && !row.isNA(c.integrases) && !"0".equals(integrases);
+                segment.addTerm(unit, ResultQuery.INTEGRASE, hasIntegrase ? "yes" : "no");
+            }
+        }
+
+        Path genesFile = dir.resolve(baseName + "_provirus_genes.tsv");
+        if (!Files.exists(genesFile)) {
+            return;
+        }
+        GeneTable genes = GeneTable.loadOrBuild(genesFile,
+                taskDir.resolve(ColumnarTableCache.INDEX_DIR).resolve("genes.col"));
+        for (int i = 0; i < genes.size(); i++) {
+            int unit = segment.addGene(genes.geneId(i), regions.getOrDefault(genes.seqName(i), -1));
+            segment.addTerm(unit, ResultQuery.MARKER, genes.marker(i));
+            segment.addTerm(unit, ResultQuery.TAXNAME, genes.taxname(i));
+            segment.addTerms(unit, ResultQuery.AMR, genes.annotationAmr(i), ";");
+            segment.addTerms(unit, ResultQuery.ACCESSION, genes.annotationAccessions(i), ";");
+            segment.addWords(unit, ResultQuery.ANNOTATION, genes.annotationDescription(i));
+        }
+    }
+
+    @Override
+    public void removeTask(Long taskId) {
+        if (taskId != null) {
+            markRemoved(taskId);
+            index.remove(taskId);
+        }
+    }
+
+    @Override
+    public Map<String, Object> search(Long userId, String query, String scope, int limit) {
+        long start = System.nanoTime();
+        ResultIndex.SearchResult result;
+        try {
+            result = index.search(ResultQuery.parse(query), ResultIndex.Scope.of(scope), userId, limit);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("total", result.getTotal());
+        response.put("hits", result.getHits());
+        response.put("ready", isReady());
+        response.put("tookMs", (System.nanoTime() - start) / 1_000_000.0);
+        return response;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskDeleted(TaskDeletedEvent event) {
+        removeTask(event.getTask().getTaskId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFileDeleted(FileDeletedEvent event) {
+        if (event.getTasks() != null) {
+            event.getTasks().forEach(task -> removeTask(task.getTaskId()));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        if (event.getUserId() != null) {
+            index.removeUser(event.getUserId());
+        }
+    }
+}
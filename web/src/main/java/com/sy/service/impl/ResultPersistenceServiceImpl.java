@@ -0,0 +1,192 @@
+package com.sy.service.impl;
+
+import com.sy.cache.ColumnarTableCache;
+import com.sy.columnar.ArgTable;
+import com.sy.mapper.AnalysisResultMapper;
+import com.sy.mapper.ArgPredictionMapper;
+import com.sy.pojo.AnalysisResult;
+import com.sy.pojo.ArgPrediction;
+import com.sy.service.ResultPersistenceService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 分析结果持久化服务实现
+ * 使用 BATCH 执行器逐行调用单行 INSERT，驱动在 rewriteBatchedStatements=true 时改写为多值 INSERT；
+ * 每 CHUNK_SIZE 行一个事务，避免大任务产生长事务和过大的 undo log。
+ * 原噬菌体区域和 ARG 预测各用一个后台线程按提交顺序写入，分析线程不等待写入结束：
+ * 原噬菌体区域是任务结果的来源，调用方在返回的 future 完成后再标记任务完成；
+ * ARG 预测明细只是 all_predictions.tsv 的数据库副本，单独的线程写入，数百万行的任务不会拖慢其他任务完成。
+ */
+@Slf4j
+@Service
+public class ResultPersistenceServiceImpl implements ResultPersistenceService {
+
+    // 每个事务写入的行数
+    private static final int CHUNK_SIZE = 1000;
+    // arg_predictions 的列宽，超长时截断
+    private static final int MAX_SEQ_ID_LENGTH = 255;
+    private static final int MAX_CLASS_LENGTH = 128;
+
+    private final AnalysisResultMapper analysisResultMapper;
+    private final ArgPredictionMapper argPredictionMapper;
+    private final ColumnarTableCache columnarTableCache;
+    private final TransactionTemplate transactionTemplate;
+    // BATCH 执行器的会话，在事务内绑定到当前事务，提交前统一执行批处理
+    private final SqlSessionTemplate batchSession;
+
+    private final ExecutorService writer = writerThread("result-writer");
+    private final ExecutorService argWriter = writerThread("arg-writer");
+
+    public ResultPersistenceServiceImpl(AnalysisResultMapper analysisResultMapper,
+                                        ArgPredictionMapper argPredictionMapper,
+                                        ColumnarTableCache columnarTableCache,
+                                        SqlSessionFactory sqlSessionFactory,
+                                        PlatformTransactionManager transactionManager) {
+        this.analysisResultMapper = analysisResultMapper;
+        this.argPredictionMapper = argPredictionMapper;
+        this.columnarTableCache = columnarTableCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+    }
+
+    @Override
+    public CompletableFuture<Integer> saveProphageResults(Long taskId, List<Map<String, Object>> prophageRegions) {
+        return submit(writer, taskId, "原噬菌体区域", () -> {
+            analysisResultMapper.deleteByTaskId(taskId);
+            if (prophageRegions == null || prophageRegions.isEmpty()) {
+                return 0;
+            }
+            AnalysisResultMapper mapper = batchSession.getMapper(AnalysisResultMapper.class);
+            return writeChunked(prophageRegions.size(), i -> mapper.insert(toResult(taskId, prophageRegions.get(i))));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> saveArgPredictions(Long taskId, Path argFile) {
+        return submit(argWriter, taskId, "ARG 预测", () -> {
+            argPredictionMapper.deleteByTaskId(taskId);
+            if (!Files.exists(argFile)) {
+                return 0;
+            }
+            ArgTable table;
+            try {
+                table = columnarTableCache.getArgTable(taskId, argFile.getParent(), argFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            ArgPredictionMapper mapper = batchSession.getMapper(ArgPredictionMapper.class);
+            ArgPrediction prediction = new ArgPrediction();
+            prediction.setTaskId(taskId);
+            return writeChunked(table.size(), i -> {
+                // 参数在 INSERT 调用时即绑定，可以复用同一个对象
+                prediction.setRowIndex(i + 1);
+                prediction.setSeqId(truncate(table.id(i), MAX_SEQ_ID_LENGTH));
+                prediction.setIsArg(table.isArg(i));
+                prediction.setPredProb(nullIfNaN(table.predProb(i)));
+                prediction.setArgClass(truncate(table.argClass(i), MAX_CLASS_LENGTH));
+                prediction.setClassProb(nullIfNaN(table.classProb(i)));
+                prediction.setProb(nullIfNaN(table.prob(i)));
+                mapper.insert(prediction);
+            });
+        });
+    }
+
+    private static ExecutorService writerThread(String name) {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private CompletableFuture<Integer> submit(ExecutorService executor, Long taskId, String kind, Supplier<Integer> job) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.currentTimeMillis();
+            int rows = job.get();
+            log.info("{}已写入数据库: taskId={}, {} 行, 耗时 {} ms", kind, taskId, rows, System.currentTimeMillis() - start);
+            return rows;
+        }, executor).whenComplete((rows, e) -> {
+            if (e != null) {
+                log.error("{}写入数据库失败: taskId={}", kind, taskId, e);
+            }
+        });
+    }
+
+    /**
+     * 按 CHUNK_SIZE 分事务写入
+     * @param total 总行数
+     * @param insertRow 写入第 i 行
+     */
+    private int writeChunked(int total, IntConsumer insertRow) {
+        for (int from = 0; from < total; from += CHUNK_SIZE) {
+            int to = Math.min(from + CHUNK_SIZE, total);
+            int chunkStart = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = chunkStart; i < to; i++) {
+                    insertRow.accept(i);
+                }
+            });
+        }
+        return total;
+    }
+
+    private static AnalysisResult toResult(Long taskId, Map<String, Object> region) {
+        AnalysisResult result = new AnalysisResult();
+        result.setTaskId(taskId);
+        result.setRegionIndex(intValue(region.get("regionId")));
+        result.setStartPos(intValue(region.get("start")));
+        result.setEndPos(intValue(region.get("end")));
+        result.setLength(intValue(region.get("length")));
+        Object score = region.get("score");
+        result.setScore(score instanceof Number ? ((Number) score).doubleValue() : null);
+        result.setCompleteness((String) region.get("completeness"));
+        result.setGeneCount(intValue(region.get("geneCount")));
+        return result;
+    }
+
+    private static Integer intValue(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : null;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    private static Double nullIfNaN(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    /**
+     * 关闭时等待已提交的写入完成
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writer.shutdown();
+        argWriter.shutdown();
+        if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("关闭时仍有原噬菌体结果未写入数据库");
+            writer.shutdownNow();
+        }
+        if (!argWriter.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("关闭时仍有 ARG 预测未写入数据库");
+            argWriter.shutdownNow();
+        }
+    }
+}
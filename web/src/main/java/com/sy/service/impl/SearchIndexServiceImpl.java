@@ -0,0 +1,196 @@
+package com.sy.service.impl;
+
+import com.sy.event.FileDeletedEvent;
+import com.sy.event.TaskDeletedEvent;
+import com.sy.index.NGramIndex;
+import com.sy.mapper.AnalysisTaskMapper;
+import com.sy.mapper.GenomeFileMapper;
+import com.sy.mapper.UserMapper;
+import com.sy.pojo.AnalysisTask;
+import com.sy.pojo.GenomeFile;
+import com.sy.pojo.User;
+import com.sy.service.SearchIndexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 搜索索引服务实现
+ * 启动后在后台线程分批扫描数据库构建索引，之后增量维护：新增由业务代码直接写入，
+ * 删除在事务提交后按任务、文件删除事件移除（回滚时索引不受影响）
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchIndexServiceImpl extends BackgroundIndexBuilder implements SearchIndexService {
+
+    private final AnalysisTaskMapper analysisTaskMapper;
+    private final GenomeFileMapper genomeFileMapper;
+    private final UserMapper userMapper;
+
+    // 任务索引字段：任务ID、文件ID、文件名
+    private final NGramIndex taskIndex = new NGramIndex();
+    // 文件索引字段：文件ID、文件名
+    private final NGramIndex fileIndex = new NGramIndex();
+    // 文件所属用户索引（按文件ID）字段：用户ID、用户名
+    private final NGramIndex fileOwnerIndex = new NGramIndex();
+
+    // 任务ID -> 用户ID（按用户过滤）
+    private final Map<Long, Long> taskOwners = new ConcurrentHashMap<>();
+    // 文件ID -> 任务ID 集合（删除文件时同步删除任务索引）
+    private final Map<Long, Set<Long>> fileTasks = new ConcurrentHashMap<>();
+
+    @Override
+    protected String indexName() {
+        return "搜索索引";
+    }
+
+    @Override
+    protected String threadName() {
+        return "search-index-builder";
+    }
+
+    @Override
+    protected String build() {
+        Map<Long, String> fileNames = new HashMap<>();
+        scan(genomeFileMapper::findAfterId, GenomeFile::getFileId, files -> {
+            Map<Long, String> usernames = resolveUsernames(files);
+            for (GenomeFile file : files) {
+                indexFile(file, usernames.get(file.getUserId()));
+                fileNames.put(file.getFileId(), file.getOriginalFilename());
+            }
+        });
+        forEachTask(analysisTaskMapper, task -> indexTask(task, fileNames.get(task.getFileId())));
+        return "文件 " + fileIndex.size() + " 个, 任务 " + taskIndex.size() + " 个";
+    }
+
+    @Override
+    public boolean canSearch(String... keywords) {
+        if (!isReady()) {
+            return false;
+        }
+        for (String keyword : keywords) {
+            if (keyword != null && !keyword.trim().isEmpty() && keyword.trim().length() < NGramIndex.MIN_QUERY_LENGTH) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void indexTask(AnalysisTask task, String fileName) {
+        if (task == null || task.getTaskId() == null) {
+            return;
+        }
+        taskIndex.put(task.getTaskId(),
+                String.valueOf(task.getTaskId()),
+                task.getFileId() != null ? String.valueOf(task.getFileId()) : null,
+                fileName);
+        taskOwners.put(task.getTaskId(), task.getUserId());
+        if (task.getFileId() != null) {
+            fileTasks.computeIfAbsent(task.getFileId(), k -> ConcurrentHashMap.newKeySet()).add(task.getTaskId());
+        }
+    }
+
+    @Override
+    public void removeTask(Long taskId) {
+        if (taskId == null) {
+            return;
+        }
+        markRemoved(taskId);
+        taskIndex.remove(taskId);
+        taskOwners.remove(taskId);
+        fileTasks.values().forEach(ids -> ids.remove(taskId));
+    }
+
+    @Override
+    public void indexFile(GenomeFile file, String username) {
+        if (file == null || file.getFileId() == null) {
+            return;
+        }
+        fileIndex.put(file.getFileId(), String.valueOf(file.getFileId()), file.getOriginalFilename());
+        fileOwnerIndex.put(file.getFileId(), String.valueOf(file.getUserId()), username);
+    }
+
+    @Override
+    public void removeFile(Long fileId) {
+        if (fileId == null) {
+            return;
+        }
+        fileIndex.remove(fileId);
+        fileOwnerIndex.remove(fileId);
+        Set<Long> taskIds = fileTasks.remove(fileId);
+        if (taskIds != null) {
+            for (Long taskId : taskIds) {
+                markRemoved(taskId);
+                taskIndex.remove(taskId);
+                taskOwners.remove(taskId);
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskDeleted(TaskDeletedEvent event) {
+        removeTask(event.getTask().getTaskId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFileDeleted(FileDeletedEvent event) {
+        removeFile(event.getFileId());
+    }
+
+    @Override
+    public List<Long> searchTasks(Long userId, String keyword) {
+        return taskIndex.search(keyword, id -> userId.equals(taskOwners.get(id)));
+    }
+
+    @Override
+    public List<Long> searchFiles(String keyword) {
+        // 文件名命中排在用户名命中之前
+        LinkedHashSet<Long> ids = new LinkedHashSet<>(fileIndex.search(keyword, null));
+        ids.addAll(fileOwnerIndex.search(keyword, null));
+        return new ArrayList<>(ids);
+    }
+
+    @Override
+    public List<Long> searchFiles(String userKeyword, String fileKeyword) {
+        boolean hasUser = userKeyword != null && !userKeyword.trim().isEmpty();
+        boolean hasFile = fileKeyword != null && !fileKeyword.trim().isEmpty();
+        if (hasUser && hasFile) {
+            Set<Long> ownerMatches = new HashSet<>(fileOwnerIndex.search(userKeyword, null));
+            return fileIndex.search(fileKeyword, ownerMatches::contains);
+        }
+        if (hasUser) {
+            return fileOwnerIndex.search(userKeyword, null);
+        }
+        if (hasFile) {
+            return fileIndex.search(fileKeyword, null);
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * 批量查询一批文件的所属用户名
+     */
+    private Map<Long, String> resolveUsernames(List<GenomeFile> files) {
+        List<Long> userIds = files.stream()
+                .map(GenomeFile::getUserId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (userIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, String> usernames = new HashMap<>();
+        for (User user : userMapper.selectBatchIds(userIds)) {
+            usernames.put(user.getUserId(), user.getUsername());
+        }
+        return usernames;
+    }
+}
@@ -0,0 +1,366 @@
+package com.sy.service.impl;
+
+import com.sy.event.*;
+import com.sy.mapper.AnalysisTaskMapper;
+import com.sy.mapper.GenomeFileMapper;
+import com.sy.mapper.LoginLogMapper;
+import com.sy.mapper.UserMapper;
+import com.sy.pojo.AnalysisTask;
+import com.sy.service.StatisticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 系统统计服务实现
+ * 计数保存在 Redis 中，由领域事件增量更新；后台任务定期从数据库重新统计并覆盖，
+ * 仪表盘只读 Redis，不再每次刷新都对全表 COUNT。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatisticsServiceImpl implements StatisticsService {
+
+    private static final String TOTAL_KEY = "stats:total";
+    private static final String TASK_STATUS_KEY = "stats:task_status";
+    private static final String TASK_TYPE_KEY = "stats:task_type";
+    private static final String DAILY_PREFIX = "stats:daily:";
+    private static final String ACTIVE_PREFIX = "stats:active:";
+    // 每日数据保留时间
+    private static final long DAILY_TTL_DAYS = 120;
+    private static final int MAX_TREND_DAYS = 90;
+
+    private final StringRedisTemplate redisTemplate;
+    private final UserMapper userMapper;
+    private final GenomeFileMapper genomeFileMapper;
+    private final AnalysisTaskMapper analysisTaskMapper;
+    private final LoginLogMapper loginLogMapper;
+
+    @Value("${statistics.trend-days:30}")
+    private int trendDays;
+
+    // 最近一次对账结果，Redis 不可用时返回该快照
+    private volatile Snapshot lastSnapshot;
+
+    /**
+     * 应用启动完成后在后台做一次对账，初始化计数
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        Thread worker = new Thread(this::reconcile, "statistics-reconcile");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Scheduled(initialDelayString = "${statistics.reconcile-interval:3600000}",
+            fixedDelayString = "${statistics.reconcile-interval:3600000}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    @Override
+    public synchronized void reconcile() {
+        long start = System.currentTimeMillis();
+        try {
+            Map<String, String> totals = new HashMap<>();
+            totals.put("users", String.valueOf(userMapper.selectCount(null)));
+            totals.put("files", String.valueOf(genomeFileMapper.selectCount(null)));
+            totals.put("tasks", String.valueOf(analysisTaskMapper.selectCount(null)));
+            totals.put("logins", String.valueOf(loginLogMapper.countByStatus("SUCCESS")));
+
+            Map<String, String> byStatus = toNameCounts(analysisTaskMapper.countGroupByStatus());
+            Map<String, String> byType = toNameCounts(analysisTaskMapper.countGroupByAnalysisType());
+
+            LocalDate firstDay = LocalDate.now().minusDays(trendDays - 1L);
+            Map<String, Map<String, String>> daily = new TreeMap<>();
+            for (int i = 0; i < trendDays; i++) {
+                Map<String, String> day = new HashMap<>();
+                day.put("uploads", "0");
+                day.put("tasks", "0");
+                day.put("logins", "0");
+                daily.put(firstDay.plusDays(i).toString(), day);
+            }
+            fillDaily(daily, "uploads", genomeFileMapper.countDailyUploads(firstDay.atStartOfDay()));
+            fillDaily(daily, "tasks", analysisTaskMapper.countDailyCreated(firstDay.atStartOfDay()));
+            fillDaily(daily, "logins", loginLogMapper.countDailyLogins(firstDay.atStartOfDay()));
+
+            Map<String, Set<String>> activeUsers = new HashMap<>();
+            for (Map<String, Object> row : loginLogMapper.findDailyActiveUsers(firstDay.atStartOfDay())) {
+                activeUsers.computeIfAbsent(String.valueOf(row.get("day")), k -> new HashSet<>())
+                        .add(String.valueOf(row.get("userId")));
+            }
+            Map<String, Long> activeCounts = new HashMap<>();
+            activeUsers.forEach((day, users) -> activeCounts.put(day, (long) users.size()));
+
+            lastSnapshot = new Snapshot(buildTotals(totals, byStatus, byType), buildTrend(daily, activeCounts));
+
+            try {
+                replaceHash(TOTAL_KEY, totals);
+                replaceHash(TASK_STATUS_KEY, byStatus);
+                replaceHash(TASK_TYPE_KEY, byType);
+                for (Map.Entry<String, Map<String, String>> day : daily.entrySet()) {
+                    String key = DAILY_PREFIX + day.getKey();
+                    redisTemplate.opsForHash().putAll(key, day.getValue());
+                    redisTemplate.expire(key, DAILY_TTL_DAYS, TimeUnit.DAYS);
+                }
+                for (Map.Entry<String, Set<String>> day : activeUsers.entrySet()) {
+                    String key = ACTIVE_PREFIX + day.getKey();
+                    redisTemplate.opsForHyperLogLog().add(key, day.getValue().toArray(new String[0]));
+                    redisTemplate.expire(key, DAILY_TTL_DAYS, TimeUnit.DAYS);
+                }
+            } catch (Exception e) {
+                log.warn("统计数据写入 Redis 失败，仪表盘暂时使用内存快照", e);
+            }
+
+            log.info("统计对账完成，耗时 {} ms", System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("统计对账失败", e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getDashboard(int days) {
+        int span = Math.max(1, Math.min(days, MAX_TREND_DAYS));
+        try {
+            Map<String, String> totals = readHash(TOTAL_KEY);
+            Snapshot snapshot = lastSnapshot;
+            if (totals.isEmpty() && snapshot != null) {
+                // 尚未写入 Redis（启动对账进行中），先返回快照
+                return snapshot.toDashboard(span);
+            }
+
+            LocalDate firstDay = LocalDate.now().minusDays(span - 1L);
+            Map<String, Map<String, String>> daily = new TreeMap<>();
+            Map<String, Long> activeCounts = new HashMap<>();
+            for (int i = 0; i < span; i++) {
+                String day = firstDay.plusDays(i).toString();
+                daily.put(day, readHash(DAILY_PREFIX + day));
+                Long active = redisTemplate.opsForHyperLogLog().size(ACTIVE_PREFIX + day);
+                activeCounts.put(day, active != null ? active : 0L);
+            }
+
+            Map<String, Object> dashboard = buildTotals(totals, readHash(TASK_STATUS_KEY), readHash(TASK_TYPE_KEY));
+            dashboard.put("trend", buildTrend(daily, activeCounts));
+            return dashboard;
+        } catch (Exception e) {
+            log.warn("读取统计数据失败，返回最近一次对账快照", e);
+            Snapshot snapshot = lastSnapshot;
+            if (snapshot != null) {
+                return snapshot.toDashboard(span);
+            }
+            throw new RuntimeException("统计数据尚未就绪");
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFileUploaded(FileUploadedEvent event) {
+        safely(() -> {
+            redisTemplate.opsForHash().increment(TOTAL_KEY, "files", 1);
+            incrementToday("uploads");
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFileDeleted(FileDeletedEvent event) {
+        safely(() -> {
+            redisTemplate.opsForHash().increment(TOTAL_KEY, "files", -1);
+            for (AnalysisTask task : event.getTasks()) {
+                decrementTask(task);
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskCreated(TaskCreatedEvent event) {
+        safely(() -> {
+            AnalysisTask task = event.getTask();
+            redisTemplate.opsForHash().increment(TOTAL_KEY, "tasks", 1);
+            redisTemplate.opsForHash().increment(TASK_STATUS_KEY, task.getStatus(), 1);
+            if (task.getAnalysisType() != null) {
+                redisTemplate.opsForHash().increment(TASK_TYPE_KEY, task.getAnalysisType(), 1);
+            }
+            incrementToday("tasks");
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskStatusChanged(TaskStatusChangedEvent event) {
+        safely(() -> {
+            if (event.getOldStatus() != null) {
+                redisTemplate.opsForHash().increment(TASK_STATUS_KEY, event.getOldStatus(), -1);
+            }
+            redisTemplate.opsForHash().increment(TASK_STATUS_KEY, event.getNewStatus(), 1);
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskDeleted(TaskDeletedEvent event) {
+        safely(() -> decrementTask(event.getTask()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        safely(() -> redisTemplate.opsForHash().increment(TOTAL_KEY, "users", 1));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        safely(() -> redisTemplate.opsForHash().increment(TOTAL_KEY, "users", -1));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserLogin(UserLoginEvent event) {
+        safely(() -> {
+            redisTemplate.opsForHash().increment(TOTAL_KEY, "logins", 1);
+            incrementToday("logins");
+            String key = ACTIVE_PREFIX + LocalDate.now();
+            redisTemplate.opsForHyperLogLog().add(key, String.valueOf(event.getUserId()));
+            redisTemplate.expire(key, DAILY_TTL_DAYS, TimeUnit.DAYS);
+        });
+    }
+
+    private void decrementTask(AnalysisTask task) {
+        redisTemplate.opsForHash().increment(TOTAL_KEY, "tasks", -1);
+        if (task.getStatus() != null) {
+            redisTemplate.opsForHash().increment(TASK_STATUS_KEY, task.getStatus(), -1);
+        }
+        if (task.getAnalysisType() != null) {
+            redisTemplate.opsForHash().increment(TASK_TYPE_KEY, task.getAnalysisType(), -1);
+        }
+    }
+
+    private void incrementToday(String field) {
+        String key = DAILY_PREFIX + LocalDate.now();
+        redisTemplate.opsForHash().increment(key, field, 1);
+        redisTemplate.expire(key, DAILY_TTL_DAYS, TimeUnit.DAYS);
+    }
+
+    /**
+     * 统计更新失败不能影响业务操作，偏差由定期对账修正
+     */
+    private void safely(Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            log.warn("统计计数更新失败", e);
+        }
+    }
+
+    private Map<String, String> readHash(String key) {
+        Map<String, String> result = new HashMap<>();
+        redisTemplate.opsForHash().entries(key)
+                .forEach((field, value) -> result.put(String.valueOf(field), String.valueOf(value)));
+        return result;
+    }
+
+    private void replaceHash(String key, Map<String, String> values) {
+        redisTemplate.delete(key);
+        if (!values.isEmpty()) {
+            redisTemplate.opsForHash().putAll(key, values);
+        }
+    }
+
+    private Map<String, String> toNameCounts(List<Map<String, Object>> rows) {
+        Map<String, String> counts = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            if (row.get("name") != null) {
+                counts.put(String.valueOf(row.get("name")), String.valueOf(row.get("cnt")));
+            }
+        }
+        return counts;
+    }
+
+    private void fillDaily(Map<String, Map<String, String>> daily, String field, List<Map<String, Object>> rows) {
+        for (Map<String, Object> row : rows) {
+            Map<String, String> day = daily.get(String.valueOf(row.get("day")));
+            if (day != null) {
+                day.put(field, String.valueOf(row.get("cnt")));
+            }
+        }
+    }
+
+    /**
+     * 组装仪表盘的汇总部分，字段名沿用原有接口（totalUsers 等）并追加分布
+     */
+    private Map<String, Object> buildTotals(Map<String, String> totals,
+                                            Map<String, String> byStatus,
+                                            Map<String, String> byType) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalUsers", toLong(totals.get("users")));
+        stats.put("totalFiles", toLong(totals.get("files")));
+        stats.put("totalTasks", toLong(totals.get("tasks")));
+        stats.put("totalLogins", toLong(totals.get("logins")));
+
+        Map<String, Long> statusCounts = new TreeMap<>();
+        byStatus.forEach((status, count) -> statusCounts.put(status, toLong(count)));
+        stats.put("tasksByStatus", statusCounts);
+
+        Map<String, Long> typeCounts = new TreeMap<>();
+        byType.forEach((type, count) -> typeCounts.put(type, toLong(count)));
+        stats.put("tasksByType", typeCounts);
+        return stats;
+    }
+
+    /**
+     * 按日期升序的每日趋势
+     * @param activeCounts 日期 -> 活跃用户数
+     */
+    private List<Map<String, Object>> buildTrend(Map<String, Map<String, String>> daily,
+                                                 Map<String, Long> activeCounts) {
+        List<Map<String, Object>> trend = new ArrayList<>();
+        for (Map.Entry<String, Map<String, String>> day : daily.entrySet()) {
+            Map<String, Object> point = new HashMap<>();
+            point.put("date", day.getKey());
+            point.put("uploads", toLong(day.getValue().get("uploads")));
+            point.put("tasks", toLong(day.getValue().get("tasks")));
+            point.put("logins", toLong(day.getValue().get("logins")));
+            point.put("activeUsers", activeCounts.getOrDefault(day.getKey(), 0L));
+            trend.add(point);
+        }
+        return trend;
+    }
+
+    private long toLong(String value) {
+        if (value == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * 对账快照：汇总与 trendDays 天的趋势分开保存，按请求的天数截取趋势
+     */
+    private static class Snapshot {
+        private final Map<String, Object> totals;
+        private final List<Map<String, Object>> trend;
+
+        Snapshot(Map<String, Object> totals, List<Map<String, Object>> trend) {
+            this.totals = totals;
+            this.trend = trend;
+        }
+
+        /**
+         * 最近 days 天（快照不足 days 天时返回全部）
+         */
+        Map<String, Object> toDashboard(int days) {
+            Map<String, Object> dashboard = new HashMap<>(totals);
+            dashboard.put("trend", new ArrayList<>(trend.subList(Math.max(0, trend.size() - days), trend.size())));
+            return dashboard;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.sy.service.impl;
+
+import com.sy.event.*;
+import com.sy.mapper.AnalysisTaskMapper;
+import com.sy.mapper.GenomeFileMapper;
+import com.sy.service.UserCounterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 用户计数服务实现
+ * 计数缓存在 Redis 中，监听上传、删除、创建任务等领域事件增量更新；
+ * 缓存缺失的用户用一次分组聚合查询补齐并回填。Redis 不可用时直接走聚合查询。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserCounterServiceImpl implements UserCounterService {
+
+    private static final String FILE_COUNT_PREFIX = "user:file_count:";
+    private static final String TASK_COUNT_PREFIX = "user:task_count:";
+    // 计数过期时间，过期后下次读取时从数据库重新聚合，修正可能的偏差
+    private static final long COUNT_TTL_HOURS = 24;
+
+    // 仅在键存在时自增，避免缺失的计数从 0 开始累加
+    private static final DefaultRedisScript<Long> INCR_IF_EXISTS = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then return redis.call('incrby', KEYS[1], ARGV[1]) end return nil",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final GenomeFileMapper genomeFileMapper;
+    private final AnalysisTaskMapper analysisTaskMapper;
+
+    @Override
+    public Map<Long, Long> getFileCounts(Collection<Long> userIds) {
+        return getCounts(FILE_COUNT_PREFIX, userIds, genomeFileMapper::countGroupByUserIds);
+    }
+
+    @Override
+    public Map<Long, Long> getTaskCounts(Collection<Long> userIds) {
+        return getCounts(TASK_COUNT_PREFIX, userIds, analysisTaskMapper::countGroupByUserIds);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFileUploaded(FileUploadedEvent event) {
+        adjustFileCount(event.getUserId(), 1);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFileDeleted(FileDeletedEvent event) {
+        adjustFileCount(event.getUserId(), -1);
+        adjustTaskCount(event.getUserId(), -event.getTasks().size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskCreated(TaskCreatedEvent event) {
+        adjustTaskCount(event.getTask().getUserId(), 1);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskDeleted(TaskDeletedEvent event) {
+        adjustTaskCount(event.getTask().getUserId(), -1);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        evict(event.getUserId());
+    }
+
+    @Override
+    public void adjustFileCount(Long userId, long delta) {
+        adjust(FILE_COUNT_PREFIX, userId, delta);
+    }
+
+    @Override
+    public void adjustTaskCount(Long userId, long delta) {
+        adjust(TASK_COUNT_PREFIX, userId, delta);
+    }
+
+    @Override
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(List.of(FILE_COUNT_PREFIX + userId, TASK_COUNT_PREFIX + userId));
+        } catch (Exception e) {
+            log.warn("清除用户计数失败: userId={}", userId, e);
+        }
+    }
+
+    /**
+     * 先批量读取 Redis，缺失部分一次聚合查询并回填
+     */
+    private Map<Long, Long> getCounts(String prefix, Collection<Long> userIds,
+                                      Function<List<Long>, List<Map<String, Object>>> aggregate) {
+        List<Long> ids = userIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        Map<Long, Long> counts = new HashMap<>();
+        if (ids.isEmpty()) {
+            return counts;
+        }
+
+        List<Long> missing = new ArrayList<>();
+        boolean redisAvailable = true;
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(
+                    ids.stream().map(id -> prefix + id).collect(Collectors.toList()));
+            for (int i = 0; i < ids.size(); i++) {
+                String value = values != null ? values.get(i) : null;
+                if (value != null) {
+                    counts.put(ids.get(i), Long.parseLong(value));
+                } else {
+                    missing.add(ids.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取用户计数缓存失败，改用数据库聚合", e);
+            redisAvailable = false;
+            counts.clear();
+            missing = ids;
+        }
+
+        if (missing.isEmpty()) {
+            return counts;
+        }
+
+        Map<Long, Long> loaded = new HashMap<>();
+        for (Long id : missing) {
+            loaded.put(id, 0L);
+        }
+        for (Map<String, Object> row : aggregate.apply(missing)) {
+            loaded.put(((Number) row.get("userId")).longValue(), ((Number) row.get("cnt")).longValue());
+        }
+        counts.putAll(loaded);
+
+        if (redisAvailable) {
+            try {
+                loaded.forEach((id, count) -> redisTemplate.opsForValue()
+                        .setIfAbsent(prefix + id, String.valueOf(count), COUNT_TTL_HOURS, TimeUnit.HOURS));
+            } catch (Exception e) {
+                log.warn("回填用户计数缓存失败", e);
+            }
+        }
+        return counts;
+    }
+
+    private void adjust(String prefix, Long userId, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        try {
+            redisTemplate.execute(INCR_IF_EXISTS, List.of(prefix + userId), String.valueOf(delta));
+        } catch (Exception e) {
+            // 增量失败时删除计数，下次读取重新聚合
+            log.warn("更新用户计数失败: key={}{}", prefix, userId, e);
+            evict(userId);
+        }
+    }
+}
@@ -1,22 +1,47 @@
 package com.sy.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sy.cache.ColumnarTableCache;
+import com.sy.cache.ParsedResultCache;
+import com.sy.columnar.ArgQuery;
+import com.sy.columnar.ArgTable;
+import com.sy.columnar.GeneTable;
+import com.sy.export.ExportFormat;
+import com.sy.export.PrecompressedFiles;
+import com.sy.export.StreamingExport;
+import com.sy.index.FastaIndex;
+import com.sy.index.FastaSlice;
+import com.sy.index.ProphageIntervals;
+import com.sy.index.ProphageOffsetIndex;
 import com.sy.mapper.AnalysisResultMapper;
 import com.sy.mapper.AnalysisTaskMapper;
 import com.sy.pojo.AnalysisResult;
 import com.sy.pojo.AnalysisTask;
 import com.sy.service.VisualizationService;
+import com.sy.stats.TaskStatisticsLoader;
+import com.sy.tiles.TrackTileLoader;
+import com.sy.tiles.TrackTiles;
+import com.sy.tsv.ProvirusColumns;
+import com.sy.tsv.TsvHeader;
+import com.sy.tsv.TsvReader;
+import com.sy.tsv.TsvRow;
+import com.sy.util.GenomadOutputs;
+import com.sy.util.PageCursor;
+import com.sy.vo.Result;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * 可视化服务实现（从genomad输出文件读取数据）
@@ -28,8 +53,30 @@ public class VisualizationServiceImpl implements VisualizationService {
 
     private final AnalysisTaskMapper analysisTaskMapper;
     private final AnalysisResultMapper analysisResultMapper;
+    private final ParsedResultCache parsedResultCache;
+    private final ColumnarTableCache columnarTableCache;
+    private final TrackTileLoader trackTileLoader;
+    private final TaskStatisticsLoader taskStatisticsLoader;
     private final ObjectMapper objectMapper = new ObjectMapper();
     
+    // 任务输出目录 -> genomad 基础名称（目录结构在任务完成后不再变化）
+    private final Map<String, String> baseNames = new ConcurrentHashMap<>();
+    
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // 可视化数据格式版本（参与结果版本和预压缩文件名），返回结构变化时递增使旧缓存失效
+    private static final int VISUALIZATION_FORMAT = 2;
+    
+    // 流式导出可选内容
+    private static final Set<String> EXPORT_SECTIONS = Set.of("all", "regions", "genes");
+    // TSV 导出列顺序
+    private static final String[] REGION_COLUMNS = {"regionId", "seqName", "sourceSeq", "start", "end", "length",
+            "nGenes", "vVsCScore", "inSeqEdge", "integrases", "completeness"};
+    private static final String[] GENE_COLUMNS = {"seqName", "gene", "start", "end", "length", "strand", "gcContent",
+            "geneticCode", "rbsMotif", "marker", "evalue", "bitscore", "uscg", "taxid", "taxname",
+            "annotationAccessions", "annotationDescription"};
+    private static final String[] ARG_COLUMNS = {"index", "id", "isArg", "predProb", "argClass", "classProb", "prob"};
+    
     @Value("${analysis.output-dir:./genome_outputs}")
     private String outputDir;
 
@@ -39,59 +86,7 @@ public class VisualizationServiceImpl implements VisualizationService {
         AnalysisTask task = validateTask(taskId, userId);
         
         try {
-            // 判断任务类型
-            String analysisType = getAnalysisType(task);
-            
-            // 构建任务输出目录路径
-            String taskOutputDir = Paths.get(outputDir, "task_" + taskId).toString();
-            
-            // 构建可视化数据
-            Map<String, Object> visualization = new HashMap<>();
-            
-            // 基因组基本信息
-            Map<String, Object> genomeInfo = new HashMap<>();
-            genomeInfo.put("taskId", taskId);
-            genomeInfo.put("taskName", task.getTaskName());
-            genomeInfo.put("analysisType", analysisType);
-            genomeInfo.put("status", task.getStatus());
-            
-            if ("arg".equals(analysisType)) {
-                // ARG 分析结果
-                genomeInfo.put("argCount", task.getProphageCount()); // 复用字段
-                visualization.put("genomeInfo", genomeInfo);
-                
-                // 读取 ARG 预测结果
-                List<Map<String, Object>> argResults = parseArgResultsList(taskOutputDir);
-                visualization.put("argResults", argResults);
-                
-                // 计算并打印返回数据的大小
-                try {
-                    String jsonStr = objectMapper.writeValueAsString(visualization);
-                    int jsonBytes = jsonStr.getBytes("UTF-8").length;
-                    log.info("任务 {} 返回 JSON 大小: {} bytes ({} KB, {} MB)", 
-                            taskId, jsonBytes, jsonBytes / 1024, jsonBytes / 1024 / 1024);
-                } catch (Exception e) {
-                    log.warn("计算 JSON 大小失败", e);
-                }
-                
-                log.info("成功加载任务 {} 的 ARG 可视化数据，找到 {} 个抗性基因", 
-                        taskId, argResults.size());
-            } else {
-                // 原噬菌体分析结果（默认）
-                genomeInfo.put("genomeLength", task.getGenomeLength());
-                genomeInfo.put("prophageCount", task.getProphageCount());
-                visualization.put("genomeInfo", genomeInfo);
-                
-                String baseName = getGenomeBaseName(taskOutputDir);
-                List<Map<String, Object>> prophageRegions = parseProphageRegions(taskOutputDir, baseName);
-                visualization.put("prophageRegions", prophageRegions);
-                
-                log.info("成功加载任务 {} 的可视化数据，找到 {} 个原噬菌体区域", 
-                        taskId, prophageRegions.size());
-            }
-            
-            return visualization;
-            
+            return buildGenomeVisualization(task);
         } catch (Exception e) {
             log.error("读取可视化数据失败: taskId={}", taskId, e);
             throw new RuntimeException("读取可视化数据失败: " + e.getMessage(), e);
@@ -99,31 +94,143 @@ public class VisualizationServiceImpl implements VisualizationService {
     }
     
     /**
-     * 获取分析类型
+     * 读取任务结果并组装基因组可视化数据
      */
-    private String getAnalysisType(AnalysisTask task) {
-        // 优先从 taskName 判断
-        if (task.getTaskName() != null && task.getTaskName().contains("抗性基因")) {
-            return "arg";
+    private Map<String, Object> buildGenomeVisualization(AnalysisTask task) throws IOException {
+        Long taskId = task.getTaskId();
+        
+        // 构建任务输出目录路径
+        String taskOutputDir = Paths.get(outputDir, "task_" + taskId).toString();
+        
+        Map<String, Object> visualization;
+        
+        if ("arg".equals(getAnalysisType(task))) {
+            // ARG 任务只返回汇总，预测明细由前端通过分页查询接口按需获取
+            Map<String, Object> argSummary = loadArgSummary(taskId, taskOutputDir);
+            visualization = buildArgVisualization(task, argSummary);
+            
+            log.info("成功加载任务 {} 的 ARG 可视化数据，共 {} 条预测", 
+                    taskId, argSummary.get("total"));
+        } else {
+            // 原噬菌体分析结果（默认）
+            String baseName = getGenomeBaseName(taskOutputDir);
+            List<Map<String, Object>> prophageRegions = parseProphageRegions(taskId, taskOutputDir, baseName);
+            visualization = buildProphageVisualization(task, prophageRegions);
+            
+            log.info("成功加载任务 {} 的可视化数据，找到 {} 个原噬菌体区域", 
+                    taskId, prophageRegions.size());
         }
-        // 从 parameters 中解析
-        if (task.getParameters() != null && task.getParameters().contains("\"analysisType\":\"arg\"")) {
-            return "arg";
+        
+        return visualization;
+    }
+    
+    @Override
+    public String getResultVersion(Long taskId, Long userId) {
+        return resultVersion(validateTask(taskId, userId));
+    }
+    
+    @Override
+    public Path getPrecompressedVisualization(Long taskId, String version) {
+        return PrecompressedFiles.find(Paths.get(outputDir, "task_" + taskId, ColumnarTableCache.INDEX_DIR),
+                "genome", version);
+    }
+    
+    @Override
+    public void precompressVisualization(AnalysisTask task) throws IOException {
+        String version = resultVersion(task);
+        Map<String, Object> visualization = buildGenomeVisualization(task);
+        Path file = PrecompressedFiles.write(Paths.get(outputDir, "task_" + task.getTaskId(), ColumnarTableCache.INDEX_DIR),
+                "genome", version, out -> objectMapper.writeValue(out, Result.success(visualization)));
+        log.debug("基因组可视化数据已预压缩: taskId={}, {} 字节", task.getTaskId(), Files.size(file));
+    }
+    
+    /**
+     * 结果版本：数据格式版本、任务ID、完成时间以及结果文件（provirus.tsv 或 all_predictions.tsv）的大小和修改时间
+     */
+    private String resultVersion(AnalysisTask task) {
+        long size = 0;
+        long modified = 0;
+        Path resultFile = resultFile(task);
+        if (resultFile != null) {
+            try {
+                size = Files.size(resultFile);
+                modified = Files.getLastModifiedTime(resultFile).toMillis();
+            } catch (IOException e) {
+                // 结果文件缺失时版本只由任务决定
+            }
         }
-        // 从输出目录判断（检查是否存在 arg_predictions.tsv）
+        long completedAt = task.getCompletedAt() != null
+                ? task.getCompletedAt().toEpochSecond(java.time.ZoneOffset.UTC) : 0;
+        return "v" + VISUALIZATION_FORMAT + "-" + task.getTaskId() + "-" + completedAt
+                + "-" + Long.toHexString(size) + "-" + Long.toHexString(modified);
+    }
+    
+    /**
+     * 可视化数据的来源文件，找不到 genomad 输出目录时返回 null
+     */
+    private Path resultFile(AnalysisTask task) {
         String taskOutputDir = Paths.get(outputDir, "task_" + task.getTaskId()).toString();
-        Path argFile = Paths.get(taskOutputDir, "arg_predictions.tsv");
-        if (Files.exists(argFile)) {
-            log.info("检测到 ARG 输出文件，任务 {} 为 ARG 类型", task.getTaskId());
-            return "arg";
+        if ("arg".equals(getAnalysisType(task))) {
+            return Paths.get(taskOutputDir, "all_predictions.tsv");
+        }
+        try {
+            String baseName = getGenomeBaseName(taskOutputDir);
+            return Paths.get(taskOutputDir, baseName + "_find_proviruses", baseName + "_provirus.tsv");
+        } catch (IOException | RuntimeException e) {
+            return null;
         }
-        return "genomad";
+    }
+    
+    /**
+     * 组装 ARG 任务的可视化数据（汇总字段同 getArgSummary）
+     */
+    private Map<String, Object> buildArgVisualization(AnalysisTask task, Map<String, Object> argSummary) {
+        Map<String, Object> genomeInfo = buildGenomeInfo(task, "arg");
+        genomeInfo.put("argCount", task.getProphageCount()); // 复用字段
+        
+        Map<String, Object> visualization = new HashMap<>();
+        visualization.put("genomeInfo", genomeInfo);
+        visualization.put("argSummary", argSummary);
+        return visualization;
+    }
+    
+    /**
+     * 组装原噬菌体任务的可视化数据
+     */
+    private Map<String, Object> buildProphageVisualization(AnalysisTask task, List<Map<String, Object>> prophageRegions) {
+        Map<String, Object> genomeInfo = buildGenomeInfo(task, "genomad");
+        genomeInfo.put("genomeLength", task.getGenomeLength());
+        genomeInfo.put("prophageCount", task.getProphageCount());
+        
+        Map<String, Object> visualization = new HashMap<>();
+        visualization.put("genomeInfo", genomeInfo);
+        visualization.put("prophageRegions", prophageRegions);
+        return visualization;
+    }
+    
+    /**
+     * 基因组基本信息
+     */
+    private Map<String, Object> buildGenomeInfo(AnalysisTask task, String analysisType) {
+        Map<String, Object> genomeInfo = new HashMap<>();
+        genomeInfo.put("taskId", task.getTaskId());
+        genomeInfo.put("taskName", task.getTaskName());
+        genomeInfo.put("analysisType", analysisType);
+        genomeInfo.put("status", task.getStatus());
+        return genomeInfo;
+    }
+    
+    /**
+     * 获取分析类型（以任务表 analysis_type 列为准）
+     */
+    private String getAnalysisType(AnalysisTask task) {
+        return "arg".equals(task.getAnalysisType()) ? "arg" : "genomad";
     }
     
     /**
      * 解析 ARG 预测结果（公共方法，供 DockerServiceImpl 调用）
      * @param taskOutputDir 任务输出目录
-     * @return 包含 argCount 和 argResults 的 Map
+     * @return 包含 argCount 的 Map
      */
     public Map<String, Object> parseArgOutput(String taskOutputDir) throws IOException {
         Map<String, Object> result = new HashMap<>();
@@ -148,86 +255,74 @@ public class VisualizationServiceImpl implements VisualizationService {
             }
         }
         
-        List<Map<String, Object>> argResults;
+        // 只需要预测数量，按列解析即可，不为每行构造 Map
+        int argCount = 0;
         if (Files.exists(argFile)) {
-            argResults = parseArgResultsListFromFile(argFile);
+            argCount = ArgTable.load(argFile).size();
         } else {
             log.warn("未找到任何 TSV 输出文件，返回空结果");
-            argResults = new ArrayList<>();
         }
         
-        result.put("argCount", argResults.size());
-        result.put("argResults", argResults);
+        result.put("argCount", argCount);
         return result;
     }
     
+    /**
+     * ARG 预测汇总，输出文件不存在时各计数为 0
+     */
+    private Map<String, Object> loadArgSummary(Long taskId, String taskOutputDir) throws IOException {
+        Path argFile = Paths.get(taskOutputDir, "all_predictions.tsv");
+        if (!Files.exists(argFile)) {
+            log.warn("ARG 输出文件不存在: {}", argFile);
+            Map<String, Object> summary = new HashMap<>();
+            summary.put("total", 0);
+            summary.put("positiveCount", 0);
+            summary.put("negativeCount", 0);
+            summary.put("classCounts", new ArrayList<>());
+            return summary;
+        }
+        return columnarTableCache.getArgTable(taskId, Paths.get(taskOutputDir), argFile).summary();
+    }
+    
     /**
      * 解析 ARG 预测结果（返回列表）
      */
-    private List<Map<String, Object>> parseArgResultsList(String taskOutputDir) throws IOException {
+    private List<Map<String, Object>> parseArgResultsList(Long taskId, String taskOutputDir) throws IOException {
         Path argFile = Paths.get(taskOutputDir, "all_predictions.tsv");
         if (!Files.exists(argFile)) {
             log.warn("ARG 输出文件不存在: {}", argFile);
             return new ArrayList<>();
         }
-        return parseArgResultsListFromFile(argFile);
+        return columnarTableCache.getArgTable(taskId, Paths.get(taskOutputDir), argFile).rows();
     }
     
     /**
-     * 从指定文件解析 ARG 预测结果
+     * 解析 ARG 预测数据行
+     * 列: id, is_arg, pred_prob, arg_class, class_prob, prob
      */
-    private List<Map<String, Object>> parseArgResultsListFromFile(Path argFile) throws IOException {
-        List<Map<String, Object>> results = new ArrayList<>();
-        
-        try (BufferedReader reader = Files.newBufferedReader(argFile)) {
-            String line;
-            String[] headers = null;
-            int index = 1;
-            
-            while ((line = reader.readLine()) != null) {
-                // 跳过空行和注释
-                if (line.trim().isEmpty() || line.startsWith("#")) {
-                    continue;
-                }
-                
-                String[] values = line.split("\t");
-                
-                // 第一行是表头
-                if (headers == null) {
-                    headers = values;
-                    continue;
-                }
-                
-                // 解析数据行
-                // 格式: id, is_arg, pred_prob, arg_class, class_prob, prob
-                Map<String, Object> result = new HashMap<>();
-                result.put("index", index++);
-                result.put("id", values.length > 0 ? values[0] : "");
-                result.put("isArg", values.length > 1 ? "True".equalsIgnoreCase(values[1]) : false);
-                result.put("predProb", values.length > 2 && !values[2].isEmpty() ? parseDouble(values[2]) : null);
-                result.put("argClass", values.length > 3 ? values[3] : "");
-                result.put("classProb", values.length > 4 && !values[4].isEmpty() ? parseDouble(values[4]) : null);
-                result.put("prob", values.length > 5 && !values[5].isEmpty() ? parseDouble(values[5]) : null);
-                
-                results.add(result);
-            }
-        }
-        
-        log.info("解析到 {} 个 ARG 预测结果", results.size());
-        return results;
+    private Map<String, Object> parseArgRow(TsvRow row, ArgTable.Columns columns, int index) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("index", index);
+        result.put("id", row.getString(columns.id));
+        result.put("isArg", row.equalsIgnoreCase(columns.isArg, "True"));
+        result.put("predProb", parseDouble(row, columns.predProb));
+        result.put("argClass", row.getString(columns.argClass));
+        result.put("classProb", parseDouble(row, columns.classProb));
+        result.put("prob", parseDouble(row, columns.prob));
+        return result;
     }
     
     /**
-     * 安全解析 double
+     * 安全解析 double，为空或不合法时返回 null
      */
-    private Double parseDouble(String value) {
-        if (value == null || value.trim().isEmpty()) {
+    private Double parseDouble(TsvRow row, int col) {
+        if (row.isEmpty(col)) {
             return null;
         }
         try {
-            return Double.parseDouble(value.trim());
+            return row.getDouble(col);
         } catch (NumberFormatException e) {
-            log.warn("无法解析数值: {}", value);
+            log.warn("无法解析数值: {}", row.getString(col));
             return null;
         }
     }
@@ -241,44 +336,43 @@ public class VisualizationServiceImpl implements VisualizationService {
             // 构建任务输出目录路径
             String taskOutputDir = Paths.get(outputDir, "task_" + taskId).toString();
             String baseName = getGenomeBaseName(taskOutputDir);
+            Path provirusDir = Paths.get(taskOutputDir, baseName + "_find_proviruses");
+            Path provirusFile = provirusDir.resolve(baseName + "_provirus.tsv");
+            if (!Files.exists(provirusFile)) {
+                throw new RuntimeException("找不到指定的原噬菌体区域: " + regionId);
+            }
             
-            // 读取原噬菌体区域信息
-            List<Map<String, Object>> prophageRegions = parseProphageRegions(taskOutputDir, baseName);
-            
-            // 找到指定的区域（注意类型转换：Map中的regionId是Integer类型）
-            Optional<Map<String, Object>> targetRegion = prophageRegions.stream()
-                    .filter(r -> {
-                        Object id = r.get("regionId");
-                        if (id instanceof Integer) {
-                            return regionId.equals(((Integer) id).longValue());
-                        } else if (id instanceof Long) {
-                            return regionId.equals(id);
-                        }
-                        return false;
-                    })
-                    .findFirst();
+            // 通过字节偏移索引直接定位区域行、基因行和序列（索引缺失时补建）
+            ProphageOffsetIndex index = ProphageOffsetIndex.loadOrBuild(Paths.get(taskOutputDir), baseName);
             
-            if (!targetRegion.isPresent()) {
-                log.error("找不到原噬菌体区域 {}, 可用区域: {}", regionId, 
-                        prophageRegions.stream()
-                                .map(r -> r.get("regionId"))
-                                .collect(Collectors.toList()));
+            String regionRow = index.readRegionRow(provirusFile, regionId);
+            if (regionRow == null) {
+                log.error("找不到原噬菌体区域 {}, 共 {} 个区域", regionId, index.regionCount());
                 throw new RuntimeException("找不到指定的原噬菌体区域: " + regionId);
             }
-            
-            Map<String, Object> region = targetRegion.get();
+            Map<String, Object> region = parseRegionRow(TsvRow.of(regionRow),
+                    ProvirusColumns.of(TsvHeader.read(provirusFile)), regionId);
+            String seqName = (String) region.get("seqName");
             
             // 读取基因详细信息
-            List<Map<String, Object>> genes = parseProphageGenes(taskOutputDir, baseName, 
-                    (String) region.get("seqName"));
+            Path genesFile = provirusDir.resolve(baseName + "_provirus_genes.tsv");
+            List<String> geneRows = index.readGeneRows(genesFile, seqName);
+            List<Map<String, Object>> genes = new ArrayList<>(geneRows.size());
+            if (!geneRows.isEmpty()) {
+                GeneTable.Columns geneColumns = GeneTable.Columns.of(TsvHeader.read(genesFile));
+                for (String row : geneRows) {
+                    genes.add(GeneTable.parseRow(TsvRow.of(row), geneColumns));
+                }
+            }
             region.put("genes", genes);
             
-            // 读取序列信息（可选）
-            String sequence = readProphageSequence(taskOutputDir, baseName, 
-                    (String) region.get("seqName"));
-            if (sequence != null) {
-                region.put("sequence", sequence);
-                region.put("sequenceLength", sequence.length());
+            // 序列本身通过 getProphageSequence 按需分段获取，这里只返回长度
+            Path seqFile = provirusDir.resolve(baseName + "_provirus.fna");
+            if (Files.exists(seqFile)) {
+                FastaIndex.Entry entry = FastaIndex.loadOrBuild(seqFile).get(seqName);
+                if (entry != null) {
+                    region.put("sequenceLength", entry.getLength());
+                }
             }
             
             log.info("成功加载原噬菌体区域详情: taskId={}, regionId={}, genes={}", 
@@ -293,75 +387,268 @@ public class VisualizationServiceImpl implements VisualizationService {
     }
 
     @Override
-    public Map<String, Object> getStatistics(Long taskId, Long userId) {
-        // 验证任务
-        AnalysisTask task = validateTask(taskId, userId);
+    public FastaSlice getProphageSequence(Long taskId, Long regionId, Long userId,
+                                          Long start, Long end, boolean reverseComplement) {
+        validateTask(taskId, userId);
         
         try {
-            // 构建任务输出目录路径
             String taskOutputDir = Paths.get(outputDir, "task_" + taskId).toString();
             String baseName = getGenomeBaseName(taskOutputDir);
-            
-            // 读取原噬菌体区域信息
-            List<Map<String, Object>> prophageRegions = parseProphageRegions(taskOutputDir, baseName);
-            
-            Map<String, Object> statistics = new HashMap<>();
-            
-            // 基本统计
-            statistics.put("prophageCount", prophageRegions.size());
-            
-            // 原噬菌体统计
-            if (!prophageRegions.isEmpty()) {
-                // 长度分布
-                List<Integer> lengths = prophageRegions.stream()
-                        .map(r -> (Integer) r.get("length"))
-                        .collect(Collectors.toList());
-                statistics.put("prophageLengths", lengths);
-                
-                // 平均长度
-                double avgLength = lengths.stream()
-                        .mapToInt(Integer::intValue)
-                        .average()
-                        .orElse(0.0);
-                statistics.put("avgProphageLength", (int) avgLength);
-                
-                // 总覆盖长度
-                int totalLength = lengths.stream().mapToInt(Integer::intValue).sum();
-                statistics.put("totalProphageLength", totalLength);
-                
-                // 得分分布
-                List<Double> scores = prophageRegions.stream()
-                        .map(r -> (Double) r.get("vVsCScore"))
-                        .collect(Collectors.toList());
-                statistics.put("prophageScores", scores);
-                
-                // 平均得分
-                double avgScore = scores.stream()
-                        .mapToDouble(Double::doubleValue)
-                        .average()
-                        .orElse(0.0);
-                statistics.put("avgProphageScore", avgScore);
-                
-                // 基因数量分布
-                List<Integer> geneCounts = prophageRegions.stream()
-                        .map(r -> (Integer) r.get("nGenes"))
-                        .collect(Collectors.toList());
-                statistics.put("geneCountDistribution", geneCounts);
-                
-                // 总基因数
-                int totalGenes = geneCounts.stream().mapToInt(Integer::intValue).sum();
-                statistics.put("totalGenes", totalGenes);
+            Path provirusDir = Paths.get(taskOutputDir, baseName + "_find_proviruses");
+            Path provirusFile = provirusDir.resolve(baseName + "_provirus.tsv");
+            Path seqFile = provirusDir.resolve(baseName + "_provirus.fna");
+            if (!Files.exists(provirusFile) || !Files.exists(seqFile)) {
+                throw new RuntimeException("找不到原噬菌体序列文件");
             }
             
-            log.info("成功生成任务 {} 的统计数据", taskId);
+            ProphageOffsetIndex index = ProphageOffsetIndex.loadOrBuild(Paths.get(taskOutputDir), baseName);
+            String regionRow = index.readRegionRow(provirusFile, regionId);
+            if (regionRow == null) {
+                throw new RuntimeException("找不到指定的原噬菌体区域: " + regionId);
+            }
+            String seqName = TsvRow.of(regionRow).getString(ProvirusColumns.of(TsvHeader.read(provirusFile)).seqName);
             
+            return FastaIndex.loadOrBuild(seqFile).slice(seqFile, seqName, start, end, reverseComplement);
+        } catch (IOException e) {
+            log.error("读取原噬菌体序列失败: taskId={}, regionId={}", taskId, regionId, e);
+            throw new RuntimeException("读取序列失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> queryArgPredictions(Long taskId, Long userId, ArgQuery query) {
+        ArgTable table = loadArgTable(taskId, userId);
+        int pageSize = query.getLimit() == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(query.getLimit(), MAX_PAGE_SIZE));
+        
+        // 游标记录排序结果中的续传位置（低 32 位）和此前已命中的行数（高 32 位），表只读，位置稳定
+        PageCursor cursor = PageCursor.decode(query.getCursor());
+        long packed = cursor != null ? cursor.getId() : 0;
+        int position = (int) packed;
+        int before = (int) (packed >>> 32);
+        if (position < 0 || before < 0) {
+            throw new RuntimeException("无效的分页游标");
+        }
+        
+        ArgTable.Page page;
+        try {
+            page = table.query(query, position, before, pageSize);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+        
+        List<Map<String, Object>> list = new ArrayList<>(page.getRows().length);
+        for (int row : page.getRows()) {
+            list.add(table.row(row));
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("list", list);
+        // 命中总数只在第一页返回
+        result.put("total", page.getTotal() >= 0 ? page.getTotal() : null);
+        result.put("hasMore", page.getNextPosition() >= 0);
+        result.put("nextCursor", page.getNextPosition() >= 0
+                ? new PageCursor(null, (long) page.getNextBefore() << 32 | page.getNextPosition()).encode() : null);
+        return result;
+    }
+    
+    @Override
+    public Map<String, Object> getArgSummary(Long taskId, Long userId) {
+        return loadArgTable(taskId, userId).summary();
+    }
+    
+    @Override
+    public Map<String, Object> getTrackTileMeta(Long taskId, Long userId) {
+        AnalysisTask task = validateTask(taskId, userId);
+        Map<String, Object> meta = loadTrackTiles(task).meta();
+        meta.put("version", tileVersion(task));
+        return meta;
+    }
+    
+    @Override
+    public Map<String, Object> getTrackTile(Long taskId, Long userId, int level, int index) {
+        AnalysisTask task = validateTask(taskId, userId);
+        try {
+            Map<String, Object> tile = loadTrackTiles(task).tile(level, index);
+            tile.put("version", tileVersion(task));
+            return tile;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+    
+    @Override
+    public Map<String, Object> queryIntervals(Long taskId, Long userId, String seq, long start, long end,
+                                              Long argTaskId, int limit) {
+        if (start > end) {
+            throw new RuntimeException("起点不能大于终点");
+        }
+        ProphageIntervals intervals = loadIntervals(validateTask(taskId, userId));
+        ProphageIntervals.ArgHits argHits = loadArgHits(taskId, intervals, argTaskId, userId);
+        
+        int[] geneRows = intervals.genesOverlapping(seq, start, end);
+        int n = Math.min(geneRows.length, Math.max(limit, 0));
+        List<Map<String, Object>> genes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            genes.add(intervals.gene(geneRows[i]));
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("regions", intervals.regionsOverlapping(seq, start, end));
+        result.put("genes", genes);
+        result.put("geneTotal", geneRows.length);
+        result.put("argHits", argHits.overlapping(seq, start, end));
+        return result;
+    }
+    
+    @Override
+    public Map<String, Object> nearestIntervals(Long taskId, Long userId, String seq, long position, Long argTaskId) {
+        ProphageIntervals intervals = loadIntervals(validateTask(taskId, userId));
+        ProphageIntervals.ArgHits argHits = loadArgHits(taskId, intervals, argTaskId, userId);
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("region", intervals.nearestRegion(seq, position, position));
+        result.put("gene", intervals.nearestGene(seq, position, position));
+        result.put("argHit", argHits.nearest(seq, position, position));
+        return result;
+    }
+    
+    @Override
+    public Map<String, Object> getColocalization(Long taskId, Long userId, Long argTaskId) {
+        ProphageIntervals intervals = loadIntervals(validateTask(taskId, userId));
+        Map<String, Object> result = intervals.colocalize(loadArgHits(taskId, intervals, argTaskId, userId));
+        result.put("taskId", taskId);
+        result.put("argTaskId", argTaskId);
+        return result;
+    }
+    
+    /**
+     * 校验原噬菌体任务并取区间索引（原噬菌体基因表和 annotate 全基因组基因表均走列式表缓存）
+     */
+    private ProphageIntervals loadIntervals(AnalysisTask task) {
+        if ("arg".equals(getAnalysisType(task))) {
+            throw new RuntimeException("该任务不是原噬菌体识别任务");
+        }
+        Long taskId = task.getTaskId();
+        String taskOutputDir = Paths.get(outputDir, "task_" + taskId).toString();
+        try {
+            String baseName = getGenomeBaseName(taskOutputDir);
+            Path provirusFile = Paths.get(taskOutputDir, baseName + "_find_proviruses", baseName + "_provirus.tsv");
+            if (!Files.exists(provirusFile)) {
+                throw new RuntimeException("原噬菌体输出文件不存在");
+            }
+            Path contigGenesFile = Paths.get(taskOutputDir, baseName + "_annotate", baseName + "_genes.tsv");
+            return columnarTableCache.getProphageIntervals(taskId, provirusFile, () -> ProphageIntervals.build(
+                    provirusFile,
+                    loadGeneTable(taskId, taskOutputDir, baseName),
+                    Files.exists(contigGenesFile)
+                            ? columnarTableCache.getContigGeneTable(taskId, Paths.get(taskOutputDir), contigGenesFile)
+                            : null));
+        } catch (IOException e) {
+            log.error("加载区间索引失败: taskId={}", taskId, e);
+            throw new RuntimeException("加载区间索引失败: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 区间索引上的 ARG 命中（走列式表缓存，按两个任务和各自源文件的修改时间失效）
+     * 未关联 ARG 任务时不读取预测表，只含 geNomad 的 AMR 注释
+     */
+    private ProphageIntervals.ArgHits loadArgHits(Long taskId, ProphageIntervals intervals, Long argTaskId,
+                                                  Long userId) {
+        String taskOutputDir = Paths.get(outputDir, "task_" + taskId).toString();
+        try {
+            String baseName = getGenomeBaseName(taskOutputDir);
+            Path provirusFile = Paths.get(taskOutputDir, baseName + "_find_proviruses", baseName + "_provirus.tsv");
+            if (argTaskId == null) {
+                return columnarTableCache.getArgHits(taskId, provirusFile, null, null, () -> intervals.argHits(null));
+            }
+            ArgTable predictions = loadArgTable(argTaskId, userId);
+            Path argFile = Paths.get(outputDir, "task_" + argTaskId, "all_predictions.tsv");
+            return columnarTableCache.getArgHits(taskId, provirusFile, argTaskId, argFile,
+                    () -> intervals.argHits(predictions));
+        } catch (IOException e) {
+            log.error("加载 ARG 命中失败: taskId={}, argTaskId={}", taskId, argTaskId, e);
+            throw new RuntimeException("加载 ARG 命中失败: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 校验原噬菌体任务并取轨道瓦片
+     */
+    private TrackTiles loadTrackTiles(AnalysisTask task) {
+        if ("arg".equals(getAnalysisType(task))) {
+            throw new RuntimeException("抗性基因检测任务没有基因组坐标，不支持轨道瓦片");
+        }
+        try {
+            TrackTiles tiles = trackTileLoader.load(task, Paths.get(outputDir, "task_" + task.getTaskId()));
+            if (tiles == null) {
+                throw new RuntimeException("原噬菌体输出文件不存在");
+            }
+            return tiles;
+        } catch (IOException e) {
+            log.error("加载轨道瓦片失败: taskId={}", task.getTaskId(), e);
+            throw new RuntimeException("加载轨道瓦片失败: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 瓦片版本（任务完成时间），用作 ETag
+     */
+    private String tileVersion(AnalysisTask task) {
+        return task.getTaskId() + "-" + (task.getCompletedAt() != null
+                ? task.getCompletedAt().toEpochSecond(java.time.ZoneOffset.UTC) : 0);
+    }
+    
+    /**
+     * 校验 ARG 任务并取列式表
+     */
+    private ArgTable loadArgTable(Long taskId, Long userId) {
+        AnalysisTask task = validateTask(taskId, userId);
+        if (!"arg".equals(getAnalysisType(task))) {
+            throw new RuntimeException("该任务不是抗性基因检测任务");
+        }
+        Path argFile = Paths.get(outputDir, "task_" + taskId, "all_predictions.tsv");
+        if (!Files.exists(argFile)) {
+            throw new RuntimeException("ARG 输出文件不存在");
+        }
+        try {
+            return columnarTableCache.getArgTable(taskId, argFile.getParent(), argFile);
+        } catch (IOException e) {
+            log.error("加载 ARG 预测结果失败: taskId={}", taskId, e);
+            throw new RuntimeException("加载 ARG 预测结果失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStatistics(Long taskId, Long userId) {
+        // 验证任务
+        AnalysisTask task = validateTask(taskId, userId);
+        
+        try {
+            Map<String, Object> statistics = loadStatistics(task);
+            log.debug("成功读取任务 {} 的统计数据", taskId);
             return statistics;
             
         } catch (Exception e) {
-            log.error("生成统计数据失败: taskId={}", taskId, e);
-            throw new RuntimeException("生成统计数据失败: " + e.getMessage(), e);
+            log.error("读取统计数据失败: taskId={}", taskId, e);
+            throw new RuntimeException("读取统计数据失败: " + e.getMessage(), e);
         }
     }
+    
+    /**
+     * 读取任务完成时预先计算的统计数据（.index/statistics.json），文件缺失或失效时重新计算
+     */
+    private Map<String, Object> loadStatistics(AnalysisTask task) throws IOException {
+        Map<String, Object> statistics = taskStatisticsLoader.load(task, Paths.get(outputDir, "task_" + task.getTaskId()));
+        if (statistics != null) {
+            return statistics;
+        }
+        // 没有结果文件
+        Map<String, Object> empty = new HashMap<>();
+        empty.put("analysisType", getAnalysisType(task));
+        empty.put("arg".equals(getAnalysisType(task)) ? "predictionCount" : "prophageCount", 0);
+        return empty;
+    }
 
     @Override
     public Map<String, Object> exportVisualizationData(Long taskId, Long userId) {
@@ -380,28 +667,36 @@ public class VisualizationServiceImpl implements VisualizationService {
             taskInfo.put("completedAt", task.getCompletedAt() != null ? task.getCompletedAt().toString() : null);
             exportData.put("taskInfo", taskInfo);
             
-            // 可视化数据
-            exportData.put("genome", getGenomeVisualization(taskId, userId));
-            
-            // 统计数据
-            exportData.put("statistics", getStatistics(taskId, userId));
-            
             // 构建任务输出目录路径
             String taskOutputDir = Paths.get(outputDir, "task_" + taskId).toString();
+            
+            if ("arg".equals(getAnalysisType(task))) {
+                // 导出文件需要完整数据，预测明细放在 genome.argResults 中
+                Map<String, Object> genome = buildArgVisualization(task, loadArgSummary(taskId, taskOutputDir));
+                genome.put("argResults", parseArgResultsList(taskId, taskOutputDir));
+                exportData.put("genome", genome);
+                exportData.put("statistics", loadStatistics(task));
+                log.info("成功导出任务 {} 的完整数据", taskId);
+                return exportData;
+            }
+            
+            // 每个输出文件只读取一次，区域列表在可视化、统计和详情之间共用
             String baseName = getGenomeBaseName(taskOutputDir);
+            List<Map<String, Object>> prophageRegions = parseProphageRegions(taskId, taskOutputDir, baseName);
+            GeneTable geneTable = loadGeneTable(taskId, taskOutputDir, baseName);
+            
+            // 可视化数据
+            exportData.put("genome", buildProphageVisualization(task, prophageRegions));
             
-            // 读取原噬菌体区域并获取详细信息
-            List<Map<String, Object>> prophageRegions = parseProphageRegions(taskOutputDir, baseName);
-            List<Map<String, Object>> prophageDetails = new ArrayList<>();
+            // 统计数据
+            exportData.put("statistics", loadStatistics(task));
             
+            // 原噬菌体区域详细信息（基因按序列名直接查表）
+            List<Map<String, Object>> prophageDetails = new ArrayList<>(prophageRegions.size());
             for (Map<String, Object> region : prophageRegions) {
                 Map<String, Object> detail = new HashMap<>(region);
-                
-                // 读取该区域的基因信息
                 String seqName = (String) region.get("seqName");
-                List<Map<String, Object>> genes = parseProphageGenes(taskOutputDir, baseName, seqName);
-                detail.put("genes", genes);
-                
+                detail.put("genes", geneTable != null ? geneTable.rowsFor(seqName) : Collections.emptyList());
                 prophageDetails.add(detail);
             }
             
@@ -417,6 +712,189 @@ public class VisualizationServiceImpl implements VisualizationService {
         }
     }
 
+    @Override
+    public StreamingExport prepareExport(Long taskId, Long userId, String format, String section, boolean gzip) {
+        AnalysisTask task = validateTask(taskId, userId);
+        ExportFormat exportFormat = ExportFormat.of(format);
+        
+        // ARG 任务只有一张表；原噬菌体任务 JSON 格式默认导出全部，TSV 默认导出区域表
+        String exportSection;
+        if ("arg".equals(getAnalysisType(task))) {
+            exportSection = "args";
+        } else if (section == null || section.isEmpty()) {
+            exportSection = exportFormat.isJson() ? "all" : "regions";
+        } else if (!EXPORT_SECTIONS.contains(section) || (!exportFormat.isJson() && "all".equals(section))) {
+            throw new RuntimeException("不支持的导出内容: " + section + "（TSV 格式可选 regions 或 genes）");
+        } else {
+            exportSection = section;
+        }
+        
+        String taskOutputDir = Paths.get(outputDir, "task_" + taskId).toString();
+        String fileName = "task_" + taskId + "_" + exportSection + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        Path cacheFile = Paths.get(taskOutputDir, ".export", fileName);
+        
+        return new StreamingExport(cacheFile, exportFormat, gzip,
+                out -> writeExport(task, taskOutputDir, exportFormat, exportSection, out));
+    }
+    
+    /**
+     * 逐行读取输出文件并立即写出，不在内存中保留整张表
+     */
+    private void writeExport(AnalysisTask task, String taskOutputDir, ExportFormat format, String section,
+                             OutputStream out) throws IOException {
+        ExportRowWriter writer = format.isJson() ? new JsonLinesRowWriter(out) : new TsvRowWriter(out);
+        
+        if ("args".equals(section)) {
+            Path argFile = Paths.get(taskOutputDir, "all_predictions.tsv");
+            if (format.isJson()) {
+                writer.write("task", buildTaskInfo(task), null);
+            }
+            int[] index = {1};
+            forEachDataRow(argFile, header -> {
+                ArgTable.Columns columns = ArgTable.Columns.of(header);
+                return row -> writer.write("arg", parseArgRow(row, columns, index[0]++), ARG_COLUMNS);
+            });
+            writer.finish();
+            return;
+        }
+        
+        String baseName = getGenomeBaseName(taskOutputDir);
+        Path provirusDir = Paths.get(taskOutputDir, baseName + "_find_proviruses");
+        
+        if ("all".equals(section)) {
+            writer.write("task", buildTaskInfo(task), null);
+        }
+        if ("all".equals(section) || "regions".equals(section)) {
+            long[] regionId = {1L};
+            forEachDataRow(provirusDir.resolve(baseName + "_provirus.tsv"), header -> {
+                ProvirusColumns columns = ProvirusColumns.of(header);
+                return row -> writer.write("region", parseRegionRow(row, columns, regionId[0]++), REGION_COLUMNS);
+            });
+        }
+        if ("all".equals(section) || "genes".equals(section)) {
+            forEachDataRow(provirusDir.resolve(baseName + "_provirus_genes.tsv"), header -> {
+                GeneTable.Columns columns = GeneTable.Columns.of(header);
+                return row -> {
+                    Map<String, Object> gene = GeneTable.parseRow(row, columns);
+                    gene.put("seqName", GeneTable.seqNameOf((String) gene.get("gene")));
+                    writer.write("gene", gene, GENE_COLUMNS);
+                };
+            });
+        }
+        writer.finish();
+    }
+    
+    /**
+     * 逐行遍历 TSV 数据行（跳过空行、注释和表头），文件不存在时不做任何事
+     * @param handlerFactory 根据表头解析列号后返回行处理方法
+     */
+    private void forEachDataRow(Path file, Function<TsvHeader, RowHandler> handlerFactory) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (TsvReader reader = TsvReader.open(file)) {
+            RowHandler handler = handlerFactory.apply(reader.header());
+            while (reader.next()) {
+                handler.accept(reader.row());
+            }
+        }
+    }
+    
+    @FunctionalInterface
+    private interface RowHandler {
+        void accept(TsvRow row) throws IOException;
+    }
+    
+    private interface ExportRowWriter {
+        /**
+         * @param type 记录类型（JSON 格式写入 type 字段）
+         * @param row 记录
+         * @param columns TSV 列顺序（为空时 TSV 格式跳过该记录）
+         */
+        void write(String type, Map<String, Object> row, String[] columns) throws IOException;
+        
+        void finish() throws IOException;
+    }
+    
+    /**
+     * 每行一个 JSON 对象（NDJSON / JSON Lines）
+     */
+    private class JsonLinesRowWriter implements ExportRowWriter {
+        private final JsonGenerator generator;
+        
+        JsonLinesRowWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+        
+        @Override
+        public void write(String type, Map<String, Object> row, String[] columns) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("type", type);
+            for (Map.Entry<String, Object> entry : row.entrySet()) {
+                generator.writeObjectField(entry.getKey(), entry.getValue());
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+    }
+    
+    /**
+     * 单张 TSV 表，首次写入时输出表头
+     */
+    private static class TsvRowWriter implements ExportRowWriter {
+        private final Writer writer;
+        private boolean headerWritten = false;
+        
+        TsvRowWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        }
+        
+        @Override
+        public void write(String type, Map<String, Object> row, String[] columns) throws IOException {
+            if (columns == null) {
+                return;
+            }
+            if (!headerWritten) {
+                writer.write(String.join("\t", columns));
+                writer.write('\n');
+                headerWritten = true;
+            }
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    writer.write('\t');
+                }
+                Object value = row.get(columns[i]);
+                writer.write(value != null ? value.toString() : "");
+            }
+            writer.write('\n');
+        }
+        
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+    
+    /**
+     * 任务基本信息
+     */
+    private Map<String, Object> buildTaskInfo(AnalysisTask task) {
+        Map<String, Object> taskInfo = new HashMap<>();
+        taskInfo.put("taskId", task.getTaskId());
+        taskInfo.put("taskName", task.getTaskName());
+        taskInfo.put("analysisType", getAnalysisType(task));
+        taskInfo.put("status", task.getStatus());
+        taskInfo.put("createdAt", task.getCreatedAt() != null ? task.getCreatedAt().toString() : null);
+        taskInfo.put("completedAt", task.getCompletedAt() != null ? task.getCompletedAt().toString() : null);
+        return taskInfo;
+    }
+
     /**
      * 验证任务并返回
      */
@@ -440,78 +918,52 @@ public class VisualizationServiceImpl implements VisualizationService {
      * 获取基因组文件的基础名称
      */
     private String getGenomeBaseName(String taskOutputDir) throws IOException {
+        String cached = baseNames.get(taskOutputDir);
+        if (cached != null) {
+            return cached;
+        }
+        
         Path dir = Paths.get(taskOutputDir);
         if (!Files.exists(dir)) {
             throw new RuntimeException("任务输出目录不存在: " + taskOutputDir);
         }
         
-        // 查找 *_provirus.tsv 文件
-        File[] provirusFiles = dir.toFile().listFiles((d, name) -> 
-            name.endsWith("_find_proviruses") && new File(d, name).isDirectory());
-        
-        if (provirusFiles != null && provirusFiles.length > 0) {
-            String dirName = provirusFiles[0].getName();
-            // 从 "genome_xxx_find_proviruses" 提取 "genome_xxx"
-            return dirName.replace("_find_proviruses", "");
+        String baseName = GenomadOutputs.baseName(dir);
+        if (baseName == null) {
+            throw new RuntimeException("找不到 find_proviruses 目录");
         }
-        
-        throw new RuntimeException("找不到 find_proviruses 目录");
+        baseNames.put(taskOutputDir, baseName);
+        return baseName;
     }
     
     /**
-     * 解析原噬菌体区域列表（从 provirus.tsv）
+     * 解析原噬菌体区域列表（从 provirus.tsv，结果走解析缓存，返回只读列表）
      */
-    private List<Map<String, Object>> parseProphageRegions(String taskOutputDir, String baseName) 
+    private List<Map<String, Object>> parseProphageRegions(Long taskId, String taskOutputDir, String baseName) 
             throws IOException {
-        List<Map<String, Object>> regions = new ArrayList<>();
-        
         Path provirusFile = Paths.get(taskOutputDir, baseName + "_find_proviruses", 
                 baseName + "_provirus.tsv");
         
         if (!Files.exists(provirusFile)) {
             log.warn("原噬菌体文件不存在: {}", provirusFile);
-            return regions;
+            return new ArrayList<>();
         }
         
-        try (BufferedReader reader = Files.newBufferedReader(provirusFile)) {
-            String line;
-            String[] headers = null;
+        return parsedResultCache.getRows(taskId, "regions", provirusFile, this::readProphageRegionsFile);
+    }
+    
+    /**
+     * 读取并解析 provirus.tsv
+     */
+    private List<Map<String, Object>> readProphageRegionsFile(Path provirusFile) throws IOException {
+        List<Map<String, Object>> regions = new ArrayList<>();
+        
+        try (TsvReader reader = TsvReader.open(provirusFile)) {
+            ProvirusColumns columns = ProvirusColumns.of(reader.header());
             long regionId = 1L;  // 使用 long 类型以与 API 参数保持一致
             
-            while ((line = reader.readLine()) != null) {
-                // 跳过空行和注释
-                if (line.trim().isEmpty() || line.startsWith("#")) {
-                    continue;
-                }
-                
-                String[] values = line.split("\t");
-                
-                // 第一行是表头
-                if (headers == null) {
-                    headers = values;
-                    continue;
-                }
-                
-                // 解析数据行
-                // 格式: seq_name, source_seq, start, end, length, n_genes, v_vs_c_score, in_seq_edge, integrases
-                Map<String, Object> region = new HashMap<>();
-                region.put("regionId", regionId++);
-                region.put("seqName", values[0]);                           // 原噬菌体序列名
-                region.put("sourceSeq", values[1]);                         // 宿主序列名
-                region.put("start", Integer.parseInt(values[2]));           // 起始位置
-                region.put("end", Integer.parseInt(values[3]));             // 结束位置
-                region.put("length", Integer.parseInt(values[4]));          // 长度
-                region.put("nGenes", Integer.parseInt(values[5]));          // 基因数
-                region.put("vVsCScore", Double.parseDouble(values[6]));     // 病毒vs细胞得分
-                region.put("inSeqEdge", values[7]);                         // 是否在序列边缘
-                region.put("integrases", values[8]);                        // 整合酶
-                
-                // 判断完整性
-                boolean inEdge = "True".equals(values[7]);
-                int length = Integer.parseInt(values[4]);
-                region.put("completeness", (!inEdge && length > 30000) ? "complete" : "incomplete");
-                
-                regions.add(region);
+            while (reader.next()) {
+                regions.add(parseRegionRow(reader.row(), columns, regionId++));
             }
         }
         
@@ -520,129 +972,41 @@ public class VisualizationServiceImpl implements VisualizationService {
     }
     
     /**
-     * 解析原噬菌体基因信息（从 provirus_genes.tsv）
+     * 解析 provirus.tsv 的一个数据行
+     * 列: seq_name, source_seq, start, end, length, n_genes, v_vs_c_score, in_seq_edge, integrases
      */
-    private List<Map<String, Object>> parseProphageGenes(String taskOutputDir, String baseName, 
-            String prophageSeqName) throws IOException {
-        List<Map<String, Object>> genes = new ArrayList<>();
+    private Map<String, Object> parseRegionRow(TsvRow row, ProvirusColumns c, long regionId) {
+        Map<String, Object> region = new HashMap<>();
+        int length = row.getInt(c.length);
+        region.put("regionId", regionId);
+        region.put("seqName", row.getString(c.seqName));            // 原噬菌体序列名
+        region.put("sourceSeq", row.getString(c.sourceSeq));        // 宿主序列名
+        region.put("start", row.getInt(c.start));                   // 起始位置
+        region.put("end", row.getInt(c.end));                       // 结束位置
+        region.put("length", length);                               // 长度
+        region.put("nGenes", row.getInt(c.nGenes));                 // 基因数
+        region.put("vVsCScore", row.getDouble(c.vVsCScore));        // 病毒vs细胞得分
+        region.put("inSeqEdge", row.getString(c.inSeqEdge));        // 是否在序列边缘
+        region.put("integrases", row.getString(c.integrases));      // 整合酶
         
+        // 判断完整性
+        boolean inEdge = row.equals(c.inSeqEdge, "True");
+        region.put("completeness", (!inEdge && length > 30000) ? "complete" : "incomplete");
+        return region;
+    }
+    
+    /**
+     * 加载原噬菌体基因列式表（provirus_genes.tsv 解析一次后写入 .index/genes.col 并缓存），文件不存在时返回 null
+     */
+    private GeneTable loadGeneTable(Long taskId, String taskOutputDir, String baseName) throws IOException {
         Path genesFile = Paths.get(taskOutputDir, baseName + "_find_proviruses", 
                 baseName + "_provirus_genes.tsv");
         
         if (!Files.exists(genesFile)) {
             log.warn("基因文件不存在: {}", genesFile);
-            return genes;
-        }
-        
-        try (BufferedReader reader = Files.newBufferedReader(genesFile)) {
-            String line;
-            String[] headers = null;
-            
-            while ((line = reader.readLine()) != null) {
-                if (line.trim().isEmpty() || line.startsWith("#")) {
-                    continue;
-                }
-                
-                String[] values = line.split("\t");
-                
-                if (headers == null) {
-                    headers = values;
-                    continue;
-                }
-                
-                // 只提取指定原噬菌体的基因
-                String geneId = values[0];
-                if (!geneId.startsWith(prophageSeqName)) {
-                    continue;
-                }
-                
-                // 格式: gene, start, end, length, strand, gc_content, genetic_code, rbs_motif, 
-                //       marker, evalue, bitscore, uscg, taxid, [可能更多], taxname, [可能更多], annotation_accessions, annotation_description
-                Map<String, Object> gene = new HashMap<>();
-                
-                // 基本必需字段
-                gene.put("gene", values[0]);  // 基因ID
-                gene.put("start", Integer.parseInt(values[1]));
-                gene.put("end", Integer.parseInt(values[2]));
-                gene.put("length", Integer.parseInt(values[3]));
-                gene.put("strand", Integer.parseInt(values[4]));
-                
-                // 可选字段，使用安全访问
-                gene.put("gcContent", values.length > 5 ? values[5] : "");
-                gene.put("geneticCode", values.length > 6 ? values[6] : "");
-                gene.put("rbsMotif", values.length > 7 ? values[7] : "");
-                gene.put("marker", values.length > 8 ? values[8] : "");
-                gene.put("evalue", values.length > 9 ? values[9] : "");
-                gene.put("bitscore", values.length > 10 ? values[10] : "");
-                gene.put("uscg", values.length > 11 ? values[11] : "");
-                gene.put("taxid", values.length > 12 ? values[12] : "");
-                
-                // taxname 通常在更靠后的位置，尝试多个可能的索引
-                // 根据示例数据，taxname 可能在索引15左右
-                String taxname = "";
-                for (int i = 13; i < Math.min(values.length, 18); i++) {
-                    if (values[i] != null && !values[i].equals("NA") && 
-                        !values[i].isEmpty() && !values[i].matches("\\d+")) {
-                        taxname = values[i];
-                        break;
-                    }
-                }
-                gene.put("taxname", taxname);
-                
-                // annotation_accessions 和 annotation_description 通常在最后两列
-                if (values.length > 1) {
-                    String annotationAccessions = values[values.length - 2];
-                    gene.put("annotationAccessions", annotationAccessions.equals("NA") ? "" : annotationAccessions);
-                    
-                    String annotationDescription = values[values.length - 1];
-                    gene.put("annotationDescription", annotationDescription.equals("NA") ? "" : annotationDescription);
-                } else {
-                    gene.put("annotationAccessions", "");
-                    gene.put("annotationDescription", "");
-                }
-                
-                genes.add(gene);
-            }
-        }
-        
-        log.info("解析到原噬菌体 {} 的 {} 个基因", prophageSeqName, genes.size());
-        return genes;
-    }
-    
-    /**
-     * 读取原噬菌体序列（从 provirus.fna）
-     */
-    private String readProphageSequence(String taskOutputDir, String baseName, String prophageSeqName) {
-        try {
-            Path seqFile = Paths.get(taskOutputDir, baseName + "_find_proviruses", 
-                    baseName + "_provirus.fna");
-            
-            if (!Files.exists(seqFile)) {
-                return null;
-            }
-            
-            StringBuilder sequence = new StringBuilder();
-            boolean inTarget = false;
-            
-            try (BufferedReader reader = Files.newBufferedReader(seqFile)) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    if (line.startsWith(">")) {
-                        // 检查是否是目标序列
-                        String seqId = line.substring(1).split("\\s+")[0];
-                        inTarget = seqId.equals(prophageSeqName);
-                    } else if (inTarget) {
-                        sequence.append(line.trim());
-                    }
-                }
-            }
-            
-            return sequence.length() > 0 ? sequence.toString() : null;
-            
-        } catch (IOException e) {
-            log.warn("读取序列失败: {}", prophageSeqName, e);
             return null;
         }
+        return columnarTableCache.getGeneTable(taskId, Paths.get(taskOutputDir), genesFile);
     }
     
     /**
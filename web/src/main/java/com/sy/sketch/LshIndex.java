@@ -0,0 +1,258 @@
+package com.sy.sketch;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * MinHash 签名的 LSH（局部敏感哈希）索引
+ * 签名切成 {@link #BANDS} 段、每段 {@link #ROWS} 个值，任一段完全相同的签名落入同一个桶；
+ * 查询时只比较同桶的候选，不随索引规模线性增长。Jaccard 为 s 的两条序列成为候选的概率为
+ * 1 - (1 - s^ROWS)^BANDS，32 x 4 时阈值约为 0.42（对应 k=21 时 ANI 约 0.975）。
+ */
+public class LshIndex {
+
+    public static final int BANDS = 32;
+    public static final int ROWS = MinHash.SIZE / BANDS;
+
+    @SuppressWarnings("unchecked")
+    private final Map<Long, List<Entry>>[] buckets = new HashMap[BANDS];
+    private final Map<Long, List<Entry>> entriesByTask = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public LshIndex() {
+        for (int b = 0; b < BANDS; b++) {
+            buckets[b] = new HashMap<>();
+        }
+    }
+
+    /**
+     * 添加或替换任务的全部签名（空签名不入索引）
+     */
+    public void putTask(long taskId, Long fileId, ProphageSketches sketches) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(taskId);
+            List<Entry> entries = new ArrayList<>(sketches.size());
+            for (int i = 0; i < sketches.size(); i++) {
+                MinHash sketch = sketches.sketch(i);
+                if (sketch.isEmpty()) {
+                    continue;
+                }
+                Entry entry = new Entry(taskId, fileId, i + 1L, sketches.name(i), sketches.length(i), sketch);
+                for (int b = 0; b < BANDS; b++) {
+                    buckets[b].computeIfAbsent(bandKey(sketch, b), k -> new ArrayList<>(1)).add(entry);
+                }
+                entries.add(entry);
+            }
+            entriesByTask.put(taskId, entries);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeTask(long taskId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(taskId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(long taskId) {
+        List<Entry> entries = entriesByTask.remove(taskId);
+        if (entries == null) {
+            return;
+        }
+        for (Entry entry : entries) {
+            for (int b = 0; b < BANDS; b++) {
+                long key = bandKey(entry.sketch, b);
+                List<Entry> bucket = buckets[b].get(key);
+                if (bucket != null) {
+                    bucket.removeIf(e -> e == entry);
+                    if (bucket.isEmpty()) {
+                        buckets[b].remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean containsTask(long taskId) {
+        lock.readLock().lock();
+        try {
+            return entriesByTask.containsKey(taskId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 已索引的签名数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            int size = 0;
+            for (List<Entry> entries : entriesByTask.values()) {
+                size += entries.size();
+            }
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查找相似签名（按 Jaccard 降序）
+     * @param sketch 查询签名
+     * @param minJaccard 最低 Jaccard
+     * @param exclude 要排除的签名（查询自身，可为 null）
+     * @param limit 最多返回条数
+     */
+    public Candidates query(MinHash sketch, double minJaccard, Entry exclude, int limit) {
+        lock.readLock().lock();
+        try {
+            Set<Entry> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int b = 0; b < BANDS; b++) {
+                List<Entry> bucket = buckets[b].get(bandKey(sketch, b));
+                if (bucket != null) {
+                    candidates.addAll(bucket);
+                }
+            }
+            List<Match> matches = new ArrayList<>();
+            for (Entry candidate : candidates) {
+                if (candidate == exclude) {
+                    continue;
+                }
+                double jaccard = sketch.jaccard(candidate.sketch);
+                if (jaccard >= minJaccard) {
+                    matches.add(new Match(candidate, jaccard));
+                }
+            }
+            matches.sort((a, b) -> {
+                int c = Double.compare(b.jaccard, a.jaccard);
+                return c != 0 ? c : Long.compare(b.entry.taskId, a.entry.taskId);
+            });
+            return new Candidates(candidates.size(), matches.subList(0, Math.min(limit, matches.size())));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 取某个任务的某条签名，不存在时返回 null
+     */
+    public Entry get(long taskId, long regionId) {
+        lock.readLock().lock();
+        try {
+            List<Entry> entries = entriesByTask.get(taskId);
+            if (entries != null) {
+                for (Entry entry : entries) {
+                    if (entry.regionId == regionId) {
+                        return entry;
+                    }
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long bandKey(MinHash sketch, int band) {
+        long[] values = sketch.values();
+        long h = band;
+        for (int r = band * ROWS; r < (band + 1) * ROWS; r++) {
+            h = MinHash.mix(h * 31 + values[r]);
+        }
+        return h;
+    }
+
+    /**
+     * 一条签名
+     */
+    public static class Entry {
+        private final long taskId;
+        private final Long fileId;
+        private final long regionId;
+        private final String name;
+        private final long length;
+        private final MinHash sketch;
+
+        Entry(long taskId, Long fileId, long regionId, String name, long length, MinHash sketch) {
+            this.taskId = taskId;
+            this.fileId = fileId;
+            this.regionId = regionId;
+            this.name = name;
+            this.length = length;
+            this.sketch = sketch;
+        }
+
+        public long getTaskId() {
+            return taskId;
+        }
+
+        public Long getFileId() {
+            return fileId;
+        }
+
+        public long getRegionId() {
+            return regionId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public MinHash getSketch() {
+            return sketch;
+        }
+    }
+
+    /**
+     * 相似签名及 Jaccard 估计
+     */
+    public static class Match {
+        private final Entry entry;
+        private final double jaccard;
+
+        Match(Entry entry, double jaccard) {
+            this.entry = entry;
+            this.jaccard = jaccard;
+        }
+
+        public Entry getEntry() {
+            return entry;
+        }
+
+        public double getJaccard() {
+            return jaccard;
+        }
+    }
+
+    /**
+     * 查询结果：候选数（同桶签名数）与过滤排序后的匹配
+     */
+    public static class Candidates {
+        private final int candidateCount;
+        private final List<Match> matches;
+
+        Candidates(int candidateCount, List<Match> matches) {
+            this.candidateCount = candidateCount;
+            this.matches = matches;
+        }
+
+        public int getCandidateCount() {
+            return candidateCount;
+        }
+
+        public List<Match> getMatches() {
+            return matches;
+        }
+    }
+}
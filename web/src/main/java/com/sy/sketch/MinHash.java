@@ -0,0 +1,178 @@
+package com.sy.sketch;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * 核酸序列的 MinHash 签名
+ * 取规范 k-mer（正向与反向互补中较小者，2 bit 编码），对每个 k-mer 用两次 64 位混合哈希
+ * 线性组合出 {@link #SIZE} 个哈希函数（h1 + i * h2），各自保留最小值。
+ * 两个签名对应位置相等的比例是 k-mer 集合 Jaccard 相似度的无偏估计，
+ * 再按 Mash 距离公式换算为平均核苷酸一致性（ANI）。
+ */
+public final class MinHash {
+
+    public static final int K = 21;
+    public static final int SIZE = 128;
+
+    private static final long MASK = (1L << (2 * K)) - 1;
+    private static final long EMPTY = Long.MAX_VALUE;
+    private static final byte[] CODES = new byte[128];
+
+    static {
+        Arrays.fill(CODES, (byte) -1);
+        CODES['A'] = 0;
+        CODES['a'] = 0;
+        CODES['C'] = 1;
+        CODES['c'] = 1;
+        CODES['G'] = 2;
+        CODES['g'] = 2;
+        CODES['T'] = 3;
+        CODES['t'] = 3;
+        CODES['U'] = 3;
+        CODES['u'] = 3;
+    }
+
+    private final long[] mins;
+
+    private MinHash(long[] mins) {
+        this.mins = mins;
+    }
+
+    public static MinHash of(long[] mins) {
+        if (mins.length != SIZE) {
+            throw new IllegalArgumentException("签名长度应为 " + SIZE + ": " + mins.length);
+        }
+        return new MinHash(mins);
+    }
+
+    /**
+     * 逐字节接收碱基（非 ACGT 字符断开 k-mer），写完后调用 {@link Sketcher#sketch()}
+     */
+    public static Sketcher sketcher() {
+        return new Sketcher();
+    }
+
+    public long[] values() {
+        return mins;
+    }
+
+    /**
+     * 序列短于 k 或不含有效 k-mer
+     */
+    public boolean isEmpty() {
+        return mins[0] == EMPTY;
+    }
+
+    /**
+     * 相同位置取值相等的个数
+     */
+    public int shared(MinHash other) {
+        int shared = 0;
+        for (int i = 0; i < SIZE; i++) {
+            if (mins[i] == other.mins[i]) {
+                shared++;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Jaccard 相似度估计
+     */
+    public double jaccard(MinHash other) {
+        if (isEmpty() || other.isEmpty()) {
+            return 0;
+        }
+        return (double) shared(other) / SIZE;
+    }
+
+    /**
+     * 由 Jaccard 估计 ANI：D = -1/k * ln(2J / (1 + J))，ANI = 1 - D（J 为 0 时返回 0）
+     */
+    public static double ani(double jaccard) {
+        if (jaccard <= 0) {
+            return 0;
+        }
+        double distance = -Math.log(2 * jaccard / (1 + jaccard)) / K;
+        return Math.max(0, 1 - distance);
+    }
+
+    /**
+     * {@link #ani} 的反函数：达到给定 ANI 所需的最低 Jaccard
+     */
+    public static double jaccardForAni(double ani) {
+        if (ani <= 0) {
+            return 0;
+        }
+        double m = Math.exp(-K * (1 - Math.min(ani, 1)));
+        return m / (2 - m);
+    }
+
+    /**
+     * MurmurHash3 的 64 位终结混合
+     */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 流式计算签名（可直接作为 FastaSlice.writeTo 的输出）
+     */
+    public static class Sketcher extends OutputStream {
+        private final long[] mins = new long[SIZE];
+        private long forward = 0;
+        private long reverse = 0;
+        private int valid = 0;
+
+        Sketcher() {
+            Arrays.fill(mins, EMPTY);
+        }
+
+        @Override
+        public void write(int b) {
+            int code = b >= 0 && b < 128 ? CODES[b] : -1;
+            if (code < 0) {
+                valid = 0;
+                forward = 0;
+                reverse = 0;
+                return;
+            }
+            forward = ((forward << 2) | code) & MASK;
+            reverse = (reverse >>> 2) | ((long) (3 - code) << (2 * (K - 1)));
+            if (++valid >= K) {
+                add(Math.min(forward, reverse));
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(bytes[i]);
+            }
+        }
+
+        private void add(long kmer) {
+            long h1 = mix(kmer);
+            long h2 = mix(kmer ^ 0x9e3779b97f4a7c15L) | 1;
+            long h = h1;
+            for (int i = 0; i < SIZE; i++) {
+                // 最高位清零，保证空值（Long.MAX_VALUE）之外的取值都可比较
+                long v = h & EMPTY;
+                if (v < mins[i]) {
+                    mins[i] = v;
+                }
+                h += h2;
+            }
+        }
+
+        public MinHash sketch() {
+            return new MinHash(mins.clone());
+        }
+    }
+}
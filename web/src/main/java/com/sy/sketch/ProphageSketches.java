@@ -0,0 +1,124 @@
+package com.sy.sketch;
+
+import com.sy.columnar.ColumnFile;
+import com.sy.index.FastaIndex;
+import com.sy.tsv.ProvirusColumns;
+import com.sy.tsv.TsvReader;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一个任务全部原噬菌体的 MinHash 签名
+ * 按 provirus.tsv 的行顺序排列（下标 + 1 即 regionId），序列取自 provirus.fna。
+ * 任务完成时写入 task_X/.index/sketch.col，provirus.fna 变化时失效。
+ */
+public class ProphageSketches {
+
+    private static final String KIND = "sketch";
+
+    private final String[] names;
+    private final long[] lengths;
+    private final MinHash[] sketches;
+
+    private ProphageSketches(String[] names, long[] lengths, MinHash[] sketches) {
+        this.names = names;
+        this.lengths = lengths;
+        this.sketches = sketches;
+    }
+
+    /**
+     * 读取签名文件，不存在或已失效时计算并写入
+     * @param sketchFile 签名文件
+     * @param provirusTsv provirus.tsv（决定顺序）
+     * @param provirusFna provirus.fna
+     */
+    public static ProphageSketches loadOrBuild(Path sketchFile, Path provirusTsv, Path provirusFna) throws IOException {
+        ProphageSketches sketches = ColumnFile.read(sketchFile, KIND, provirusFna, ProphageSketches::read);
+        if (sketches == null) {
+            sketches = build(provirusTsv, provirusFna);
+            sketches.write(sketchFile, provirusFna);
+        }
+        return sketches;
+    }
+
+    /**
+     * 逐条读取 provirus.fna 中的原噬菌体序列计算签名（FASTA 中没有的记录签名为空）
+     */
+    public static ProphageSketches build(Path provirusTsv, Path provirusFna) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (TsvReader reader = TsvReader.open(provirusTsv)) {
+            ProvirusColumns c = ProvirusColumns.of(reader.header());
+            while (reader.next()) {
+                names.add(reader.row().getString(c.seqName));
+            }
+        }
+        FastaIndex fai = Files.exists(provirusFna) ? FastaIndex.loadOrBuild(provirusFna) : null;
+        int n = names.size();
+        long[] lengths = new long[n];
+        MinHash[] sketches = new MinHash[n];
+        for (int i = 0; i < n; i++) {
+            MinHash.Sketcher sketcher = MinHash.sketcher();
+            FastaIndex.Entry entry = fai != null ? fai.get(names.get(i)) : null;
+            if (entry != null && entry.getLength() > 0) {
+                lengths[i] = entry.getLength();
+                fai.slice(provirusFna, entry.getName(), null, null, false).writeTo(sketcher);
+            }
+            sketches[i] = sketcher.sketch();
+        }
+        return new ProphageSketches(names.toArray(new String[0]), lengths, sketches);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public String name(int i) {
+        return names[i];
+    }
+
+    public long length(int i) {
+        return lengths[i];
+    }
+
+    public MinHash sketch(int i) {
+        return sketches[i];
+    }
+
+    private void write(Path sketchFile, Path source) throws IOException {
+        ColumnFile.write(sketchFile, KIND, source, out -> {
+            out.writeInt(names.length);
+            out.writeInt(MinHash.K);
+            out.writeInt(MinHash.SIZE);
+            for (String name : names) {
+                ColumnFile.writeString(out, name);
+            }
+            ColumnFile.writeLongs(out, lengths, lengths.length);
+            for (MinHash sketch : sketches) {
+                ColumnFile.writeLongs(out, sketch.values(), MinHash.SIZE);
+            }
+        });
+    }
+
+    private static ProphageSketches read(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (in.readInt() != MinHash.K || in.readInt() != MinHash.SIZE) {
+            // 参数变化，按失效处理
+            return null;
+        }
+        String[] names = new String[n];
+        for (int i = 0; i < n; i++) {
+            names[i] = ColumnFile.readString(in);
+        }
+        long[] lengths = ColumnFile.readLongs(in, n);
+        MinHash[] sketches = new MinHash[n];
+        for (int i = 0; i < n; i++) {
+            sketches[i] = MinHash.of(ColumnFile.readLongs(in, MinHash.SIZE));
+        }
+        return new ProphageSketches(names, lengths, sketches);
+    }
+}
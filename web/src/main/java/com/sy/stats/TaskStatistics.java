@@ -0,0 +1,259 @@
+package com.sy.stats;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sy.columnar.ArgTable;
+import com.sy.tsv.ProvirusColumns;
+import com.sy.tsv.TsvReader;
+import com.sy.tsv.TsvRow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * 任务统计数据（长度、得分、基因数、ARG 概率的分布、直方图和分位数）
+ * 一次流式读取源文件，数值存入基本类型数组后计算；结果写入 .index/statistics.json，
+ * 文件中记录源文件的大小和修改时间，源文件变化后重新计算。
+ */
+public final class TaskStatistics {
+
+    // 1: 初始版本
+    private static final int VERSION = 1;
+    // 直方图分箱数
+    private static final int BINS = 20;
+    private static final double[] QUANTILES = {0, 0.05, 0.25, 0.5, 0.75, 0.95, 1};
+    private static final String[] QUANTILE_NAMES = {"min", "p5", "p25", "p50", "p75", "p95", "max"};
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @FunctionalInterface
+    public interface Builder {
+        Map<String, Object> build() throws IOException;
+    }
+
+    private TaskStatistics() {
+    }
+
+    /**
+     * 读取统计文件，不存在、版本不符或源文件已变化时计算并写入
+     * @param file 统计文件
+     * @param source 源文件（provirus.tsv 或 all_predictions.tsv）
+     */
+    public static Map<String, Object> loadOrBuild(Path file, Path source, Builder builder) throws IOException {
+        Map<String, Object> statistics = read(file, source);
+        if (statistics != null) {
+            return statistics;
+        }
+        statistics = builder.build();
+        write(file, source, statistics);
+        return statistics;
+    }
+
+    private static Map<String, Object> read(Path file, Path source) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            Map<String, Object> stored = MAPPER.readValue(file.toFile(), new TypeReference<Map<String, Object>>() {});
+            if (!Integer.valueOf(VERSION).equals(stored.get("version"))
+                    || !(stored.get("sourceSize") instanceof Number)
+                    || ((Number) stored.get("sourceSize")).longValue() != Files.size(source)
+                    || !(stored.get("sourceModified") instanceof Number)
+                    || ((Number) stored.get("sourceModified")).longValue() != Files.getLastModifiedTime(source).toMillis()) {
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> statistics = (Map<String, Object>) stored.get("statistics");
+            return statistics;
+        } catch (IOException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 写入统计文件（先写临时文件再原子替换）
+     */
+    private static void write(Path file, Path source, Map<String, Object> statistics) throws IOException {
+        Map<String, Object> stored = new LinkedHashMap<>();
+        stored.put("version", VERSION);
+        stored.put("sourceSize", Files.size(source));
+        stored.put("sourceModified", Files.getLastModifiedTime(source).toMillis());
+        stored.put("statistics", statistics);
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                MAPPER.writeValue(out, stored);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 原噬菌体统计（genomad provirus.tsv），长度、基因数或得分不合法的行跳过并计入 skippedRows
+     */
+    public static Map<String, Object> prophages(Path provirusTsv) throws IOException {
+        int n = 0;
+        int skipped = 0;
+        int complete = 0;
+        int[] lengths = new int[64];
+        int[] geneCounts = new int[64];
+        double[] scores = new double[64];
+        try (TsvReader reader = TsvReader.open(provirusTsv)) {
+            ProvirusColumns c = ProvirusColumns.of(reader.header());
+            while (reader.next()) {
+                TsvRow row = reader.row();
+                int length;
+                int genes;
+                double score;
+                try {
+                    length = row.getInt(c.length);
+                    genes = row.getInt(c.nGenes);
+                    score = row.getDouble(c.vVsCScore);
+                } catch (NumberFormatException e) {
+                    skipped++;
+                    continue;
+                }
+                if (Double.isNaN(score) || Double.isInfinite(score)) {
+                    skipped++;
+                    continue;
+                }
+                if (n == lengths.length) {
+                    lengths = Arrays.copyOf(lengths, n * 2);
+                    geneCounts = Arrays.copyOf(geneCounts, n * 2);
+                    scores = Arrays.copyOf(scores, n * 2);
+                }
+                lengths[n] = length;
+                geneCounts[n] = genes;
+                scores[n] = score;
+                // 与区域列表的 completeness 判断一致
+                if (!row.equals(c.inSeqEdge, "True") && length > 30000) {
+                    complete++;
+                }
+                n++;
+            }
+        }
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("analysisType", "genomad");
+        statistics.put("prophageCount", n);
+        statistics.put("completeCount", complete);
+        statistics.put("skippedRows", skipped);
+        long totalLength = 0;
+        long totalGenes = 0;
+        double scoreSum = 0;
+        for (int i = 0; i < n; i++) {
+            totalLength += lengths[i];
+            totalGenes += geneCounts[i];
+            scoreSum += scores[i];
+        }
+        statistics.put("prophageLengths", Arrays.copyOf(lengths, n));
+        statistics.put("prophageScores", Arrays.copyOf(scores, n));
+        statistics.put("geneCountDistribution", Arrays.copyOf(geneCounts, n));
+        statistics.put("totalProphageLength", totalLength);
+        statistics.put("totalGenes", totalGenes);
+        if (n > 0) {
+            statistics.put("avgProphageLength", (int) (totalLength / n));
+            statistics.put("avgProphageScore", scoreSum / n);
+            double[] sortedLengths = sorted(lengths, n);
+            double[] sortedScores = Arrays.copyOf(scores, n);
+            Arrays.sort(sortedScores);
+            double[] sortedGenes = sorted(geneCounts, n);
+            statistics.put("lengthHistogram", histogram(sortedLengths, sortedLengths[0], sortedLengths[n - 1], true));
+            statistics.put("lengthQuantiles", quantiles(sortedLengths));
+            statistics.put("scoreHistogram", histogram(sortedScores, 0, 1, false));
+            statistics.put("scoreQuantiles", quantiles(sortedScores));
+            statistics.put("geneCountHistogram", histogram(sortedGenes, sortedGenes[0], sortedGenes[n - 1], true));
+            statistics.put("geneCountQuantiles", quantiles(sortedGenes));
+        }
+        return statistics;
+    }
+
+    /**
+     * ARG 预测统计：阳性数、各分类数量、阳性预测概率的分布
+     */
+    public static Map<String, Object> arg(ArgTable table) {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("analysisType", "arg");
+        Map<String, Object> summary = table.summary();
+        statistics.put("predictionCount", summary.get("total"));
+        statistics.put("positiveCount", summary.get("positiveCount"));
+        statistics.put("negativeCount", summary.get("negativeCount"));
+        statistics.put("classCounts", summary.get("classCounts"));
+
+        double[] probs = new double[table.size()];
+        int n = 0;
+        double sum = 0;
+        for (int i = 0; i < table.size(); i++) {
+            double prob = table.prob(i);
+            if (table.isArg(i) && !Double.isNaN(prob)) {
+                probs[n++] = prob;
+                sum += prob;
+            }
+        }
+        if (n > 0) {
+            double[] sortedProbs = Arrays.copyOf(probs, n);
+            Arrays.sort(sortedProbs);
+            statistics.put("avgProb", sum / n);
+            statistics.put("probHistogram", histogram(sortedProbs, 0, 1, false));
+            statistics.put("probQuantiles", quantiles(sortedProbs));
+        }
+        return statistics;
+    }
+
+    private static double[] sorted(int[] values, int n) {
+        double[] sorted = new double[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = values[i];
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * 等宽直方图，超出 [min, max] 的值计入两端的分箱
+     * @param integral 是否为整数值（分箱宽度取整，不超过取值个数）
+     */
+    private static Map<String, Object> histogram(double[] values, double min, double max, boolean integral) {
+        int bins = BINS;
+        double width;
+        if (integral) {
+            long range = (long) max - (long) min + 1;
+            width = Math.max(1, (range + BINS - 1) / BINS);
+            bins = (int) ((range + (long) width - 1) / (long) width);
+        } else {
+            width = max > min ? (max - min) / BINS : 1;
+        }
+        int[] counts = new int[bins];
+        for (double value : values) {
+            int bin = (int) Math.floor((value - min) / width);
+            counts[Math.max(0, Math.min(bins - 1, bin))]++;
+        }
+        Map<String, Object> histogram = new LinkedHashMap<>();
+        histogram.put("min", min);
+        histogram.put("binWidth", width);
+        histogram.put("counts", counts);
+        return histogram;
+    }
+
+    /**
+     * 分位数（线性插值）
+     * @param sorted 已排序的值（非空）
+     */
+    private static Map<String, Object> quantiles(double[] sorted) {
+        Map<String, Object> quantiles = new LinkedHashMap<>();
+        for (int q = 0; q < QUANTILES.length; q++) {
+            double position = QUANTILES[q] * (sorted.length - 1);
+            int lower = (int) Math.floor(position);
+            int upper = Math.min(lower + 1, sorted.length - 1);
+            quantiles.put(QUANTILE_NAMES[q], sorted[lower] + (sorted[upper] - sorted[lower]) * (position - lower));
+        }
+        return quantiles;
+    }
+}
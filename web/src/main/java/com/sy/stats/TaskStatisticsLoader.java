@@ -0,0 +1,51 @@
+package com.sy.stats;
+
+import com.sy.cache.ColumnarTableCache;
+import com.sy.pojo.AnalysisTask;
+import com.sy.util.GenomadOutputs;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * 加载任务统计数据（.index/statistics.json），文件缺失或失效时计算
+ * ARG 任务基于列式表统计，genomad 任务流式读取 provirus.tsv。
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskStatisticsLoader {
+
+    private final ColumnarTableCache columnarTableCache;
+
+    /**
+     * @param task 任务
+     * @param taskDir 任务输出目录
+     * @return 统计数据，没有结果文件时返回 null
+     */
+    public Map<String, Object> load(AnalysisTask task, Path taskDir) throws IOException {
+        Path statisticsFile = taskDir.resolve(ColumnarTableCache.INDEX_DIR).resolve("statistics.json");
+        if ("arg".equals(task.getAnalysisType())) {
+            Path argFile = taskDir.resolve("all_predictions.tsv");
+            if (!Files.exists(argFile)) {
+                return null;
+            }
+            return TaskStatistics.loadOrBuild(statisticsFile, argFile,
+                    () -> TaskStatistics.arg(columnarTableCache.getArgTable(task.getTaskId(), taskDir, argFile)));
+        }
+
+        String baseName = GenomadOutputs.baseName(taskDir);
+        if (baseName == null) {
+            return null;
+        }
+        Path dir = GenomadOutputs.findProvirusesDir(taskDir, baseName);
+        Path provirusFile = dir.resolve(baseName + "_provirus.tsv");
+        if (!Files.exists(provirusFile)) {
+            return null;
+        }
+        return TaskStatistics.loadOrBuild(statisticsFile, provirusFile, () -> TaskStatistics.prophages(provirusFile));
+    }
+}
@@ -0,0 +1,79 @@
+package com.sy.tiles;
+
+import com.sy.cache.ColumnarTableCache;
+import com.sy.index.FastaIndex;
+import com.sy.mapper.GenomeFileMapper;
+import com.sy.pojo.AnalysisTask;
+import com.sy.pojo.GenomeFile;
+import com.sy.util.GenomadOutputs;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 加载任务的基因组轨道瓦片
+ * 坐标轴按输入 FASTA 的序列顺序和长度排列（读取上传时建立的 .fai 索引），
+ * 瓦片文件缺失或失效时构建，结果放入列式表缓存。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrackTileLoader {
+
+    private final GenomeFileMapper genomeFileMapper;
+    private final ColumnarTableCache columnarTableCache;
+
+    /**
+     * @param task 任务（genomad）
+     * @param taskDir 任务输出目录
+     * @return 瓦片，没有原噬菌体输出时返回 null
+     */
+    public TrackTiles load(AnalysisTask task, Path taskDir) throws IOException {
+        String baseName = GenomadOutputs.baseName(taskDir);
+        if (baseName == null) {
+            return null;
+        }
+        Path dir = GenomadOutputs.findProvirusesDir(taskDir, baseName);
+        Path provirusFile = dir.resolve(baseName + "_provirus.tsv");
+        if (!Files.exists(provirusFile)) {
+            return null;
+        }
+        Path genesFile = dir.resolve(baseName + "_provirus_genes.tsv");
+        Path tilesFile = taskDir.resolve(ColumnarTableCache.INDEX_DIR).resolve("tiles.col");
+
+        return columnarTableCache.getTrackTiles(task.getTaskId(), provirusFile,
+                () -> TrackTiles.loadOrBuild(tilesFile, provirusFile, genesFile, inputSequences(task)));
+    }
+
+    /**
+     * 输入 FASTA 各序列长度（按文件顺序），文件不可用时返回空表（坐标轴只包含有原噬菌体的序列）
+     */
+    private Map<String, Long> inputSequences(AnalysisTask task) {
+        GenomeFile file = task.getFileId() != null ? genomeFileMapper.selectById(task.getFileId()) : null;
+        if (file == null || file.getFilePath() == null) {
+            return Collections.emptyMap();
+        }
+        Path fasta = Paths.get(file.getFilePath());
+        if (!Files.exists(fasta)) {
+            return Collections.emptyMap();
+        }
+        try {
+            Map<String, Long> lengths = new LinkedHashMap<>();
+            for (FastaIndex.Entry entry : FastaIndex.loadOrBuild(fasta).entries()) {
+                lengths.put(entry.getName(), entry.getLength());
+            }
+            return lengths;
+        } catch (IOException e) {
+            log.warn("读取输入序列索引失败，瓦片坐标轴只包含有原噬菌体的序列: {}, {}", fasta, e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.sy.tiles;
+
+import com.sy.columnar.ColumnFile;
+import com.sy.columnar.GeneTable;
+import com.sy.tsv.ProvirusColumns;
+import com.sy.tsv.TsvHeader;
+import com.sy.tsv.TsvReader;
+import com.sy.tsv.TsvRow;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * 基因组轨道瓦片（多分辨率分箱汇总）
+ * 把输入 FASTA 的各条序列首尾相接排成一条坐标轴，按固定碱基数分箱，统计每个箱内的
+ * 原噬菌体覆盖碱基数、基因数、正/负链基因数以及带 AMR 注释的基因数（ARG 命中）。
+ * 最细一级每箱 1kb 起（超大基因组按 4 倍放大），每往上一级箱宽乘 4，直到一张瓦片即可覆盖全基因组。
+ * 级别 0 最粗；每张瓦片固定 {@link #TILE_BINS} 个箱，平移缩放时每次请求的数据量与基因组大小无关。
+ * 任务完成时写入 task_X/.index/tiles.col。
+ */
+public class TrackTiles {
+
+    public static final int TILE_BINS = 256;
+
+    private static final String KIND = "tiles";
+    private static final int ZOOM_FACTOR = 4;
+    private static final long MIN_BIN_BASES = 1000;
+    // 最细一级的箱数上限（超过时增大箱宽）
+    private static final int MAX_BASE_BINS = 1 << 20;
+
+    private final long genomeLength;
+    private final String[] sequenceNames;
+    private final long[] sequenceOffsets;
+    private final long[] sequenceLengths;
+    // 各级箱宽，下标为级别（0 最粗）
+    private final long[] binSizes;
+    private final long[][] coverage;
+    private final int[][] genes;
+    private final int[][] plusStrand;
+    private final int[][] minusStrand;
+    private final int[][] argHits;
+
+    private TrackTiles(long genomeLength, String[] sequenceNames, long[] sequenceOffsets, long[] sequenceLengths,
+                       long[] binSizes, long[][] coverage, int[][] genes, int[][] plusStrand, int[][] minusStrand,
+                       int[][] argHits) {
+        this.genomeLength = genomeLength;
+        this.sequenceNames = sequenceNames;
+        this.sequenceOffsets = sequenceOffsets;
+        this.sequenceLengths = sequenceLengths;
+        this.binSizes = binSizes;
+        this.coverage = coverage;
+        this.genes = genes;
+        this.plusStrand = plusStrand;
+        this.minusStrand = minusStrand;
+        this.argHits = argHits;
+    }
+
+    /**
+     * 读取瓦片文件，不存在或已失效（provirus.tsv 变化）时重新构建并写入
+     * @param tilesFile 瓦片文件
+     * @param provirusTsv provirus.tsv
+     * @param genesTsv provirus_genes.tsv（可不存在）
+     * @param inputSequences 输入 FASTA 各序列长度（按文件顺序，可为空）
+     */
+    public static TrackTiles loadOrBuild(Path tilesFile, Path provirusTsv, Path genesTsv,
+                                         Map<String, Long> inputSequences) throws IOException {
+        TrackTiles tiles = ColumnFile.read(tilesFile, KIND, provirusTsv, TrackTiles::read);
+        if (tiles == null) {
+            tiles = build(provirusTsv, genesTsv, inputSequences);
+            tiles.write(tilesFile, provirusTsv);
+        }
+        return tiles;
+    }
+
+    /**
+     * 从 genomad 输出构建
+     */
+    public static TrackTiles build(Path provirusTsv, Path genesTsv, Map<String, Long> inputSequences) throws IOException {
+        // 读取区域；输入 FASTA 中没有的宿主序列按区域最大终点补在末尾
+        List<String> regionSources = new ArrayList<>();
+        List<String> regionNames = new ArrayList<>();
+        List<long[]> regionRanges = new ArrayList<>();
+        Map<String, Long> layout = new LinkedHashMap<>(inputSequences);
+        try (TsvReader reader = TsvReader.open(provirusTsv)) {
+            ProvirusColumns c = ProvirusColumns.of(reader.header());
+            while (reader.next()) {
+                TsvRow row = reader.row();
+                String source = row.getString(c.sourceSeq);
+                long start = row.getInt(c.start);
+                long end = row.getInt(c.end);
+                regionSources.add(source);
+                regionNames.add(row.getString(c.seqName));
+                regionRanges.add(new long[]{start, end});
+                if (!inputSequences.containsKey(source)) {
+                    layout.merge(source, end, Math::max);
+                }
+            }
+        }
+
+        int sequenceCount = layout.size();
+        String[] names = new String[sequenceCount];
+        long[] offsets = new long[sequenceCount];
+        long[] lengths = new long[sequenceCount];
+        Map<String, Long> offsetByName = new HashMap<>();
+        long total = 0;
+        int s = 0;
+        for (Map.Entry<String, Long> entry : layout.entrySet()) {
+            names[s] = entry.getKey();
+            offsets[s] = total;
+            lengths[s] = entry.getValue();
+            offsetByName.put(entry.getKey(), total);
+            total += entry.getValue();
+            s++;
+        }
+
+        long[] binSizes = binSizes(total);
+        int finest = binSizes.length - 1;
+        long baseBin = binSizes[finest];
+        int bins = binCount(total, baseBin);
+        long[] coverage = new long[bins];
+        int[] geneCounts = new int[bins];
+        int[] plus = new int[bins];
+        int[] minus = new int[bins];
+        int[] args = new int[bins];
+
+        // 原噬菌体覆盖（坐标从 1 开始，包含两端；转成从 0 开始、左闭右开）
+        Map<String, Long> regionStarts = new HashMap<>();
+        for (int r = 0; r < regionRanges.size(); r++) {
+            long offset = offsetByName.get(regionSources.get(r));
+            long from = offset + regionRanges.get(r)[0] - 1;
+            long to = Math.min(offset + regionRanges.get(r)[1], total);
+            regionStarts.put(regionNames.get(r), from);
+            for (long pos = from; pos < to; ) {
+                int bin = (int) (pos / baseBin);
+                long binEnd = Math.min((bin + 1) * baseBin, to);
+                coverage[bin] = Math.min(coverage[bin] + (binEnd - pos), baseBin);
+                pos = binEnd;
+            }
+        }
+
+        // 基因（坐标相对于所在原噬菌体，按中点分箱）
+        if (genesTsv != null && Files.exists(genesTsv)) {
+            try (TsvReader reader = TsvReader.open(genesTsv)) {
+                TsvHeader header = reader.header();
+                int geneCol = header.column("gene", 0);
+                int startCol = header.column("start", 1);
+                int endCol = header.column("end", 2);
+                int strandCol = header.column("strand", 4);
+                int amrCol = header.column("annotation_amr");
+                while (reader.next()) {
+                    TsvRow row = reader.row();
+                    Long regionStart = regionStarts.get(GeneTable.seqNameOf(row.getString(geneCol)));
+                    if (regionStart == null) {
+                        continue;
+                    }
+                    long mid = regionStart + (row.getInt(startCol) + (long) row.getInt(endCol)) / 2 - 1;
+                    if (mid < 0 || mid >= total) {
+                        continue;
+                    }
+                    int bin = (int) (mid / baseBin);
+                    geneCounts[bin]++;
+                    if (row.getInt(strandCol) < 0) {
+                        minus[bin]++;
+                    } else {
+                        plus[bin]++;
+                    }
+                    if (!row.isEmpty(amrCol) && !row.isNA(amrCol)) {
+                        args[bin]++;
+                    }
+                }
+            }
+        }
+
+        // 逐级向上合并
+        int levels = binSizes.length;
+        long[][] coverageLevels = new long[levels][];
+        int[][] geneLevels = new int[levels][];
+        int[][] plusLevels = new int[levels][];
+        int[][] minusLevels = new int[levels][];
+        int[][] argLevels = new int[levels][];
+        coverageLevels[finest] = coverage;
+        geneLevels[finest] = geneCounts;
+        plusLevels[finest] = plus;
+        minusLevels[finest] = minus;
+        argLevels[finest] = args;
+        for (int level = finest - 1; level >= 0; level--) {
+            int n = binCount(total, binSizes[level]);
+            coverageLevels[level] = new long[n];
+            geneLevels[level] = merge(geneLevels[level + 1], n);
+            plusLevels[level] = merge(plusLevels[level + 1], n);
+            minusLevels[level] = merge(minusLevels[level + 1], n);
+            argLevels[level] = merge(argLevels[level + 1], n);
+            long[] finer = coverageLevels[level + 1];
+            for (int i = 0; i < finer.length; i++) {
+                coverageLevels[level][i / ZOOM_FACTOR] += finer[i];
+            }
+        }
+
+        return new TrackTiles(total, names, offsets, lengths, binSizes,
+                coverageLevels, geneLevels, plusLevels, minusLevels, argLevels);
+    }
+
+    /**
+     * 各级箱宽（下标 0 最粗）
+     */
+    private static long[] binSizes(long total) {
+        long base = MIN_BIN_BASES;
+        while (binCount(total, base) > MAX_BASE_BINS) {
+            base *= ZOOM_FACTOR;
+        }
+        List<Long> sizes = new ArrayList<>();
+        long size = base;
+        sizes.add(size);
+        while (binCount(total, size) > TILE_BINS) {
+            size *= ZOOM_FACTOR;
+            sizes.add(size);
+        }
+        long[] result = new long[sizes.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = sizes.get(result.length - 1 - i);
+        }
+        return result;
+    }
+
+    private static int binCount(long total, long binSize) {
+        return (int) Math.max(1, (total + binSize - 1) / binSize);
+    }
+
+    private static int[] merge(int[] finer, int n) {
+        int[] merged = new int[n];
+        for (int i = 0; i < finer.length; i++) {
+            merged[i / ZOOM_FACTOR] += finer[i];
+        }
+        return merged;
+    }
+
+    public int levels() {
+        return binSizes.length;
+    }
+
+    public int tileCount(int level) {
+        return (coverage[level].length + TILE_BINS - 1) / TILE_BINS;
+    }
+
+    /**
+     * 坐标轴与级别信息（前端据此把序列位置换算成瓦片编号）
+     */
+    public Map<String, Object> meta() {
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("genomeLength", genomeLength);
+        meta.put("tileBins", TILE_BINS);
+        List<Map<String, Object>> levelInfo = new ArrayList<>(binSizes.length);
+        for (int level = 0; level < binSizes.length; level++) {
+            Map<String, Object> info = new LinkedHashMap<>();
+            info.put("level", level);
+            info.put("binSize", binSizes[level]);
+            info.put("bins", coverage[level].length);
+            info.put("tiles", tileCount(level));
+            levelInfo.add(info);
+        }
+        meta.put("levels", levelInfo);
+        List<Map<String, Object>> sequences = new ArrayList<>(sequenceNames.length);
+        for (int i = 0; i < sequenceNames.length; i++) {
+            Map<String, Object> sequence = new LinkedHashMap<>();
+            sequence.put("name", sequenceNames[i]);
+            sequence.put("offset", sequenceOffsets[i]);
+            sequence.put("length", sequenceLengths[i]);
+            sequences.add(sequence);
+        }
+        meta.put("sequences", sequences);
+        return meta;
+    }
+
+    /**
+     * 取一张瓦片（各轨道为等长数组，第 i 个元素对应起点 start + i * binSize 的箱）
+     */
+    public Map<String, Object> tile(int level, int index) {
+        if (level < 0 || level >= binSizes.length) {
+            throw new IllegalArgumentException("瓦片级别无效: " + level + "（共 " + binSizes.length + " 级）");
+        }
+        if (index < 0 || index >= tileCount(level)) {
+            throw new IllegalArgumentException("瓦片编号无效: " + index + "（该级共 " + tileCount(level) + " 张）");
+        }
+        int from = index * TILE_BINS;
+        int to = Math.min(from + TILE_BINS, coverage[level].length);
+        long binSize = binSizes[level];
+
+        Map<String, Object> tile = new LinkedHashMap<>();
+        tile.put("level", level);
+        tile.put("index", index);
+        tile.put("binSize", binSize);
+        tile.put("start", from * binSize);
+        tile.put("end", Math.min(to * binSize, genomeLength));
+        tile.put("coverage", Arrays.copyOfRange(coverage[level], from, to));
+        tile.put("genes", Arrays.copyOfRange(genes[level], from, to));
+        tile.put("plusStrand", Arrays.copyOfRange(plusStrand[level], from, to));
+        tile.put("minusStrand", Arrays.copyOfRange(minusStrand[level], from, to));
+        tile.put("argHits", Arrays.copyOfRange(argHits[level], from, to));
+        return tile;
+    }
+
+    /**
+     * 总箱数（用于缓存容量计算）
+     */
+    public int totalBins() {
+        int total = 0;
+        for (long[] level : coverage) {
+            total += level.length;
+        }
+        return total;
+    }
+
+    private void write(Path tilesFile, Path source) throws IOException {
+        ColumnFile.write(tilesFile, KIND, source, out -> {
+            out.writeLong(genomeLength);
+            out.writeInt(sequenceNames.length);
+            for (int i = 0; i < sequenceNames.length; i++) {
+                ColumnFile.writeString(out, sequenceNames[i]);
+            }
+            ColumnFile.writeLongs(out, sequenceOffsets, sequenceOffsets.length);
+            ColumnFile.writeLongs(out, sequenceLengths, sequenceLengths.length);
+            out.writeInt(binSizes.length);
+            ColumnFile.writeLongs(out, binSizes, binSizes.length);
+            for (int level = 0; level < binSizes.length; level++) {
+                int n = coverage[level].length;
+                out.writeInt(n);
+                ColumnFile.writeLongs(out, coverage[level], n);
+                ColumnFile.writeInts(out, genes[level], n);
+                ColumnFile.writeInts(out, plusStrand[level], n);
+                ColumnFile.writeInts(out, minusStrand[level], n);
+                ColumnFile.writeInts(out, argHits[level], n);
+            }
+        });
+    }
+
+    private static TrackTiles read(DataInputStream in) throws IOException {
+        long genomeLength = in.readLong();
+        int sequenceCount = in.readInt();
+        String[] names = new String[sequenceCount];
+        for (int i = 0; i < sequenceCount; i++) {
+            names[i] = ColumnFile.readString(in);
+        }
+        long[] offsets = ColumnFile.readLongs(in, sequenceCount);
+        long[] lengths = ColumnFile.readLongs(in, sequenceCount);
+        int levels = in.readInt();
+        long[] binSizes = ColumnFile.readLongs(in, levels);
+        long[][] coverage = new long[levels][];
+        int[][] genes = new int[levels][];
+        int[][] plus = new int[levels][];
+        int[][] minus = new int[levels][];
+        int[][] args = new int[levels][];
+        for (int level = 0; level < levels; level++) {
+            int n = in.readInt();
+            coverage[level] = ColumnFile.readLongs(in, n);
+            genes[level] = ColumnFile.readInts(in, n);
+            plus[level] = ColumnFile.readInts(in, n);
+            minus[level] = ColumnFile.readInts(in, n);
+            args[level] = ColumnFile.readInts(in, n);
+        }
+        return new TrackTiles(genomeLength, names, offsets, lengths, binSizes, coverage, genes, plus, minus, args);
+    }
+}
@@ -0,0 +1,228 @@
+package com.sy.tsv;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 大 TSV 文件的分段并行解析
+ * 读出表头后，把其余字节按行边界切成若干区间，在 ForkJoin 公共池上各自解析成一个分块结果
+ * （通常是每段自己的列缓冲区），按文件顺序返回，由调用方依次合并。
+ * 文件小于 {@link #PARALLEL_THRESHOLD} 或只有一个 CPU 时直接顺序解析，返回单个分块。
+ * <pre>
+ * List&lt;Chunk&gt; chunks = ParallelTsvParser.parse(file, reader -&gt; {
+ *     Chunk chunk = new Chunk();
+ *     while (reader.next()) {
+ *         chunk.add(reader.row());
+ *     }
+ *     return chunk;
+ * });
+ * </pre>
+ */
+public final class ParallelTsvParser {
+
+    /**
+     * 并行解析的文件大小下限
+     * 取自 ParallelTsvBenchmark：分段后的字典重映射和列拼接约占顺序解析耗时的 1/4~1/3，
+     * 文件小于此大小时这部分开销加上任务调度抵消了多核带来的收益
+     */
+    public static final long PARALLEL_THRESHOLD = 16L << 20;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 解析一段数据行
+     * 每段的 reader 都带有文件的表头，行号为段内行号
+     */
+    @FunctionalInterface
+    public interface ChunkParser<T> {
+        T parse(TsvReader reader) throws IOException;
+    }
+
+    private ParallelTsvParser() {
+    }
+
+    /**
+     * 按文件大小和 CPU 数决定分段数并解析
+     * @return 各分段的解析结果（按文件顺序）
+     */
+    public static <T> List<T> parse(Path file, ChunkParser<T> parser) throws IOException {
+        return parse(file, chunksFor(file), parser);
+    }
+
+    /**
+     * 文件应切分的段数：小于阈值时为 1，否则每段不小于阈值的一半，且不超过 CPU 数
+     */
+    public static int chunksFor(Path file) throws IOException {
+        long size = Files.size(file);
+        int cpus = Runtime.getRuntime().availableProcessors();
+        if (size < PARALLEL_THRESHOLD || cpus < 2) {
+            return 1;
+        }
+        return (int) Math.min(cpus, size / (PARALLEL_THRESHOLD / 2));
+    }
+
+    /**
+     * 按指定段数解析（段数不大于 1 时顺序解析整个文件）
+     * @return 各分段的解析结果（按文件顺序，空段不返回，至少一个）
+     */
+    public static <T> List<T> parse(Path file, int chunks, ChunkParser<T> parser) throws IOException {
+        if (chunks <= 1) {
+            try (TsvReader reader = TsvReader.open(file)) {
+                return Collections.singletonList(parser.parse(reader));
+            }
+        }
+
+        TsvHeader header;
+        long dataStart;
+        try (TsvReader reader = TsvReader.open(file, 8192)) {
+            header = reader.header();
+            dataStart = reader.position();
+        }
+        long[] bounds = split(file, dataStart, Files.size(file), chunks);
+
+        List<ForkJoinTask<T>> tasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            long from = bounds[i];
+            long to = bounds[i + 1];
+            if (from == to && (i < chunks - 1 || !tasks.isEmpty())) {
+                // 空段（行比分段还长）；全部为空时保留最后一段，保证至少返回一个分块
+                continue;
+            }
+            tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                try (TsvReader reader = TsvReader.body(range(file, from, to), header, BUFFER_SIZE)) {
+                    return parser.parse(reader);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (ForkJoinTask<T> task : tasks) {
+                results.add(task.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("TSV 解析被中断: " + file);
+        } catch (ExecutionException e) {
+            // 线程池可能把异常再包装一层，取原始的 IOException 或运行时异常（如数字格式错误）
+            Throwable cause = e.getCause();
+            while (cause instanceof UncheckedIOException
+                    || cause.getClass() == RuntimeException.class && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("TSV 解析失败: " + file, cause);
+        } finally {
+            for (ForkJoinTask<T> task : tasks) {
+                task.cancel(false);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 把 [from, to) 均分成 chunks 段，每个切分点后移到下一行的行首
+     */
+    private static long[] split(Path file, long from, long to, int chunks) throws IOException {
+        long[] bounds = new long[chunks + 1];
+        bounds[0] = from;
+        bounds[chunks] = to;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(8192);
+            for (int i = 1; i < chunks; i++) {
+                long target = from + (to - from) * i / chunks;
+                bounds[i] = lineStart(channel, Math.max(target, bounds[i - 1]), to, buf);
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * 不小于 position 的第一个行首（前一字节为 \n），没有时返回 to
+     */
+    private static long lineStart(FileChannel channel, long position, long to, ByteBuffer buf) throws IOException {
+        if (position <= 0 || position >= to) {
+            return Math.min(Math.max(position, 0), to);
+        }
+        long scan = position - 1;
+        while (scan < to) {
+            buf.clear();
+            int n = channel.read(buf, scan);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (buf.get(i) == '\n') {
+                    return Math.min(scan + i + 1, to);
+                }
+            }
+            scan += n;
+        }
+        return to;
+    }
+
+    /**
+     * 文件中 [from, to) 字节区间的输入流
+     */
+    private static InputStream range(Path file, long from, long to) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            channel.position(from);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new FilterInputStream(Channels.newInputStream(channel)) {
+            private long remaining = to - from;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int b = super.read();
+                if (b >= 0) {
+                    remaining--;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int n = super.read(b, off, (int) Math.min(len, remaining));
+                if (n > 0) {
+                    remaining -= n;
+                }
+                return n;
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.sy.tsv;
+
+/**
+ * genomad provirus.tsv 各列的列号（按表头列名解析，缺少列名时按 genomad 默认列顺序）
+ * 列：seq_name, source_seq, start, end, length, n_genes, v_vs_c_score, in_seq_edge, integrases
+ */
+public class ProvirusColumns {
+
+    public final int seqName;
+    public final int sourceSeq;
+    public final int start;
+    public final int end;
+    public final int length;
+    public final int nGenes;
+    public final int vVsCScore;
+    public final int inSeqEdge;
+    public final int integrases;
+
+    private ProvirusColumns(TsvHeader header) {
+        seqName = header.column("seq_name", 0);
+        sourceSeq = header.column("source_seq", 1);
+        start = header.column("start", 2);
+        end = header.column("end", 3);
+        length = header.column("length", 4);
+        nGenes = header.column("n_genes", 5);
+        vVsCScore = header.column("v_vs_c_score", 6);
+        inSeqEdge = header.column("in_seq_edge", 7);
+        integrases = header.column("integrases", 8);
+    }
+
+    public static ProvirusColumns of(TsvHeader header) {
+        return new ProvirusColumns(header);
+    }
+}
@@ -0,0 +1,58 @@
+package com.sy.tsv;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * TSV 表头：按列名解析列号
+ * 列名不存在时使用调用方给出的默认列号（兼容没有表头或列名不同的旧输出）。
+ */
+public class TsvHeader {
+
+    /**
+     * 列不存在
+     */
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    private final Map<String, Integer> columns;
+
+    TsvHeader() {
+        columns = new HashMap<>();
+    }
+
+    TsvHeader(TsvRow row) {
+        columns = new HashMap<>();
+        for (int c = 0; c < row.size(); c++) {
+            columns.putIfAbsent(row.getString(c).trim(), c);
+        }
+    }
+
+    /**
+     * 读取文件的表头（跳过空行和注释），文件为空时返回空表头
+     */
+    public static TsvHeader read(Path file) throws IOException {
+        try (TsvReader reader = TsvReader.open(file, 8 * 1024)) {
+            return reader.header();
+        }
+    }
+
+    public boolean contains(String name) {
+        return columns.containsKey(name);
+    }
+
+    /**
+     * 列号，列名不存在时返回 fallback
+     */
+    public int column(String name, int fallback) {
+        return columns.getOrDefault(name, fallback);
+    }
+
+    /**
+     * 列号，列名不存在时返回 {@link #MISSING}
+     */
+    public int column(String name) {
+        return column(name, MISSING);
+    }
+}
@@ -0,0 +1,186 @@
+package com.sy.tsv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * TSV 读取器（genomad、ARG 输出共用）
+ * 直接在复用的字节缓冲区中定位行和字段，不为每行创建 String 和 split 数组。
+ * 空行和 # 开头的注释行被跳过，第一个数据行作为表头。兼容 \n 和 \r\n。
+ * <pre>
+ * try (TsvReader reader = TsvReader.open(file)) {
+ *     int start = reader.header().column("start", 1);
+ *     while (reader.next()) {
+ *         int value = reader.row().getInt(start);
+ *     }
+ * }
+ * </pre>
+ */
+public class TsvReader implements Closeable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private byte[] buf;
+    private int pos = 0;
+    private int limit = 0;
+    // buf[0] 在输入流中的字节偏移
+    private long offset = 0;
+    private boolean eof = false;
+    private long lineNumber = 0;
+
+    private final TsvRow row = new TsvRow();
+    private final TsvHeader header;
+    private final boolean hasHeader;
+
+    private TsvReader(InputStream in, int bufferSize) throws IOException {
+        this.in = in;
+        this.buf = new byte[bufferSize];
+        this.hasHeader = nextLine();
+        this.header = hasHeader ? new TsvHeader(row) : new TsvHeader();
+    }
+
+    private TsvReader(InputStream in, int bufferSize, TsvHeader header) {
+        this.in = in;
+        this.buf = new byte[bufferSize];
+        this.hasHeader = true;
+        this.header = header;
+    }
+
+    public static TsvReader open(Path file) throws IOException {
+        return open(file, DEFAULT_BUFFER_SIZE);
+    }
+
+    public static TsvReader open(Path file, int bufferSize) throws IOException {
+        return of(Files.newInputStream(file), bufferSize);
+    }
+
+    public static TsvReader of(InputStream in, int bufferSize) throws IOException {
+        try {
+            return new TsvReader(in, bufferSize);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 读取不含表头的数据段（文件中间的一段字节区间），所有行都作为数据行
+     * @param header 文件的表头
+     */
+    static TsvReader body(InputStream in, TsvHeader header, int bufferSize) {
+        return new TsvReader(in, bufferSize, header);
+    }
+
+    /**
+     * 表头，文件没有任何数据行时为空表头（所有列都按默认列号解析）
+     */
+    public TsvHeader header() {
+        return header;
+    }
+
+    /**
+     * 读取下一个数据行
+     * @return 没有更多数据行时返回 false
+     */
+    public boolean next() throws IOException {
+        return hasHeader && nextLine();
+    }
+
+    /**
+     * 当前行（下一次调用 next 后内容失效）
+     */
+    public TsvRow row() {
+        return row;
+    }
+
+    /**
+     * 当前行在文件中的行号（从 1 开始，含跳过的行；分段读取时为段内行号）
+     */
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * 已处理的字节数（当前行之后下一行的起始偏移）
+     */
+    long position() {
+        return offset + pos;
+    }
+
+    private boolean nextLine() throws IOException {
+        while (true) {
+            int newline = -1;
+            int scan = pos;
+            while (true) {
+                for (int i = scan; i < limit; i++) {
+                    if (buf[i] == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline >= 0 || eof) {
+                    break;
+                }
+                scan = limit - pos;
+                fill();
+                scan += pos;
+            }
+            if (newline < 0 && pos == limit) {
+                return false;
+            }
+
+            int lineStart = pos;
+            int lineEnd = newline >= 0 ? newline : limit;
+            pos = newline >= 0 ? newline + 1 : limit;
+            lineNumber++;
+            if (lineEnd > lineStart && buf[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            if (isBlank(lineStart, lineEnd) || buf[lineStart] == '#') {
+                continue;
+            }
+            row.split(buf, lineStart, lineEnd);
+            return true;
+        }
+    }
+
+    /**
+     * 把未处理的字节移到缓冲区开头并继续读取，一行放不下时扩容
+     */
+    private void fill() throws IOException {
+        int remaining = limit - pos;
+        offset += pos;
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, remaining);
+        } else if (remaining == buf.length) {
+            buf = Arrays.copyOf(buf, buf.length << 1);
+        }
+        pos = 0;
+        limit = remaining;
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n < 0) {
+            eof = true;
+        } else {
+            limit += n;
+        }
+    }
+
+    private boolean isBlank(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if ((buf[i] & 0xff) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,287 @@
+package com.sy.tsv;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * TSV 的一行
+ * 只记录每个字段在字节缓冲区中的起止位置，数值字段直接从字节解析，
+ * 只有取文本时才构造 String。由 {@link TsvReader} 逐行复用，不要在读取下一行之后继续持有。
+ * <p>
+ * 列号从 0 开始；负数表示从行尾倒数（-1 为最后一列）；{@link TsvHeader#MISSING} 表示该列不存在。
+ */
+public class TsvRow {
+
+    // 纯小数的快速解析范围：有效数字不超过 15 位时尾数可以精确表示，除以 10 的幂结果与 Double.parseDouble 一致
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POW10 = new double[23];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private byte[] buf;
+    private int[] starts = new int[32];
+    private int[] ends = new int[32];
+    private int count;
+
+    TsvRow() {
+    }
+
+    /**
+     * 把单独的一行文本（不含换行符）拆成字段，用于按偏移索引读到的行
+     */
+    public static TsvRow of(String line) {
+        TsvRow row = new TsvRow();
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        row.split(bytes, 0, length);
+        return row;
+    }
+
+    /**
+     * 按制表符拆分 buf[from, to)
+     */
+    void split(byte[] buf, int from, int to) {
+        this.buf = buf;
+        count = 0;
+        int fieldStart = from;
+        for (int i = from; i < to; i++) {
+            if (buf[i] == '\t') {
+                add(fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        add(fieldStart, to);
+    }
+
+    private void add(int start, int end) {
+        if (count == starts.length) {
+            int capacity = count << 1;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+
+    /**
+     * 字段数
+     */
+    public int size() {
+        return count;
+    }
+
+    private int resolve(int col) {
+        return col < 0 ? count + col : col;
+    }
+
+    /**
+     * 该列在本行是否存在
+     */
+    public boolean has(int col) {
+        int c = resolve(col);
+        return c >= 0 && c < count;
+    }
+
+    /**
+     * 字段为空或该列不存在
+     */
+    public boolean isEmpty(int col) {
+        int c = resolve(col);
+        return c < 0 || c >= count || starts[c] == ends[c];
+    }
+
+    /**
+     * 字段文本，该列不存在时返回空串
+     */
+    public String getString(int col) {
+        int c = resolve(col);
+        if (c < 0 || c >= count) {
+            return "";
+        }
+        return new String(buf, starts[c], ends[c] - starts[c], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 整数字段，格式与 Integer.parseInt 一致，不合法或该列不存在时抛出 NumberFormatException
+     */
+    public int getInt(int col) {
+        int c = resolve(col);
+        if (c < 0 || c >= count) {
+            throw new NumberFormatException("缺少第 " + col + " 列");
+        }
+        int i = starts[c];
+        int end = ends[c];
+        boolean negative = false;
+        if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+            negative = buf[i] == '-';
+            i++;
+        }
+        if (i == end) {
+            throw invalid(c);
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalid(c);
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw invalid(c);
+            }
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw invalid(c);
+        }
+        return (int) value;
+    }
+
+    /**
+     * 浮点字段，格式与 Double.parseDouble 一致，不合法或该列不存在时抛出 NumberFormatException
+     */
+    public double getDouble(int col) {
+        int c = resolve(col);
+        if (c < 0 || c >= count) {
+            throw new NumberFormatException("缺少第 " + col + " 列");
+        }
+        double value = parseSimpleDecimal(starts[c], ends[c]);
+        if (!Double.isNaN(value)) {
+            return value;
+        }
+        // 指数形式、NaN/Infinity、超长数字等交给 JDK 解析
+        return Double.parseDouble(getString(c));
+    }
+
+    /**
+     * 浮点字段，为空、不合法或该列不存在时返回默认值
+     */
+    public double getDouble(int col, double defaultValue) {
+        if (isEmpty(col)) {
+            return defaultValue;
+        }
+        try {
+            return getDouble(col);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 快速解析形如 -12.345 的小数，超出快速解析范围时返回 NaN
+     */
+    private double parseSimpleDecimal(int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buf[i] == '-' || buf[i] == '+')) {
+            negative = buf[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fraction = -1;
+        for (; i < to; i++) {
+            byte b = buf[i];
+            if (b == '.' && fraction < 0) {
+                fraction = 0;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9 || ++digits > MAX_FAST_DIGITS) {
+                return Double.NaN;
+            }
+            mantissa = mantissa * 10 + digit;
+            if (fraction >= 0) {
+                fraction++;
+            }
+        }
+        if (digits == 0 || fraction >= POW10.length) {
+            return Double.NaN;
+        }
+        double value = fraction > 0 ? mantissa / POW10[fraction] : mantissa;
+        return negative ? -value : value;
+    }
+
+    /**
+     * 字段是否等于给定的 ASCII 文本（忽略大小写）
+     */
+    public boolean equalsIgnoreCase(int col, String ascii) {
+        int c = resolve(col);
+        if (c < 0 || c >= count || ends[c] - starts[c] != ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length(); i++) {
+            int a = buf[starts[c] + i];
+            int b = ascii.charAt(i);
+            if (a != b && Character.toLowerCase(a) != Character.toLowerCase(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 字段是否等于给定的 ASCII 文本
+     */
+    public boolean equals(int col, String ascii) {
+        int c = resolve(col);
+        if (c < 0 || c >= count || ends[c] - starts[c] != ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length(); i++) {
+            if (buf[starts[c] + i] != ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 字段是否为缺失值 NA
+     */
+    public boolean isNA(int col) {
+        return equals(col, "NA");
+    }
+
+    /**
+     * 字段是否全部由数字 0-9 组成（非空）
+     */
+    public boolean isDigits(int col) {
+        int c = resolve(col);
+        if (c < 0 || c >= count || starts[c] == ends[c]) {
+            return false;
+        }
+        for (int i = starts[c]; i < ends[c]; i++) {
+            if (buf[i] < '0' || buf[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 全部字段文本
+     */
+    public String[] toArray() {
+        String[] values = new String[count];
+        for (int c = 0; c < count; c++) {
+            values[c] = getString(c);
+        }
+        return values;
+    }
+
+    private NumberFormatException invalid(int c) {
+        return new NumberFormatException("For input string: \"" + getString(c) + "\"");
+    }
+}
@@ -0,0 +1,38 @@
+package com.sy.util;
+
+import java.io.File;
+import java.nio.file.Path;
+
+/**
+ * geNomad 输出目录布局
+ * 任务输出目录下为 {基名}_find_proviruses、{基名}_annotate 等子目录，基名取自输入文件名（见 DockerServiceImpl）
+ */
+public final class GenomadOutputs {
+
+    private static final String FIND_PROVIRUSES = "_find_proviruses";
+
+    private GenomadOutputs() {
+    }
+
+    /**
+     * 从任务输出目录中的 find_proviruses 子目录取基名
+     * @param taskDir 任务输出目录
+     * @return 基名，目录不存在或没有 find_proviruses 子目录时返回 null
+     */
+    public static String baseName(Path taskDir) {
+        File[] dirs = taskDir.toFile().listFiles((d, name) ->
+                name.endsWith(FIND_PROVIRUSES) && new File(d, name).isDirectory());
+        if (dirs == null || dirs.length == 0) {
+            return null;
+        }
+        String name = dirs[0].getName();
+        return name.substring(0, name.length() - FIND_PROVIRUSES.length());
+    }
+
+    /**
+     * find_proviruses 子目录（provirus.tsv、provirus_genes.tsv、provirus.fna 所在目录）
+     */
+    public static Path findProvirusesDir(Path taskDir, String baseName) {
+        return taskDir.resolve(baseName + FIND_PROVIRUSES);
+    }
+}
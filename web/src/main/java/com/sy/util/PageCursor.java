@@ -0,0 +1,48 @@
+package com.sy.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 键集分页游标
+ * 以 (排序时间, 主键) 作为续传位置，编码为 URL 安全的 Base64 字符串返回给前端
+ */
+@Data
+@AllArgsConstructor
+public class PageCursor {
+
+    private LocalDateTime time;
+
+    private Long id;
+
+    /**
+     * 编码游标
+     */
+    public String encode() {
+        String raw = (time != null ? time.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，为空时返回 null（表示从第一页开始）
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            String timePart = raw.substring(0, sep);
+            LocalDateTime time = timePart.isEmpty() ? null : LocalDateTime.parse(timePart);
+            return new PageCursor(time, Long.parseLong(raw.substring(sep + 1)));
+        } catch (Exception e) {
+            throw new RuntimeException("无效的分页游标");
+        }
+    }
+}
@@ -0,0 +1,6 @@
+-- 任务列表键集分页索引
+-- /api/analysis/list 按 (created_at, task_id) 倒序翻页，状态过滤时走第二个索引
+
+ALTER TABLE analysis_tasks
+    ADD INDEX idx_tasks_user_created (user_id, created_at, task_id),
+    ADD INDEX idx_tasks_user_status_created (user_id, status, created_at, task_id);
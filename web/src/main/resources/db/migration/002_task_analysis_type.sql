@@ -0,0 +1,11 @@
+-- 分析类型持久化为枚举列
+-- 新任务在创建时写入；历史任务先按任务名/参数回填，其余由 AnalysisTypeBackfillRunner 在启动时一次性补齐
+
+ALTER TABLE analysis_tasks
+    ADD COLUMN analysis_type ENUM('genomad', 'arg') NULL AFTER task_name,
+    ADD INDEX idx_tasks_user_type_created (user_id, analysis_type, created_at, task_id);
+
+UPDATE analysis_tasks
+SET analysis_type = 'arg'
+WHERE analysis_type IS NULL
+  AND (task_name LIKE '抗性基因检测%' OR parameters LIKE '%"analysisType":"arg"%');
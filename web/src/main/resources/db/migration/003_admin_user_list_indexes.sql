@@ -0,0 +1,9 @@
+-- 管理员用户列表索引
+-- /api/admin/users 按 (created_at, user_id) 倒序键集翻页；
+-- 用户文件数按 user_id 分组聚合（仅统计 UPLOADED），任务数聚合复用 idx_tasks_user_created
+
+ALTER TABLE users
+    ADD INDEX idx_users_created (created_at, user_id);
+
+ALTER TABLE genome_files
+    ADD INDEX idx_files_user_status (user_id, status);
@@ -0,0 +1,5 @@
+-- 管理员文件列表键集分页索引
+-- /api/admin/files 按 (upload_time, file_id) 倒序翻页
+
+ALTER TABLE genome_files
+    ADD INDEX idx_files_upload (upload_time, file_id);
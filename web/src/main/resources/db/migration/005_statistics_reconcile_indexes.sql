@@ -0,0 +1,8 @@
+-- 统计对账索引
+-- StatisticsServiceImpl 定期按天聚合最近的上传、任务和登录，只扫描时间范围内的数据
+
+ALTER TABLE login_logs
+    ADD INDEX idx_login_logs_status_time (status, login_time, user_id);
+
+ALTER TABLE analysis_tasks
+    ADD INDEX idx_tasks_created (created_at);
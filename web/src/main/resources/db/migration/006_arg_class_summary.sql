@@ -0,0 +1,13 @@
+-- ARG 分类汇总
+-- 任务完成时从 ARG 预测列式表按分类汇总一次，样本 x 分类矩阵直接读取本表，不再加载逐条预测
+-- 每行为一个任务中某个分类的阳性预测数和概率和；arg_class = '*' 为该任务全部预测（含阴性）的合计，
+-- 用于区分“已汇总但没有阳性”和“尚未汇总”
+
+CREATE TABLE IF NOT EXISTS arg_class_summary (
+    task_id    BIGINT       NOT NULL,
+    arg_class  VARCHAR(128) NOT NULL,
+    hit_count  INT          NOT NULL,
+    prob_sum   DOUBLE       NOT NULL DEFAULT 0,
+    prob_count INT          NOT NULL DEFAULT 0,
+    PRIMARY KEY (task_id, arg_class)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
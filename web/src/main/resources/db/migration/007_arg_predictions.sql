@@ -0,0 +1,21 @@
+-- ARG 预测结果
+-- 任务完成后由后台写入线程批量写入（JDBC 批处理 + rewriteBatchedStatements，每 1000 行一个事务）
+-- 主键 (task_id, row_index)：同一任务的预测在聚簇索引中连续存放，按任务分页读取和删除都是范围扫描
+-- idx_arg_class：跨任务按分类查询阳性预测
+-- idx_task_prob：任务内按概率取前 N 条
+
+CREATE TABLE IF NOT EXISTS arg_predictions (
+    task_id    BIGINT       NOT NULL,
+    row_index  INT          NOT NULL COMMENT '在 all_predictions.tsv 中的行号（从 1 开始）',
+    seq_id     VARCHAR(255) NOT NULL,
+    is_arg     TINYINT(1)   NOT NULL,
+    pred_prob  DOUBLE       NULL,
+    arg_class  VARCHAR(128) NULL,
+    class_prob DOUBLE       NULL,
+    prob       DOUBLE       NULL,
+    PRIMARY KEY (task_id, row_index),
+    KEY idx_arg_class (arg_class, is_arg, task_id),
+    KEY idx_task_prob (task_id, is_arg, prob),
+    CONSTRAINT fk_arg_predictions_task FOREIGN KEY (task_id)
+        REFERENCES analysis_tasks (task_id) ON DELETE CASCADE
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,6 @@
+-- 删除 arg_predictions 上没有查询使用的二级索引
+-- ARG 结果从 all_predictions.tsv 读取，表只是尽力写入的副本；少维护两棵索引可减少大任务的写入量
+
+ALTER TABLE arg_predictions
+    DROP INDEX idx_arg_class,
+    DROP INDEX idx_task_prob;
@@ -0,0 +1,181 @@
+package com.sy.tsv;
+
+import com.sy.columnar.ArgTable;
+import com.sy.columnar.GeneTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分段解析的结果必须与顺序解析逐行一致
+ */
+class ParallelTsvParserTest {
+
+    private static final int[] CHUNKS = {2, 3, 4, 7, 16, 64};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void crlfLinesAreSplitOnLineBoundaries() throws IOException {
+        StringBuilder text = new StringBuilder("id\tvalue\r\n");
+        for (int i = 0; i < 200; i++) {
+            text.append("seq_").append(i).append('\t').append(i * 0.5).append("\r\n");
+        }
+        Path file = write("crlf.tsv", text.toString());
+
+        List<List<String>> expected = rows(file, 1);
+        assertEquals(200, expected.size());
+        for (List<String> row : expected) {
+            assertFalse(row.get(1).endsWith("\r"), "行尾的 \\r 应被去掉");
+        }
+        assertChunkedEquals(file, expected);
+    }
+
+    @Test
+    void lineLongerThanChunk() throws IOException {
+        char[] longValue = new char[20_000];
+        Arrays.fill(longValue, 'A');
+        Path file = write("long.tsv", "id\tvalue\nfirst\t1\nlong\t" + new String(longValue) + "\nlast\t2\n");
+
+        List<List<String>> expected = rows(file, 1);
+        assertEquals(3, expected.size());
+        assertEquals(20_000, expected.get(1).get(1).length());
+        assertChunkedEquals(file, expected);
+    }
+
+    @Test
+    void emptyChunksAreSkipped() throws IOException {
+        Path file = write("short.tsv", "id\tvalue\na\t1\nb\t2\n");
+        List<List<List<String>>> chunks = ParallelTsvParser.parse(file, 64, ParallelTsvParserTest::readAll);
+        assertTrue(chunks.size() <= 2, "只有两行时最多两个非空分段");
+        assertChunkedEquals(file, rows(file, 1));
+    }
+
+    @Test
+    void headerOnlyReturnsOneEmptyChunk() throws IOException {
+        Path file = write("header.tsv", "id\tvalue\n");
+        for (int chunks : CHUNKS) {
+            List<List<List<String>>> result = ParallelTsvParser.parse(file, chunks, ParallelTsvParserTest::readAll);
+            assertEquals(1, result.size(), "chunks=" + chunks);
+            assertTrue(result.get(0).isEmpty(), "chunks=" + chunks);
+        }
+    }
+
+    @Test
+    void lastLineWithoutNewline() throws IOException {
+        StringBuilder text = new StringBuilder("id\tvalue\n");
+        for (int i = 0; i < 100; i++) {
+            text.append("seq_").append(i).append('\t').append(i).append('\n');
+        }
+        text.append("tail\t100");
+        Path file = write("tail.tsv", text.toString());
+
+        List<List<String>> expected = rows(file, 1);
+        assertEquals(101, expected.size());
+        assertEquals(List.of("tail", "100"), expected.get(100));
+        assertChunkedEquals(file, expected);
+    }
+
+    @Test
+    void argTableChunkedEqualsSequential() throws IOException {
+        Path file = dir.resolve("all_predictions.tsv");
+        Random random = new Random(7);
+        String[] classes = {"beta-lactam", "Tetracycline", "tetracycline", "glycopeptide", "", "NA"};
+        StringBuilder text = new StringBuilder("id\tis_arg\tpred_prob\targ_class\tclass_prob\tprob\n");
+        for (int i = 0; i < 5000; i++) {
+            double pred = random.nextDouble();
+            text.append("seq_").append(i).append('\t').append(pred > 0.5 ? "True" : "False").append('\t')
+                    .append(pred).append('\t').append(classes[random.nextInt(classes.length)]).append('\t')
+                    .append(random.nextInt(10) == 0 ? "NA" : String.valueOf(random.nextDouble())).append('\t')
+                    .append(random.nextDouble()).append('\n');
+        }
+        Files.writeString(file, text);
+
+        ArgTable sequential = ArgTable.load(file, 1);
+        assertEquals(5000, sequential.size());
+        for (int chunks : CHUNKS) {
+            ArgTable chunked = ArgTable.load(file, chunks);
+            assertEquals(sequential.rows(), chunked.rows(), "chunks=" + chunks);
+            assertEquals(sequential.summary(), chunked.summary(), "chunks=" + chunks);
+            for (int i = 0; i < sequential.size(); i++) {
+                assertEquals(sequential.argClass(i), chunked.argClass(i), "chunks=" + chunks + ", row=" + i);
+            }
+        }
+    }
+
+    @Test
+    void geneTableChunkedEqualsSequential() throws IOException {
+        Path file = dir.resolve("provirus_genes.tsv");
+        Random random = new Random(11);
+        StringBuilder text = new StringBuilder("gene\tstart\tend\tlength\tstrand\tgc_content\tgenetic_code\trbs_motif\t"
+                + "marker\tevalue\tbitscore\tuscg\tplasmid_hallmark\tvirus_hallmark\ttaxid\ttaxname\t"
+                + "annotation_conjscan\tannotation_amr\tannotation_accessions\tannotation_description\r\n");
+        for (int i = 0; i < 3000; i++) {
+            int start = random.nextInt(5_000_000);
+            int length = 300 + random.nextInt(2000);
+            text.append("contig_").append(i / 400).append("|provirus_").append(i / 40).append('_')
+                    .append(i / 40 + 30000).append('_').append(i % 40 + 1).append('\t')
+                    .append(start).append('\t').append(start + length - 1).append('\t').append(length).append('\t')
+                    .append(random.nextBoolean() ? 1 : -1).append('\t')
+                    .append(String.format(Locale.ROOT, "%.3f", random.nextDouble())).append("\t11\tAGGAGG\t")
+                    .append(random.nextInt(4) == 0 ? "VV0012" : "NA").append('\t')
+                    .append(String.format(Locale.ROOT, "%.3e", random.nextDouble())).append('\t')
+                    .append(String.format(Locale.ROOT, "%.1f", random.nextDouble() * 300)).append("\t0\t0\t")
+                    .append(random.nextInt(2)).append('\t').append(10239 + random.nextInt(5))
+                    .append("\tViruses;Duplodnaviria;Heunggongvirae;Uroviricota;Caudoviricetes\tNA\t")
+                    .append(random.nextInt(8) == 0 ? "blaTEM-1;tetM" : "NA").append("\tPF0").append(random.nextInt(1000))
+                    .append("\tPhage terminase large subunit\r\n");
+        }
+        Files.writeString(file, text);
+
+        GeneTable sequential = GeneTable.load(file, 1);
+        assertEquals(3000, sequential.size());
+        for (int chunks : CHUNKS) {
+            GeneTable chunked = GeneTable.load(file, chunks);
+            assertEquals(sequential.size(), chunked.size(), "chunks=" + chunks);
+            for (int i = 0; i < sequential.size(); i++) {
+                assertEquals(sequential.row(i), chunked.row(i), "chunks=" + chunks + ", row=" + i);
+            }
+            assertEquals(sequential.countBySeqName(), chunked.countBySeqName(), "chunks=" + chunks);
+        }
+    }
+
+    private Path write(String name, String text) throws IOException {
+        Path file = dir.resolve(name);
+        Files.writeString(file, text);
+        return file;
+    }
+
+    private static void assertChunkedEquals(Path file, List<List<String>> expected) throws IOException {
+        for (int chunks : CHUNKS) {
+            assertEquals(expected, rows(file, chunks), "chunks=" + chunks);
+        }
+    }
+
+    private static List<List<String>> rows(Path file, int chunks) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        for (List<List<String>> chunk : ParallelTsvParser.parse(file, chunks, ParallelTsvParserTest::readAll)) {
+            rows.addAll(chunk);
+        }
+        return rows;
+    }
+
+    private static List<List<String>> readAll(TsvReader reader) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        while (reader.next()) {
+            rows.add(List.of(reader.row().toArray()));
+        }
+        return rows;
+    }
+}
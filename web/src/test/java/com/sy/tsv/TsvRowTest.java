@@ -0,0 +1,70 @@
+package com.sy.tsv;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TsvRow 的数值快速解析必须与 JDK 结果逐位一致
+ */
+class TsvRowTest {
+
+    @Test
+    void getDoubleMatchesParseDouble() {
+        String[] values = {
+                "0", "-0", "+0", "0.0", "-0.0", "1", "-1", "+1.5", "1.", ".5", "-.5", "0.1", "0.2", "0.3",
+                "0.30000000000000004", "3.141592653589793", "123456789012345", "1234567890123456",
+                "0.000000000000001", "0.0000000000000000000001", "0.00000000000000000000001",
+                "99999999999999.9", "9007199254740993", "1e-5", "1E10", "-2.5e+3", "NaN", "-Infinity",
+                "Infinity", " 1.5", "1.5 ", "1.5d", "0x1p3", "", ".", "-", "+", "1.2.3", "1,5", "--1", "1-", "NA", "abc"
+        };
+        for (String value : values) {
+            assertSameAsJdk(value);
+        }
+    }
+
+    @Test
+    void randomDecimalsMatchParseDouble() {
+        Random random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            int digits = 1 + random.nextInt(17);
+            StringBuilder value = new StringBuilder();
+            if (random.nextInt(4) == 0) {
+                value.append('-');
+            }
+            int dot = random.nextInt(digits + 1);
+            for (int d = 0; d < digits; d++) {
+                if (d == dot) {
+                    value.append('.');
+                }
+                value.append((char) ('0' + random.nextInt(10)));
+            }
+            assertSameAsJdk(value.toString());
+        }
+    }
+
+    @Test
+    void getDoubleWithDefault() {
+        TsvRow row = TsvRow.of("a\t\tNA\t2.5");
+        assertEquals(-1.0, row.getDouble(1, -1.0));
+        assertEquals(-1.0, row.getDouble(2, -1.0));
+        assertEquals(2.5, row.getDouble(3, -1.0));
+        assertEquals(2.5, row.getDouble(-1, -1.0));
+        assertEquals(-1.0, row.getDouble(9, -1.0));
+        assertThrows(NumberFormatException.class, () -> row.getDouble(9));
+    }
+
+    private static void assertSameAsJdk(String value) {
+        TsvRow row = TsvRow.of("x\t" + value);
+        double expected;
+        try {
+            expected = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            assertThrows(NumberFormatException.class, () -> row.getDouble(1), value);
+            return;
+        }
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(row.getDouble(1)), value);
+    }
+}